@@ -0,0 +1,264 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link BinaryOperationProtocol}: the text requests, valid and invalid, the responses' text, the batch
+ * requests, the expression requests, cached and compiled, and the binary requests.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryOperationProtocolBenchmark {
+
+    private final BinaryOperationProtocol protocol = new BinaryOperationProtocol();
+    private final ByteBuffer binaryRequest = ByteBuffer.allocate(BinaryOperationProtocol.BINARY_REQUEST_LENGTH);
+    private final ByteBuffer binaryResponse = ByteBuffer.allocate(BinaryOperationProtocol.BINARY_RESPONSE_LENGTH);
+    private final ByteBuffer output = ByteBuffer.allocate(1024);
+
+    /**
+     * Writes the binary request.
+     */
+    @Setup
+    public void setUp() {
+        binaryRequest.put((byte) '/').putDouble(1).putDouble(3).flip();
+    }
+
+    /**
+     * Processes a valid text request.
+     *
+     * @param input The request.
+     * @return The response.
+     */
+    @Benchmark
+    public BinaryOperationProtocol.Response processValid(final ValidInput input) {
+        return protocol.process(input.input);
+    }
+
+    /**
+     * Processes an invalid text request.
+     *
+     * @param input The request.
+     * @return The response.
+     */
+    @Benchmark
+    public BinaryOperationProtocol.Response processInvalid(final InvalidInput input) {
+        return protocol.process(input.input);
+    }
+
+    /**
+     * Writes the text of an OK response.
+     *
+     * @param input The request of the response.
+     * @return The text.
+     */
+    @Benchmark
+    public String okResponseToString(final ValidInput input) {
+        return input.response.toString();
+    }
+
+    /**
+     * Encodes an OK response into a reused buffer.
+     *
+     * @param input The request of the response.
+     * @return The buffer.
+     */
+    @Benchmark
+    public ByteBuffer okResponseEncodeTo(final ValidInput input) {
+        output.clear();
+        return input.response.encodeTo(output);
+    }
+
+    /**
+     * Writes the text of an ERR response.
+     *
+     * @param input The request of the response.
+     * @return The text.
+     */
+    @Benchmark
+    public String errorResponseToString(final InvalidInput input) {
+        return input.response.toString();
+    }
+
+    /**
+     * Processes a batch request.
+     *
+     * @param input The request.
+     * @return The response.
+     */
+    @Benchmark
+    public BinaryOperationProtocol.Response processBatch(final BatchInput input) {
+        return protocol.process(input.input);
+    }
+
+    /**
+     * Processes an expression request compiled before.
+     *
+     * @param input The request.
+     * @return The response.
+     */
+    @Benchmark
+    public BinaryOperationProtocol.Response processCachedExpression(final ExpressionInput input) {
+        return protocol.process(input.input);
+    }
+
+    /**
+     * Compiles an expression, as a request not cached does.
+     *
+     * @param input The request.
+     * @return The compiled expression.
+     */
+    @Benchmark
+    public Expression compileExpression(final ExpressionInput input) {
+        return Expression.compile(input.input, input.start);
+    }
+
+    /**
+     * Processes a binary request.
+     *
+     * @return The response buffer.
+     */
+    @Benchmark
+    public ByteBuffer processBinary() {
+        binaryRequest.rewind();
+        binaryResponse.clear();
+        protocol.processBinary(binaryRequest, binaryResponse);
+        return binaryResponse;
+    }
+
+    /**
+     * Valid text request.
+     */
+    @State(Scope.Thread)
+    public static class ValidInput {
+
+        @Param({"1 + 2", "3.5 * -2.25", "1234567 / 7", "0.1 - 0.2", "123456789012 * 1000"})
+        private String input;
+
+        private BinaryOperationProtocol.Response response;
+
+        /**
+         * Processes the request once for its response.
+         */
+        @Setup
+        public void setUp() {
+            response = new BinaryOperationProtocol().process(input);
+        }
+    }
+
+    /**
+     * Invalid text request.
+     */
+    @State(Scope.Thread)
+    public static class InvalidInput {
+
+        @Param({"a + 2", "1 ? 2", "1 + 2 + 3"})
+        private String input;
+
+        private BinaryOperationProtocol.Response response;
+
+        /**
+         * Processes the request once for its response.
+         */
+        @Setup
+        public void setUp() {
+            response = new BinaryOperationProtocol().process(input);
+        }
+    }
+
+    /**
+     * Batch request of divisions.
+     */
+    @State(Scope.Thread)
+    public static class BatchInput {
+
+        @Param({"16", "1024", "65536"})
+        private int length;
+
+        private String input;
+
+        /**
+         * Writes the request.
+         */
+        @Setup
+        public void setUp() {
+            final Random random = new Random(0);
+            final StringBuilder first = new StringBuilder();
+            final StringBuilder second = new StringBuilder();
+            for (int i = 0; i < length; i++) {
+                first.append(i > 0 ? "," : "").append(random.nextInt(100_000) / 100f);
+                second.append(i > 0 ? "," : "").append(random.nextInt(1000) + 1);
+            }
+            input = new BinaryOperationProtocol().getBatchCommand() + " / " + first + " " + second;
+        }
+    }
+
+    /**
+     * Expression request.
+     */
+    @State(Scope.Thread)
+    public static class ExpressionInput {
+
+        @Param({"1 + 2", "(1.5 + 2) * 3 - 4 / 8", "-(1 + 2 * (3 - 4 * (5 + 6))) / (7 - 8 * 9) + 10 * 11"})
+        private String expression;
+
+        private String input;
+        private int start;
+
+        /**
+         * Writes the request.
+         */
+        @Setup
+        public void setUp() {
+            final String command = new BinaryOperationProtocol().getExpressionCommand();
+            input = command + " " + expression;
+            start = command.length() + 1;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the operations: {@link ArithmeticOperator#valueOfSymbol(char)}, {@link BinaryOperation#apply()} and
+ * {@link NumberUtils#isInteger(Number)}.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OperationBenchmark {
+
+    /**
+     * Looks up the operator of the symbol.
+     *
+     * @param symbol The symbol.
+     * @return The operator.
+     */
+    @Benchmark
+    public ArithmeticOperator valueOfSymbol(final SymbolInput symbol) {
+        return ArithmeticOperator.valueOfSymbol(symbol.symbol);
+    }
+
+    /**
+     * Applies the operation.
+     *
+     * @param operation The operation.
+     * @return The result.
+     */
+    @Benchmark
+    public double apply(final OperationInput operation) {
+        return operation.operation.apply();
+    }
+
+    /**
+     * Checks if the number is an integer.
+     *
+     * @param number The number.
+     * @return {@literal true} if it's an integer.
+     */
+    @Benchmark
+    public boolean isInteger(final NumberInput number) {
+        return NumberUtils.isInteger(number.number);
+    }
+
+    /**
+     * Symbol of an operator.
+     */
+    @State(Scope.Thread)
+    public static class SymbolInput {
+
+        @Param({"+", "-", "*", "/"})
+        private char symbol;
+    }
+
+    /**
+     * A number, integer or not.
+     */
+    @State(Scope.Thread)
+    public static class NumberInput {
+
+        @Param({"3", "0.1", "16000000000"})
+        private double number;
+    }
+
+    /**
+     * Operation of the symbol with the number as first operand.
+     */
+    @State(Scope.Thread)
+    public static class OperationInput {
+
+        private BinaryOperation operation;
+
+        /**
+         * Creates the operation.
+         *
+         * @param symbol The symbol.
+         * @param number The number.
+         */
+        @Setup
+        public void setUp(final SymbolInput symbol, final NumberInput number) {
+            operation = new BinaryOperation(number.number, ArithmeticOperator.valueOfSymbol(symbol.symbol), 7);
+        }
+    }
+}
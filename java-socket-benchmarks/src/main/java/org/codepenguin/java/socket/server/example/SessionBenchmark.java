@@ -0,0 +1,158 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Benchmark of a full {@link SocketServerThread} session over the loopback interface: every operation sends a request
+ * and waits for its response, so the result is the round trip time. The session events aren't logged, so the result
+ * doesn't depend on the log handlers.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionBenchmark {
+
+    private static final String REQUEST = "1234567 / 7";
+
+    private Logger sessionLogger;
+    private ServerSocket server;
+    private Thread acceptor;
+
+    /**
+     * Starts the server.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        sessionLogger = Logger.getLogger(SessionLogger.class.getName());
+        sessionLogger.setLevel(java.util.logging.Level.OFF);
+
+        server = new ServerSocket(0, 0, InetAddress.getLoopbackAddress());
+        acceptor = new Thread(() -> {
+            try {
+                while (!server.isClosed()) {
+                    new Thread(new SocketServerThread(server.accept())).start();
+                }
+            } catch (IOException e) {
+                // The server was closed.
+            }
+        });
+        acceptor.start();
+    }
+
+    /**
+     * Stops the server.
+     *
+     * @throws IOException          If an I/O error occurs.
+     * @throws InterruptedException If interrupted while waiting for the acceptor.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, InterruptedException {
+        server.close();
+        acceptor.join();
+    }
+
+    /**
+     * Sends a request and reads its response.
+     *
+     * @param client Client session of the benchmark thread.
+     * @return The response line.
+     * @throws IOException If an I/O error occurs.
+     */
+    @Benchmark
+    public String roundTrip(final Client client) throws IOException {
+        client.writer.println(REQUEST);
+        client.writer.flush();
+        return client.reader.readLine();
+    }
+
+    /**
+     * Client session of a benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Client {
+
+        private Socket socket;
+        private PrintWriter writer;
+        private BufferedReader reader;
+
+        /**
+         * Opens the session and reads the welcome message.
+         *
+         * @param benchmark The benchmark with the server.
+         * @throws IOException If an I/O error occurs.
+         */
+        @Setup(Level.Trial)
+        public void setUp(final SessionBenchmark benchmark) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), benchmark.server.getLocalPort());
+            socket.setTcpNoDelay(true);
+            writer = new PrintWriter(socket.getOutputStream());
+            reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+            reader.readLine();
+        }
+
+        /**
+         * Closes the session.
+         *
+         * @throws IOException If an I/O error occurs.
+         */
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.net.SocketFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Benchmark of the {@link NioSocketServer} sessions over the loopback interface, plain and over TLS: the time to open a
+ * session, connecting, completing the handshake and reading the welcome message, and the round trips per millisecond
+ * of an open session. The TLS sessions are opened with a full handshake every time, or resuming the TLS session of the
+ * previous connection as a client reconnecting does. The session events aren't logged, so the result doesn't depend
+ * on the log handlers.
+ * <p>
+ * The server's key and self-signed certificate are generated with the JDK's keytool at setup, so the benchmark jar
+ * ships no private key, and the client trusts that certificate only.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TlsBenchmark {
+
+    private static final String PLAIN = "plain";
+    private static final String FULL_HANDSHAKE = "full";
+    private static final String REQUEST = "1234567 / 7";
+    private static final String KEY_ALIAS = "server";
+    private static final String PASSWORD = "changeit";
+    private static final String[] KEY_TOOL_ARGUMENTS = {"-genkeypair", "-alias", KEY_ALIAS, "-keyalg", "EC",
+            "-groupname", "secp256r1", "-dname", "CN=localhost", "-ext", "SAN=dns:localhost,ip:127.0.0.1",
+            "-validity", "1", "-storetype", "PKCS12", "-storepass", PASSWORD, "-keypass", PASSWORD, "-keystore"};
+
+    @Param({PLAIN, FULL_HANDSHAKE, "resumed"})
+    private String transport;
+
+    private Logger sessionLogger;
+    private Path keyStoreDirectory;
+    private Path keyStore;
+    private NioSocketServer server;
+    private Thread serverThread;
+    private SocketFactory socketFactory;
+
+    /**
+     * Configures the TLS, unless plain, and starts the server.
+     *
+     * @throws IOException              If an I/O error occurs or the key store can't be generated.
+     * @throws GeneralSecurityException If the key store isn't valid.
+     * @throws InterruptedException     If interrupted while waiting for the keytool.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, GeneralSecurityException, InterruptedException {
+        sessionLogger = Logger.getLogger(SessionLogger.class.getName());
+        sessionLogger.setLevel(java.util.logging.Level.OFF);
+
+        if (PLAIN.equals(transport)) {
+            socketFactory = SocketFactory.getDefault();
+        } else {
+            keyStoreDirectory = Files.createTempDirectory("tls");
+            keyStore = keyStoreDirectory.resolve("server.p12");
+            generateKeyStore(keyStore);
+            ServerTls.configure(keyStore, PASSWORD.toCharArray(), ServerTls.DEFAULT_SESSION_CACHE_SIZE,
+                    ServerTls.DEFAULT_SESSION_TIMEOUT);
+
+            final KeyStore trusted = KeyStore.getInstance(KeyStore.getDefaultType());
+            trusted.load(null, null);
+            trusted.setCertificateEntry(KEY_ALIAS,
+                    KeyStore.getInstance(keyStore.toFile(), PASSWORD.toCharArray()).getCertificate(KEY_ALIAS));
+            final TrustManagerFactory trustManagers = TrustManagerFactory.getInstance(
+                    TrustManagerFactory.getDefaultAlgorithm());
+            trustManagers.init(trusted);
+            final SSLContext context = SSLContext.getInstance("TLS");
+            context.init(null, trustManagers.getTrustManagers(), null);
+            socketFactory = context.getSocketFactory();
+        }
+
+        server = new NioSocketServer(0);
+        serverThread = new Thread(() -> {
+            try {
+                server.run();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        serverThread.start();
+    }
+
+    /**
+     * Stops the server and disables the TLS.
+     *
+     * @throws IOException              If an I/O error occurs.
+     * @throws GeneralSecurityException Never, the TLS is disabled.
+     * @throws InterruptedException     If interrupted while waiting for the server.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, GeneralSecurityException, InterruptedException {
+        server.close();
+        serverThread.join();
+        ServerTls.configure(null, null, 0, 0);
+        if (keyStoreDirectory != null) {
+            Files.deleteIfExists(keyStore);
+            Files.delete(keyStoreDirectory);
+        }
+    }
+
+    /**
+     * Opens a session and closes it once the welcome message is read. The socket is reset on close, so the closed
+     * connections don't exhaust the ephemeral ports.
+     *
+     * @return The welcome message.
+     * @throws IOException If an I/O error occurs.
+     */
+    @Benchmark
+    public String connect() throws IOException {
+        try (Socket socket = open()) {
+            socket.setSoLinger(true, 0);
+            final String welcomeMessage = new BufferedReader(new InputStreamReader(socket.getInputStream()))
+                    .readLine();
+            if (FULL_HANDSHAKE.equals(transport)) {
+                ((SSLSocket) socket).getSession().invalidate();
+            }
+            return welcomeMessage;
+        }
+    }
+
+    /**
+     * Sends a request and reads its response.
+     *
+     * @param client Client session of the benchmark thread.
+     * @return The response line.
+     * @throws IOException If an I/O error occurs.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public String roundTrip(final Client client) throws IOException {
+        client.writer.println(REQUEST);
+        client.writer.flush();
+        return client.reader.readLine();
+    }
+
+    /**
+     * Generates a key store with a new key and its self-signed certificate, valid for a day, with the JDK's keytool.
+     */
+    private static void generateKeyStore(final Path file) throws IOException, InterruptedException {
+        final List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "keytool").toString());
+        command.addAll(Arrays.asList(KEY_TOOL_ARGUMENTS));
+        command.add(file.toString());
+        final Process process = new ProcessBuilder(command).redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+        if (process.waitFor() != 0) {
+            throw new IOException(MessageFormat.format("keytool failed to generate {0}", file));
+        }
+    }
+
+    private Socket open() throws IOException {
+        final Socket socket = socketFactory.createSocket(InetAddress.getLoopbackAddress(), server.getLocalPort());
+        socket.setTcpNoDelay(true);
+        if (socket instanceof SSLSocket) {
+            ((SSLSocket) socket).startHandshake();
+        }
+        return socket;
+    }
+
+    /**
+     * Client session of a benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Client {
+
+        private Socket socket;
+        private PrintWriter writer;
+        private BufferedReader reader;
+
+        /**
+         * Opens the session and reads the welcome message.
+         *
+         * @param benchmark The benchmark with the server.
+         * @throws IOException If an I/O error occurs.
+         */
+        @Setup(Level.Trial)
+        public void setUp(final TlsBenchmark benchmark) throws IOException {
+            socket = benchmark.open();
+            writer = new PrintWriter(socket.getOutputStream());
+            reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+            reader.readLine();
+        }
+
+        /**
+         * Closes the session.
+         *
+         * @throws IOException If an I/O error occurs.
+         */
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            socket.close();
+        }
+    }
+}
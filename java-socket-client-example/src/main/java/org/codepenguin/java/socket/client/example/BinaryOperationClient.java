@@ -0,0 +1,386 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.client.example;
+
+import lombok.Getter;
+
+import javax.net.SocketFactory;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.text.MessageFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Asynchronous client of the server with a pool of connections. The requests of all the callers are pipelined over the
+ * connections: a request goes to the connection with the fewest outstanding requests and is written right away,
+ * without waiting for the responses of the previous ones. The server answers the requests of a session in order, so
+ * every connection matches its responses to its requests first in, first out, and its throughput is bounded by the
+ * bandwidth instead of the round trip time.
+ * <p>
+ * Every connection is a {@link PipelinedConnection}, whose reader thread completes the futures. The dependent actions
+ * of a future run in the reader thread unless they are added with the async methods, so they shouldn't block. A connection that fails completes its outstanding
+ * futures exceptionally with the {@link IOException} and is opened again in a thread of its own, so no caller waits for
+ * it: meanwhile the requests go to the other connections, or fail right away if none is open.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+public final class BinaryOperationClient implements Closeable {
+
+    private static final Logger LOGGER = Logger.getLogger(BinaryOperationClient.class.getName());
+
+    private static final String CONNECTION_THREAD_NAME = "client-";
+    private static final String CONNECTOR_THREAD_NAME = "client-connector-";
+    private static final String PROTOCOL_SEPARATOR = "\t";
+    private static final String LINE_SEPARATOR = "\n";
+    private static final char OPERATION_SEPARATOR = ' ';
+    private static final char LIST_SEPARATOR = ',';
+    private static final String EXIT_COMMAND = "QUIT";
+    private static final String BINARY_COMMAND = "BINARY";
+    private static final String BATCH_COMMAND = "BATCH";
+    private static final String EXPRESSION_COMMAND = "EVAL";
+    private static final String[] ACCUMULATOR_COMMANDS = {"OPEN ", "PUT ", "STATS ", "CLOSE "};
+    private static final long CLOSE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    private final String host;
+    private final int port;
+    private final SocketFactory socketFactory;
+    private final AtomicReferenceArray<PipelinedConnection<Request>> connections;
+    private final AtomicIntegerArray reopening;
+    private final PipelinedConnection.Listener<Request> listener = new RequestListener();
+
+    /**
+     * Name of the server, from its welcome message.
+     */
+    @Getter
+    private final String serverName;
+
+    /**
+     * Version of the server, from its welcome message.
+     */
+    @Getter
+    private final String serverVersion;
+
+    private volatile boolean closed;
+
+    /**
+     * Constructor. Opens all the connections with plain sockets.
+     *
+     * @param host     Server host.
+     * @param port     Server port.
+     * @param poolSize Number of connections.
+     * @throws IllegalArgumentException If the pool size isn't positive.
+     * @throws IOException              If a connection can't be opened or the server rejects it.
+     */
+    public BinaryOperationClient(final String host, final int port, final int poolSize) throws IOException {
+        this(host, port, SocketFactory.getDefault(), poolSize);
+    }
+
+    /**
+     * Constructor. Opens all the connections.
+     *
+     * @param host          Server host.
+     * @param port          Server port.
+     * @param socketFactory Factory of the connections' sockets, for instance of TLS sockets.
+     * @param poolSize      Number of connections.
+     * @throws IllegalArgumentException If the pool size isn't positive.
+     * @throws IOException              If a connection can't be opened or the server rejects it.
+     */
+    public BinaryOperationClient(final String host, final int port, final SocketFactory socketFactory,
+                                 final int poolSize) throws IOException {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("Pool size must be positive");
+        }
+
+        this.host = host;
+        this.port = port;
+        this.socketFactory = socketFactory;
+        connections = new AtomicReferenceArray<>(poolSize);
+        reopening = new AtomicIntegerArray(poolSize);
+        try {
+            for (int i = 0; i < poolSize; i++) {
+                connections.set(i, open(i));
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+        final String[] welcome = connections.get(0).getWelcomeMessage().split(PROTOCOL_SEPARATOR);
+        serverName = welcome[0];
+        serverVersion = welcome[1];
+    }
+
+    /**
+     * Sends an operation.
+     *
+     * @param firstOperand  First operand.
+     * @param operator      Symbol of the operator.
+     * @param secondOperand Second operand.
+     * @return Future of the result.
+     */
+    public CompletableFuture<OperationResult> calculate(final double firstOperand, final char operator,
+                                                        final double secondOperand) {
+        return send(String.valueOf(firstOperand) + OPERATION_SEPARATOR + operator + OPERATION_SEPARATOR
+                + secondOperand);
+    }
+
+    /**
+     * Sends an operation of integers, that the server computes exactly while the result fits a {@code long}.
+     *
+     * @param firstOperand  First operand.
+     * @param operator      Symbol of the operator.
+     * @param secondOperand Second operand.
+     * @return Future of the result.
+     */
+    public CompletableFuture<OperationResult> calculate(final long firstOperand, final char operator,
+                                                        final long secondOperand) {
+        return send(String.valueOf(firstOperand) + OPERATION_SEPARATOR + operator + OPERATION_SEPARATOR
+                + secondOperand);
+    }
+
+    /**
+     * Sends a batch of operations with the same operator, see {@link OperationResult#getValues()}.
+     *
+     * @param operator       Symbol of the operator.
+     * @param firstOperands  First operands.
+     * @param secondOperands Second operands, as many as the first ones or a single one for all the operations.
+     * @return Future of the result.
+     */
+    public CompletableFuture<OperationResult> batch(final char operator, final double[] firstOperands,
+                                                    final double[] secondOperands) {
+        final StringBuilder builder = new StringBuilder(BATCH_COMMAND).append(OPERATION_SEPARATOR).append(operator)
+                .append(OPERATION_SEPARATOR);
+        appendList(builder, firstOperands).append(OPERATION_SEPARATOR);
+        return send(appendList(builder, secondOperands).toString());
+    }
+
+    /**
+     * Sends an expression to evaluate.
+     *
+     * @param expression The expression, numbers combined with the operators, parentheses and the unary signs.
+     * @return Future of the result.
+     */
+    public CompletableFuture<OperationResult> evaluate(final String expression) {
+        return send(EXPRESSION_COMMAND + OPERATION_SEPARATOR + expression);
+    }
+
+    /**
+     * Sends a request line as it is.
+     *
+     * @param request The request, without line separators.
+     * @return Future of the result. It completes exceptionally with an {@link IOException} if the client is closed, the
+     * connection fails or none is open.
+     * @throws IllegalArgumentException If the request has a line separator, is a command that ends the session or
+     *                                  leaves the text protocol, or uses the accumulators of the session: the
+     *                                  requests are spread over the connections, and the values put aren't answered.
+     */
+    public CompletableFuture<OperationResult> send(final String request) {
+        if (request.indexOf('\n') >= 0 || request.indexOf('\r') >= 0 || request.equals(EXIT_COMMAND)
+                || request.equals(BINARY_COMMAND) || isAccumulatorCommand(request)) {
+            throw new IllegalArgumentException(MessageFormat.format("Request not supported by the client: {0}",
+                    request));
+        }
+
+        if (closed) {
+            return CompletableFuture.failedFuture(new IOException("Client is closed"));
+        }
+
+        final CompletableFuture<OperationResult> future = new CompletableFuture<>();
+        try {
+            acquire().submit(new Request((request + LINE_SEPARATOR).getBytes(Charset.defaultCharset()), future));
+        } catch (IOException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Gets the number of requests sent or queued whose responses haven't arrived, in all the connections.
+     *
+     * @return Outstanding requests.
+     */
+    public int getOutstandingRequests() {
+        int outstanding = 0;
+        for (int i = 0; i < connections.length(); i++) {
+            outstanding += connections.get(i).getOutstandingRequests();
+        }
+        return outstanding;
+    }
+
+    /**
+     * Closes the connections after the responses of the requests already sent arrive, waiting for them a few seconds
+     * at most. The requests sent afterwards fail.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (int i = 0; i < connections.length(); i++) {
+            final PipelinedConnection<Request> connection = connections.get(i);
+            if (connection != null) {
+                connection.end();
+            }
+        }
+
+        for (int i = 0; i < connections.length(); i++) {
+            final PipelinedConnection<Request> connection = connections.get(i);
+            if (connection != null) {
+                connection.join(CLOSE_TIMEOUT_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Picks the open connection with the fewest outstanding requests, starting to open again the failed ones.
+     *
+     * @throws IOException The failure of the last failed connection, if none is open.
+     */
+    private PipelinedConnection<Request> acquire() throws IOException {
+        PipelinedConnection<Request> acquired = null;
+        IOException failure = null;
+        for (int i = 0; i < connections.length(); i++) {
+            final PipelinedConnection<Request> connection = connections.get(i);
+            if (connection.isFailed()) {
+                failure = connection.getFailure();
+                reopen(i);
+            } else if (acquired == null || connection.getOutstandingRequests() < acquired.getOutstandingRequests()) {
+                acquired = connection;
+            }
+        }
+
+        if (acquired == null) {
+            throw failure;
+        }
+        return acquired;
+    }
+
+    /**
+     * Opens again a failed connection in a new thread, unless it's already being opened. If it can't be opened, the
+     * next request tries again.
+     */
+    private void reopen(final int index) {
+        if (closed || !reopening.compareAndSet(index, 0, 1)) {
+            return;
+        }
+
+        final Thread connector = new Thread(() -> {
+            try {
+                final PipelinedConnection<Request> connection = open(index);
+                connections.set(index, connection);
+                if (closed) {
+                    // The client was closed while connecting, maybe before it could close this connection.
+                    connection.end();
+                    connection.join(CLOSE_TIMEOUT_MILLIS);
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, MessageFormat.format("Connection {0} not opened again", index), e);
+            } finally {
+                reopening.set(index, 0);
+            }
+        }, CONNECTOR_THREAD_NAME + index);
+        connector.setDaemon(true);
+        connector.start();
+    }
+
+    /**
+     * Opens a connection of the pool.
+     */
+    private PipelinedConnection<Request> open(final int index) throws IOException {
+        return new PipelinedConnection<>(socketFactory.createSocket(host, port), CONNECTION_THREAD_NAME + index,
+                listener);
+    }
+
+    private static boolean isAccumulatorCommand(final String request) {
+        for (String command : ACCUMULATOR_COMMANDS) {
+            if (request.startsWith(command)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static StringBuilder appendList(final StringBuilder builder, final double[] values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                builder.append(LIST_SEPARATOR);
+            }
+            builder.append(values[i]);
+        }
+        return builder;
+    }
+
+    /**
+     * Request line waiting to be written, with the future of its response.
+     */
+    private static final class Request implements PipelinedConnection.Request {
+
+        private final byte[] line;
+        private final CompletableFuture<OperationResult> future;
+
+        private Request(final byte[] line, final CompletableFuture<OperationResult> future) {
+            this.line = line;
+            this.future = future;
+        }
+
+        @Override
+        public byte[] getLine() {
+            return line;
+        }
+    }
+
+    /**
+     * Completes the futures of the requests of every connection.
+     */
+    private final class RequestListener implements PipelinedConnection.Listener<Request> {
+
+        @Override
+        public void answered(final Request request, final String response) {
+            try {
+                request.future.complete(OperationResult.valueOfResponse(response));
+            } catch (IllegalArgumentException e) {
+                request.future.completeExceptionally(new IOException(e.getMessage(), e));
+            }
+        }
+
+        @Override
+        public void unanswered(final Request request, final IOException failure) {
+            request.future.completeExceptionally(failure);
+        }
+
+        @Override
+        public void failed(final PipelinedConnection<Request> connection, final IOException failure) {
+            if (!closed) {
+                LOGGER.log(Level.WARNING, connection.toString(), failure);
+            }
+        }
+    }
+}
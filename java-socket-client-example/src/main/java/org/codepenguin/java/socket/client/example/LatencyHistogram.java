@@ -0,0 +1,141 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.client.example;
+
+/**
+ * Log-linear histogram of latencies in nanoseconds. The values under {@literal 128} have a bucket each; above, every
+ * power of two is split in 64 buckets, so a value is reported with an error under 1.6%. It isn't thread-safe: every
+ * connection records in its own histogram and they're merged at the end.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = SUB_BUCKETS << 1;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS + SUB_BUCKETS;
+    private static final double PERCENT = 100;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long max;
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos Latency in nanoseconds, negative values are recorded as {@literal 0}.
+     */
+    void record(final long nanos) {
+        final long value = Math.max(nanos, 0);
+        counts[indexOf(value)]++;
+        count++;
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds the latencies of another histogram.
+     *
+     * @param other The other histogram.
+     */
+    void add(final LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Gets the number of recorded latencies.
+     *
+     * @return The count.
+     */
+    long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the maximum recorded latency.
+     *
+     * @return The maximum in nanoseconds, {@literal 0} if there are none.
+     */
+    long getMax() {
+        return max;
+    }
+
+    /**
+     * Gets a percentile.
+     *
+     * @param percentile The percentile, from {@literal 0} to {@literal 100}.
+     * @return The highest value of the bucket of the percentile, never over the maximum; {@literal 0} if there are
+     * none.
+     */
+    long getPercentile(final double percentile) {
+        final long rank = Math.max(1, (long) Math.ceil(percentile / PERCENT * count));
+        long cumulative = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulative += counts[i];
+            if (cumulative >= rank) {
+                return Math.min(highestValueOf(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Gets the bucket of a value.
+     *
+     * @param value The value, not negative.
+     * @return The bucket.
+     */
+    static int indexOf(final long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+
+        final int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    /**
+     * Gets the highest value of a bucket.
+     *
+     * @param index The bucket.
+     * @return The highest value.
+     */
+    static long highestValueOf(final int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+
+        final int shift = index / SUB_BUCKETS - 1;
+        final long subBucket = index - shift * SUB_BUCKETS;
+        return (subBucket << shift) + (1L << shift) - 1;
+    }
+}
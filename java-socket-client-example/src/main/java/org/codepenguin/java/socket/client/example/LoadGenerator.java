@@ -0,0 +1,294 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.client.example;
+
+import lombok.Value;
+
+import javax.net.SocketFactory;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Open-loop load generator. Every connection sends its requests on a fixed schedule, whether the previous responses
+ * have arrived or not, and a second thread reads the responses. The server answers the requests of a session in order,
+ * so the latency of the n-th response is measured from the time the n-th request was scheduled, not from the time it
+ * was actually sent: a server stall delays the sender too, and measuring from the send time would hide the requests
+ * that waited for it (coordinated omission).
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class LoadGenerator {
+
+    private static final Logger LOGGER = Logger.getLogger(LoadGenerator.class.getName());
+
+    private static final String SENDER_THREAD_NAME = "load-sender-";
+    private static final String RECEIVER_THREAD_NAME = "load-receiver-";
+    private static final String PROTOCOL_SEPARATOR = "\t";
+    private static final String ERROR_TYPE = "ERR";
+    private static final String LINE_SEPARATOR = "\n";
+    private static final int REQUESTS_PER_CONNECTION = 4096;
+    private static final long START_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final String host;
+    private final int port;
+    private final SocketFactory socketFactory;
+    private final int connections;
+    private final double rate;
+    private final long durationNanos;
+    private final OperationMix mix;
+
+    /**
+     * Constructor.
+     *
+     * @param host          Server host.
+     * @param port          Server port.
+     * @param socketFactory Factory of the connections' sockets.
+     * @param connections   Number of connections.
+     * @param rate          Requests per second of all the connections together.
+     * @param durationNanos Time sending requests, in nanoseconds.
+     * @param mix           Mix of the requests.
+     * @throws IllegalArgumentException If the connections, the rate or the duration aren't positive.
+     */
+    LoadGenerator(final String host, final int port, final SocketFactory socketFactory, final int connections,
+                  final double rate, final long durationNanos, final OperationMix mix) {
+        if (connections < 1 || !(rate > 0) || durationNanos < 1) {
+            throw new IllegalArgumentException("Connections, rate and duration must be positive");
+        }
+
+        this.host = host;
+        this.port = port;
+        this.socketFactory = socketFactory;
+        this.connections = connections;
+        this.rate = rate;
+        this.durationNanos = durationNanos;
+        this.mix = mix;
+    }
+
+    /**
+     * Opens the connections, sends the requests and waits for all the responses.
+     *
+     * @return The report.
+     * @throws IOException          If a connection can't be opened.
+     * @throws InterruptedException If interrupted while waiting for the connections.
+     */
+    Report run() throws IOException, InterruptedException {
+        final double intervalNanos = connections * NANOS_PER_SECOND / rate;
+        final List<Connection> opened = new ArrayList<>(connections);
+        try {
+            final Random random = new Random();
+            for (int i = 0; i < connections; i++) {
+                opened.add(new Connection(i, random.nextLong(), intervalNanos));
+            }
+
+            final long start = System.nanoTime() + START_DELAY_NANOS;
+            for (Connection connection : opened) {
+                connection.start(start, start + durationNanos);
+            }
+            for (Connection connection : opened) {
+                connection.join();
+            }
+            final long elapsedNanos = System.nanoTime() - start;
+
+            final LatencyHistogram histogram = new LatencyHistogram();
+            final SortedMap<String, Long> errors = new TreeMap<>();
+            long sent = 0;
+            for (Connection connection : opened) {
+                sent += connection.sent;
+                histogram.add(connection.histogram);
+                connection.errors.forEach((type, count) -> errors.merge(type, count, Long::sum));
+            }
+            return new Report(sent, histogram.getCount(), elapsedNanos, histogram, errors);
+        } finally {
+            for (Connection connection : opened) {
+                connection.close();
+            }
+        }
+    }
+
+    /**
+     * Result of a run.
+     */
+    @Value
+    static class Report {
+
+        /**
+         * Requests sent.
+         */
+        long sent;
+
+        /**
+         * Responses received.
+         */
+        long received;
+
+        /**
+         * Time from the first scheduled request to the last response, in nanoseconds.
+         */
+        long elapsedNanos;
+
+        /**
+         * Latencies of the responses, from the scheduled time of their requests.
+         */
+        LatencyHistogram latencies;
+
+        /**
+         * Error responses by error type.
+         */
+        SortedMap<String, Long> errors;
+
+        /**
+         * Gets the responses received per second.
+         *
+         * @return The throughput.
+         */
+        double getThroughput() {
+            return received * NANOS_PER_SECOND / elapsedNanos;
+        }
+    }
+
+    /**
+     * Connection with a sender and a receiver thread. The sender writes the sent count and the receiver the histogram
+     * and the errors, they're read after both threads end.
+     */
+    private final class Connection {
+
+        private final Socket socket;
+        private final OutputStream out;
+        private final BufferedReader reader;
+        private final byte[][] requests = new byte[REQUESTS_PER_CONNECTION][];
+        private final double intervalNanos;
+        private final double offsetNanos;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final Map<String, Long> errors = new TreeMap<>();
+        private final Thread sender;
+        private final Thread receiver;
+
+        private long first;
+        private long end;
+        private long sent;
+
+        private Connection(final int index, final long seed, final double intervalNanos) throws IOException {
+            this.intervalNanos = intervalNanos;
+            offsetNanos = index * intervalNanos / connections;
+
+            final Random random = new Random(seed);
+            for (int i = 0; i < requests.length; i++) {
+                requests[i] = (mix.nextRequest(random) + LINE_SEPARATOR).getBytes(Charset.defaultCharset());
+            }
+
+            socket = socketFactory.createSocket(host, port);
+            socket.setTcpNoDelay(true);
+            out = new BufferedOutputStream(socket.getOutputStream());
+            reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+            reader.readLine();
+
+            sender = new Thread(this::send, SENDER_THREAD_NAME + index);
+            receiver = new Thread(this::receive, RECEIVER_THREAD_NAME + index);
+        }
+
+        private void start(final long start, final long end) {
+            first = start + (long) offsetNanos;
+            this.end = end;
+            sender.start();
+            receiver.start();
+        }
+
+        private void join() throws InterruptedException {
+            sender.join();
+            receiver.join();
+        }
+
+        private long scheduledTime(final long request) {
+            return first + (long) (request * intervalNanos);
+        }
+
+        /**
+         * Writes every request at its scheduled time. When it's behind schedule it writes the next requests right away
+         * without flushing, so they're sent together as soon as it catches up or the buffer fills.
+         */
+        private void send() {
+            try {
+                for (long scheduled = scheduledTime(0); scheduled - end < 0; scheduled = scheduledTime(sent)) {
+                    if (scheduled - System.nanoTime() > 0) {
+                        out.flush();
+                        long wait;
+                        while ((wait = scheduled - System.nanoTime()) > 0) {
+                            LockSupport.parkNanos(wait);
+                        }
+                    }
+                    out.write(requests[(int) (sent % requests.length)]);
+                    sent++;
+                }
+                out.flush();
+                socket.shutdownOutput();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, Thread.currentThread().getName(), e);
+                close();
+            }
+        }
+
+        private void receive() {
+            try {
+                String response;
+                while ((response = reader.readLine()) != null) {
+                    histogram.record(System.nanoTime() - scheduledTime(histogram.getCount()));
+                    final int separator = response.indexOf(PROTOCOL_SEPARATOR);
+                    if (separator > 0 && response.substring(0, separator).equals(ERROR_TYPE)) {
+                        errors.merge(response.substring(separator + 1), 1L, Long::sum);
+                    }
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, Thread.currentThread().getName(), e);
+            }
+        }
+
+        private void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, socket.toString(), e);
+            }
+        }
+    }
+}
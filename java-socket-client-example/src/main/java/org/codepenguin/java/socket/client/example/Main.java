@@ -30,12 +30,16 @@ import org.apache.commons.cli.DefaultParser;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 
+import javax.net.SocketFactory;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.PrintWriter;
 import java.net.Socket;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
 import java.text.MessageFormat;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -54,6 +58,23 @@ public final class Main {
 
     private static final String HOST_OPTION = "h";
     private static final String PORT_OPTION = "p";
+    private static final String PIPELINE_OPTION = "l";
+    private static final String RATE_OPTION = "r";
+    private static final String CONNECTIONS_OPTION = "c";
+    private static final String DURATION_OPTION = "d";
+    private static final String MIX_OPTION = "x";
+    private static final String REPLAY_OPTION = "t";
+    private static final String SPEED_OPTION = "s";
+    private static final String TLS_OPTION = "e";
+    private static final String TRUST_STORE_OPTION = "u";
+    private static final String TRUST_STORE_PASSWORD_OPTION = "w";
+    private static final String DEFAULT_CONNECTIONS = "1";
+    private static final String DEFAULT_DURATION = "10";
+    private static final String DEFAULT_SPEED = "1";
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final String SENDER_THREAD_NAME = "pipeline-sender";
+    private static final String PUT_COMMAND_PREFIX = "PUT ";
     private static final int EXIT_STATUS = 1;
 
     private Main() {
@@ -62,7 +83,8 @@ public final class Main {
     /**
      * Main method. Starts the client's socket connecting it to the specified host and port.
      *
-     * @param args The arguments: [host] [port].
+     * @param args The arguments: [host] [port] [pipeline] [rate] [connections] [duration] [mix] [replay]
+     *             [speed] [tls] [trust-store] [trust-store-password].
      */
     public static void main(String[] args) {
         final CommandLine commandLine;
@@ -86,30 +108,220 @@ public final class Main {
             return;
         }
 
-        try (Socket socket = new Socket(host, port);
-             PrintWriter writer = new PrintWriter(socket.getOutputStream(), true);
+        final SocketFactory socketFactory;
+        try {
+            socketFactory = createSocketFactory(commandLine);
+        } catch (IOException | GeneralSecurityException e) {
+            LOGGER.log(Level.SEVERE, e.getMessage(), e);
+            close();
+            return;
+        }
+
+        if (commandLine.hasOption(RATE_OPTION)) {
+            generateLoad(commandLine, host, port, socketFactory);
+            return;
+        }
+
+        if (commandLine.hasOption(REPLAY_OPTION)) {
+            replay(commandLine, host, port, socketFactory);
+            return;
+        }
+
+        final boolean pipeline = commandLine.hasOption(PIPELINE_OPTION);
+
+        try (Socket socket = socketFactory.createSocket(host, port);
+             PrintWriter writer = new PrintWriter(socket.getOutputStream(), !pipeline);
              BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
              BufferedReader in = new BufferedReader(new InputStreamReader(System.in))) {
-            String fromServer;
-            String fromInput;
+            if (pipeline) {
+                pipeline(socket, writer, reader, in);
+            } else {
+                relay(writer, reader, in);
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, e, () -> MessageFormat.format("{0}:{1}", host, port));
+            close();
+        }
+    }
+
+    /**
+     * Gets the factory of the connections: plain sockets, or TLS sockets sharing a session cache, so the connections
+     * after the first one resume its TLS session.
+     */
+    private static SocketFactory createSocketFactory(final CommandLine commandLine) throws IOException,
+            GeneralSecurityException {
+        if (!commandLine.hasOption(TLS_OPTION)) {
+            return SocketFactory.getDefault();
+        }
 
-            while ((fromServer = reader.readLine()) != null) {
-                LOGGER.info(fromServer);
+        final String trustStore = commandLine.getOptionValue(TRUST_STORE_OPTION);
+        final String password = commandLine.getOptionValue(TRUST_STORE_PASSWORD_OPTION);
+        return TlsSocketFactory.create(trustStore == null ? null : Paths.get(trustStore),
+                password == null ? null : password.toCharArray());
+    }
+
+    /**
+     * Sends an input line after every response. The values put into an accumulator aren't answered, so the next line
+     * is sent right away.
+     */
+    private static void relay(final PrintWriter writer, final BufferedReader reader, final BufferedReader in)
+            throws IOException {
+        String fromServer;
+        String fromInput;
 
+        while ((fromServer = reader.readLine()) != null) {
+            LOGGER.info(fromServer);
+
+            do {
                 fromInput = in.readLine();
                 if (isNotBlank(fromInput)) {
                     writer.println(fromInput);
                 }
+            } while (fromInput != null && fromInput.startsWith(PUT_COMMAND_PREFIX));
+        }
+    }
+
+    /**
+     * Sends the input lines without waiting for the responses, flushing whenever no more input is ready, while the
+     * responses are read in the calling thread. When the input ends the socket's output is shut down, so the server
+     * answers the pending requests and closes the session. The sender is a daemon, it doesn't keep the client alive once
+     * the server has closed the session.
+     */
+    private static void pipeline(final Socket socket, final PrintWriter writer, final BufferedReader reader,
+                                 final BufferedReader in) throws IOException {
+        final Thread sender = new Thread(() -> {
+            try {
+                String fromInput;
+                while ((fromInput = in.readLine()) != null) {
+                    if (isNotBlank(fromInput)) {
+                        writer.println(fromInput);
+                    }
+                    if (!in.ready()) {
+                        writer.flush();
+                    }
+                }
+                writer.flush();
+                socket.shutdownOutput();
+            } catch (IOException e) {
+                LOGGER.log(Level.SEVERE, SENDER_THREAD_NAME, e);
             }
+        }, SENDER_THREAD_NAME);
+        sender.setDaemon(true);
+        sender.start();
+
+        String fromServer;
+        while ((fromServer = reader.readLine()) != null) {
+            LOGGER.info(fromServer);
+        }
+    }
+
+    /**
+     * Sends generated requests instead of the input lines and logs the throughput, the latency percentiles and the
+     * error responses by type.
+     */
+    private static void generateLoad(final CommandLine commandLine, final String host, final int port,
+                                     final SocketFactory socketFactory) {
+        final LoadGenerator generator;
+        try {
+            generator = new LoadGenerator(host, port, socketFactory,
+                    Integer.parseInt(commandLine.getOptionValue(CONNECTIONS_OPTION, DEFAULT_CONNECTIONS)),
+                    Double.parseDouble(commandLine.getOptionValue(RATE_OPTION)),
+                    TimeUnit.SECONDS.toNanos(Long.parseLong(commandLine.getOptionValue(DURATION_OPTION,
+                            DEFAULT_DURATION))),
+                    new OperationMix(commandLine.getOptionValue(MIX_OPTION, OperationMix.DEFAULT_MIX)));
+        } catch (IllegalArgumentException e) {
+            LOGGER.log(Level.SEVERE, e.getMessage(), e);
+            close();
+            return;
+        }
+
+        final LoadGenerator.Report report;
+        try {
+            report = generator.run();
         } catch (IOException e) {
             LOGGER.log(Level.SEVERE, e, () -> MessageFormat.format("{0}:{1}", host, port));
             close();
+            return;
+        } catch (InterruptedException e) {
+            LOGGER.log(Level.SEVERE, null, e);
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        LOGGER.log(Level.INFO, "Sent {0}, received {1} in {2,number,0.000} s: {3,number,0.0} responses/s",
+                new Object[]{report.getSent(), report.getReceived(), report.getElapsedNanos() / NANOS_PER_SECOND,
+                        report.getThroughput()});
+        logLatencies(report.getLatencies());
+        report.getErrors().forEach((type, count) -> LOGGER.log(Level.INFO, "Errors {0}: {1}",
+                new Object[]{type, count}));
+    }
+
+    /**
+     * Replays a traffic capture of the server instead of reading the input and logs the latency percentiles and the
+     * responses different from the captured ones. Exits with an error status if any response is different.
+     */
+    private static void replay(final CommandLine commandLine, final String host, final int port,
+                               final SocketFactory socketFactory) {
+        final String capture = commandLine.getOptionValue(REPLAY_OPTION);
+        final TrafficReplayer replayer;
+        try {
+            replayer = new TrafficReplayer(host, port, socketFactory, Paths.get(capture),
+                    Double.parseDouble(commandLine.getOptionValue(SPEED_OPTION, DEFAULT_SPEED)));
+        } catch (IllegalArgumentException | IOException e) {
+            LOGGER.log(Level.SEVERE, capture, e);
+            close();
+            return;
         }
+
+        final TrafficReplayer.Report report;
+        try {
+            report = replayer.run();
+        } catch (InterruptedException e) {
+            LOGGER.log(Level.SEVERE, null, e);
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        LOGGER.log(Level.INFO, "Replayed {0} sessions: sent {1}, received {2} in {3,number,0.000} s",
+                new Object[]{report.getSessions(), report.getSent(), report.getReceived(),
+                        report.getElapsedNanos() / NANOS_PER_SECOND});
+        logLatencies(report.getLatencies());
+        for (TrafficReplayer.Mismatch mismatch : report.getMismatches()) {
+            LOGGER.log(Level.WARNING, "Mismatch {0} #{1,number,0}: {2}\n- {3}\n+ {4}", new Object[]{mismatch.getSession(),
+                    mismatch.getIndex(), mismatch.getRequest(), mismatch.getExpected(), mismatch.getActual()});
+        }
+        if (report.getMismatched() > 0) {
+            LOGGER.log(Level.SEVERE, "Mismatched {0} of {1} responses", new Object[]{report.getMismatched(),
+                    report.getSent()});
+            close();
+        }
+    }
+
+    private static void logLatencies(final LatencyHistogram latencies) {
+        LOGGER.log(Level.INFO, "Latency (ms): p50 {0,number,0.000}, p99 {1,number,0.000}, p99.9 {2,number,0.000}, "
+                + "max {3,number,0.000}", new Object[]{latencies.getPercentile(50) / NANOS_PER_MILLI,
+                latencies.getPercentile(99) / NANOS_PER_MILLI, latencies.getPercentile(99.9) / NANOS_PER_MILLI,
+                latencies.getMax() / NANOS_PER_MILLI});
     }
 
     private static Options buildOptions() {
         return new Options().addRequiredOption(HOST_OPTION, "host", true, "Server host")
-                .addRequiredOption(PORT_OPTION, "port", true, "Server port");
+                .addRequiredOption(PORT_OPTION, "port", true, "Server port")
+                .addOption(PIPELINE_OPTION, "pipeline", false, "Send the input without waiting for the responses")
+                .addOption(RATE_OPTION, "rate", true, "Generate load instead of reading the input: requests per "
+                        + "second of all the connections, sent on schedule without waiting for the responses")
+                .addOption(CONNECTIONS_OPTION, "connections", true, "Connections of the load (default 1)")
+                .addOption(DURATION_OPTION, "duration", true, "Seconds sending the load (default 10)")
+                .addOption(MIX_OPTION, "mix", true, "Weighted operators of the load (default "
+                        + OperationMix.DEFAULT_MIX + ")")
+                .addOption(REPLAY_OPTION, "replay", true, "Replay a traffic capture of the server instead of reading "
+                        + "the input, comparing the responses")
+                .addOption(SPEED_OPTION, "speed", true, "Speed-up factor of the replay (default 1)")
+                .addOption(TLS_OPTION, "tls", false, "Connect over TLS, resuming the TLS session on reconnection")
+                .addOption(TRUST_STORE_OPTION, "trust-store", true, "Trust store with the certificates of the TLS "
+                        + "server (default the JDK's certificate authorities)")
+                .addOption(TRUST_STORE_PASSWORD_OPTION, "trust-store-password", true, "Password of the trust store "
+                        + "(default none)");
     }
 
     private static void close() {
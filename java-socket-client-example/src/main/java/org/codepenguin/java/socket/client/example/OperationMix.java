@@ -0,0 +1,111 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.client.example;
+
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+/**
+ * Weighted mix of the operators of the generated requests, written as {@code <symbol>=<weight>} pairs separated by
+ * commas, for example {@code +=4,-=2,*=1,/=1}. The symbols aren't checked, so a mix can include invalid operators to
+ * generate error responses.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class OperationMix {
+
+    /**
+     * Mix with the four operators in the same proportion.
+     */
+    static final String DEFAULT_MIX = "+=1,-=1,*=1,/=1";
+
+    private static final String PAIR_SEPARATOR = ",";
+    private static final String WEIGHT_SEPARATOR = "=";
+    private static final String OPERATION_SEPARATOR = " ";
+    private static final int MAX_INTEGER_OPERAND = 10_000;
+    private static final float DECIMAL_OPERAND_SCALE = 100f;
+
+    private final String[] symbols;
+    private final long[] cumulativeWeights;
+
+    /**
+     * Constructor.
+     *
+     * @param mix The mix.
+     * @throws IllegalArgumentException If the mix isn't valid.
+     */
+    OperationMix(final String mix) {
+        if (isBlank(mix)) {
+            throw new IllegalArgumentException(MessageFormat.format("Invalid operation mix: {0}", mix));
+        }
+
+        final String[] pairs = mix.split(PAIR_SEPARATOR);
+        symbols = new String[pairs.length];
+        cumulativeWeights = new long[pairs.length];
+        long total = 0;
+        for (int i = 0; i < pairs.length; i++) {
+            final String[] pair = pairs[i].trim().split(WEIGHT_SEPARATOR);
+            final long weight;
+            try {
+                weight = pair.length == 2 ? Long.parseLong(pair[1].trim()) : -1;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(MessageFormat.format("Invalid operation mix: {0}", mix), e);
+            }
+            if (weight < 1 || isBlank(pair[0])) {
+                throw new IllegalArgumentException(MessageFormat.format("Invalid operation mix: {0}", mix));
+            }
+
+            symbols[i] = pair[0].trim();
+            total += weight;
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    /**
+     * Generates a request with an operator picked by weight and random operands, integers or with two decimals.
+     *
+     * @param random Random generator.
+     * @return The request.
+     */
+    String nextRequest(final Random random) {
+        final long total = cumulativeWeights[cumulativeWeights.length - 1];
+        int index = Arrays.binarySearch(cumulativeWeights, (long) (random.nextDouble() * total) + 1);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return nextOperand(random) + OPERATION_SEPARATOR + symbols[index] + OPERATION_SEPARATOR + nextOperand(random);
+    }
+
+    private static String nextOperand(final Random random) {
+        final int value = random.nextInt(2 * MAX_INTEGER_OPERAND + 1) - MAX_INTEGER_OPERAND;
+        return random.nextBoolean() ? String.valueOf(value) : String.valueOf(value / DECIMAL_OPERAND_SCALE);
+    }
+}
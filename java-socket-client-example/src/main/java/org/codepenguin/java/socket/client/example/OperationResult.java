@@ -0,0 +1,150 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.client.example;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.text.MessageFormat;
+
+/**
+ * Result of a request, the typed form of an {@code OK} or {@code ERR} response.
+ * <p>
+ * The value is the last field of the OK message: the result of a single operation, whose message is
+ * {@code <operation>\t<result>}, the value of an expression or the comma separated results of a batch.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class OperationResult {
+
+    private static final String PROTOCOL_SEPARATOR = "\t";
+    private static final String OK_TYPE = "OK";
+    private static final String ERROR_TYPE = "ERR";
+    private static final String LIST_SEPARATOR = ",";
+
+    /**
+     * Message of an OK response, {@literal null} for an error.
+     */
+    String message;
+
+    /**
+     * Error type of an ERR response, {@literal null} for an OK.
+     */
+    ResponseErrorType errorType;
+
+    /**
+     * Error name as sent by the server, {@literal null} for an OK.
+     */
+    String errorName;
+
+    /**
+     * Parses a response line.
+     *
+     * @param response The response line.
+     * @return The result.
+     * @throws IllegalArgumentException If the line isn't an OK nor an ERR response.
+     */
+    static OperationResult valueOfResponse(final String response) {
+        final int separator = response.indexOf(PROTOCOL_SEPARATOR);
+        final String type = separator < 0 ? response : response.substring(0, separator);
+        if (type.equals(OK_TYPE)) {
+            return new OperationResult(response.substring(separator + 1), null, null);
+        }
+
+        if (type.equals(ERROR_TYPE)) {
+            final String errorName = response.substring(separator + 1);
+            return new OperationResult(null, ResponseErrorType.valueOfErrorName(errorName), errorName);
+        }
+
+        throw new IllegalArgumentException(MessageFormat.format("No response type in {0}", response));
+    }
+
+    /**
+     * Indicates if the response is an OK.
+     *
+     * @return {@literal true} if the response is an OK; otherwise, {@literal false}.
+     */
+    public boolean isOk() {
+        return message != null;
+    }
+
+    /**
+     * Gets the text of the value, the last field of the OK message.
+     *
+     * @return The text of the value.
+     * @throws IllegalStateException If the response is an error.
+     */
+    public String getValueText() {
+        if (!isOk()) {
+            throw new IllegalStateException(MessageFormat.format("Error response: {0}", errorName));
+        }
+        return message.substring(message.lastIndexOf(PROTOCOL_SEPARATOR) + 1);
+    }
+
+    /**
+     * Gets the value, including the infinities and NaN of the divisions by zero.
+     *
+     * @return The value.
+     * @throws IllegalStateException If the response is an error.
+     * @throws NumberFormatException If the value isn't a number, like the results of a batch.
+     */
+    public double getValue() {
+        return Double.parseDouble(getValueText());
+    }
+
+    /**
+     * Gets the value with all the digits sent, for the integer operations and the exact decimal mode of the server.
+     *
+     * @return The value.
+     * @throws IllegalStateException If the response is an error.
+     * @throws NumberFormatException If the value isn't a finite number.
+     */
+    public BigDecimal getDecimalValue() {
+        return new BigDecimal(getValueText());
+    }
+
+    /**
+     * Gets the values of a batch.
+     *
+     * @return The values, in the order of the operands.
+     * @throws IllegalStateException If the response is an error.
+     * @throws NumberFormatException If a value isn't a number.
+     */
+    public double[] getValues() {
+        final String[] texts = getValueText().split(LIST_SEPARATOR);
+        final double[] values = new double[texts.length];
+        for (int i = 0; i < texts.length; i++) {
+            values[i] = Double.parseDouble(texts[i]);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,355 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.client.example;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.text.MessageFormat;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Connection to a server that pipelines the requests: a request is written right away, without waiting for the
+ * responses of the previous ones. The server answers the requests of a session in order, so the connection matches its
+ * responses to its requests first in, first out.
+ * <p>
+ * A writer thread writes all the queued requests and flushes once the queue is empty, and a reader thread hands the
+ * responses to the listener. Only the writer adds to the in flight requests, in the order it writes them, and only the
+ * reader removes them, in the order the responses arrive. A connection that fails hands its outstanding requests, the
+ * ones in flight and the queued ones, to the listener as unanswered.
+ *
+ * @param <R> Type of the requests.
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+public final class PipelinedConnection<R extends PipelinedConnection.Request> {
+
+    private static final Logger LOGGER = Logger.getLogger(PipelinedConnection.class.getName());
+
+    private static final String WRITER_THREAD_SUFFIX = "-writer";
+    private static final String READER_THREAD_SUFFIX = "-reader";
+    private static final String PROTOCOL_SEPARATOR = "\t";
+    private static final String ERROR_TYPE = "ERR";
+    private static final int MAX_WELCOME_LENGTH = 1024;
+
+    /**
+     * Marker that makes the writer shut down the output once the previous requests are written.
+     */
+    private static final Request END = () -> null;
+
+    private final Socket socket;
+    private final Listener<R> listener;
+    private final String welcomeMessage;
+    private final OutputStream out;
+    private final BufferedReader reader;
+    private final BlockingQueue<Request> outbound = new LinkedBlockingQueue<>();
+    private final Queue<R> inFlight = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final Thread writer;
+    private final Thread receiver;
+
+    private volatile IOException failure;
+
+    /**
+     * Constructor. Reads the welcome message and starts the threads.
+     *
+     * @param socket   Connected socket. It's closed if the welcome message can't be read or the server rejects the
+     *                 session.
+     * @param name     Name of the connection's threads, followed by their role.
+     * @param listener Listener of the responses and the failures.
+     * @throws IOException If the welcome message can't be read or the server rejects the session.
+     */
+    public PipelinedConnection(final Socket socket, final String name, final Listener<R> listener)
+            throws IOException {
+        this.socket = socket;
+        this.listener = listener;
+        try {
+            socket.setTcpNoDelay(true);
+            welcomeMessage = readWelcomeMessage(socket.getInputStream());
+            out = new BufferedOutputStream(socket.getOutputStream());
+            reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), Charset.defaultCharset()));
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+
+        writer = new Thread(this::write, name + WRITER_THREAD_SUFFIX);
+        writer.setDaemon(true);
+        receiver = new Thread(this::read, name + READER_THREAD_SUFFIX);
+        receiver.setDaemon(true);
+        writer.start();
+        receiver.start();
+    }
+
+    /**
+     * Reads the welcome message a byte at a time, so nothing after it is consumed. Any server name and version are
+     * accepted.
+     *
+     * @param in Input stream of the session.
+     * @return The welcome message, {@code <server name>\t<server version>}.
+     * @throws IOException If the welcome message can't be read or it's the error of a rejected session.
+     */
+    public static String readWelcomeMessage(final InputStream in) throws IOException {
+        final StringBuilder welcome = new StringBuilder();
+        int read;
+        while ((read = in.read()) != '\n') {
+            if (read < 0) {
+                throw new EOFException("Connection closed before the welcome message");
+            }
+            if (welcome.length() == MAX_WELCOME_LENGTH) {
+                throw new IOException("Welcome message too long");
+            }
+            welcome.append((char) read);
+        }
+
+        final String message = welcome.toString();
+        final String[] parts = message.split(PROTOCOL_SEPARATOR);
+        if (parts.length != 2 || parts[0].equals(ERROR_TYPE)) {
+            throw new IOException(MessageFormat.format("Session not accepted: {0}", message));
+        }
+        return message;
+    }
+
+    /**
+     * Gets the welcome message of the server.
+     *
+     * @return The welcome message, {@code <server name>\t<server version>}.
+     */
+    public String getWelcomeMessage() {
+        return welcomeMessage;
+    }
+
+    /**
+     * Queues a request to be written. If the connection has failed, the request is handed back as unanswered.
+     *
+     * @param request The request.
+     */
+    public void submit(final R request) {
+        outstanding.incrementAndGet();
+        outbound.add(request);
+        if (failure != null) {
+            failAll();
+        }
+    }
+
+    /**
+     * Gets the number of requests sent or queued whose responses haven't arrived.
+     *
+     * @return Outstanding requests.
+     */
+    public int getOutstandingRequests() {
+        return outstanding.get();
+    }
+
+    /**
+     * Indicates if the connection has failed, so it must be opened again.
+     *
+     * @return {@literal true} if it has failed or it's closed; otherwise, {@literal false}.
+     */
+    public boolean isFailed() {
+        return failure != null;
+    }
+
+    /**
+     * Gets the failure of the connection.
+     *
+     * @return The failure; {@literal null} if it hasn't failed.
+     */
+    public IOException getFailure() {
+        return failure;
+    }
+
+    /**
+     * Shuts down the output once the requests already queued are written, so the server ends the session after
+     * answering them.
+     */
+    public void end() {
+        outbound.add(END);
+    }
+
+    /**
+     * Waits for the responses of the requests written, up to a timeout, and closes the connection. The requests still
+     * outstanding are handed back as unanswered.
+     *
+     * @param timeoutMillis Maximum milliseconds to wait.
+     */
+    public void join(final long timeoutMillis) {
+        try {
+            receiver.join(timeoutMillis);
+            fail(new EOFException("Connection closed"));
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return socket.toString();
+    }
+
+    /**
+     * Writes the queued requests, flushing only when there are no more, so the requests queued while a flush blocks are
+     * sent together.
+     */
+    @SuppressWarnings("unchecked")
+    private void write() {
+        try {
+            while (true) {
+                Request request = outbound.take();
+                do {
+                    if (request == END) {
+                        out.flush();
+                        socket.shutdownOutput();
+                        return;
+                    }
+                    inFlight.add((R) request);
+                    out.write(request.getLine());
+                } while ((request = outbound.poll()) != null);
+                out.flush();
+            }
+        } catch (IOException e) {
+            fail(e);
+        } catch (InterruptedException e) {
+            fail(new InterruptedIOException(Thread.currentThread().getName()));
+        }
+    }
+
+    private void read() {
+        try {
+            String response;
+            while ((response = reader.readLine()) != null) {
+                final R request = inFlight.poll();
+                if (request == null) {
+                    throw new IOException(MessageFormat.format("Response without request: {0}", response));
+                }
+
+                outstanding.decrementAndGet();
+                listener.answered(request, response);
+            }
+            fail(new EOFException("Connection closed by the server"));
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void fail(final IOException e) {
+        if (failure == null) {
+            failure = e;
+            listener.failed(this, e);
+        }
+
+        try {
+            socket.close();
+        } catch (IOException closeError) {
+            LOGGER.log(Level.WARNING, socket.toString(), closeError);
+        }
+        writer.interrupt();
+        failAll();
+    }
+
+    /**
+     * Hands back the requests in flight and the queued ones. Polling hands every request once, even if the writer, the
+     * reader and a caller fail them at the same time.
+     */
+    @SuppressWarnings("unchecked")
+    private void failAll() {
+        R request;
+        while ((request = inFlight.poll()) != null) {
+            outstanding.decrementAndGet();
+            listener.unanswered(request, failure);
+        }
+
+        Request queued;
+        while ((queued = outbound.poll()) != null) {
+            if (queued != END) {
+                outstanding.decrementAndGet();
+                listener.unanswered((R) queued, failure);
+            }
+        }
+    }
+
+    /**
+     * Request line of a pipelined connection.
+     */
+    @FunctionalInterface
+    public interface Request {
+
+        /**
+         * Gets the request line.
+         *
+         * @return The line, with its line separator.
+         */
+        byte[] getLine();
+    }
+
+    /**
+     * Listener of a pipelined connection. It's called from the connection's threads, so it shouldn't block.
+     *
+     * @param <R> Type of the requests.
+     */
+    public interface Listener<R extends Request> {
+
+        /**
+         * Receives the response of a request, in the reader thread.
+         *
+         * @param request  The request.
+         * @param response The response line, without line separator.
+         */
+        void answered(R request, String response);
+
+        /**
+         * Receives a request that won't be answered because the connection failed.
+         *
+         * @param request The request.
+         * @param failure Failure of the connection.
+         */
+        void unanswered(R request, IOException failure);
+
+        /**
+         * Receives the failure of the connection, once, before its requests are handed back. Closing the connection
+         * is a failure too.
+         *
+         * @param connection The connection.
+         * @param failure    The failure.
+         */
+        void failed(PipelinedConnection<R> connection, IOException failure);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.client.example;
+
+/**
+ * Error types of the {@code ERR} responses of the server.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+public enum ResponseErrorType {
+
+    INPUT_IS_NULL,
+    INPUT_IS_BLANK,
+    INPUT_MUST_HAVE_THREE_PARTS_ONLY,
+    INPUT_FIRST_OPERAND_IS_NOT_A_NUMBER,
+    INPUT_OPERATOR_IS_NOT_VALID,
+    INPUT_SECOND_OPERAND_IS_NOT_A_NUMBER,
+    SERVER_BUSY,
+    INPUT_OPERANDS_LENGTHS_DO_NOT_MATCH,
+    INPUT_EXPRESSION_IS_NOT_VALID,
+    RATE_LIMITED,
+    INPUT_ACCUMULATOR_NAME_IS_NOT_VALID,
+    INPUT_ACCUMULATOR_IS_NOT_OPEN,
+    ACCUMULATOR_LIMIT_REACHED,
+    INPUT_BATCH_IS_TOO_LONG,
+
+    /**
+     * Error type this client doesn't know, sent by a newer server.
+     */
+    UNKNOWN;
+
+    /**
+     * Gets the error type of an error name. Unlike {@link #valueOf(String)}, an unknown name isn't an error, so a newer
+     * server can add error types.
+     *
+     * @param errorName Error name of the response.
+     * @return The error type, or {@link #UNKNOWN} if there's none with that name.
+     */
+    public static ResponseErrorType valueOfErrorName(final String errorName) {
+        for (ResponseErrorType errorType : values()) {
+            if (errorType != UNKNOWN && errorType.name().equals(errorName)) {
+                return errorType;
+            }
+        }
+        return UNKNOWN;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.client.example;
+
+import javax.net.SocketFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+
+/**
+ * Factory of the client's TLS sockets. The sockets are connected with the handshake completed and the server's
+ * certificate checked against the host name.
+ * <p>
+ * All the sockets of a factory share its {@link SSLContext} and so its client session cache: reconnecting to the same
+ * host and port resumes the last TLS session with an abbreviated handshake, while the server still holds it.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class TlsSocketFactory extends SocketFactory {
+
+    private static final String PROTOCOL = "TLS";
+    private static final String ENDPOINT_IDENTIFICATION_ALGORITHM = "HTTPS";
+
+    private final SSLSocketFactory factory;
+
+    /**
+     * Constructor.
+     *
+     * @param context Context of the sockets.
+     */
+    TlsSocketFactory(final SSLContext context) {
+        this.factory = context.getSocketFactory();
+    }
+
+    /**
+     * Creates a factory trusting the certificates of a trust store.
+     *
+     * @param trustStore Trust store, {@literal null} to trust the default certificate authorities of the JDK.
+     * @param password   Password of the trust store; {@literal null} if it has none.
+     * @return The factory.
+     * @throws IOException              If the trust store can't be read.
+     * @throws GeneralSecurityException If the trust store isn't valid.
+     */
+    static TlsSocketFactory create(final Path trustStore, final char[] password) throws IOException,
+            GeneralSecurityException {
+        final TrustManagerFactory trustManagers = TrustManagerFactory.getInstance(
+                TrustManagerFactory.getDefaultAlgorithm());
+        trustManagers.init(trustStore == null ? null : KeyStore.getInstance(trustStore.toFile(), password));
+        final SSLContext context = SSLContext.getInstance(PROTOCOL);
+        context.init(null, trustManagers.getTrustManagers(), null);
+        return new TlsSocketFactory(context);
+    }
+
+    @Override
+    public Socket createSocket(final String host, final int port) throws IOException {
+        return handshake(factory.createSocket(host, port));
+    }
+
+    @Override
+    public Socket createSocket(final String host, final int port, final InetAddress localHost, final int localPort)
+            throws IOException {
+        return handshake(factory.createSocket(host, port, localHost, localPort));
+    }
+
+    @Override
+    public Socket createSocket(final InetAddress host, final int port) throws IOException {
+        return handshake(factory.createSocket(host, port));
+    }
+
+    @Override
+    public Socket createSocket(final InetAddress address, final int port, final InetAddress localAddress,
+                               final int localPort) throws IOException {
+        return handshake(factory.createSocket(address, port, localAddress, localPort));
+    }
+
+    private static Socket handshake(final Socket socket) throws IOException {
+        final SSLSocket secured = (SSLSocket) socket;
+        try {
+            final SSLParameters parameters = secured.getSSLParameters();
+            parameters.setEndpointIdentificationAlgorithm(ENDPOINT_IDENTIFICATION_ALGORITHM);
+            secured.setSSLParameters(parameters);
+            secured.startHandshake();
+        } catch (IOException e) {
+            secured.close();
+            throw e;
+        }
+        return secured;
+    }
+}
@@ -0,0 +1,478 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.client.example;
+
+import lombok.Value;
+
+import javax.net.SocketFactory;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Replayer of the traffic captured by the server. Every captured session is replayed by its own connection, opened at
+ * the time the session started and sending every request at the time it arrived, so the replay keeps the original
+ * concurrency and inter-arrival gaps, both divided by the speed-up factor. Like {@link LoadGenerator}, the requests are
+ * sent on schedule whether the previous responses have arrived or not, and the latency of a response is measured from
+ * the scheduled time of its request. Every response is compared with the captured one.
+ * <p>
+ * The capture has a line per event of tab-separated fields: the event type ({@code START}, {@code INPUT},
+ * {@code OUTPUT} or {@code END}), the name of the session, the microseconds since the capture started and, for the
+ * INPUT and OUTPUT events, the escaped input line or the response. The exit command isn't replayed, the connection's
+ * output is shut down at the time the session ended instead, and a session is replayed only up to the binary command,
+ * the binary frames aren't captured. The values put into an accumulator are sent but no response is expected for
+ * them, as the server doesn't answer them.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class TrafficReplayer {
+
+    /**
+     * Maximum number of mismatches listed in the report, the rest are only counted.
+     */
+    static final int MAX_LISTED_MISMATCHES = 100;
+
+    private static final Logger LOGGER = Logger.getLogger(TrafficReplayer.class.getName());
+
+    private static final String SESSION_THREAD_NAME = "replay-session-";
+    private static final String RECEIVER_THREAD_NAME = "replay-receiver-";
+    private static final String FIELD_SEPARATOR = "\t";
+    private static final int FIELDS = 4;
+    private static final String START_EVENT = "START";
+    private static final String INPUT_EVENT = "INPUT";
+    private static final String OUTPUT_EVENT = "OUTPUT";
+    private static final String END_EVENT = "END";
+    private static final String EXIT_COMMAND = "QUIT";
+    private static final String BINARY_COMMAND = "BINARY";
+    private static final String PUT_COMMAND_PREFIX = "PUT ";
+    private static final String LINE_SEPARATOR = "\n";
+    private static final long START_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final String host;
+    private final int port;
+    private final SocketFactory socketFactory;
+    private final List<CapturedSession> sessions;
+    private final double speed;
+    private final long firstMicros;
+    private final AtomicLong mismatched = new AtomicLong();
+    private final List<Mismatch> mismatches = Collections.synchronizedList(new ArrayList<>());
+
+    private long start;
+
+    /**
+     * Constructor. Reads the capture.
+     *
+     * @param host    Server host.
+     * @param port          Server port.
+     * @param socketFactory Factory of the sessions' sockets.
+     * @param capture       File of the capture.
+     * @param speed         Speed-up factor: {@literal 2} replays the traffic in half the time.
+     * @throws IllegalArgumentException If the speed isn't positive or the capture isn't valid.
+     * @throws IOException              If the capture can't be read.
+     */
+    TrafficReplayer(final String host, final int port, final SocketFactory socketFactory, final Path capture,
+                    final double speed) throws IOException {
+        if (!(speed > 0) || Double.isInfinite(speed)) {
+            throw new IllegalArgumentException("Speed must be positive");
+        }
+
+        this.host = host;
+        this.port = port;
+        this.socketFactory = socketFactory;
+        this.speed = speed;
+        try (BufferedReader reader = Files.newBufferedReader(capture, StandardCharsets.UTF_8)) {
+            sessions = read(reader);
+        }
+        firstMicros = sessions.isEmpty() ? 0 : sessions.get(0).startMicros;
+    }
+
+    /**
+     * Replays the sessions and waits for all the responses.
+     *
+     * @return The report.
+     * @throws InterruptedException If interrupted while waiting for the sessions.
+     */
+    Report run() throws InterruptedException {
+        final List<Replay> replays = new ArrayList<>(sessions.size());
+        for (int i = 0; i < sessions.size(); i++) {
+            replays.add(new Replay(i, sessions.get(i)));
+        }
+
+        start = System.nanoTime() + START_DELAY_NANOS;
+        for (Replay replay : replays) {
+            replay.thread.start();
+        }
+        for (Replay replay : replays) {
+            replay.thread.join();
+        }
+        final long elapsedNanos = System.nanoTime() - start;
+
+        final LatencyHistogram histogram = new LatencyHistogram();
+        long sent = 0;
+        for (Replay replay : replays) {
+            sent += replay.sent;
+            histogram.add(replay.histogram);
+        }
+        final List<Mismatch> listed;
+        synchronized (mismatches) {
+            listed = new ArrayList<>(mismatches);
+        }
+        return new Report(sessions.size(), sent, histogram.getCount(), elapsedNanos, histogram, mismatched.get(),
+                listed);
+    }
+
+    /**
+     * Unescapes an input line of the capture.
+     *
+     * @param input Escaped input line.
+     * @return The input line.
+     * @throws IllegalArgumentException If an escape sequence isn't valid.
+     */
+    static String unescape(final String input) {
+        if (input.indexOf('\\') < 0) {
+            return input;
+        }
+
+        final StringBuilder builder = new StringBuilder(input.length());
+        for (int i = 0; i < input.length(); i++) {
+            final char c = input.charAt(i);
+            if (c != '\\') {
+                builder.append(c);
+                continue;
+            }
+
+            final char escaped = ++i < input.length() ? input.charAt(i) : 0;
+            switch (escaped) {
+                case '\\':
+                    builder.append('\\');
+                    break;
+                case 't':
+                    builder.append('\t');
+                    break;
+                case 'r':
+                    builder.append('\r');
+                    break;
+                case 'n':
+                    builder.append('\n');
+                    break;
+                default:
+                    throw new IllegalArgumentException(MessageFormat.format("Invalid escape sequence in {0}", input));
+            }
+        }
+        return builder.toString();
+    }
+
+    private static List<CapturedSession> read(final BufferedReader reader) throws IOException {
+        final List<CapturedSession> read = new ArrayList<>();
+        final Map<String, CapturedSession> open = new HashMap<>();
+        long lastMicros = 0;
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isEmpty()) {
+                continue;
+            }
+
+            final String[] fields = line.split(FIELD_SEPARATOR, FIELDS);
+            final long micros;
+            try {
+                micros = Long.parseLong(fields.length > 2 ? fields[2] : "");
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(MessageFormat.format("Invalid capture time at line {0}",
+                        lineNumber), e);
+            }
+            lastMicros = Math.max(lastMicros, micros);
+
+            final String type = fields[0];
+            final String name = fields[1];
+            CapturedSession session = open.get(name);
+            if (session == null && !type.equals(END_EVENT)) {
+                session = new CapturedSession(name, micros);
+                open.put(name, session);
+                read.add(session);
+            }
+
+            if (type.equals(START_EVENT)) {
+                continue;
+            } else if (type.equals(END_EVENT)) {
+                if (session != null) {
+                    session.endMicros = micros;
+                    open.remove(name);
+                }
+                continue;
+            } else if (fields.length < FIELDS || !type.equals(INPUT_EVENT) && !type.equals(OUTPUT_EVENT)) {
+                throw new IllegalArgumentException(MessageFormat.format("Invalid capture event at line {0}",
+                        lineNumber));
+            }
+
+            if (session.binary) {
+                continue;
+            }
+            if (type.equals(OUTPUT_EVENT)) {
+                session.responses.add(fields[3]);
+                continue;
+            }
+
+            final String input = unescape(fields[3]);
+            if (input.equals(BINARY_COMMAND)) {
+                session.binary = true;
+            } else if (!input.equals(EXIT_COMMAND)) {
+                session.requests.add(input);
+                session.requestMicros.add(micros);
+                if (!input.startsWith(PUT_COMMAND_PREFIX)) {
+                    session.answered.add(session.requests.size() - 1);
+                }
+            }
+        }
+
+        for (CapturedSession session : open.values()) {
+            session.endMicros = lastMicros;
+        }
+        return read;
+    }
+
+    private long scheduledTime(final long micros) {
+        return start + (long) (TimeUnit.MICROSECONDS.toNanos(micros - firstMicros) / speed);
+    }
+
+    private void mismatch(final String session, final int index, final String request, final String expected,
+                          final String actual) {
+        if (mismatched.incrementAndGet() <= MAX_LISTED_MISMATCHES) {
+            mismatches.add(new Mismatch(session, index, request, expected, actual));
+        }
+    }
+
+    private static void parkUntil(final long time) {
+        long wait;
+        while ((wait = time - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+
+    /**
+     * Result of a replay.
+     */
+    @Value
+    static class Report {
+
+        /**
+         * Sessions replayed.
+         */
+        int sessions;
+
+        /**
+         * Requests sent.
+         */
+        long sent;
+
+        /**
+         * Responses received.
+         */
+        long received;
+
+        /**
+         * Time from the start of the first session to the last response, in nanoseconds.
+         */
+        long elapsedNanos;
+
+        /**
+         * Latencies of the responses, from the scheduled time of their requests.
+         */
+        LatencyHistogram latencies;
+
+        /**
+         * Responses different from the captured ones, including the missing ones.
+         */
+        long mismatched;
+
+        /**
+         * The first {@link #MAX_LISTED_MISMATCHES} mismatches.
+         */
+        List<Mismatch> mismatches;
+    }
+
+    /**
+     * Response different from the captured one.
+     */
+    @Value
+    static class Mismatch {
+
+        /**
+         * Name of the captured session.
+         */
+        String session;
+
+        /**
+         * Index of the request in the session, from {@literal 0}.
+         */
+        int index;
+
+        /**
+         * Request.
+         */
+        String request;
+
+        /**
+         * Captured response; {@literal null} if the session ended before it was captured.
+         */
+        String expected;
+
+        /**
+         * Replayed response; {@literal null} if the server closed the session before answering.
+         */
+        String actual;
+    }
+
+    /**
+     * Session read from the capture.
+     */
+    private static final class CapturedSession {
+
+        private final String name;
+        private final long startMicros;
+        private final List<String> requests = new ArrayList<>();
+        private final List<Long> requestMicros = new ArrayList<>();
+        // Indexes of the requests the server answers, in order; the responses match them.
+        private final List<Integer> answered = new ArrayList<>();
+        private final List<String> responses = new ArrayList<>();
+        private long endMicros;
+        private boolean binary;
+
+        private CapturedSession(final String name, final long startMicros) {
+            this.name = name;
+            this.startMicros = startMicros;
+            endMicros = startMicros;
+        }
+
+        private String expected(final int index) {
+            return index < responses.size() ? responses.get(index) : null;
+        }
+    }
+
+    /**
+     * Replay of a session: its thread connects and sends the requests, a second thread reads the responses. The sender
+     * writes the sent count and the receiver the received count and the histogram, they're read after both threads end.
+     */
+    private final class Replay {
+
+        private final CapturedSession session;
+        private final Thread thread;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private long sent;
+        private int received;
+
+        private Replay(final int index, final CapturedSession session) {
+            this.session = session;
+            thread = new Thread(() -> replay(index), SESSION_THREAD_NAME + index);
+        }
+
+        private void replay(final int index) {
+            parkUntil(scheduledTime(session.startMicros));
+            try (Socket socket = socketFactory.createSocket(host, port)) {
+                socket.setTcpNoDelay(true);
+                final OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+                final BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+                reader.readLine();
+
+                final Thread receiver = new Thread(() -> receive(reader), RECEIVER_THREAD_NAME + index);
+                receiver.start();
+                try {
+                    send(out);
+                    socket.shutdownOutput();
+                } catch (IOException e) {
+                    socket.close();
+                    throw e;
+                } finally {
+                    receiver.join();
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, session.name, e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            for (int i = received; i < session.answered.size(); i++) {
+                final int request = session.answered.get(i);
+                mismatch(session.name, request, session.requests.get(request), session.expected(i), null);
+            }
+        }
+
+        /**
+         * Writes every request at its scheduled time, flushing before waiting, and waits for the end of the session.
+         */
+        private void send(final OutputStream out) throws IOException {
+            for (int i = 0; i < session.requests.size(); i++) {
+                final long scheduled = scheduledTime(session.requestMicros.get(i));
+                if (scheduled - System.nanoTime() > 0) {
+                    out.flush();
+                    parkUntil(scheduled);
+                }
+                out.write((session.requests.get(i) + LINE_SEPARATOR).getBytes(Charset.defaultCharset()));
+                sent++;
+            }
+            out.flush();
+            parkUntil(scheduledTime(session.endMicros));
+        }
+
+        private void receive(final BufferedReader reader) {
+            try {
+                String response;
+                while (received < session.answered.size() && (response = reader.readLine()) != null) {
+                    final int index = session.answered.get(received);
+                    histogram.record(System.nanoTime() - scheduledTime(session.requestMicros.get(index)));
+                    final String expected = session.expected(received);
+                    if (!response.equals(expected)) {
+                        mismatch(session.name, index, session.requests.get(index), expected, response);
+                    }
+                    received++;
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, session.name, e);
+            }
+        }
+    }
+}
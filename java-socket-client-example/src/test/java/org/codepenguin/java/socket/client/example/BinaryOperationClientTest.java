@@ -0,0 +1,298 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.client.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.net.SocketFactory;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for {@link BinaryOperationClient} and {@link OperationResult}.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+class BinaryOperationClientTest {
+
+    private static final String LOCALHOST = "localhost";
+    private static final String WELCOME_MESSAGE = "Binary Operation Server\tv.1.0-SNAPSHOT";
+    private static final String DROP_COMMAND = "DROP";
+
+    private ServerSocket server;
+    private Thread acceptor;
+    private volatile String welcomeMessage = WELCOME_MESSAGE;
+    private volatile CountDownLatch welcome = new CountDownLatch(0);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new ServerSocket(0);
+        acceptor = new Thread(this::accept);
+        acceptor.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException, InterruptedException {
+        server.close();
+        acceptor.join();
+    }
+
+    @Test
+    void callsReturnTypedResults() throws Exception {
+        try (BinaryOperationClient client = new BinaryOperationClient(LOCALHOST, server.getLocalPort(), 2)) {
+            assertEquals("Binary Operation Server", client.getServerName());
+            assertEquals("v.1.0-SNAPSHOT", client.getServerVersion());
+
+            final OperationResult sum = client.calculate(1, '+', 2).get(5, TimeUnit.SECONDS);
+            assertTrue(sum.isOk());
+            assertEquals("1 + 2\t3", sum.getMessage());
+            assertEquals(3D, sum.getValue());
+            assertEquals(new BigDecimal("3"), sum.getDecimalValue());
+
+            final OperationResult error = client.calculate(1.5, '?', 2.5).get(5, TimeUnit.SECONDS);
+            assertFalse(error.isOk());
+            assertEquals(ResponseErrorType.INPUT_OPERATOR_IS_NOT_VALID, error.getErrorType());
+            assertThrows(IllegalStateException.class, error::getValue);
+
+            assertEquals("EVAL (1 + 2) * 3\t0",
+                    client.evaluate("(1 + 2) * 3").get(5, TimeUnit.SECONDS).getMessage());
+            assertEquals("BATCH * 1.0,2.0 3.0\t0",
+                    client.batch('*', new double[]{1, 2}, new double[]{3}).get(5, TimeUnit.SECONDS).getMessage());
+            assertEquals(0, client.getOutstandingRequests());
+        }
+    }
+
+    @Test
+    void concurrentRequestsArePipelinedInOrder() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (BinaryOperationClient client = new BinaryOperationClient(LOCALHOST, server.getLocalPort(), 2)) {
+            final List<Future<?>> callers = new ArrayList<>();
+            for (int caller = 0; caller < 4; caller++) {
+                final long first = caller;
+                callers.add(executor.submit(() -> {
+                    final List<CompletableFuture<OperationResult>> results = new ArrayList<>();
+                    for (long second = 0; second < 2000; second++) {
+                        results.add(client.calculate(first, '+', second));
+                    }
+                    for (int second = 0; second < results.size(); second++) {
+                        assertEquals(first + second, results.get(second).join().getValue());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> caller : callers) {
+                caller.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void failedConnectionFailsItsRequestsAndIsOpenedAgain() throws Exception {
+        try (BinaryOperationClient client = new BinaryOperationClient(LOCALHOST, server.getLocalPort(), 1)) {
+            final ExecutionException thrown = assertThrows(ExecutionException.class,
+                    () -> client.send(DROP_COMMAND).get(5, TimeUnit.SECONDS));
+            assertTrue(thrown.getCause() instanceof IOException);
+
+            while (client.getOutstandingRequests() > 0) {
+                Thread.yield();
+            }
+            assertEquals(4D, calculateOnceOpened(client).getValue());
+        }
+    }
+
+    @Test
+    void failedConnectionIsOpenedAgainWithoutBlockingTheCallers() throws Exception {
+        try (BinaryOperationClient client = new BinaryOperationClient(LOCALHOST, server.getLocalPort(), 1)) {
+            welcome = new CountDownLatch(1);
+            assertThrows(ExecutionException.class, () -> client.send(DROP_COMMAND).get(5, TimeUnit.SECONDS));
+
+            // The welcome message is held back, so the connection is being opened again while the callers send.
+            final CompletableFuture<OperationResult> result = client.calculate(2, '+', 2);
+            assertTrue(result.isCompletedExceptionally());
+            assertTrue(client.calculate(3, '+', 3).isCompletedExceptionally());
+
+            welcome.countDown();
+            assertEquals(4D, calculateOnceOpened(client).getValue());
+        }
+    }
+
+    @Test
+    void connectionsAreOpenedWithTheSocketFactory() throws Exception {
+        final AtomicInteger sockets = new AtomicInteger();
+        final SocketFactory socketFactory = new SocketFactory() {
+            @Override
+            public Socket createSocket(final String host, final int port) throws IOException {
+                sockets.incrementAndGet();
+                return new Socket(host, port);
+            }
+
+            @Override
+            public Socket createSocket(final String host, final int port, final InetAddress localHost,
+                                       final int localPort) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Socket createSocket(final InetAddress host, final int port) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Socket createSocket(final InetAddress address, final int port, final InetAddress localAddress,
+                                       final int localPort) {
+                throw new UnsupportedOperationException();
+            }
+        };
+
+        try (BinaryOperationClient client = new BinaryOperationClient(LOCALHOST, server.getLocalPort(), socketFactory,
+                1)) {
+            assertEquals(1, sockets.get());
+            assertThrows(ExecutionException.class, () -> client.send(DROP_COMMAND).get(5, TimeUnit.SECONDS));
+            assertEquals(4D, calculateOnceOpened(client).getValue());
+            assertEquals(2, sockets.get());
+        }
+    }
+
+    @Test
+    void rejectedSessionIsNotOpened() {
+        welcomeMessage = "ERR\tSERVER_BUSY";
+        assertThrows(IOException.class, () -> new BinaryOperationClient(LOCALHOST, server.getLocalPort(), 1));
+    }
+
+    @Test
+    void requestsAfterCloseFail() throws IOException {
+        final BinaryOperationClient client = new BinaryOperationClient(LOCALHOST, server.getLocalPort(), 1);
+        client.close();
+
+        assertThrows(ExecutionException.class, () -> client.calculate(1, '+', 2).get(5, TimeUnit.SECONDS));
+        assertThrows(IllegalArgumentException.class, () -> client.send("QUIT"));
+        assertThrows(IllegalArgumentException.class, () -> client.send("1 + 2\n3 + 4"));
+        assertThrows(IllegalArgumentException.class, () -> client.send("OPEN a"));
+        assertThrows(IllegalArgumentException.class, () -> client.send("PUT a 1,2"));
+        assertThrows(IllegalArgumentException.class, () -> new BinaryOperationClient(LOCALHOST, 1, 0));
+    }
+
+    @Test
+    void operationResultValueOfResponse() {
+        final OperationResult batch = OperationResult.valueOfResponse("OK\t5,7.5,Infinity");
+        assertArrayEquals(new double[]{5, 7.5, Double.POSITIVE_INFINITY}, batch.getValues());
+        assertNull(batch.getErrorType());
+
+        final OperationResult exact = OperationResult.valueOfResponse("OK\t1e20 * 3\t300000000000000000000");
+        assertEquals(new BigDecimal("300000000000000000000"), exact.getDecimalValue());
+
+        final OperationResult unknown = OperationResult.valueOfResponse("ERR\tINPUT_IS_TOO_LONG");
+        assertEquals(ResponseErrorType.UNKNOWN, unknown.getErrorType());
+        assertEquals("INPUT_IS_TOO_LONG", unknown.getErrorName());
+
+        assertEquals(ResponseErrorType.SERVER_BUSY,
+                OperationResult.valueOfResponse("ERR\tSERVER_BUSY").getErrorType());
+        assertThrows(IllegalArgumentException.class, () -> OperationResult.valueOfResponse("Binary Operation Server"));
+    }
+
+    /**
+     * Adds two and two until the connection is open again.
+     */
+    private static OperationResult calculateOnceOpened(final BinaryOperationClient client) throws Exception {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            try {
+                return client.calculate(2, '+', 2).get(5, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                if (System.nanoTime() > deadline) {
+                    throw e;
+                }
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    private void accept() {
+        try {
+            while (true) {
+                final Socket socket = server.accept();
+                new Thread(() -> answer(socket)).start();
+            }
+        } catch (SocketException e) {
+            // The server socket is closed.
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Answers like the server: an error for the unknown operators, the sum for the additions and an OK with the input
+     * and a zero otherwise. Closes the connection without answering the drop command.
+     */
+    private void answer(final Socket socket) {
+        try (Socket closed = socket;
+             PrintWriter writer = new PrintWriter(closed.getOutputStream(), true);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(closed.getInputStream()))) {
+            welcome.await();
+            writer.println(welcomeMessage);
+            String input;
+            while ((input = reader.readLine()) != null && !input.equals(DROP_COMMAND)) {
+                final String[] parts = input.split(" ");
+                if (input.contains("?")) {
+                    writer.println("ERR\tINPUT_OPERATOR_IS_NOT_VALID");
+                } else if (parts.length == 3 && parts[1].equals("+")) {
+                    writer.println("OK\t" + input + "\t" + (Long.parseLong(parts[0]) + Long.parseLong(parts[2])));
+                } else {
+                    writer.println("OK\t" + input + "\t0");
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.client.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for {@link LatencyHistogram}.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+class LatencyHistogramTest {
+
+    private static final int VALUES = 100_000;
+    private static final double MAX_RELATIVE_ERROR = 1.0 / 64;
+
+    @Test
+    void indexOfAndHighestValueOfAreConsistent() {
+        final Random random = new Random(0);
+        for (int i = 0; i < VALUES; i++) {
+            final long value = random.nextLong() >>> 1 + random.nextInt(Long.SIZE - 1);
+            final int index = LatencyHistogram.indexOf(value);
+            assertTrue(LatencyHistogram.highestValueOf(index) >= value);
+            assertTrue(index == 0 || LatencyHistogram.highestValueOf(index - 1) < value);
+        }
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.highestValueOf(LatencyHistogram.indexOf(Long.MAX_VALUE)));
+    }
+
+    @Test
+    void getPercentileWithinRelativeError() {
+        final Random random = new Random(0);
+        final long[] values = new long[VALUES];
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < VALUES; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * 20);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double percentile : new double[]{50, 90, 99, 99.9, 100}) {
+            final long expected = values[(int) Math.ceil(percentile / 100 * VALUES) - 1];
+            final long actual = histogram.getPercentile(percentile);
+            assertTrue(actual >= expected && actual <= expected + expected * MAX_RELATIVE_ERROR,
+                    percentile + ": " + expected + " " + actual);
+        }
+        assertEquals(values[VALUES - 1], histogram.getMax());
+        assertEquals(VALUES, histogram.getCount());
+    }
+
+    @Test
+    void add() {
+        final LatencyHistogram first = new LatencyHistogram();
+        final LatencyHistogram second = new LatencyHistogram();
+        first.record(10);
+        second.record(1_000_000);
+        second.record(-5);
+
+        first.add(second);
+
+        assertEquals(3, first.getCount());
+        assertEquals(1_000_000, first.getMax());
+        assertEquals(0, first.getPercentile(1));
+        assertEquals(10, first.getPercentile(50));
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.client.example;
+
+import org.junit.jupiter.api.Test;
+
+import javax.net.SocketFactory;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for {@link LoadGenerator} and {@link OperationMix}.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+class LoadGeneratorTest {
+
+    private static final String LOCALHOST = "localhost";
+    private static final int CONNECTIONS = 2;
+    private static final double RATE = 1000;
+    private static final long DURATION_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+    @Test
+    void runCountsResponsesAndErrorsByType() throws IOException, InterruptedException {
+        try (ServerSocket server = new ServerSocket(0)) {
+            final Thread acceptor = new Thread(() -> {
+                for (int i = 0; i < CONNECTIONS; i++) {
+                    try {
+                        final Socket socket = server.accept();
+                        new Thread(() -> answer(socket)).start();
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            });
+            acceptor.start();
+
+            final LoadGenerator.Report report = new LoadGenerator(LOCALHOST, server.getLocalPort(),
+                    SocketFactory.getDefault(), CONNECTIONS, RATE, DURATION_NANOS, new OperationMix("+=1,?=1")).run();
+            acceptor.join();
+
+            assertEquals(500, report.getSent(), 2);
+            assertEquals(report.getSent(), report.getReceived());
+            assertEquals(report.getReceived(), report.getLatencies().getCount());
+            assertEquals(1, report.getErrors().size());
+            final long errors = report.getErrors().get("INPUT_OPERATOR_IS_NOT_VALID");
+            assertTrue(errors > 0 && errors < report.getReceived());
+            assertTrue(report.getThroughput() > 0);
+        }
+    }
+
+    @Test
+    void operationMixNextRequest() {
+        final OperationMix mix = new OperationMix(" * = 3 , / = 1 ");
+        final Random random = new Random(0);
+        int multiplications = 0;
+        for (int i = 0; i < 4000; i++) {
+            final String[] parts = mix.nextRequest(random).split(" ");
+            assertEquals(3, parts.length);
+            Float.parseFloat(parts[0]);
+            Float.parseFloat(parts[2]);
+            if (parts[1].equals("*")) {
+                multiplications++;
+            } else {
+                assertEquals("/", parts[1]);
+            }
+        }
+        assertEquals(3000, multiplications, 150);
+    }
+
+    @Test
+    void operationMixWhenNotValid() {
+        for (String mix : new String[]{null, " ", "+", "+=0", "+=a", "=1", "+=1,,-=1"}) {
+            assertThrows(IllegalArgumentException.class, () -> new OperationMix(mix), mix);
+        }
+    }
+
+    /**
+     * Answers like the server: the welcome message, then an error for the unknown operators and an OK otherwise.
+     */
+    private static void answer(final Socket socket) {
+        try (Socket closed = socket;
+             PrintWriter writer = new PrintWriter(closed.getOutputStream(), true);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(closed.getInputStream()))) {
+            writer.println("Binary Operation Server\tv.1.0-SNAPSHOT");
+            String input;
+            while ((input = reader.readLine()) != null) {
+                writer.println(input.contains("?") ? "ERR\tINPUT_OPERATOR_IS_NOT_VALID" : "OK\t" + input + "\t0");
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.client.example;
+
+import org.junit.jupiter.api.Test;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLServerSocket;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSocket;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for {@link TlsSocketFactory}.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+class TlsSocketFactoryTest {
+
+    private static final String LOCALHOST = "localhost";
+    private static final String WELCOME_MESSAGE = "Binary Operation Server\tv.1.0-SNAPSHOT";
+    private static final char[] PASSWORD = "changeit".toCharArray();
+
+    @Test
+    void createSocketResumesTheSession() throws IOException, GeneralSecurityException, URISyntaxException,
+            InterruptedException {
+        final TlsSocketFactory factory = TlsSocketFactory.create(resource("/tls/truststore.p12"), PASSWORD);
+        try (SSLServerSocket server = newServer()) {
+            final Thread acceptor = new Thread(() -> {
+                for (int i = 0; i < 2; i++) {
+                    try (Socket socket = server.accept();
+                         PrintWriter writer = new PrintWriter(socket.getOutputStream(), true)) {
+                        writer.println(WELCOME_MESSAGE);
+                        socket.getInputStream().read();
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            });
+            acceptor.start();
+
+            final SSLSession first = readWelcomeMessage(factory.createSocket(LOCALHOST, server.getLocalPort()));
+            final SSLSession second = readWelcomeMessage(factory.createSocket(LOCALHOST, server.getLocalPort()));
+            acceptor.join();
+
+            assertEquals("CN=localhost", first.getPeerPrincipal().getName());
+            assertEquals(first.getCreationTime(), second.getCreationTime());
+        }
+    }
+
+    @Test
+    void createSocketWhenTheServerIsNotTrusted() throws IOException, GeneralSecurityException, URISyntaxException {
+        final TlsSocketFactory factory = TlsSocketFactory.create(null, null);
+        try (SSLServerSocket server = newServer()) {
+            final Thread acceptor = new Thread(() -> {
+                try (SSLSocket socket = (SSLSocket) server.accept()) {
+                    socket.startHandshake();
+                } catch (IOException e) {
+                    // The client aborts the handshake
+                }
+            });
+            acceptor.start();
+
+            assertThrows(IOException.class, () -> factory.createSocket(LOCALHOST, server.getLocalPort()));
+        }
+    }
+
+    private static SSLSession readWelcomeMessage(final Socket socket) throws IOException {
+        try (SSLSocket secured = (SSLSocket) socket) {
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(secured.getInputStream()));
+            assertEquals(WELCOME_MESSAGE, reader.readLine());
+            return secured.getSession();
+        }
+    }
+
+    private static SSLServerSocket newServer() throws IOException, GeneralSecurityException, URISyntaxException {
+        final KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagers.init(KeyStore.getInstance(resource("/tls/server.p12").toFile(), PASSWORD), PASSWORD);
+        final SSLContext context = SSLContext.getInstance("TLS");
+        context.init(keyManagers.getKeyManagers(), null, null);
+        return (SSLServerSocket) context.getServerSocketFactory().createServerSocket(0);
+    }
+
+    private static Path resource(final String name) throws URISyntaxException {
+        return Paths.get(TlsSocketFactoryTest.class.getResource(name).toURI());
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.client.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.net.SocketFactory;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for {@link TrafficReplayer}.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+class TrafficReplayerTest {
+
+    private static final String LOCALHOST = "localhost";
+    private static final String FIRST = "first";
+    private static final String SECOND = "second";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void runReplaysTheSessionsOnScheduleAndComparesTheResponses() throws IOException, InterruptedException {
+        final Path capture = write(
+                "START\tfirst\t1000",
+                "INPUT\tfirst\t2000\t1 + 2",
+                "START\tsecond\t201000",
+                "OUTPUT\tfirst\t2010\tOK\t1 + 2\t0",
+                "INPUT\tsecond\t211000\ta\\tb",
+                "OUTPUT\tsecond\t211010\tOK\tchanged",
+                "INPUT\tsecond\t212000\tBINARY",
+                "OUTPUT\tsecond\t212010\tOK\tBINARY",
+                "INPUT\tsecond\t212100\tnot replayed",
+                "END\tsecond\t251000",
+                "INPUT\tfirst\t501000\t1 ? 2",
+                "OUTPUT\tfirst\t501010\tERR\tINPUT_OPERATOR_IS_NOT_VALID",
+                "INPUT\tfirst\t501100\tQUIT",
+                "END\tfirst\t501200");
+
+        final Map<String, List<Long>> arrivals = new ConcurrentHashMap<>();
+        try (ServerSocket server = new ServerSocket(0)) {
+            final Thread acceptor = new Thread(() -> {
+                for (int i = 0; i < 2; i++) {
+                    try {
+                        final Socket socket = server.accept();
+                        new Thread(() -> answer(socket, arrivals)).start();
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            });
+            acceptor.start();
+
+            final TrafficReplayer.Report report = new TrafficReplayer(LOCALHOST, server.getLocalPort(),
+                    SocketFactory.getDefault(), capture, 2).run();
+            acceptor.join();
+
+            assertEquals(2, report.getSessions());
+            assertEquals(3, report.getSent());
+            assertEquals(3, report.getReceived());
+            assertEquals(3, report.getLatencies().getCount());
+            assertTrue(report.getElapsedNanos() >= TimeUnit.MILLISECONDS.toNanos(100));
+            assertEquals(1, report.getMismatched());
+            assertEquals(new TrafficReplayer.Mismatch(SECOND, 0, "a\tb", "OK\tchanged", "OK\ta\tb\t0"),
+                    report.getMismatches().get(0));
+        }
+
+        final List<Long> first = arrivals.get("1 + 2");
+        final List<Long> second = arrivals.get("a\tb");
+        assertEquals(2, first.size());
+        assertEquals(1, second.size());
+        assertTrue(first.get(1) - first.get(0) >= TimeUnit.MILLISECONDS.toNanos(90));
+        assertTrue(second.get(0) - first.get(0) >= TimeUnit.MILLISECONDS.toNanos(25));
+    }
+
+    @Test
+    void runReportsTheMissingResponses() throws IOException, InterruptedException {
+        final Path capture = write("INPUT\tfirst\t0\t1 + 2", "OUTPUT\tfirst\t10\tOK\t1 + 2\t3");
+        try (ServerSocket server = new ServerSocket(0)) {
+            final Thread acceptor = new Thread(() -> {
+                try (Socket socket = server.accept();
+                     PrintWriter writer = new PrintWriter(socket.getOutputStream(), true)) {
+                    writer.println("Binary Operation Server\tv.1.0-SNAPSHOT");
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            acceptor.start();
+
+            final TrafficReplayer.Report report = new TrafficReplayer(LOCALHOST, server.getLocalPort(),
+                    SocketFactory.getDefault(), capture, 1).run();
+            acceptor.join();
+
+            assertEquals(1, report.getMismatched());
+            assertEquals(new TrafficReplayer.Mismatch(FIRST, 0, "1 + 2", "OK\t1 + 2\t3", null),
+                    report.getMismatches().get(0));
+        }
+    }
+
+    @Test
+    void runDoesNotWaitForThePutResponses() throws IOException, InterruptedException {
+        final Path capture = write("INPUT\tfirst\t0\tPUT a 1,2", "INPUT\tfirst\t100\t1 + 2",
+                "OUTPUT\tfirst\t110\tOK\t1 + 2\t3");
+        try (ServerSocket server = new ServerSocket(0)) {
+            final Thread acceptor = new Thread(() -> {
+                try (Socket socket = server.accept();
+                     PrintWriter writer = new PrintWriter(socket.getOutputStream(), true);
+                     BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream()))) {
+                    writer.println("Binary Operation Server\tv.1.0-SNAPSHOT");
+                    String input;
+                    while ((input = reader.readLine()) != null) {
+                        if (!input.startsWith("PUT ")) {
+                            writer.println("OK\t" + input + "\t3");
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            acceptor.start();
+
+            final TrafficReplayer.Report report = new TrafficReplayer(LOCALHOST, server.getLocalPort(),
+                    SocketFactory.getDefault(), capture, 1).run();
+            acceptor.join();
+
+            assertEquals(2, report.getSent());
+            assertEquals(1, report.getReceived());
+            assertEquals(0, report.getMismatched());
+        }
+    }
+
+    @Test
+    void constructorWhenNotValid() throws IOException {
+        final Path valid = write("START\tfirst\t0");
+        final SocketFactory socketFactory = SocketFactory.getDefault();
+        assertThrows(IllegalArgumentException.class, () -> new TrafficReplayer(LOCALHOST, 0, socketFactory, valid, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TrafficReplayer(LOCALHOST, 0, socketFactory, valid,
+                Double.NaN));
+        for (String event : new String[]{"START\tfirst", "START\tfirst\tnow", "READ\tfirst\t0\t1 + 2",
+                "INPUT\tfirst\t0", "INPUT\tfirst\t0\t1 \\x 2"}) {
+            final Path invalid = write(event);
+            assertThrows(IllegalArgumentException.class, () -> new TrafficReplayer(LOCALHOST, 0, socketFactory, invalid,
+                    1), event);
+        }
+    }
+
+    @Test
+    void unescape() {
+        final String plain = "1 + 2";
+        assertSame(plain, TrafficReplayer.unescape(plain));
+        assertEquals("a\tb\\c\rd\n", TrafficReplayer.unescape("a\\tb\\\\c\\rd\\n"));
+        assertThrows(IllegalArgumentException.class, () -> TrafficReplayer.unescape("a\\"));
+    }
+
+    private Path write(final String... events) throws IOException {
+        final Path capture = Files.createTempFile(directory, "traffic", ".capture");
+        Files.write(capture, Arrays.asList(events), StandardCharsets.UTF_8);
+        return capture;
+    }
+
+    /**
+     * Answers like the server, recording the arrival time of the requests by the first request of the session: the
+     * welcome message, then an error for the unknown operators and an OK otherwise.
+     */
+    private static void answer(final Socket socket, final Map<String, List<Long>> arrivals) {
+        try (Socket closed = socket;
+             PrintWriter writer = new PrintWriter(closed.getOutputStream(), true);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(closed.getInputStream()))) {
+            writer.println("Binary Operation Server\tv.1.0-SNAPSHOT");
+            List<Long> times = null;
+            String input;
+            while ((input = reader.readLine()) != null) {
+                if (times == null) {
+                    times = new CopyOnWriteArrayList<>();
+                    arrivals.put(input, times);
+                }
+                times.add(System.nanoTime());
+                writer.println(input.contains("?") ? "ERR\tINPUT_OPERATOR_IS_NOT_VALID" : "OK\t" + input + "\t0");
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
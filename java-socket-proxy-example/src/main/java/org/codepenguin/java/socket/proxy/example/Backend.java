@@ -0,0 +1,272 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.proxy.example;
+
+import org.codepenguin.java.socket.client.example.PipelinedConnection;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Backend server of the proxy, with a pool of {@link PipelinedConnection}s the requests of all the client sessions are
+ * pipelined over. A request goes to the connection with the fewest outstanding requests.
+ * <p>
+ * A connection that fails marks the backend as down and hands its outstanding requests to the failover; it's opened
+ * again for the next request once the health checks bring the backend up. Any server name and version are accepted,
+ * and the last welcome message read is kept, so the proxy can greet its own clients with it.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class Backend implements Closeable {
+
+    private static final Logger LOGGER = Logger.getLogger(Backend.class.getName());
+
+    private static final String EXIT_COMMAND = "QUIT";
+
+    private final String host;
+    private final int port;
+    private final String name;
+    private final Consumer<ProxyRequest> failover;
+    private final AtomicReferenceArray<PipelinedConnection<ProxyRequest>> connections;
+    private final PipelinedConnection.Listener<ProxyRequest> listener = new RequestListener();
+
+    private volatile String welcomeMessage;
+    private volatile boolean healthy;
+    private volatile boolean closed;
+
+    /**
+     * Constructor. The backend is down and its connections aren't opened until the first health check brings it up.
+     *
+     * @param address     Address of the server.
+     * @param connections Number of connections.
+     * @param failover    Receiver of the outstanding requests of the connections that fail.
+     * @throws IllegalArgumentException If the number of connections isn't positive.
+     */
+    Backend(final InetSocketAddress address, final int connections, final Consumer<ProxyRequest> failover) {
+        if (connections < 1) {
+            throw new IllegalArgumentException("Connections per backend must be positive");
+        }
+
+        this.host = address.getHostString();
+        this.port = address.getPort();
+        this.name = host + ':' + port;
+        this.failover = failover;
+        this.connections = new AtomicReferenceArray<>(connections);
+    }
+
+    /**
+     * Indicates if the backend is up, so requests can be routed to it.
+     *
+     * @return {@literal true} if it's up; otherwise, {@literal false}.
+     */
+    boolean isHealthy() {
+        return healthy;
+    }
+
+    /**
+     * Brings the backend up or down, logging the changes.
+     *
+     * @param healthy {@literal true} to bring it up; {@literal false} to bring it down.
+     */
+    void setHealthy(final boolean healthy) {
+        if (this.healthy != healthy) {
+            this.healthy = healthy;
+            LOGGER.log(healthy ? Level.INFO : Level.WARNING, "Backend {0} is {1}", new Object[]{name,
+                    healthy ? "up" : "down"});
+        }
+    }
+
+    /**
+     * Gets the last welcome message read from the server.
+     *
+     * @return The welcome message, {@code <server name>\t<server version>}; {@literal null} if none has been read.
+     */
+    String getWelcomeMessage() {
+        return welcomeMessage;
+    }
+
+    /**
+     * Gets the number of requests sent or queued whose responses haven't arrived, in all the connections.
+     *
+     * @return Outstanding requests.
+     */
+    int getOutstandingRequests() {
+        int outstanding = 0;
+        for (int i = 0; i < connections.length(); i++) {
+            final PipelinedConnection<ProxyRequest> connection = connections.get(i);
+            if (connection != null) {
+                outstanding += connection.getOutstandingRequests();
+            }
+        }
+        return outstanding;
+    }
+
+    /**
+     * Sends a request through the connection with the fewest outstanding requests, opening the missing and the failed
+     * ones.
+     *
+     * @param request The request.
+     * @return {@literal true} if the request is queued; {@literal false} if no connection could be opened, the backend
+     * is brought down then.
+     */
+    boolean send(final ProxyRequest request) {
+        PipelinedConnection<ProxyRequest> acquired = null;
+        for (int i = 0; i < connections.length(); i++) {
+            PipelinedConnection<ProxyRequest> connection = connections.get(i);
+            if (connection == null || connection.isFailed()) {
+                try {
+                    connection = reopen(i, connection);
+                } catch (IOException e) {
+                    LOGGER.log(Level.WARNING, name, e);
+                    setHealthy(false);
+                    continue;
+                }
+            }
+
+            if (acquired == null || connection.getOutstandingRequests() < acquired.getOutstandingRequests()) {
+                acquired = connection;
+            }
+        }
+
+        if (acquired == null) {
+            return false;
+        }
+        acquired.submit(request);
+        return true;
+    }
+
+    /**
+     * Opens a connection of its own, not pooled, for a session that leaves the text protocol.
+     *
+     * @return The socket, with the welcome message already read.
+     * @throws IOException If the connection can't be opened or the server rejects it.
+     */
+    Socket connect() throws IOException {
+        final Socket socket = new Socket(host, port);
+        try {
+            socket.setTcpNoDelay(true);
+            welcomeMessage = PipelinedConnection.readWelcomeMessage(socket.getInputStream());
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+        return socket;
+    }
+
+    /**
+     * Checks the liveness of the server: connects, reads the welcome message and ends the session.
+     *
+     * @param timeoutMillis Milliseconds to connect and to read the welcome message.
+     * @return {@literal true} if the server accepts the session; otherwise, {@literal false}.
+     */
+    boolean probe(final int timeoutMillis) {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(host, port), timeoutMillis);
+            socket.setSoTimeout(timeoutMillis);
+            welcomeMessage = PipelinedConnection.readWelcomeMessage(socket.getInputStream());
+            socket.getOutputStream().write((EXIT_COMMAND + '\n').getBytes(Charset.defaultCharset()));
+            return true;
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, name, e);
+            return false;
+        }
+    }
+
+    /**
+     * Closes the connections after the responses of the requests already sent arrive.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (int i = 0; i < connections.length(); i++) {
+            final PipelinedConnection<ProxyRequest> connection = connections.get(i);
+            if (connection != null) {
+                connection.end();
+            }
+        }
+
+        for (int i = 0; i < connections.length(); i++) {
+            final PipelinedConnection<ProxyRequest> connection = connections.get(i);
+            if (connection != null) {
+                connection.join(LoadBalancer.CLOSE_TIMEOUT_MILLIS);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    private synchronized PipelinedConnection<ProxyRequest> reopen(final int index,
+                                                                  final PipelinedConnection<ProxyRequest> failed)
+            throws IOException {
+        final PipelinedConnection<ProxyRequest> current = connections.get(index);
+        if (current != failed) {
+            return current;
+        }
+
+        final PipelinedConnection<ProxyRequest> connection = new PipelinedConnection<>(new Socket(host, port),
+                "backend-" + name + '-' + index, listener);
+        welcomeMessage = connection.getWelcomeMessage();
+        connections.set(index, connection);
+        return connection;
+    }
+
+    /**
+     * Completes the requests of every connection, and hands the outstanding ones of a failed connection to the
+     * failover.
+     */
+    private final class RequestListener implements PipelinedConnection.Listener<ProxyRequest> {
+
+        @Override
+        public void answered(final ProxyRequest request, final String response) {
+            request.complete(response);
+        }
+
+        @Override
+        public void unanswered(final ProxyRequest request, final IOException failure) {
+            failover.accept(request);
+        }
+
+        @Override
+        public void failed(final PipelinedConnection<ProxyRequest> connection, final IOException failure) {
+            if (!closed) {
+                LOGGER.log(Level.WARNING, name, failure);
+                setHealthy(false);
+            }
+        }
+    }
+}
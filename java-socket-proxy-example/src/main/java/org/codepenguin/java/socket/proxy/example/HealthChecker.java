@@ -0,0 +1,119 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.proxy.example;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Health checks of the backends, run periodically by a daemon thread. A backend is up while it accepts connections and
+ * greets them with the expected welcome message within the timeout: a server that doesn't run, hangs or rejects the
+ * sessions because it's busy fails the check. A backend is brought down after a few consecutive failed checks, so a
+ * check that times out once under load doesn't take a working backend out, and up again with the first check that
+ * succeeds. It's brought down between checks as well, as soon as one of its connections fails.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class HealthChecker implements Runnable, Closeable {
+
+    private static final String THREAD_NAME = "health-checker";
+
+    private final List<Backend> backends;
+    private final int timeoutMillis;
+    private final int failureThreshold;
+    private final int[] failures;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, THREAD_NAME);
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructor.
+     *
+     * @param backends         The backends.
+     * @param timeoutMillis    Milliseconds to connect and to read the welcome message.
+     * @param failureThreshold Consecutive failed checks that bring a backend down.
+     * @throws IllegalArgumentException If the timeout or the threshold aren't positive.
+     */
+    HealthChecker(final List<Backend> backends, final int timeoutMillis, final int failureThreshold) {
+        if (timeoutMillis < 1) {
+            throw new IllegalArgumentException("Health check timeout must be positive");
+        }
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("Health check failure threshold must be positive");
+        }
+
+        this.backends = backends;
+        this.timeoutMillis = timeoutMillis;
+        this.failureThreshold = failureThreshold;
+        this.failures = new int[backends.size()];
+    }
+
+    /**
+     * Checks the backends now and then periodically.
+     *
+     * @param intervalMillis Milliseconds between the end of a round of checks and the start of the next one.
+     * @throws IllegalArgumentException If the interval isn't positive.
+     */
+    void start(final long intervalMillis) {
+        if (intervalMillis < 1) {
+            throw new IllegalArgumentException("Health check interval must be positive");
+        }
+
+        run();
+        scheduler.scheduleWithFixedDelay(this, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Checks every backend once, bringing it up or down. Only one thread runs the checks at a time.
+     */
+    @Override
+    public synchronized void run() {
+        for (int i = 0; i < failures.length; i++) {
+            final Backend backend = backends.get(i);
+            if (backend.probe(timeoutMillis)) {
+                failures[i] = 0;
+                backend.setHealthy(true);
+            } else if (++failures[i] >= failureThreshold) {
+                backend.setHealthy(false);
+            }
+        }
+    }
+
+    /**
+     * Stops the periodic checks.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
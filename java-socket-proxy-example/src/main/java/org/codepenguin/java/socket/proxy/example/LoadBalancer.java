@@ -0,0 +1,230 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.proxy.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Routes every request line, not every session, to the healthy backend with the fewest outstanding requests; the ties
+ * are broken in turns, so idle backends share the load too. A slow backend accumulates outstanding requests and gets
+ * fewer new ones while it catches up.
+ * <p>
+ * The requests outstanding in a connection that fails are routed again to the backends still up. Every request routed
+ * is idempotent, its response depends only on its line, so a request the failed backend already answered can be sent
+ * again without changing the result; the accumulators, state of a session, aren't routed but pinned, see
+ * {@link ProxySession}. A request that runs out of attempts, or finds no backend up, is
+ * answered with the server busy error the backends use to reject sessions.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class LoadBalancer implements Closeable {
+
+    /**
+     * Milliseconds to wait for the outstanding responses on close.
+     */
+    static final long CLOSE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    /**
+     * Response of the requests that can't be routed.
+     */
+    static final String SERVER_BUSY_RESPONSE = "ERR\tSERVER_BUSY";
+
+    private static final Logger LOGGER = Logger.getLogger(LoadBalancer.class.getName());
+
+    private final List<Backend> backends;
+    private final int maxAttempts;
+    private final AtomicInteger turn = new AtomicInteger();
+    private final AtomicLong failedOver = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    private volatile boolean closed;
+
+    /**
+     * Constructor.
+     *
+     * @param addresses   Addresses of the backends.
+     * @param connections Connections per backend.
+     * @param maxAttempts Maximum times a request is routed, the first one included.
+     * @throws IllegalArgumentException If there are no backends, or the connections or the attempts aren't positive.
+     */
+    LoadBalancer(final List<InetSocketAddress> addresses, final int connections, final int maxAttempts) {
+        if (addresses.isEmpty()) {
+            throw new IllegalArgumentException("There must be at least one backend");
+        }
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Attempts must be positive");
+        }
+
+        final List<Backend> created = new ArrayList<>(addresses.size());
+        for (InetSocketAddress address : addresses) {
+            created.add(new Backend(address, connections, this::failover));
+        }
+        this.backends = Collections.unmodifiableList(created);
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Gets the backends.
+     *
+     * @return The backends, in the order of their addresses.
+     */
+    List<Backend> getBackends() {
+        return backends;
+    }
+
+    /**
+     * Gets the welcome message of a healthy backend, to greet the clients with.
+     *
+     * @return The welcome message, {@code <server name>\t<server version>}; {@literal null} if no backend is up.
+     */
+    String getWelcomeMessage() {
+        for (Backend backend : backends) {
+            final String welcomeMessage = backend.getWelcomeMessage();
+            if (backend.isHealthy() && welcomeMessage != null) {
+                return welcomeMessage;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the number of requests routed again after a connection failed.
+     *
+     * @return Requests failed over.
+     */
+    long getFailedOver() {
+        return failedOver.get();
+    }
+
+    /**
+     * Gets the number of requests answered with the server busy error.
+     *
+     * @return Requests rejected.
+     */
+    long getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * Routes a request. It's completed with the server busy error if no backend is up.
+     *
+     * @param request The request.
+     */
+    void route(final ProxyRequest request) {
+        request.attempt();
+        dispatch(request);
+    }
+
+    /**
+     * Opens a connection of its own to the healthy backend with the fewest outstanding requests.
+     *
+     * @return The socket, with the welcome message already read.
+     * @throws IOException If no backend is up or the connection can't be opened.
+     */
+    Socket connect() throws IOException {
+        final Backend backend = leastOutstanding();
+        if (backend == null) {
+            throw new IOException("No backend is up");
+        }
+        return backend.connect();
+    }
+
+    /**
+     * Closes the backends. The requests routed afterwards are rejected.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        backends.forEach(Backend::close);
+    }
+
+    /**
+     * Routes again a request outstanding in a failed connection, unless it has run out of attempts.
+     */
+    private void failover(final ProxyRequest request) {
+        if (closed || request.attempt() > maxAttempts) {
+            reject(request);
+            return;
+        }
+
+        failedOver.incrementAndGet();
+        dispatch(request);
+    }
+
+    private void dispatch(final ProxyRequest request) {
+        Backend backend;
+        while ((backend = leastOutstanding()) != null) {
+            if (backend.send(request)) {
+                return;
+            }
+        }
+        reject(request);
+    }
+
+    private void reject(final ProxyRequest request) {
+        rejected.incrementAndGet();
+        LOGGER.log(Level.FINE, "Request rejected: no backend is up");
+        request.complete(SERVER_BUSY_RESPONSE);
+    }
+
+    /**
+     * Picks the healthy backend with the fewest outstanding requests, starting in turns so the ties rotate.
+     */
+    private Backend leastOutstanding() {
+        if (closed) {
+            return null;
+        }
+
+        final int size = backends.size();
+        final int start = Math.floorMod(turn.getAndIncrement(), size);
+        Backend picked = null;
+        int fewest = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            final Backend backend = backends.get((start + i) % size);
+            if (backend.isHealthy()) {
+                final int outstanding = backend.getOutstandingRequests();
+                if (outstanding < fewest) {
+                    picked = backend;
+                    fewest = outstanding;
+                }
+            }
+        }
+        return picked;
+    }
+}
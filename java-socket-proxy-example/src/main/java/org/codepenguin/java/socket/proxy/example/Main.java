@@ -0,0 +1,167 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.proxy.example;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Main class.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+public final class Main {
+
+    private static final Logger LOGGER = Logger.getLogger(Main.class.getName());
+
+    private static final String PORT_OPTION = "p";
+    private static final String PORT_LONG_OPTION = "port";
+    private static final String PORT_DESCRIPTION = "Proxy port";
+    private static final String BACKENDS_OPTION = "b";
+    private static final String BACKENDS_LONG_OPTION = "backends";
+    private static final String BACKENDS_DESCRIPTION = "Backend servers, comma separated host:port addresses";
+    private static final String CONNECTIONS_OPTION = "c";
+    private static final String CONNECTIONS_LONG_OPTION = "connections";
+    private static final String CONNECTIONS_DESCRIPTION = "Connections per backend (default 2)";
+    private static final String HEALTH_INTERVAL_OPTION = "i";
+    private static final String HEALTH_INTERVAL_LONG_OPTION = "health-interval";
+    private static final String HEALTH_INTERVAL_DESCRIPTION = "Milliseconds between health checks (default 1000)";
+    private static final String HEALTH_TIMEOUT_OPTION = "t";
+    private static final String HEALTH_TIMEOUT_LONG_OPTION = "health-timeout";
+    private static final String HEALTH_TIMEOUT_DESCRIPTION = "Milliseconds a backend has to send its welcome "
+            + "message in a health check (default 500)";
+    private static final String HEALTH_FAILURES_OPTION = "f";
+    private static final String HEALTH_FAILURES_LONG_OPTION = "health-failures";
+    private static final String HEALTH_FAILURES_DESCRIPTION = "Consecutive failed health checks that bring a backend "
+            + "down (default 3)";
+    private static final String ATTEMPTS_OPTION = "a";
+    private static final String ATTEMPTS_LONG_OPTION = "attempts";
+    private static final String ATTEMPTS_DESCRIPTION = "Maximum times a request is routed when its backends fail "
+            + "(default 3)";
+    private static final String DEFAULT_CONNECTIONS = "2";
+    private static final String DEFAULT_HEALTH_INTERVAL = "1000";
+    private static final String DEFAULT_HEALTH_TIMEOUT = "500";
+    private static final String DEFAULT_HEALTH_FAILURES = "3";
+    private static final String DEFAULT_ATTEMPTS = "3";
+    private static final String ADDRESS_SEPARATOR = ",";
+    private static final int EXIT_STATUS = 1;
+
+    private Main() {
+    }
+
+    /**
+     * Main method. Starts the proxy in the specified port in front of the backend servers.
+     *
+     * @param args The arguments: [port] [backends] [connections] [health-interval] [health-timeout] [health-failures]
+     *             [attempts].
+     */
+    public static void main(String[] args) {
+        final CommandLine commandLine;
+        try {
+            commandLine = new DefaultParser().parse(buildOptions(), args);
+        } catch (ParseException e) {
+            LOGGER.log(Level.SEVERE, e.getMessage(), e);
+            close();
+            return;
+        }
+
+        final String portValue = commandLine.getOptionValue(PORT_OPTION);
+        final LoadBalancer balancer;
+        final HealthChecker checker;
+        final int port;
+        try {
+            port = Integer.parseInt(portValue);
+            balancer = new LoadBalancer(parseAddresses(commandLine.getOptionValue(BACKENDS_OPTION)),
+                    Integer.parseInt(commandLine.getOptionValue(CONNECTIONS_OPTION, DEFAULT_CONNECTIONS)),
+                    Integer.parseInt(commandLine.getOptionValue(ATTEMPTS_OPTION, DEFAULT_ATTEMPTS)));
+            checker = new HealthChecker(balancer.getBackends(),
+                    Integer.parseInt(commandLine.getOptionValue(HEALTH_TIMEOUT_OPTION, DEFAULT_HEALTH_TIMEOUT)),
+                    Integer.parseInt(commandLine.getOptionValue(HEALTH_FAILURES_OPTION, DEFAULT_HEALTH_FAILURES)));
+            checker.start(Long.parseLong(commandLine.getOptionValue(HEALTH_INTERVAL_OPTION,
+                    DEFAULT_HEALTH_INTERVAL)));
+        } catch (IllegalArgumentException e) {
+            LOGGER.log(Level.SEVERE, e.getMessage(), e);
+            close();
+            return;
+        }
+
+        try (ProxyServer server = new ProxyServer(port, balancer)) {
+            LOGGER.log(Level.INFO, "START_PROXY\t{0}\t{1}", new Object[]{port, balancer.getBackends()});
+            server.run();
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, portValue, e);
+            close();
+        } finally {
+            checker.close();
+            balancer.close();
+            LOGGER.log(Level.INFO, "STOP_PROXY\t{0}\t{1}\t{2}", new Object[]{port, balancer.getFailedOver(),
+                    balancer.getRejected()});
+        }
+    }
+
+    /**
+     * Parses the addresses of the backends. They're resolved when connecting, so a backend whose host can't be
+     * resolved yet is just down.
+     */
+    private static List<InetSocketAddress> parseAddresses(final String value) {
+        final List<InetSocketAddress> addresses = new ArrayList<>();
+        for (String address : value.split(ADDRESS_SEPARATOR)) {
+            final int separator = address.lastIndexOf(':');
+            if (separator <= 0) {
+                throw new IllegalArgumentException(MessageFormat.format("Backend address not valid: {0}", address));
+            }
+            addresses.add(InetSocketAddress.createUnresolved(address.substring(0, separator).trim(),
+                    Integer.parseInt(address.substring(separator + 1).trim())));
+        }
+        return addresses;
+    }
+
+    private static Options buildOptions() {
+        return new Options().addRequiredOption(PORT_OPTION, PORT_LONG_OPTION, true, PORT_DESCRIPTION)
+                .addRequiredOption(BACKENDS_OPTION, BACKENDS_LONG_OPTION, true, BACKENDS_DESCRIPTION)
+                .addOption(CONNECTIONS_OPTION, CONNECTIONS_LONG_OPTION, true, CONNECTIONS_DESCRIPTION)
+                .addOption(HEALTH_INTERVAL_OPTION, HEALTH_INTERVAL_LONG_OPTION, true, HEALTH_INTERVAL_DESCRIPTION)
+                .addOption(HEALTH_TIMEOUT_OPTION, HEALTH_TIMEOUT_LONG_OPTION, true, HEALTH_TIMEOUT_DESCRIPTION)
+                .addOption(HEALTH_FAILURES_OPTION, HEALTH_FAILURES_LONG_OPTION, true, HEALTH_FAILURES_DESCRIPTION)
+                .addOption(ATTEMPTS_OPTION, ATTEMPTS_LONG_OPTION, true, ATTEMPTS_DESCRIPTION);
+    }
+
+    private static void close() {
+        System.exit(EXIT_STATUS);
+    }
+}
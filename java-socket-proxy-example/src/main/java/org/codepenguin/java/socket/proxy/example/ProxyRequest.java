@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.proxy.example;
+
+import org.codepenguin.java.socket.client.example.PipelinedConnection;
+
+/**
+ * Request line of a client session on its way to a backend. The attempts are counted by one thread at a time, the one
+ * routing the request and then the failover of the connection it went through, so they aren't synchronized.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class ProxyRequest implements PipelinedConnection.Request {
+
+    private final byte[] line;
+    private final Runnable listener;
+    private int attempts;
+
+    private volatile String response;
+
+    /**
+     * Constructor.
+     *
+     * @param line     The request line, with its line separator.
+     * @param listener Notified when the request is completed.
+     */
+    ProxyRequest(final byte[] line, final Runnable listener) {
+        this.line = line;
+        this.listener = listener;
+    }
+
+    @Override
+    public byte[] getLine() {
+        return line;
+    }
+
+    /**
+     * Counts a new attempt to route the request.
+     *
+     * @return The attempts so far, this one included.
+     */
+    int attempt() {
+        return ++attempts;
+    }
+
+    /**
+     * Indicates if the response has arrived.
+     *
+     * @return {@literal true} if it has arrived; otherwise, {@literal false}.
+     */
+    boolean isCompleted() {
+        return response != null;
+    }
+
+    /**
+     * Gets the response.
+     *
+     * @return The response line, without line separator; {@literal null} if it hasn't arrived.
+     */
+    String getResponse() {
+        return response;
+    }
+
+    /**
+     * Completes the request and notifies its listener.
+     *
+     * @param response The response line, without line separator.
+     */
+    void complete(final String response) {
+        this.response = response;
+        listener.run();
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.proxy.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+/**
+ * TCP proxy in front of the backend servers. It accepts the clients and serves every one in a {@link ProxySession},
+ * that routes its requests through the {@link LoadBalancer}.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class ProxyServer implements Closeable {
+
+    private final ServerSocket serverSocket;
+    private final LoadBalancer balancer;
+
+    /**
+     * Constructor. Binds the proxy to the specified port.
+     *
+     * @param port     Proxy port, {@literal 0} for an ephemeral port.
+     * @param balancer Router of the requests.
+     * @throws IOException If an I/O error occurs.
+     */
+    ProxyServer(final int port, final LoadBalancer balancer) throws IOException {
+        this.serverSocket = new ServerSocket(port);
+        this.balancer = balancer;
+    }
+
+    /**
+     * Gets the port the proxy is bound to.
+     *
+     * @return The local port.
+     */
+    int getLocalPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accepts the clients until the proxy is closed.
+     *
+     * @throws IOException If an I/O error occurs while the proxy is open.
+     */
+    void run() throws IOException {
+        while (true) {
+            final Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (serverSocket.isClosed()) {
+                    return;
+                }
+                throw e;
+            }
+            new ProxySession(socket, balancer).start();
+        }
+    }
+
+    /**
+     * Stops accepting clients. The open sessions go on.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+}
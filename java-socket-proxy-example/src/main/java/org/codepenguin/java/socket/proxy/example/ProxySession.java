@@ -0,0 +1,302 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.proxy.example;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Thread of a client session of the proxy. It greets the client with the welcome message of a healthy backend, or
+ * rejects the session with the server busy error if no backend is up. It routes every request line on its own, so the
+ * requests of a single session are spread over the backends, while a writer thread answers them in the order they were
+ * received, as a backend does. The requests can be pipelined: the writer flushes once the next response hasn't arrived
+ * yet. A session with too many requests waiting for their responses stops reading, so a client can't pile up more
+ * requests than the backends are able to take.
+ * <p>
+ * The exit command ends the session once the previous requests are answered. After the binary command, or the first
+ * command of the accumulators, the session is pinned to a connection of its own to a backend, once the previous
+ * requests are answered: the binary frames aren't lines, and the accumulators are state of the backend's session whose
+ * values aren't answered. The pinned session is relayed as it is, without failover, and a broken relay ends it. As with
+ * the backends, the client must wait for the binary acknowledgement before sending the frames.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class ProxySession extends Thread {
+
+    private static final Logger LOGGER = Logger.getLogger(ProxySession.class.getName());
+
+    private static final String NAME_SEPARATOR = ":";
+    private static final String WRITER_THREAD_SUFFIX = "-writer";
+    private static final String RELAY_THREAD_SUFFIX = "-relay";
+    private static final String EXIT_COMMAND = "QUIT";
+    private static final String BINARY_COMMAND = "BINARY";
+    private static final String[] ACCUMULATOR_COMMANDS = {"OPEN ", "PUT ", "STATS ", "CLOSE "};
+    private static final int MAX_PENDING_REQUESTS = 4096;
+    private static final int BUFFER_CAPACITY = 8192;
+
+    private final Socket socket;
+    private final LoadBalancer balancer;
+
+    // Requests waiting to be answered, in the order they were received. Guarded by this.
+    private final Deque<ProxyRequest> pending = new ArrayDeque<>();
+    private boolean ended;
+    private boolean broken;
+
+    /**
+     * Constructor.
+     *
+     * @param socket   Socket of the client's session.
+     * @param balancer Router of the requests.
+     */
+    ProxySession(final Socket socket, final LoadBalancer balancer) {
+        super(ProxySession.class.getName() + NAME_SEPARATOR + socket.toString());
+        this.socket = socket;
+        this.balancer = balancer;
+    }
+
+    @Override
+    public void run() {
+        try (Socket client = socket;
+             InputStream in = client.getInputStream();
+             OutputStream out = new BufferedOutputStream(client.getOutputStream());
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, Charset.defaultCharset()))) {
+            client.setTcpNoDelay(true);
+            final String welcomeMessage = balancer.getWelcomeMessage();
+            if (welcomeMessage == null) {
+                out.write((LoadBalancer.SERVER_BUSY_RESPONSE + '\n').getBytes(Charset.defaultCharset()));
+                out.flush();
+                return;
+            }
+            out.write((welcomeMessage + '\n').getBytes(Charset.defaultCharset()));
+            out.flush();
+
+            final Thread writer = new Thread(() -> writeResponses(out), getName() + WRITER_THREAD_SUFFIX);
+            writer.start();
+
+            String input;
+            while ((input = reader.readLine()) != null && !input.equals(EXIT_COMMAND)) {
+                if (input.equals(BINARY_COMMAND) || isAccumulatorCommand(input)) {
+                    end();
+                    writer.join();
+                    relay(input, reader, in, out);
+                    return;
+                }
+
+                final ProxyRequest request = new ProxyRequest((input + '\n').getBytes(Charset.defaultCharset()),
+                        this::completed);
+                enqueue(request);
+                balancer.route(request);
+            }
+            end();
+            writer.join();
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, getName(), e);
+        } catch (InterruptedException e) {
+            LOGGER.log(Level.WARNING, getName(), e);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Wakes up the writer when a request is completed.
+     */
+    private synchronized void completed() {
+        notifyAll();
+    }
+
+    private synchronized void enqueue(final ProxyRequest request) throws IOException, InterruptedException {
+        while (pending.size() >= MAX_PENDING_REQUESTS && !broken) {
+            wait();
+        }
+        if (broken) {
+            throw new IOException("Session closed by the client");
+        }
+        pending.add(request);
+    }
+
+    private synchronized void end() {
+        ended = true;
+        notifyAll();
+    }
+
+    /**
+     * Writes the responses in order, flushing when the next one hasn't arrived yet.
+     */
+    private void writeResponses(final OutputStream out) {
+        try {
+            ProxyRequest request;
+            while ((request = nextCompleted()) != null) {
+                out.write((request.getResponse() + '\n').getBytes(Charset.defaultCharset()));
+                if (!isNextCompleted()) {
+                    out.flush();
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, getName(), e);
+            breakSession();
+        } catch (InterruptedException e) {
+            LOGGER.log(Level.WARNING, getName(), e);
+            breakSession();
+        }
+    }
+
+    /**
+     * Waits for the response of the oldest pending request.
+     *
+     * @return The completed request; {@literal null} if the session has ended and all its requests are answered.
+     */
+    private synchronized ProxyRequest nextCompleted() throws InterruptedException {
+        while (true) {
+            final ProxyRequest head = pending.peek();
+            if (head == null && ended) {
+                return null;
+            }
+            if (head != null && head.isCompleted()) {
+                pending.poll();
+                notifyAll();
+                return head;
+            }
+            wait();
+        }
+    }
+
+    private synchronized boolean isNextCompleted() {
+        final ProxyRequest head = pending.peek();
+        return head != null && head.isCompleted();
+    }
+
+    /**
+     * Closes the socket when the client can't be written to, so the reading fails too.
+     */
+    private void breakSession() {
+        synchronized (this) {
+            broken = true;
+            notifyAll();
+        }
+        try {
+            socket.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, getName(), e);
+        }
+    }
+
+    /**
+     * Relays the rest of the session to a backend, starting with the command that pinned it, until either side ends
+     * it. The text lines are relayed from the reader, that may hold the lines pipelined after the command, and the
+     * binary frames straight from the socket.
+     */
+    private void relay(final String command, final BufferedReader reader, final InputStream in,
+                       final OutputStream out) throws IOException, InterruptedException {
+        final Socket backend;
+        try {
+            backend = balancer.connect();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, getName(), e);
+            out.write((LoadBalancer.SERVER_BUSY_RESPONSE + '\n').getBytes(Charset.defaultCharset()));
+            out.flush();
+            return;
+        }
+
+        try (Socket relayed = backend) {
+            final OutputStream backendOut = new BufferedOutputStream(relayed.getOutputStream());
+            backendOut.write((command + '\n').getBytes(Charset.defaultCharset()));
+            backendOut.flush();
+
+            final Thread responses = new Thread(() -> {
+                try {
+                    transfer(relayed.getInputStream(), out);
+                } catch (IOException e) {
+                    LOGGER.log(Level.FINE, getName(), e);
+                } finally {
+                    breakSession();
+                }
+            }, getName() + RELAY_THREAD_SUFFIX);
+            responses.start();
+
+            if (command.equals(BINARY_COMMAND) || relayLines(reader, backendOut)) {
+                transfer(in, backendOut);
+            }
+            relayed.shutdownOutput();
+            responses.join();
+        }
+    }
+
+    /**
+     * Relays the text lines, flushing when no more are ready, until the session ends.
+     *
+     * @return {@literal true} if the binary command was relayed, so the frames follow; otherwise, {@literal false}.
+     */
+    private static boolean relayLines(final BufferedReader reader, final OutputStream out) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            out.write((line + '\n').getBytes(Charset.defaultCharset()));
+            if (line.equals(EXIT_COMMAND) || line.equals(BINARY_COMMAND)) {
+                out.flush();
+                return line.equals(BINARY_COMMAND);
+            }
+            if (!reader.ready()) {
+                out.flush();
+            }
+        }
+        out.flush();
+        return false;
+    }
+
+    private static boolean isAccumulatorCommand(final String input) {
+        for (String command : ACCUMULATOR_COMMANDS) {
+            if (input.startsWith(command)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void transfer(final InputStream in, final OutputStream out) throws IOException {
+        final byte[] buffer = new byte[BUFFER_CAPACITY];
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, read);
+            if (in.available() == 0) {
+                out.flush();
+            }
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.proxy.example;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Backend server of the tests on the loopback interface. It answers every request line with the line and its port, so
+ * the tests know which backend answered, and echoes the bytes after the binary command.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class FakeBackend implements Closeable {
+
+    /**
+     * Welcome message of the backend servers.
+     */
+    static final String WELCOME_MESSAGE = "Binary Operation Server\tv.1.0-SNAPSHOT";
+
+    private final ServerSocket serverSocket;
+    private final String welcomeMessage;
+    private final long delayMillis;
+    private final int crashAfter;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final List<Socket> sockets = new CopyOnWriteArrayList<>();
+
+    /**
+     * Constructor. Starts accepting clients.
+     *
+     * @param welcomeMessage Welcome message of the sessions.
+     * @param delayMillis    Milliseconds to wait before every response, or before crashing.
+     * @param crashAfter     Number of request lines received before closing every connection without answering the
+     *                       last one, {@literal 0} to never crash.
+     * @throws IOException If an I/O error occurs.
+     */
+    FakeBackend(final String welcomeMessage, final long delayMillis, final int crashAfter) throws IOException {
+        this.serverSocket = new ServerSocket(0);
+        this.welcomeMessage = welcomeMessage;
+        this.delayMillis = delayMillis;
+        this.crashAfter = crashAfter;
+
+        final Thread acceptor = new Thread(this::accept);
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Constructor of a backend that answers right away and never crashes.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    FakeBackend() throws IOException {
+        this(WELCOME_MESSAGE, 0, 0);
+    }
+
+    InetSocketAddress getAddress() {
+        return new InetSocketAddress("localhost", serverSocket.getLocalPort());
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Gets the number of request lines received, the health checks' exit commands excluded.
+     */
+    int getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * Gets the response to a request line.
+     */
+    String respond(final String request) {
+        return "OK\t" + request + '\t' + getPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+    }
+
+    private void accept() {
+        try {
+            while (true) {
+                final Socket socket = serverSocket.accept();
+                sockets.add(socket);
+                final Thread session = new Thread(() -> serve(socket));
+                session.setDaemon(true);
+                session.start();
+            }
+        } catch (IOException e) {
+            // Closed
+        }
+    }
+
+    private void serve(final Socket socket) {
+        try (Socket session = socket;
+             InputStream in = session.getInputStream();
+             OutputStream out = session.getOutputStream()) {
+            final PrintWriter writer = new PrintWriter(out, true);
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(in));
+            writer.println(welcomeMessage);
+
+            String line;
+            while ((line = reader.readLine()) != null && !line.equals("QUIT")) {
+                if (line.equals("BINARY")) {
+                    writer.println("OK\tBINARY");
+                    in.transferTo(out);
+                    return;
+                }
+
+                Thread.sleep(delayMillis);
+                if (requests.incrementAndGet() == crashAfter) {
+                    close();
+                    return;
+                }
+                writer.println(respond(line));
+            }
+        } catch (IOException e) {
+            // Closed
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.proxy.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for {@link HealthChecker}.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+class HealthCheckerTest {
+
+    private static final int TIMEOUT_MILLIS = 1000;
+
+    @Test
+    void runBringsTheBackendsUpAndDown() throws IOException {
+        final int closedPort;
+        try (ServerSocket closed = new ServerSocket(0)) {
+            closedPort = closed.getLocalPort();
+        }
+
+        try (FakeBackend up = new FakeBackend();
+             FakeBackend busy = new FakeBackend("ERR\tSERVER_BUSY", 0, 0);
+             ServerSocket hung = new ServerSocket(0);
+             FakeBackend other = new FakeBackend("Other Server\tv.2", 0, 0)) {
+            final LoadBalancer balancer = new LoadBalancer(Arrays.asList(up.getAddress(), busy.getAddress(),
+                    new InetSocketAddress("localhost", hung.getLocalPort()),
+                    new InetSocketAddress("localhost", closedPort), other.getAddress()), 1, 1);
+            final List<Backend> backends = balancer.getBackends();
+            backends.forEach(backend -> assertFalse(backend.isHealthy()));
+
+            final HealthChecker checker = new HealthChecker(backends, TIMEOUT_MILLIS, 2);
+            checker.run();
+            assertTrue(backends.get(0).isHealthy());
+            assertFalse(backends.get(1).isHealthy());
+            assertFalse(backends.get(2).isHealthy());
+            assertFalse(backends.get(3).isHealthy());
+            assertTrue(backends.get(4).isHealthy());
+            assertEquals(FakeBackend.WELCOME_MESSAGE, backends.get(0).getWelcomeMessage());
+            assertEquals("Other Server\tv.2", backends.get(4).getWelcomeMessage());
+            assertEquals(0, up.getRequests());
+
+            up.close();
+            checker.run();
+            assertTrue(backends.get(0).isHealthy());
+            checker.run();
+            assertFalse(backends.get(0).isHealthy());
+        }
+    }
+
+    @Test
+    void startWhenNotValid() {
+        assertThrows(IllegalArgumentException.class, () -> new HealthChecker(List.of(), 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new HealthChecker(List.of(), TIMEOUT_MILLIS, 0));
+        try (HealthChecker checker = new HealthChecker(List.of(), TIMEOUT_MILLIS, 1)) {
+            assertThrows(IllegalArgumentException.class, () -> checker.start(0));
+        }
+    }
+}
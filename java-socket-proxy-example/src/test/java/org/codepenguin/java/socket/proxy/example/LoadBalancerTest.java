@@ -0,0 +1,184 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.proxy.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for {@link LoadBalancer} and {@link Backend}.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+class LoadBalancerTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    /**
+     * Milliseconds the crashing backends wait before crashing, so the fallback can be brought up meanwhile.
+     */
+    private static final long CRASH_DELAY_MILLIS = 200;
+
+    @Test
+    void routeToTheBackendWithFewestOutstandingRequests() throws IOException, InterruptedException {
+        try (FakeBackend slow = new FakeBackend(FakeBackend.WELCOME_MESSAGE, 20, 0);
+             FakeBackend fast = new FakeBackend()) {
+            final LoadBalancer balancer = new LoadBalancer(Arrays.asList(slow.getAddress(), fast.getAddress()), 2, 1);
+            balancer.getBackends().forEach(backend -> backend.setHealthy(true));
+            try {
+                final List<String> lines = new ArrayList<>();
+                for (int i = 0; i < 100; i++) {
+                    lines.add(i + " + 1");
+                }
+                final CountDownLatch completed = new CountDownLatch(lines.size());
+                final List<ProxyRequest> requests = new ArrayList<>();
+                for (String line : lines) {
+                    requests.addAll(send(balancer, Collections.singletonList(line), completed));
+                    Thread.sleep(1);
+                }
+                assertTrue(completed.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+                for (int i = 0; i < lines.size(); i++) {
+                    final String response = requests.get(i).getResponse();
+                    assertTrue(response.equals(slow.respond(lines.get(i))) || response.equals(fast.respond(
+                            lines.get(i))), response);
+                }
+                assertEquals(lines.size(), slow.getRequests() + fast.getRequests());
+                assertTrue(slow.getRequests() > 0);
+                assertTrue(fast.getRequests() > slow.getRequests() * 2);
+                assertEquals(0, balancer.getBackends().get(0).getOutstandingRequests());
+                assertEquals(0, balancer.getFailedOver());
+            } finally {
+                balancer.close();
+            }
+        }
+    }
+
+    @Test
+    void routeFailsOverTheOutstandingRequests() throws IOException, InterruptedException {
+        try (FakeBackend crashing = new FakeBackend(FakeBackend.WELCOME_MESSAGE, CRASH_DELAY_MILLIS, 1);
+             FakeBackend fallback = new FakeBackend()) {
+            final LoadBalancer balancer = new LoadBalancer(Arrays.asList(crashing.getAddress(),
+                    fallback.getAddress()), 1, 2);
+            final Backend crashingBackend = balancer.getBackends().get(0);
+            crashingBackend.setHealthy(true);
+            try {
+                final List<String> lines = Arrays.asList("1 * 0", "1 * 1", "1 * 2");
+                final CountDownLatch completed = new CountDownLatch(lines.size());
+                final List<ProxyRequest> requests = send(balancer, lines, completed);
+                balancer.getBackends().get(1).setHealthy(true);
+                assertTrue(completed.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+                for (int i = 0; i < lines.size(); i++) {
+                    assertEquals(fallback.respond(lines.get(i)), requests.get(i).getResponse());
+                }
+                assertEquals(lines.size(), balancer.getFailedOver());
+                assertEquals(0, balancer.getRejected());
+                assertFalse(crashingBackend.isHealthy());
+            } finally {
+                balancer.close();
+            }
+        }
+    }
+
+    @Test
+    void routeWhenTheAttemptsRunOut() throws IOException, InterruptedException {
+        try (FakeBackend crashing = new FakeBackend(FakeBackend.WELCOME_MESSAGE, CRASH_DELAY_MILLIS, 1);
+             FakeBackend fallback = new FakeBackend()) {
+            final LoadBalancer balancer = new LoadBalancer(Arrays.asList(crashing.getAddress(),
+                    fallback.getAddress()), 1, 1);
+            balancer.getBackends().get(0).setHealthy(true);
+            try {
+                final CountDownLatch completed = new CountDownLatch(1);
+                final List<ProxyRequest> requests = send(balancer, Collections.singletonList("2 - 1"), completed);
+                balancer.getBackends().get(1).setHealthy(true);
+                assertTrue(completed.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+                assertEquals(LoadBalancer.SERVER_BUSY_RESPONSE, requests.get(0).getResponse());
+                assertEquals(1, balancer.getRejected());
+                assertEquals(0, fallback.getRequests());
+            } finally {
+                balancer.close();
+            }
+        }
+    }
+
+    @Test
+    void routeWhenNoBackendIsUp() throws IOException, InterruptedException {
+        try (FakeBackend backend = new FakeBackend()) {
+            final LoadBalancer balancer = new LoadBalancer(Collections.singletonList(backend.getAddress()), 1, 3);
+            try {
+                final List<ProxyRequest> requests = route(balancer, Collections.singletonList("2 - 1"));
+                assertEquals(LoadBalancer.SERVER_BUSY_RESPONSE, requests.get(0).getResponse());
+                assertEquals(0, backend.getRequests());
+                assertThrows(IOException.class, balancer::connect);
+            } finally {
+                balancer.close();
+            }
+        }
+    }
+
+    @Test
+    void constructorWhenNotValid() {
+        final List<InetSocketAddress> addresses = Collections.singletonList(new InetSocketAddress("localhost", 1));
+        assertThrows(IllegalArgumentException.class, () -> new LoadBalancer(Collections.emptyList(), 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new LoadBalancer(addresses, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new LoadBalancer(addresses, 1, 0));
+    }
+
+    private static List<ProxyRequest> route(final LoadBalancer balancer, final List<String> lines)
+            throws InterruptedException {
+        final CountDownLatch completed = new CountDownLatch(lines.size());
+        final List<ProxyRequest> requests = send(balancer, lines, completed);
+        assertTrue(completed.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        return requests;
+    }
+
+    private static List<ProxyRequest> send(final LoadBalancer balancer, final List<String> lines,
+                                           final CountDownLatch completed) {
+        final List<ProxyRequest> requests = new ArrayList<>();
+        for (String line : lines) {
+            final ProxyRequest request = new ProxyRequest((line + '\n').getBytes(Charset.defaultCharset()),
+                    completed::countDown);
+            requests.add(request);
+            balancer.route(request);
+        }
+        return requests;
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.proxy.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for {@link ProxySession} and {@link ProxyServer}.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+class ProxySessionTest {
+
+    private static final String LOCALHOST = "localhost";
+    private static final int REQUESTS = 5000;
+    private static final int TIMEOUT_MILLIS = 1000;
+    private static final String SLOW_WELCOME_MESSAGE = "Slow Server\tv.2";
+
+    private FakeBackend slow;
+    private FakeBackend fast;
+    private LoadBalancer balancer;
+    private ProxyServer server;
+    private Thread serverThread;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        slow = new FakeBackend(SLOW_WELCOME_MESSAGE, 1, 0);
+        fast = new FakeBackend();
+        balancer = new LoadBalancer(Arrays.asList(slow.getAddress(), fast.getAddress()), 2, 3);
+        server = new ProxyServer(0, balancer);
+        serverThread = new Thread(() -> {
+            try {
+                server.run();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        serverThread.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException, InterruptedException {
+        server.close();
+        serverThread.join();
+        balancer.close();
+        slow.close();
+        fast.close();
+    }
+
+    @Test
+    void runAnswersThePipelinedRequestsInOrder() throws IOException {
+        balancer.getBackends().forEach(ProxySessionTest::bringUp);
+        try (Socket socket = new Socket(LOCALHOST, server.getLocalPort())) {
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+            assertEquals(SLOW_WELCOME_MESSAGE, reader.readLine());
+
+            final StringBuilder requests = new StringBuilder();
+            for (int i = 0; i < REQUESTS; i++) {
+                requests.append(i).append(" + 1\n");
+            }
+            requests.append("QUIT\n");
+            socket.getOutputStream().write(requests.toString().getBytes(Charset.defaultCharset()));
+            socket.getOutputStream().flush();
+
+            for (int i = 0; i < REQUESTS; i++) {
+                final String request = i + " + 1";
+                final String response = reader.readLine();
+                assertTrue(response.equals(slow.respond(request)) || response.equals(fast.respond(request)),
+                        response);
+            }
+            assertNull(reader.readLine());
+            assertTrue(slow.getRequests() > 0);
+            assertEquals(REQUESTS, slow.getRequests() + fast.getRequests());
+        }
+    }
+
+    @Test
+    void runRelaysTheBinarySession() throws IOException {
+        bringUp(balancer.getBackends().get(1));
+        try (Socket socket = new Socket(LOCALHOST, server.getLocalPort())) {
+            final DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            final DataInputStream in = new DataInputStream(socket.getInputStream());
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(in));
+            assertEquals(FakeBackend.WELCOME_MESSAGE, reader.readLine());
+
+            out.write("1 + 1\nBINARY\n".getBytes(Charset.defaultCharset()));
+            out.flush();
+            assertEquals(fast.respond("1 + 1"), reader.readLine());
+            assertEquals("OK\tBINARY", reader.readLine());
+
+            out.writeByte('*');
+            out.writeDouble(2);
+            out.flush();
+            assertEquals('*', in.readByte());
+            assertEquals(2D, in.readDouble());
+
+            socket.shutdownOutput();
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    void runPinsTheSessionOnTheAccumulators() throws IOException {
+        balancer.getBackends().forEach(ProxySessionTest::bringUp);
+        try (Socket socket = new Socket(LOCALHOST, server.getLocalPort())) {
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+            assertEquals(SLOW_WELCOME_MESSAGE, reader.readLine());
+
+            socket.getOutputStream().write("OPEN a\n".getBytes(Charset.defaultCharset()));
+            socket.getOutputStream().flush();
+            final String opened = reader.readLine();
+            final FakeBackend pinned = opened.equals(slow.respond("OPEN a")) ? slow : fast;
+            assertEquals(pinned.respond("OPEN a"), opened);
+
+            final String[] requests = {"PUT a 1,2", "1 + 1", "PUT a 3", "STATS a", "CLOSE a", "2 + 2"};
+            socket.getOutputStream().write((String.join("\n", requests) + "\nQUIT\n")
+                    .getBytes(Charset.defaultCharset()));
+            socket.getOutputStream().flush();
+            for (String request : requests) {
+                assertEquals(pinned.respond(request), reader.readLine());
+            }
+            assertNull(reader.readLine());
+            assertEquals(requests.length + 1, pinned.getRequests());
+        }
+    }
+
+    @Test
+    void runWhenNoBackendIsUpRejectsTheSession() throws IOException {
+        try (Socket socket = new Socket(LOCALHOST, server.getLocalPort())) {
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+            assertEquals(LoadBalancer.SERVER_BUSY_RESPONSE, reader.readLine());
+            assertNull(reader.readLine());
+        }
+    }
+
+    @Test
+    void runWhenTheBackendsGoDownAnswersServerBusy() throws IOException {
+        bringUp(balancer.getBackends().get(1));
+        try (Socket socket = new Socket(LOCALHOST, server.getLocalPort())) {
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+            assertEquals(FakeBackend.WELCOME_MESSAGE, reader.readLine());
+            balancer.getBackends().get(1).setHealthy(false);
+
+            socket.getOutputStream().write("1 + 1\nBINARY\n".getBytes(Charset.defaultCharset()));
+            socket.getOutputStream().flush();
+            assertEquals(LoadBalancer.SERVER_BUSY_RESPONSE, reader.readLine());
+            assertEquals(LoadBalancer.SERVER_BUSY_RESPONSE, reader.readLine());
+            assertNull(reader.readLine());
+        }
+    }
+
+    /**
+     * Brings a backend up as a health check does, so its welcome message is known.
+     */
+    private static void bringUp(final Backend backend) {
+        assertTrue(backend.probe(TIMEOUT_MILLIS));
+        backend.setHealthy(true);
+    }
+}
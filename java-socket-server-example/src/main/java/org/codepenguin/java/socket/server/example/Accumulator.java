@@ -0,0 +1,203 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+/**
+ * Running statistics of a stream of values, with constant memory and no allocation per value. The mean and the
+ * variance are updated with Welford's online algorithm, which doesn't lose the variance to cancellation as the sum of
+ * squares does; the sum is compensated as Kahan summation, in Neumaier's variant, so adding many small values to a large
+ * total doesn't drop their low-order digits.
+ * <p>
+ * Only finite values are added: NaN or an infinity would leave every statistic NaN or infinite for good, so they're
+ * counted as rejected instead. It's reusable but not thread-safe.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class Accumulator {
+
+    private String name;
+    private long count;
+    private long rejected;
+    private double mean;
+    private double squaredDeviations;
+    private double sum;
+    private double compensation;
+    private double min;
+    private double max;
+
+    /**
+     * Constructor.
+     *
+     * @param name Name of the accumulator.
+     */
+    Accumulator(final String name) {
+        open(name);
+    }
+
+    /**
+     * Renames the accumulator and clears its statistics.
+     *
+     * @param name Name of the accumulator.
+     */
+    void open(final String name) {
+        this.name = name;
+        count = 0;
+        rejected = 0;
+        mean = 0;
+        squaredDeviations = 0;
+        sum = 0;
+        compensation = 0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param value The value.
+     * @return {@literal true} if it's added; {@literal false} if it isn't finite and it's rejected.
+     */
+    boolean add(final double value) {
+        if (!Double.isFinite(value)) {
+            rejected++;
+            return false;
+        }
+
+        count++;
+        final double delta = value - mean;
+        mean += delta / count;
+        squaredDeviations += delta * (value - mean);
+
+        final double total = sum + value;
+        if (Math.abs(sum) >= Math.abs(value)) {
+            compensation += (sum - total) + value;
+        } else {
+            compensation += (value - total) + sum;
+        }
+        sum = total;
+
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+        return true;
+    }
+
+    /**
+     * Counts a value that isn't a number as rejected.
+     */
+    void reject() {
+        rejected++;
+    }
+
+    /**
+     * Indicates if the accumulator has a name.
+     *
+     * @param input Text with the name.
+     * @param start Index of the name in the text.
+     * @param end   Index after the name in the text.
+     * @return {@literal true} if it's its name; otherwise, {@literal false}.
+     */
+    boolean isNamed(final String input, final int start, final int end) {
+        return end - start == name.length() && input.regionMatches(start, name, 0, name.length());
+    }
+
+    /**
+     * Gets the name.
+     *
+     * @return The name.
+     */
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the number of values added.
+     *
+     * @return Count of values.
+     */
+    long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the number of values rejected, not numbers or not finite.
+     *
+     * @return Count of rejected values.
+     */
+    long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Gets the compensated sum of the values.
+     *
+     * @return The sum; {@literal 0} if there are none.
+     */
+    double getSum() {
+        return sum + compensation;
+    }
+
+    /**
+     * Gets the mean of the values.
+     *
+     * @return The mean; {@link Double#NaN} if there are none.
+     */
+    double getMean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    /**
+     * Gets the minimum value.
+     *
+     * @return The minimum; {@link Double#NaN} if there are none.
+     */
+    double getMin() {
+        return count == 0 ? Double.NaN : min;
+    }
+
+    /**
+     * Gets the maximum value.
+     *
+     * @return The maximum; {@link Double#NaN} if there are none.
+     */
+    double getMax() {
+        return count == 0 ? Double.NaN : max;
+    }
+
+    /**
+     * Gets the population variance of the values, the mean of their squared deviations from the mean.
+     *
+     * @return The variance; {@link Double#NaN} if there are none.
+     */
+    double getVariance() {
+        return count == 0 ? Double.NaN : squaredDeviations / count;
+    }
+}
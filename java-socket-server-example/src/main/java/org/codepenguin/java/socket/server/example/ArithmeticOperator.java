@@ -25,6 +25,8 @@
 
 package org.codepenguin.java.socket.server.example;
 
+import java.math.BigDecimal;
+import java.math.MathContext;
 import java.text.MessageFormat;
 
 /**
@@ -53,6 +55,14 @@ enum ArithmeticOperator {
      */
     DIVISION('/');
 
+    private static final ArithmeticOperator[] BY_SYMBOL = new ArithmeticOperator[Byte.MAX_VALUE + 1];
+
+    static {
+        for (ArithmeticOperator operator : values()) {
+            BY_SYMBOL[operator.getSymbol()] = operator;
+        }
+    }
+
     private final char symbol;
 
     ArithmeticOperator(char symbol) {
@@ -68,6 +78,162 @@ enum ArithmeticOperator {
         return symbol;
     }
 
+    /**
+     * Applies the operator.
+     *
+     * @param firstOperand  First operand.
+     * @param secondOperand Second operand.
+     * @return The result of the operation.
+     */
+    double apply(double firstOperand, double secondOperand) {
+        switch (this) {
+            case ADDITION:
+                return firstOperand + secondOperand;
+            case SUBTRACTION:
+                return firstOperand - secondOperand;
+            case MULTIPLICATION:
+                return firstOperand * secondOperand;
+            case DIVISION:
+                return firstOperand / secondOperand;
+            default:
+                throw new IllegalStateException(MessageFormat.format("Unexpected value: {0}", this));
+        }
+    }
+
+    /**
+     * Applies the operator exactly to integers.
+     *
+     * @param firstOperand  First operand.
+     * @param secondOperand Second operand.
+     * @return The result of the operation.
+     * @throws ArithmeticException If the result overflows a long or a division isn't exact.
+     */
+    long applyExact(long firstOperand, long secondOperand) {
+        switch (this) {
+            case ADDITION:
+                return Math.addExact(firstOperand, secondOperand);
+            case SUBTRACTION:
+                return Math.subtractExact(firstOperand, secondOperand);
+            case MULTIPLICATION:
+                return Math.multiplyExact(firstOperand, secondOperand);
+            case DIVISION:
+                if (secondOperand == 0 || firstOperand % secondOperand != 0) {
+                    throw new ArithmeticException("Inexact division");
+                }
+                return Math.divideExact(firstOperand, secondOperand);
+            default:
+                throw new IllegalStateException(MessageFormat.format("Unexpected value: {0}", this));
+        }
+    }
+
+    /**
+     * Applies the operator to decimals, exactly but for the divisions, rounded to {@link MathContext#DECIMAL128}.
+     *
+     * @param firstOperand  First operand.
+     * @param secondOperand Second operand.
+     * @return The result of the operation.
+     * @throws ArithmeticException If the second operand of a division is zero.
+     */
+    BigDecimal applyExact(BigDecimal firstOperand, BigDecimal secondOperand) {
+        switch (this) {
+            case ADDITION:
+                return firstOperand.add(secondOperand);
+            case SUBTRACTION:
+                return firstOperand.subtract(secondOperand);
+            case MULTIPLICATION:
+                return firstOperand.multiply(secondOperand);
+            case DIVISION:
+                return firstOperand.divide(secondOperand, MathContext.DECIMAL128);
+            default:
+                throw new IllegalStateException(MessageFormat.format("Unexpected value: {0}", this));
+        }
+    }
+
+    /**
+     * Applies the operator to pairs of operands. Every operator has its own loop over primitive arrays, so the JIT can
+     * vectorize it.
+     *
+     * @param firstOperands  First operands.
+     * @param secondOperands Second operands.
+     * @param results        Results, may be one of the operand arrays.
+     * @param from           First index, inclusive.
+     * @param to             Last index, exclusive.
+     */
+    void applyAll(double[] firstOperands, double[] secondOperands, double[] results, int from, int to) {
+        switch (this) {
+            case ADDITION:
+                for (int i = from; i < to; i++) {
+                    results[i] = firstOperands[i] + secondOperands[i];
+                }
+                break;
+            case SUBTRACTION:
+                for (int i = from; i < to; i++) {
+                    results[i] = firstOperands[i] - secondOperands[i];
+                }
+                break;
+            case MULTIPLICATION:
+                for (int i = from; i < to; i++) {
+                    results[i] = firstOperands[i] * secondOperands[i];
+                }
+                break;
+            case DIVISION:
+                for (int i = from; i < to; i++) {
+                    results[i] = firstOperands[i] / secondOperands[i];
+                }
+                break;
+            default:
+                throw new IllegalStateException(MessageFormat.format("Unexpected value: {0}", this));
+        }
+    }
+
+    /**
+     * Applies the operator to operands and a scalar second operand. Every operator has its own loop over primitive
+     * arrays, so the JIT can vectorize it.
+     *
+     * @param firstOperands First operands.
+     * @param secondOperand Second operand of every operation.
+     * @param results       Results, may be the operand array.
+     * @param from          First index, inclusive.
+     * @param to            Last index, exclusive.
+     */
+    void applyAll(double[] firstOperands, double secondOperand, double[] results, int from, int to) {
+        switch (this) {
+            case ADDITION:
+                for (int i = from; i < to; i++) {
+                    results[i] = firstOperands[i] + secondOperand;
+                }
+                break;
+            case SUBTRACTION:
+                for (int i = from; i < to; i++) {
+                    results[i] = firstOperands[i] - secondOperand;
+                }
+                break;
+            case MULTIPLICATION:
+                for (int i = from; i < to; i++) {
+                    results[i] = firstOperands[i] * secondOperand;
+                }
+                break;
+            case DIVISION:
+                for (int i = from; i < to; i++) {
+                    results[i] = firstOperands[i] / secondOperand;
+                }
+                break;
+            default:
+                throw new IllegalStateException(MessageFormat.format("Unexpected value: {0}", this));
+        }
+    }
+
+    /**
+     * Finds the arithmetic operator of the specified symbol without throwing an exception.
+     *
+     * @param symbol The symbol.
+     * @return The arithmetic operator with the specified symbol, {@literal null} if the symbol isn't used by any
+     * supported operator.
+     */
+    static ArithmeticOperator findBySymbol(char symbol) {
+        return symbol < BY_SYMBOL.length ? BY_SYMBOL[symbol] : null;
+    }
+
     /**
      * Returns the arithmetic operator of the specified symbol. The symbol must match exactly an symbol used to declare
      * an enum constant in this type.
@@ -77,10 +243,9 @@ enum ArithmeticOperator {
      * @throws IllegalArgumentException If the symbol isn't used by any supported operator.
      */
     static ArithmeticOperator valueOfSymbol(char symbol) {
-        for (ArithmeticOperator operator : values()) {
-            if (operator.getSymbol() == symbol) {
-                return operator;
-            }
+        final ArithmeticOperator operator = findBySymbol(symbol);
+        if (operator != null) {
+            return operator;
         }
 
         throw new IllegalArgumentException(MessageFormat.format("No symbol in {0}: {1}",
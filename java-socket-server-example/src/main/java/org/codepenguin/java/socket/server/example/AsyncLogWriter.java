@@ -0,0 +1,230 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import java.io.Closeable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.Logger;
+
+/**
+ * Asynchronous writer of the session events. The sessions publish into a {@link RingBuffer}, so publishing takes no
+ * lock and allocates nothing. A single daemon thread drains the buffer in batches, turns the events into log records
+ * and flushes the handlers once per batch.
+ * <p>
+ * A record or a flush that fails is reported to the {@link ErrorManager} of the handler, as the handlers do with their
+ * own I/O errors, and the writer goes on: the failed record counts as dropped. If the writer thread dies anyway, the
+ * events are dropped from then on instead of blocking the sessions.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class AsyncLogWriter implements Closeable {
+
+    private static final String THREAD_NAME = "session-log-writer";
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final String WRITE_FAILURE_MESSAGE = "Session event not logged";
+    private static final String FLUSH_FAILURE_MESSAGE = "Session log not flushed";
+
+    private final Logger logger;
+    private final LogFullPolicy policy;
+    private final RingBuffer<Slot> buffer;
+    private final Consumer<Slot> writer = this::write;
+    private final LongAdder droppedEvents = new LongAdder();
+    private final ErrorManager errorManager = new ErrorManager();
+    private final Thread thread;
+
+    private volatile boolean running = true;
+
+    /**
+     * Constructor. Starts the writer thread.
+     *
+     * @param logger   Logger of the records.
+     * @param capacity Minimum number of events the buffer holds, rounded up as {@link RingBuffer} does.
+     * @param policy   Policy when the buffer is full.
+     */
+    AsyncLogWriter(Logger logger, int capacity, LogFullPolicy policy) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Log buffer capacity must be positive");
+        }
+
+        this.logger = logger;
+        this.policy = policy;
+
+        buffer = new RingBuffer<>(capacity, Slot::new);
+
+        thread = new Thread(this::run, THREAD_NAME);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Publishes an event. If the buffer is full the event is dropped or the caller waits, as the policy says; it's
+     * dropped anyway once the writer is stopped or dead.
+     *
+     * @param type     Type of event.
+     * @param name     Name of the session.
+     * @param input    Input line, if any.
+     * @param response Response, if any.
+     * @param thrown   Error, if any.
+     */
+    void publish(final SessionLogger.EventType type, final String name, final String input, final Object response,
+                 final Throwable thrown) {
+        final long millis = System.currentTimeMillis();
+        while (!offer(type, name, input, response, thrown, millis)) {
+            if (policy == LogFullPolicy.DROP || !running || !thread.isAlive()) {
+                droppedEvents.increment();
+                return;
+            }
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+    }
+
+    /**
+     * Gets the number of events dropped because the buffer was full, or because they failed to be logged.
+     *
+     * @return Dropped events.
+     */
+    long getDroppedEvents() {
+        return droppedEvents.sum();
+    }
+
+    /**
+     * Stops the writer after it writes the published events.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean offer(final SessionLogger.EventType type, final String name, final String input,
+                          final Object response, final Throwable thrown, final long millis) {
+        final long position = buffer.claim();
+        if (position == RingBuffer.FULL) {
+            return false;
+        }
+
+        buffer.get(position).set(type, name, input, response, thrown, millis);
+        buffer.publish(position);
+        return true;
+    }
+
+    private void run() {
+        while (true) {
+            final boolean stopping = !running;
+            final int drained = buffer.drain(writer);
+            if (drained > 0) {
+                flush();
+            } else if (stopping) {
+                return;
+            } else {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private void write(final Slot slot) {
+        try {
+            logger.log(slot.type.toRecord(slot.name, slot.input, slot.response, slot.thrown, slot.millis));
+        } catch (RuntimeException e) {
+            droppedEvents.increment();
+            writeFailed(e);
+        }
+        slot.clear();
+    }
+
+    private void flush() {
+        for (Logger current = logger; current != null; current = current.getParent()) {
+            for (Handler handler : current.getHandlers()) {
+                try {
+                    handler.flush();
+                } catch (RuntimeException e) {
+                    handler.getErrorManager().error(FLUSH_FAILURE_MESSAGE, e, ErrorManager.FLUSH_FAILURE);
+                }
+            }
+            if (!current.getUseParentHandlers()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reports a record that failed to the error manager of the first handler it goes to. The logger doesn't tell which
+     * of its handlers, filters or formatters failed.
+     */
+    private void writeFailed(final RuntimeException e) {
+        for (Logger current = logger; current != null; current = current.getParent()) {
+            final Handler[] handlers = current.getHandlers();
+            if (handlers.length > 0) {
+                handlers[0].getErrorManager().error(WRITE_FAILURE_MESSAGE, e, ErrorManager.WRITE_FAILURE);
+                return;
+            }
+            if (!current.getUseParentHandlers()) {
+                break;
+            }
+        }
+        errorManager.error(WRITE_FAILURE_MESSAGE, e, ErrorManager.WRITE_FAILURE);
+    }
+
+    /**
+     * Preallocated slot of the ring buffer.
+     */
+    private static final class Slot {
+
+        private SessionLogger.EventType type;
+        private String name;
+        private String input;
+        private Object response;
+        private Throwable thrown;
+        private long millis;
+
+        private void set(final SessionLogger.EventType type, final String name, final String input,
+                         final Object response, final Throwable thrown, final long millis) {
+            this.type = type;
+            this.name = name;
+            this.input = input;
+            this.response = response;
+            this.thrown = thrown;
+            this.millis = millis;
+        }
+
+        private void clear() {
+            set(null, null, null, null, null, 0);
+        }
+    }
+}
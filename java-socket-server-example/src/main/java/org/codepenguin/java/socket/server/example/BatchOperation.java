@@ -0,0 +1,111 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Operation of an operator over arrays of operands. Small batches are computed in the caller's thread; larger ones are
+ * split in halves and computed by the common fork/join pool.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class BatchOperation extends RecursiveAction {
+
+    /**
+     * Maximum operations computed by a single task.
+     */
+    static final int SEQUENTIAL_THRESHOLD = 1 << 15;
+
+    private static final long serialVersionUID = 1L;
+
+    private final ArithmeticOperator operator;
+    private final double[] firstOperands;
+    private final double[] secondOperands;
+    private final boolean scalar;
+    private final double[] results;
+    private final int from;
+    private final int to;
+
+    private BatchOperation(final ArithmeticOperator operator, final double[] firstOperands,
+                           final double[] secondOperands, final boolean scalar, final double[] results, final int from,
+                           final int to) {
+        this.operator = operator;
+        this.firstOperands = firstOperands;
+        this.secondOperands = secondOperands;
+        this.scalar = scalar;
+        this.results = results;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Applies an operator to the first {@code length} operands. The second operands are a scalar if
+     * {@code secondLength} is {@literal 1}, as {@link ArithmeticOperator#apply(double, double)} does for every pair.
+     *
+     * @param operator       The operator.
+     * @param firstOperands  First operands.
+     * @param length         Number of first operands.
+     * @param secondOperands Second operands.
+     * @param secondLength   Number of second operands, {@code length} or {@literal 1}.
+     * @param results        Results, with at least {@code length} elements.
+     */
+    static void apply(final ArithmeticOperator operator, final double[] firstOperands, final int length,
+                      final double[] secondOperands, final int secondLength, final double[] results) {
+        if (length <= SEQUENTIAL_THRESHOLD) {
+            // No task for the small batches, so they allocate nothing
+            applyAll(operator, firstOperands, secondOperands, secondLength == 1, results, 0, length);
+        } else {
+            ForkJoinPool.commonPool().invoke(new BatchOperation(operator, firstOperands, secondOperands,
+                    secondLength == 1, results, 0, length));
+        }
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= SEQUENTIAL_THRESHOLD) {
+            applyAll(operator, firstOperands, secondOperands, scalar, results, from, to);
+            return;
+        }
+
+        final int middle = (from + to) >>> 1;
+        invokeAll(new BatchOperation(operator, firstOperands, secondOperands, scalar, results, from, middle),
+                new BatchOperation(operator, firstOperands, secondOperands, scalar, results, middle, to));
+    }
+
+    private static void applyAll(final ArithmeticOperator operator, final double[] firstOperands,
+                                 final double[] secondOperands, final boolean scalar, final double[] results,
+                                 final int from, final int to) {
+        if (scalar) {
+            operator.applyAll(firstOperands, secondOperands[0], results, from, to);
+        } else {
+            operator.applyAll(firstOperands, secondOperands, results, from, to);
+        }
+    }
+}
@@ -28,8 +28,6 @@ package org.codepenguin.java.socket.server.example;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
-import java.text.MessageFormat;
-
 /**
  * Binary operation.
  *
@@ -51,17 +49,6 @@ final class BinaryOperation {
      * @return The result of the operation.
      */
     double apply() {
-        switch (symbol) {
-            case ADDITION:
-                return firstOperand + secondOperand;
-            case SUBTRACTION:
-                return firstOperand - secondOperand;
-            case MULTIPLICATION:
-                return firstOperand * secondOperand;
-            case DIVISION:
-                return firstOperand / secondOperand;
-            default:
-                throw new IllegalStateException(MessageFormat.format("Unexpected value: {0}", symbol));
-        }
+        return symbol.apply(firstOperand, secondOperand);
     }
 }
@@ -25,18 +25,38 @@
 
 package org.codepenguin.java.socket.server.example;
 
-import java.util.logging.Logger;
+import org.codepenguin.java.socket.server.example.JournalRecord.RecordType;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static java.lang.String.join;
-import static java.lang.String.valueOf;
-import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.codepenguin.java.socket.server.example.BinaryOperationProtocol.ResponseErrorType.*;
 import static org.codepenguin.java.socket.server.example.BinaryOperationProtocol.ResponseType.ERR;
 import static org.codepenguin.java.socket.server.example.BinaryOperationProtocol.ResponseType.OK;
-import static org.codepenguin.java.socket.server.example.NumberUtils.isInteger;
 
 /**
  * Protocol for binary operations.
+ * <p>
+ * The default wire format is text, one line per request and response. After the welcome message a client can send
+ * the binary command, the server acknowledges it with a text response and from then on the session uses fixed-size
+ * frames in big-endian order. A request is the operator's symbol as a byte and the two operands as IEEE-754 doubles. A
+ * response is a status byte ({@link #BINARY_STATUS_OK} or {@link #BINARY_STATUS_ERR}), the ordinal of the
+ * {@link ResponseErrorType} ({@literal 0} if OK) and the result as a double ({@link Double#NaN} if ERR). The client
+ * must wait for the acknowledgement before sending frames.
+ * <p>
+ * A text request can also be a batch of operations with the same operator, see {@link #getBatchCommand()}, or an
+ * expression, see {@link #getExpressionCommand()}.
+ * <p>
+ * The accumulators keep running statistics of the values a session streams, see {@link Accumulator}. They belong to the
+ * session, so they live in its protocol instance, up to {@value #MAX_ACCUMULATORS} open at a time: the open command
+ * starts one, the put command adds values to it without a response, so a client streams them without waiting for
+ * round trips, and the stats and close commands answer its statistics. An accumulator isn't shared with the other
+ * sessions, nor kept when its session ends.
  *
  * @author Jorge Alfonso Garcia Espinosa
  * @version 1.0-SNAPSHOT
@@ -44,67 +64,679 @@ import static org.codepenguin.java.socket.server.example.NumberUtils.isInteger;
  */
 final class BinaryOperationProtocol {
 
-    private static final Logger LOGGER = Logger.getLogger(BinaryOperationProtocol.class.getName());
-
-    private static final String OPERATION_SEPARATOR = " ";
+    private static final char OPERATION_SEPARATOR = ' ';
     private static final String EXIT_COMMAND = "QUIT";
     private static final String PROTOCOL_SEPARATOR = "\t";
     private static final String APP_NAME = "Binary Operation Server";
     private static final String APP_VERSION = "v.1.0-SNAPSHOT";
-    private static final int INPUT_EXPECTED_LENGTH = 3;
+    private static final String BINARY_COMMAND = "BINARY";
+    private static final String BATCH_COMMAND = "BATCH";
+    private static final String EXPRESSION_COMMAND = "EVAL";
+    private static final String OPEN_COMMAND = "OPEN";
+    private static final String PUT_COMMAND = "PUT";
+    private static final String STATS_COMMAND = "STATS";
+    private static final String CLOSE_COMMAND = "CLOSE";
+    private static final int MAX_ACCUMULATOR_NAME_LENGTH = 64;
+    private static final char LIST_SEPARATOR = ',';
+    private static final int MAX_CACHED_INPUT_LENGTH = 64;
+    private static final int MAX_CACHED_EXPRESSION_LENGTH = 256;
+    private static final int RETAINED_BUILDER_CAPACITY = 1 << 15;
+
+    /**
+     * Default number of compiled expressions cached.
+     */
+    static final int DEFAULT_EXPRESSION_CACHE_CAPACITY = 1024;
+
+    /**
+     * Maximum number of accumulators open at a time in a session.
+     */
+    static final int MAX_ACCUMULATORS = 16;
+
+    /**
+     * Length in bytes of a binary request: operator and two operands.
+     */
+    static final int BINARY_REQUEST_LENGTH = Byte.BYTES + 2 * Double.BYTES;
+
+    /**
+     * Length in bytes of a binary response: status, error type and result.
+     */
+    static final int BINARY_RESPONSE_LENGTH = 2 * Byte.BYTES + Double.BYTES;
+
+    /**
+     * Status byte of a binary response for {@link ResponseType#OK}.
+     */
+    static final byte BINARY_STATUS_OK = 0;
+
+    /**
+     * Status byte of a binary response for {@link ResponseType#ERR}.
+     */
+    static final byte BINARY_STATUS_ERR = 1;
+
+    // The responses are encoded as PrintWriter.println does, with the default charset and the line separator. The
+    // constant parts are encoded once; the OK messages are ASCII and, if the charset encodes ASCII as is, their chars
+    // are written as bytes without an encoder.
+    private static final Charset CHARSET = Charset.defaultCharset();
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(CHARSET);
+    private static final byte[] OK_PREFIX = (OK + PROTOCOL_SEPARATOR).getBytes(CHARSET);
+    private static final char ASCII_LIMIT = 0x80;
+    private static final boolean ASCII_COMPATIBLE = isAsciiCompatible(CHARSET);
+    private static final byte[] WELCOME_MESSAGE = encodeLine(join(PROTOCOL_SEPARATOR, APP_NAME, APP_VERSION));
+
+    private static final Response[] ERROR_RESPONSES = new Response[ResponseErrorType.values().length];
+    private static final Response BINARY_ACKNOWLEDGEMENT = new Response(BINARY_COMMAND).preEncode();
+
+    static {
+        for (ResponseErrorType errorType : ResponseErrorType.values()) {
+            ERROR_RESPONSES[errorType.ordinal()] = new Response(errorType).preEncode();
+        }
+    }
+
+    private static final AtomicLong SESSION_IDS = new AtomicLong();
+
+    private static volatile ResponseCache cache;
+    private static volatile boolean exactDecimals;
+    private static volatile ClockCache<Expression> expressionCache =
+            new ClockCache<>(DEFAULT_EXPRESSION_CACHE_CAPACITY);
+
+    private final OperationParser parser = new OperationParser();
+    private final StringBuilder builder = new StringBuilder();
+
+    // OK response of the last request, whose message is the builder: reused, so answering allocates nothing.
+    private final Response okResponse = new Response(builder, true);
+    private final long sessionId = SESSION_IDS.incrementAndGet();
+    private double[] batchResults = new double[0];
+    private double[] expressionStack = new double[0];
+
+    // Open accumulators first, then the closed ones kept for reuse.
+    private Accumulator[] accumulators = new Accumulator[0];
+    private int openAccumulators;
+
+    // Operands and result of the last exact operation, as doubles for the journal, which also keeps its exact text.
+    private double exactFirstOperand;
+    private double exactSecondOperand;
+    private double exactResult;
+
+    /**
+     * Configures the response cache shared by all the protocol instances.
+     *
+     * @param capacity Maximum number of cached responses, {@literal 0} to disable the cache.
+     * @throws IllegalArgumentException If the capacity is negative.
+     */
+    static void configureCache(final int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Response cache capacity must not be negative");
+        }
+
+        cache = capacity == 0 ? null : new ResponseCache(capacity);
+    }
+
+    /**
+     * Gets the response cache shared by all the protocol instances.
+     *
+     * @return The cache; {@literal null} if it's disabled.
+     */
+    static ResponseCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Configures the exact decimal arithmetic of the operations for all the protocol instances. The operations of
+     * integers are always exact while their results fit in a long; in the exact decimal mode the operations of plain
+     * decimals, and of integers that overflow, are computed with {@link BigDecimal} instead of double.
+     *
+     * @param enabled {@literal true} to enable the exact decimal mode.
+     */
+    static void configureExactDecimals(final boolean enabled) {
+        exactDecimals = enabled;
+    }
+
+    /**
+     * Configures the cache of the compiled expressions shared by all the protocol instances.
+     *
+     * @param capacity Maximum number of cached expressions, {@literal 0} to compile every expression.
+     * @throws IllegalArgumentException If the capacity is negative.
+     */
+    static void configureExpressionCache(final int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Expression cache capacity must not be negative");
+        }
+
+        expressionCache = capacity == 0 ? null : new ClockCache<>(capacity);
+    }
+
+    /**
+     * Gets the cache of the compiled expressions shared by all the protocol instances.
+     *
+     * @return The cache; {@literal null} if it's disabled.
+     */
+    static ClockCache<Expression> getExpressionCache() {
+        return expressionCache;
+    }
 
     /**
-     * Processes the input.
+     * Processes the input. If the cache is enabled, the responses of the operations, valid or not, are looked up by
+     * input line and cached. The operations of integers are computed exactly in long, see
+     * {@link #configureExactDecimals(boolean)}.
      *
      * @param input Input.
-     * @return Response of the process.
+     * @return Response of the process; {@literal null} for the put command, that isn't answered. An OK response is
+     * reused by this instance and valid until its next call, see {@link Response#share()}.
      */
     Response process(final String input) {
-        if (input == null) {
-            return new Response(INPUT_IS_NULL);
+        if (builder.capacity() > RETAINED_BUILDER_CAPACITY) {
+            // The response of a long batch was answered
+            builder.setLength(0);
+            builder.trimToSize();
+        }
+
+        if (isCommand(input, PUT_COMMAND)) {
+            processPut(input, false);
+            return null;
+        }
+
+        final long start = System.nanoTime();
+        if (isCommand(input, BATCH_COMMAND)) {
+            return processBatch(input, start);
+        }
+
+        if (isCommand(input, EXPRESSION_COMMAND)) {
+            return processExpression(input, start);
+        }
+
+        if (isCommand(input, OPEN_COMMAND)) {
+            return processOpen(input, start);
+        }
+
+        if (isCommand(input, STATS_COMMAND)) {
+            return processStats(input, STATS_COMMAND.length() + 1, false, start);
+        }
+
+        if (isCommand(input, CLOSE_COMMAND)) {
+            return processStats(input, CLOSE_COMMAND.length() + 1, true, start);
+        }
+
+        final ResponseCache currentCache = input != null && input.length() <= MAX_CACHED_INPUT_LENGTH ? cache : null;
+        if (currentCache != null) {
+            final ResponseCache.Entry entry = currentCache.get(input);
+            if (entry != null) {
+                journal(entry.getResponse(), entry.getOperator(), entry.getFirstOperand(), entry.getSecondOperand(),
+                        entry.getResult(), entry.isExact() ? entry.getResponse().getOkMessage() : null);
+                return record(entry.getResponse(), entry.getOperator(), start);
+            }
+        }
+
+        Response response;
+        final ArithmeticOperator operator;
+        double firstOperand = Double.NaN;
+        double secondOperand = Double.NaN;
+        double result = Double.NaN;
+        boolean exact = false;
+        if (parser.parse(input)) {
+            operator = parser.getOperator();
+            builder.setLength(0);
+            exact = parser.isExact() && appendExactOperation(operator);
+            if (exact) {
+                firstOperand = exactFirstOperand;
+                secondOperand = exactSecondOperand;
+                result = exactResult;
+            } else if (parser.isExact() && parser.getFirstScale() == 0 && parser.getSecondScale() == 0) {
+                // Integers that overflow or don't divide exactly are computed from their digits, not from their
+                // floats, which may be rounded, and echoed as sent; the result keeps its double precision.
+                firstOperand = integerOperand(parser.getFirstMantissa(), parser.getFirstOperand());
+                secondOperand = integerOperand(parser.getSecondMantissa(), parser.getSecondOperand());
+                result = operator.apply(firstOperand, secondOperand);
+                builder.append(parser.getFirstMantissa()).append(OPERATION_SEPARATOR).append(operator.getSymbol())
+                        .append(OPERATION_SEPARATOR).append(parser.getSecondMantissa()).append(PROTOCOL_SEPARATOR);
+                DoubleFormatter.appendDoubleTo(builder, result);
+            } else {
+                firstOperand = parser.getFirstOperand();
+                secondOperand = parser.getSecondOperand();
+                result = operator.apply(firstOperand, secondOperand);
+                appendOperation(builder, firstOperand, operator, secondOperand);
+                builder.append(PROTOCOL_SEPARATOR);
+                DoubleFormatter.appendTo(builder, result);
+            }
+            response = okResponse;
+        } else {
+            response = errorResponse(parser.getErrorType());
+            operator = null;
+        }
+
+        if (currentCache != null) {
+            response = response.share().preEncode();
+            currentCache.put(input, response, operator, firstOperand, secondOperand, result, exact);
+        }
+        journal(response, operator, firstOperand, secondOperand, result, exact ? builder : null);
+        return record(response, operator, start);
+    }
+
+    /**
+     * Appends the exact operation and its result, in long for the integers or, in the exact decimal mode, in
+     * {@link BigDecimal}. A division by zero is left to the double arithmetic, for its infinities and NaN.
+     *
+     * @return {@literal true} if the operation was appended; {@literal false} if it must be computed in double.
+     */
+    private boolean appendExactOperation(final ArithmeticOperator operator) {
+        final long firstMantissa = parser.getFirstMantissa();
+        final long secondMantissa = parser.getSecondMantissa();
+        if (operator == ArithmeticOperator.DIVISION && secondMantissa == 0) {
+            return false;
+        }
+
+        if (parser.getFirstScale() == 0 && parser.getSecondScale() == 0
+                && (operator != ArithmeticOperator.DIVISION || firstMantissa % secondMantissa == 0)) {
+            try {
+                final long result = operator.applyExact(firstMantissa, secondMantissa);
+                builder.append(firstMantissa).append(OPERATION_SEPARATOR).append(operator.getSymbol())
+                        .append(OPERATION_SEPARATOR).append(secondMantissa).append(PROTOCOL_SEPARATOR).append(result);
+                exactFirstOperand = firstMantissa;
+                exactSecondOperand = secondMantissa;
+                exactResult = result;
+                return true;
+            } catch (ArithmeticException e) {
+                // The result overflows a long.
+            }
+        }
+
+        if (!exactDecimals) {
+            return false;
+        }
+
+        final BigDecimal firstOperand = BigDecimal.valueOf(firstMantissa, parser.getFirstScale());
+        final BigDecimal secondOperand = BigDecimal.valueOf(secondMantissa, parser.getSecondScale());
+        final BigDecimal result = operator.applyExact(firstOperand, secondOperand);
+        builder.append(toPlainString(firstOperand)).append(OPERATION_SEPARATOR).append(operator.getSymbol())
+                .append(OPERATION_SEPARATOR).append(toPlainString(secondOperand)).append(PROTOCOL_SEPARATOR)
+                .append(toPlainString(result));
+        exactFirstOperand = firstOperand.doubleValue();
+        exactSecondOperand = secondOperand.doubleValue();
+        exactResult = result.doubleValue();
+        return true;
+    }
+
+    private static double integerOperand(final long mantissa, final float operand) {
+        // The float keeps the sign of a negative zero
+        return mantissa == 0 ? operand : mantissa;
+    }
+
+    private static String toPlainString(final BigDecimal value) {
+        return value.signum() == 0 ? "0" : value.stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * Appends an operation, with its exact form if it was computed exactly, or an error if there's no operator, to the
+     * journal.
+     */
+    private void journal(final Response response, final ArithmeticOperator operator, final double firstOperand,
+                         final double secondOperand, final double result, final CharSequence exactOperation) {
+        if (operator == null) {
+            OperationJournal.error(sessionId, response.getErrorType());
+        } else {
+            OperationJournal.operation(RecordType.OPERATION, sessionId, operator, firstOperand, secondOperand, result,
+                    exactOperation);
+        }
+    }
+
+    /**
+     * Records the processing time of a response in the server metrics, as an error if there's no operator.
+     */
+    private static Response record(final Response response, final ArithmeticOperator operator, final long start) {
+        final long nanos = System.nanoTime() - start;
+        if (operator == null) {
+            ServerMetrics.errorProcessed(response.getErrorType(), nanos);
+        } else {
+            ServerMetrics.operationProcessed(operator, nanos);
+        }
+        return response;
+    }
+
+    private static boolean isCommand(final String input, final String command) {
+        return input != null && input.length() > command.length() && input.startsWith(command)
+                && input.charAt(command.length()) == OPERATION_SEPARATOR;
+    }
+
+    /**
+     * Computes a batch. The arrays grown by a batch longer than {@link OperationParser#RETAINED_BATCH_CAPACITY} are
+     * released once it's answered, as is the builder of its response before the next request.
+     */
+    private Response processBatch(final String input, final long start) {
+        if (!parser.parseBatch(input, BATCH_COMMAND.length() + 1)) {
+            parser.trimBatchOperands();
+            OperationJournal.error(sessionId, parser.getErrorType());
+            return record(errorResponse(parser.getErrorType()), null, start);
+        }
+
+        final ArithmeticOperator operator = parser.getOperator();
+        final int length = parser.getFirstLength();
+        if (batchResults.length < length) {
+            batchResults = new double[Math.min(Math.max(length, batchResults.length * 2),
+                    OperationParser.MAX_BATCH_LENGTH)];
+        }
+        BatchOperation.apply(operator, parser.getFirstOperands(), length, parser.getSecondOperands(),
+                parser.getSecondLength(), batchResults);
+        if (OperationJournal.isEnabled()) {
+            journalBatch(operator, length);
+        }
+
+        builder.setLength(0);
+        for (int i = 0; i < length; i++) {
+            if (i > 0) {
+                builder.append(LIST_SEPARATOR);
+            }
+            DoubleFormatter.appendTo(builder, batchResults[i]);
+        }
+        parser.trimBatchOperands();
+        if (batchResults.length > OperationParser.RETAINED_BATCH_CAPACITY) {
+            batchResults = new double[0];
+        }
+        return record(okResponse, operator, start);
+    }
+
+    private void journalBatch(final ArithmeticOperator operator, final int length) {
+        final double[] firstOperands = parser.getFirstOperands();
+        final double[] secondOperands = parser.getSecondOperands();
+        final boolean singleSecond = parser.getSecondLength() == 1;
+        for (int i = 0; i < length; i++) {
+            OperationJournal.operation(RecordType.BATCH, sessionId, operator, firstOperands[i],
+                    secondOperands[singleSecond ? 0 : i], batchResults[i]);
+        }
+    }
+
+    /**
+     * Evaluates an expression, compiling it unless it's cached. The whole input is the cache key, so a cached
+     * expression is evaluated without parsing nor allocating a key.
+     */
+    private Response processExpression(final String input, final long start) {
+        final ClockCache<Expression> currentCache = input.length() <= MAX_CACHED_EXPRESSION_LENGTH
+                ? expressionCache : null;
+        Expression expression = currentCache == null ? null : currentCache.get(input);
+        if (expression == null) {
+            expression = Expression.compile(input, EXPRESSION_COMMAND.length() + 1);
+            if (expression == null) {
+                OperationJournal.error(sessionId, INPUT_EXPRESSION_IS_NOT_VALID);
+                return record(errorResponse(INPUT_EXPRESSION_IS_NOT_VALID), null, start);
+            }
+            if (currentCache != null) {
+                currentCache.put(input, expression);
+            }
+        }
+
+        if (expressionStack.length < expression.getStackDepth()) {
+            expressionStack = new double[Math.max(expression.getStackDepth(), expressionStack.length * 2)];
+        }
+        final double value = expression.evaluate(expressionStack);
+        builder.setLength(0);
+        DoubleFormatter.appendTo(builder, value);
+        OperationJournal.expression(sessionId, input, EXPRESSION_COMMAND.length() + 1, value);
+        ServerMetrics.expressionProcessed(System.nanoTime() - start);
+        return okResponse;
+    }
+
+    /**
+     * Adds the values to an open accumulator. The values that aren't numbers, or all of them if the request is rejected,
+     * are counted as rejected; the values of an accumulator that isn't open are dropped. The values are parsed in place,
+     * so nothing is allocated per value.
+     */
+    private void processPut(final String input, final boolean rejected) {
+        final int nameStart = PUT_COMMAND.length() + 1;
+        final int nameEnd = input.indexOf(OPERATION_SEPARATOR, nameStart);
+        final int index = nameEnd < 0 ? -1 : indexOfAccumulator(input, nameStart, nameEnd);
+        if (index < 0) {
+            return;
+        }
+
+        final Accumulator accumulator = accumulators[index];
+        final int end = input.length();
+        for (int valueStart = nameEnd + 1; valueStart <= end; ) {
+            int valueEnd = input.indexOf(LIST_SEPARATOR, valueStart);
+            if (valueEnd < 0) {
+                valueEnd = end;
+            }
+            if (!rejected && parser.parseValue(input, valueStart, valueEnd)) {
+                accumulator.add(parser.getValue());
+            } else {
+                accumulator.reject();
+            }
+            valueStart = valueEnd + 1;
+        }
+    }
+
+    /**
+     * Opens an accumulator, or clears it if it's already open, reusing a closed one if there's any.
+     */
+    private Response processOpen(final String input, final long start) {
+        final String name = input.substring(OPEN_COMMAND.length() + 1);
+        if (!isAccumulatorName(name)) {
+            OperationJournal.error(sessionId, INPUT_ACCUMULATOR_NAME_IS_NOT_VALID);
+            return record(errorResponse(INPUT_ACCUMULATOR_NAME_IS_NOT_VALID), null, start);
+        }
+
+        final int index = indexOfAccumulator(name, 0, name.length());
+        if (index >= 0) {
+            accumulators[index].open(name);
+            return okResponse(name);
+        }
+
+        if (openAccumulators == MAX_ACCUMULATORS) {
+            OperationJournal.error(sessionId, ACCUMULATOR_LIMIT_REACHED);
+            return record(errorResponse(ACCUMULATOR_LIMIT_REACHED), null, start);
+        }
+
+        if (openAccumulators == accumulators.length) {
+            accumulators = Arrays.copyOf(accumulators, Math.min(Math.max(1, accumulators.length * 2),
+                    MAX_ACCUMULATORS));
+        }
+        if (accumulators[openAccumulators] == null) {
+            accumulators[openAccumulators] = new Accumulator(name);
+        } else {
+            accumulators[openAccumulators].open(name);
+        }
+        openAccumulators++;
+        return okResponse(name);
+    }
+
+    private Response okResponse(final String message) {
+        builder.setLength(0);
+        builder.append(message);
+        return okResponse;
+    }
+
+    /**
+     * Answers the statistics of an open accumulator and, for the close command, closes it.
+     */
+    private Response processStats(final String input, final int nameStart, final boolean close, final long start) {
+        final int index = indexOfAccumulator(input, nameStart, input.length());
+        if (index < 0) {
+            OperationJournal.error(sessionId, INPUT_ACCUMULATOR_IS_NOT_OPEN);
+            return record(errorResponse(INPUT_ACCUMULATOR_IS_NOT_OPEN), null, start);
         }
 
-        if (isBlank(input)) {
-            return new Response(INPUT_IS_BLANK);
+        final Accumulator accumulator = accumulators[index];
+        builder.setLength(0);
+        builder.append(accumulator.getCount()).append(LIST_SEPARATOR);
+        DoubleFormatter.appendDoubleTo(builder, accumulator.getSum()).append(LIST_SEPARATOR);
+        DoubleFormatter.appendDoubleTo(builder, accumulator.getMean()).append(LIST_SEPARATOR);
+        DoubleFormatter.appendDoubleTo(builder, accumulator.getMin()).append(LIST_SEPARATOR);
+        DoubleFormatter.appendDoubleTo(builder, accumulator.getMax()).append(LIST_SEPARATOR);
+        DoubleFormatter.appendDoubleTo(builder, accumulator.getVariance()).append(LIST_SEPARATOR)
+                .append(accumulator.getRejected());
+
+        if (close) {
+            openAccumulators--;
+            accumulators[index] = accumulators[openAccumulators];
+            accumulators[openAccumulators] = accumulator;
         }
+        return okResponse;
+    }
 
-        final String[] split = input.split(OPERATION_SEPARATOR);
-        if (split.length != INPUT_EXPECTED_LENGTH) {
-            return new Response(INPUT_MUST_HAVE_THREE_PARTS_ONLY);
+    private int indexOfAccumulator(final String input, final int start, final int end) {
+        for (int i = 0; i < openAccumulators; i++) {
+            if (accumulators[i].isNamed(input, start, end)) {
+                return i;
+            }
         }
+        return -1;
+    }
 
-        float firstOperand;
-        try {
-            firstOperand = Float.parseFloat(split[0]);
-        } catch (NumberFormatException e) {
-            LOGGER.warning(e.getMessage());
-            return new Response(INPUT_FIRST_OPERAND_IS_NOT_A_NUMBER);
+    private static boolean isAccumulatorName(final String name) {
+        if (name.isEmpty() || name.length() > MAX_ACCUMULATOR_NAME_LENGTH) {
+            return false;
         }
 
-        if (split[1].length() != 1) {
-            return new Response(INPUT_OPERATOR_IS_NOT_VALID);
+        for (int i = 0; i < name.length(); i++) {
+            if (Character.isWhitespace(name.charAt(i)) || name.charAt(i) == LIST_SEPARATOR) {
+                return false;
+            }
         }
+        return true;
+    }
 
-        char symbol = split[1].charAt(0);
+    /**
+     * Processes a binary request, writing its binary response. The operands keep their double precision.
+     *
+     * @param request  Buffer with at least {@link #BINARY_REQUEST_LENGTH} bytes remaining, consumed by this method.
+     * @param response Buffer with at least {@link #BINARY_RESPONSE_LENGTH} bytes remaining.
+     */
+    void processBinary(final ByteBuffer request, final ByteBuffer response) {
+        final long start = System.nanoTime();
+        final byte symbol = request.get();
+        final double firstOperand = request.getDouble();
+        final double secondOperand = request.getDouble();
 
-        ArithmeticOperator operator;
-        try {
-            operator = ArithmeticOperator.valueOfSymbol(symbol);
-        } catch (IllegalArgumentException e) {
-            LOGGER.warning(e.getMessage());
-            return new Response(INPUT_OPERATOR_IS_NOT_VALID);
+        final ArithmeticOperator operator = ArithmeticOperator.findBySymbol((char) (symbol & 0xFF));
+        if (operator == null) {
+            response.put(BINARY_STATUS_ERR).put((byte) INPUT_OPERATOR_IS_NOT_VALID.ordinal()).putDouble(Double.NaN);
+            OperationJournal.error(sessionId, INPUT_OPERATOR_IS_NOT_VALID);
+            ServerMetrics.errorProcessed(INPUT_OPERATOR_IS_NOT_VALID, System.nanoTime() - start);
+            return;
         }
 
-        float secondOperator;
-        try {
-            secondOperator = Float.parseFloat(split[2]);
-        } catch (NumberFormatException e) {
-            LOGGER.warning(e.getMessage());
-            return new Response(INPUT_SECOND_OPERAND_IS_NOT_A_NUMBER);
+        final double result = operator.apply(firstOperand, secondOperand);
+        response.put(BINARY_STATUS_OK).put((byte) 0).putDouble(result);
+        OperationJournal.operation(RecordType.BINARY, sessionId, operator, firstOperand, secondOperand, result);
+        ServerMetrics.operationProcessed(operator, System.nanoTime() - start);
+    }
+
+    /**
+     * Answers a text request over a rate limit instead of processing it. The put command isn't answered either way: its
+     * values are counted as rejected instead.
+     *
+     * @param input Input.
+     * @return The error response; {@literal null} for the put command.
+     */
+    Response rejectRateLimited(final String input) {
+        OperationJournal.error(sessionId, RATE_LIMITED);
+        ServerMetrics.errorProcessed(RATE_LIMITED, 0);
+        if (isCommand(input, PUT_COMMAND)) {
+            processPut(input, true);
+            return null;
         }
+        return errorResponse(RATE_LIMITED);
+    }
+
+    /**
+     * Answers a binary request over a rate limit instead of processing it.
+     *
+     * @param request  Buffer with at least {@link #BINARY_REQUEST_LENGTH} bytes remaining, consumed by this method.
+     * @param response Buffer with at least {@link #BINARY_RESPONSE_LENGTH} bytes remaining.
+     */
+    void rejectRateLimitedBinary(final ByteBuffer request, final ByteBuffer response) {
+        request.position(request.position() + BINARY_REQUEST_LENGTH);
+        response.put(BINARY_STATUS_ERR).put((byte) RATE_LIMITED.ordinal()).putDouble(Double.NaN);
+        OperationJournal.error(sessionId, RATE_LIMITED);
+        ServerMetrics.errorProcessed(RATE_LIMITED, 0);
+    }
+
+    /**
+     * Gets the command of the batch requests, {@code BATCH <operator> <first operands> <second operands>}. The
+     * operands are separated by commas and there must be as many second operands as first ones or a single one, the
+     * second operand of every operation, and at most {@value OperationParser#MAX_BATCH_LENGTH}. The OK message has only
+     * the results, separated by commas and in the order of the operands.
+     *
+     * @return The batch command.
+     */
+    String getBatchCommand() {
+        return BATCH_COMMAND;
+    }
+
+    /**
+     * Gets the command of the expression requests, {@code EVAL <expression>}. The expression combines numbers with the
+     * operators, parentheses and the unary signs, see {@link Expression}. The OK message has only the value.
+     *
+     * @return The expression command.
+     */
+    String getExpressionCommand() {
+        return EXPRESSION_COMMAND;
+    }
+
+    /**
+     * Gets the command that opens an accumulator, {@code OPEN <name>}. The name has no whitespace nor commas and up to
+     * 64 characters; opening an accumulator already open clears it. The OK message is the name.
+     *
+     * @return The open command.
+     */
+    String getOpenCommand() {
+        return OPEN_COMMAND;
+    }
 
-        BinaryOperation operation = new BinaryOperation(firstOperand, operator, secondOperator);
-        return new Response(formatOperation(operation) + PROTOCOL_SEPARATOR + formatResult(operation));
+    /**
+     * Gets the command that adds values to an accumulator, {@code PUT <name> <values>}, the values separated by commas.
+     * It isn't answered, not even when it fails: the values that aren't finite numbers are counted as rejected, and the
+     * values of an accumulator that isn't open are dropped.
+     *
+     * @return The put command.
+     */
+    String getPutCommand() {
+        return PUT_COMMAND;
+    }
+
+    /**
+     * Gets the command that queries the statistics of an accumulator, {@code STATS <name>}. The OK message has the
+     * count, the sum, the mean, the minimum, the maximum, the population variance and the rejected count, separated by
+     * commas. The mean, the minimum, the maximum and the variance are {@literal NaN} before the first value.
+     *
+     * @return The stats command.
+     */
+    String getStatsCommand() {
+        return STATS_COMMAND;
+    }
+
+    /**
+     * Gets the command that closes an accumulator, {@code CLOSE <name>}. The OK message has its last statistics, as the
+     * stats command.
+     *
+     * @return The close command.
+     */
+    String getCloseCommand() {
+        return CLOSE_COMMAND;
+    }
+
+    /**
+     * Gets the command that switches the session to the binary wire format.
+     *
+     * @return The binary command.
+     */
+    String getBinaryCommand() {
+        return BINARY_COMMAND;
+    }
+
+    /**
+     * Gets the text response that acknowledges the binary command. The frames start right after it.
+     *
+     * @return The acknowledgement.
+     */
+    Response getBinaryAcknowledgement() {
+        return BINARY_ACKNOWLEDGEMENT;
+    }
+
+    /**
+     * Gets the response of an error type. The error responses are immutable and shared.
+     *
+     * @param errorType Type of error.
+     * @return The error response.
+     */
+    static Response errorResponse(final ResponseErrorType errorType) {
+        return ERROR_RESPONSES[errorType.ordinal()];
     }
 
     /**
@@ -116,6 +748,15 @@ final class BinaryOperationProtocol {
         return EXIT_COMMAND;
     }
 
+    /**
+     * Gets the id of the session of this protocol instance, unique in the server and recorded in the journal.
+     *
+     * @return The session id.
+     */
+    long getSessionId() {
+        return sessionId;
+    }
+
     /**
      * Gets the welcome message to send for the new connected clients.
      *
@@ -125,21 +766,58 @@ final class BinaryOperationProtocol {
         return join(PROTOCOL_SEPARATOR, APP_NAME, APP_VERSION);
     }
 
-    private String formatOperation(final BinaryOperation operation) {
-        return join(OPERATION_SEPARATOR, format(operation.getFirstOperand()),
-                valueOf(operation.getSymbol().getSymbol()), format(operation.getSecondOperand()));
+    /**
+     * Writes the encoded welcome message line.
+     *
+     * @param buffer Buffer to write to.
+     * @return The buffer, or a larger copy of it if it had no room.
+     */
+    ByteBuffer encodeWelcomeMessage(final ByteBuffer buffer) {
+        return ensureRemaining(buffer, WELCOME_MESSAGE.length).put(WELCOME_MESSAGE);
+    }
+
+    /**
+     * Ensures a buffer has room for some bytes.
+     *
+     * @param buffer The buffer, in write mode.
+     * @param length Number of bytes.
+     * @return The buffer if it has room; otherwise, a larger buffer with its content.
+     */
+    static ByteBuffer ensureRemaining(final ByteBuffer buffer, final int length) {
+        if (buffer.remaining() >= length) {
+            return buffer;
+        }
+
+        final ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + length));
+        buffer.flip();
+        return larger.put(buffer);
     }
 
-    private String formatResult(final BinaryOperation operation) {
-        return format(operation.apply());
+    private static byte[] encodeLine(final String line) {
+        final byte[] bytes = line.getBytes(CHARSET);
+        final byte[] encoded = Arrays.copyOf(bytes, bytes.length + LINE_SEPARATOR.length);
+        System.arraycopy(LINE_SEPARATOR, 0, encoded, bytes.length, LINE_SEPARATOR.length);
+        return encoded;
     }
 
-    private String format(double f) {
-        return isInteger(f) ? valueOf((int) f) : valueOf(f);
+    private static boolean isAsciiCompatible(final Charset charset) {
+        final StringBuilder ascii = new StringBuilder();
+        for (char c = 0; c < ASCII_LIMIT; c++) {
+            ascii.append(c);
+        }
+        return Arrays.equals(ascii.toString().getBytes(charset), ascii.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static void appendOperation(final StringBuilder builder, final double firstOperand,
+                                        final ArithmeticOperator operator, final double secondOperand) {
+        DoubleFormatter.appendTo(builder, firstOperand).append(OPERATION_SEPARATOR).append(operator.getSymbol())
+                .append(OPERATION_SEPARATOR);
+        DoubleFormatter.appendTo(builder, secondOperand);
     }
 
     /**
-     * Response of the protocol.
+     * Response of the protocol. The error and the cached responses are immutable and shared; the OK response a protocol
+     * instance answers is reused, its message is the instance's builder, and it's encoded straight from it.
      *
      * @author Jorge Alfonso Garcia Espinosa
      * @version 1.0-SNAPSHOT
@@ -148,16 +826,30 @@ final class BinaryOperationProtocol {
     static class Response {
 
         private final ResponseType type;
-        private final String okMessage;
+        private final CharSequence okMessage;
         private final ResponseErrorType errorType;
 
+        // The message changes with every request, so neither its text nor its encoded line are kept.
+        private final boolean reused;
+
+        // Text of the response, written on the first toString call. A racing call writes an equal string.
+        private String text;
+
+        // Encoded line of the constant and the cached responses, shared by the sessions.
+        private volatile byte[] encoded;
+
         /**
          * Constructor. Sets the type as {@link ResponseType#OK}.
          *
          * @param okMessage Message for OK result.
          */
         Response(String okMessage) {
+            this(okMessage, false);
+        }
+
+        private Response(final CharSequence okMessage, final boolean reused) {
             this.okMessage = okMessage;
+            this.reused = reused;
 
             type = OK;
             errorType = null;
@@ -173,6 +865,7 @@ final class BinaryOperationProtocol {
 
             type = ERR;
             okMessage = null;
+            reused = false;
         }
 
         /**
@@ -190,7 +883,7 @@ final class BinaryOperationProtocol {
          * @return The OK message if the type is {@link ResponseType#OK}; otherwise, {@literal null}.
          */
         String getOkMessage() {
-            return okMessage;
+            return okMessage == null ? null : okMessage.toString();
         }
 
         /**
@@ -202,9 +895,73 @@ final class BinaryOperationProtocol {
             return errorType;
         }
 
+        /**
+         * Writes the encoded response line, as {@link java.io.PrintWriter#println(Object)} writes it.
+         *
+         * @param buffer Buffer to write to.
+         * @return The buffer, or a larger copy of it if it had no room.
+         */
+        ByteBuffer encodeTo(final ByteBuffer buffer) {
+            final byte[] bytes = encoded;
+            if (bytes != null) {
+                return ensureRemaining(buffer, bytes.length).put(bytes);
+            }
+
+            final CharSequence message = okMessage;
+            final ByteBuffer target = ensureRemaining(buffer, OK_PREFIX.length + message.length()
+                    + LINE_SEPARATOR.length);
+            final int start = target.position();
+            target.put(OK_PREFIX);
+            for (int i = 0; i < message.length(); i++) {
+                final char c = message.charAt(i);
+                if (c >= ASCII_LIMIT || !ASCII_COMPATIBLE) {
+                    target.position(start);
+                    final byte[] line = reused ? encodeLine(toString()) : preEncode().encoded;
+                    return ensureRemaining(target, line.length).put(line);
+                }
+                target.put((byte) c);
+            }
+            return target.put(LINE_SEPARATOR);
+        }
+
+        /**
+         * Gets a response that keeps this one's message after the next request, for the responses kept, as the cached
+         * ones.
+         *
+         * @return This response if it isn't reused; otherwise, a copy of it.
+         */
+        Response share() {
+            return reused ? new Response(okMessage.toString()) : this;
+        }
+
+        /**
+         * Encodes the response line once, for the responses written many times.
+         *
+         * @return This response.
+         * @throws IllegalStateException If the response is reused, see {@link #share()}.
+         */
+        Response preEncode() {
+            if (reused) {
+                throw new IllegalStateException("A reused response can't be encoded once");
+            }
+            if (encoded == null) {
+                encoded = encodeLine(toString());
+            }
+            return this;
+        }
+
         @Override
         public String toString() {
-            return getType() + PROTOCOL_SEPARATOR + (getType().equals(OK) ? getOkMessage() : getErrorType());
+            if (reused) {
+                return OK + PROTOCOL_SEPARATOR + okMessage;
+            }
+
+            String current = text;
+            if (current == null) {
+                current = getType() + PROTOCOL_SEPARATOR + (getType().equals(OK) ? getOkMessage() : getErrorType());
+                text = current;
+            }
+            return current;
         }
     }
 
@@ -257,6 +1014,38 @@ final class BinaryOperationProtocol {
         /**
          * Input's second operand isn't a number.
          */
-        INPUT_SECOND_OPERAND_IS_NOT_A_NUMBER
+        INPUT_SECOND_OPERAND_IS_NOT_A_NUMBER,
+        /**
+         * Server is serving as many sessions as it admits, the session is rejected.
+         */
+        SERVER_BUSY,
+        /**
+         * Batch input's second operands aren't as many as the first ones nor a single one.
+         */
+        INPUT_OPERANDS_LENGTHS_DO_NOT_MATCH,
+        /**
+         * Expression input isn't a valid expression.
+         */
+        INPUT_EXPRESSION_IS_NOT_VALID,
+        /**
+         * Request is over a rate limit of the server, see {@link RateLimiter}.
+         */
+        RATE_LIMITED,
+        /**
+         * Accumulator name is empty, too long or has whitespace or commas.
+         */
+        INPUT_ACCUMULATOR_NAME_IS_NOT_VALID,
+        /**
+         * No accumulator with that name is open in the session.
+         */
+        INPUT_ACCUMULATOR_IS_NOT_OPEN,
+        /**
+         * Session has as many accumulators open as it can.
+         */
+        ACCUMULATOR_LIMIT_REACHED,
+        /**
+         * Batch input has more operands than {@link OperationParser#MAX_BATCH_LENGTH}.
+         */
+        INPUT_BATCH_IS_TOO_LONG
     }
 }
@@ -0,0 +1,174 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache by string key, shared by all the sessions. Lookups only read a {@link ConcurrentHashMap} and mark the
+ * entry as referenced, so they take no lock. Insertions are serialized and evict with the CLOCK policy: the hand sweeps
+ * the entries, giving the referenced ones a second chance, and replaces the first one not referenced since the last
+ * sweep.
+ *
+ * @param <V> Type of the cached values.
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+class ClockCache<V> {
+
+    private final ConcurrentHashMap<String, Node<V>> entries;
+    private final Node<V>[] clock;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // Guarded by this.
+    private int size;
+    private int hand;
+
+    /**
+     * Constructor.
+     *
+     * @param capacity Maximum number of entries.
+     * @throws IllegalArgumentException If the capacity isn't positive.
+     */
+    @SuppressWarnings("unchecked")
+    ClockCache(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Cache capacity must be positive");
+        }
+
+        entries = new ConcurrentHashMap<>(capacity);
+        clock = new Node[capacity];
+    }
+
+    /**
+     * Gets the value of a key.
+     *
+     * @param key The key.
+     * @return The value; {@literal null} if the key isn't cached.
+     */
+    V get(final String key) {
+        final Node<V> node = entries.get(key);
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+
+        if (!node.referenced) {
+            node.referenced = true;
+        }
+        hits.increment();
+        return node.value;
+    }
+
+    /**
+     * Caches the value of a key, evicting an entry if the cache is full. Has no effect if the key is cached.
+     *
+     * @param key   The key.
+     * @param value The value.
+     */
+    synchronized void put(final String key, final V value) {
+        if (entries.containsKey(key)) {
+            return;
+        }
+
+        final int slot = size < clock.length ? size++ : evict();
+        final Node<V> node = new Node<>(key, value);
+        clock[slot] = node;
+        entries.put(key, node);
+    }
+
+    /**
+     * Gets the number of cached entries.
+     *
+     * @return The size.
+     */
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the number of lookups that found the key.
+     *
+     * @return Hits.
+     */
+    long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of lookups that didn't find the key.
+     *
+     * @return Misses.
+     */
+    long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the number of entries evicted to make room for new ones.
+     *
+     * @return Evictions.
+     */
+    long getEvictions() {
+        return evictions.sum();
+    }
+
+    private int evict() {
+        while (true) {
+            final int slot = hand;
+            hand = hand + 1 == clock.length ? 0 : hand + 1;
+
+            final Node<V> node = clock[slot];
+            if (node.referenced) {
+                node.referenced = false;
+            } else {
+                entries.remove(node.key);
+                evictions.increment();
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * Cached entry.
+     */
+    private static final class Node<V> {
+
+        private final String key;
+        private final V value;
+
+        private volatile boolean referenced;
+
+        private Node(final String key, final V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+/**
+ * Formatter of the protocol's numbers, appending straight into a reusable {@link StringBuilder}.
+ * <p>
+ * A value that is an integer at float precision (the operands are floats) is formatted as a {@code long}, so every
+ * integer strictly inside the long range keeps all its digits; {@literal -2^63}, where a rounded result that overflows
+ * the long range lands, is formatted as a double like {@literal 2^63}. Any other value is formatted as
+ * {@link Double#toString(double)} does, the shortest decimal that rounds back to the same double; see
+ * {@link #appendDoubleTo(StringBuilder, double)} for the values at double precision. Values between {@literal 0.001}
+ * and {@literal 10^7} with up to 17 significant digits take a fast path that scales them to a {@code long}.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class DoubleFormatter {
+
+    private static final double MIN_PLAIN = 1e-3;
+    private static final double MAX_PLAIN = 1e7;
+    private static final double MIN_LONG = -0x1p63;
+    private static final double MAX_LONG = 0x1p63;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final int MAX_FRACTION_DIGITS = 17;
+    private static final double HALF = 0.5;
+    private static final long[] LONG_POWERS_OF_TEN = new long[MAX_FRACTION_DIGITS + 1];
+    private static final double[] POWERS_OF_TEN = new double[MAX_FRACTION_DIGITS + 1];
+
+    static {
+        long power = 1;
+        for (int i = 0; i <= MAX_FRACTION_DIGITS; i++) {
+            LONG_POWERS_OF_TEN[i] = power;
+            POWERS_OF_TEN[i] = power;
+            power *= 10;
+        }
+    }
+
+    private DoubleFormatter() {
+    }
+
+    /**
+     * Appends a value.
+     *
+     * @param builder Builder to append to.
+     * @param value   The value.
+     * @return The builder.
+     */
+    static StringBuilder appendTo(final StringBuilder builder, final double value) {
+        if (isInteger(value) && value > MIN_LONG && value < MAX_LONG) {
+            return builder.append((long) Math.rint(value));
+        }
+
+        final double magnitude = Math.abs(value);
+        if (magnitude >= MIN_PLAIN && magnitude < MAX_PLAIN && appendPlain(builder, value, magnitude)) {
+            return builder;
+        }
+
+        return builder.append(value);
+    }
+
+    /**
+     * Appends a value at double precision, for the values that don't come from float operands: only the integers that
+     * are exact as double are formatted as a {@code long}, the rest keep all their digits.
+     *
+     * @param builder Builder to append to.
+     * @param value   The value.
+     * @return The builder.
+     */
+    static StringBuilder appendDoubleTo(final StringBuilder builder, final double value) {
+        final double magnitude = Math.abs(value);
+        if (magnitude < MAX_EXACT_MANTISSA && value == Math.rint(value)) {
+            return builder.append((long) value);
+        }
+
+        if (magnitude >= MIN_PLAIN && magnitude < MAX_PLAIN && appendPlain(builder, value, magnitude)) {
+            return builder;
+        }
+
+        return builder.append(value);
+    }
+
+    /**
+     * Indicates if a value is an integer at float precision, as {@link NumberUtils#isInteger(Number)} does.
+     *
+     * @param value The value.
+     * @return {@literal true} if the value narrowed to float is an integer; otherwise, {@literal false}.
+     */
+    static boolean isInteger(final double value) {
+        final float narrowed = (float) value;
+        return !Float.isInfinite(narrowed) && narrowed == Math.rint(narrowed);
+    }
+
+    /**
+     * Appends the value with the fewest fraction digits that round-trips, picking the nearest digits as
+     * {@link Double#toString(double)} does. Returns {@literal false} without appending if it needs too many digits.
+     */
+    private static boolean appendPlain(final StringBuilder builder, final double value, final double magnitude) {
+        for (int digits = 1; digits <= MAX_FRACTION_DIGITS; digits++) {
+            final double scale = POWERS_OF_TEN[digits];
+            final double scaled = Math.rint(magnitude * scale);
+            if (scaled >= MAX_EXACT_MANTISSA) {
+                return false;
+            }
+
+            long mantissa = (long) scaled;
+            final double error = Math.fma(magnitude, scale, -scaled);
+            if (error > HALF || error == HALF && (mantissa & 1) != 0) {
+                mantissa++;
+            } else if (error < -HALF || error == -HALF && (mantissa & 1) != 0) {
+                mantissa--;
+            }
+
+            if (mantissa / scale == magnitude) {
+                appendScaled(builder, value < 0, mantissa, digits);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void appendScaled(final StringBuilder builder, final boolean negative, final long mantissa,
+                                     final int digits) {
+        if (negative) {
+            builder.append('-');
+        }
+
+        final long scale = LONG_POWERS_OF_TEN[digits];
+        final long fraction = mantissa % scale;
+        builder.append(mantissa / scale).append('.');
+        for (long power = scale / 10; power > fraction && power > 1; power /= 10) {
+            builder.append('0');
+        }
+        builder.append(fraction);
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import java.util.Arrays;
+
+/**
+ * Infix expression compiled into a flat postfix program over a stack of doubles. The expressions combine numbers with
+ * the {@link ArithmeticOperator}s, parentheses and the unary signs; multiplication and division take precedence over
+ * addition and subtraction, and operators of the same precedence are applied from left to right. The numbers are parsed
+ * as {@link Float#parseFloat(String)} does, like the operands of the operations, and evaluated as doubles.
+ * <p>
+ * A compiled expression is immutable, so it can be cached and evaluated by any number of sessions; the evaluation
+ * only needs a stack of {@link #getStackDepth()} doubles.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class Expression {
+
+    // Instructions other than the binary operators, whose instructions are their ordinals.
+    private static final byte PUSH = -1;
+    private static final byte NEGATE = -2;
+
+    // Entries of the compiler's operator stack other than the binary operators.
+    private static final byte OPEN_PARENTHESIS = -3;
+
+    private static final ArithmeticOperator[] OPERATORS = ArithmeticOperator.values();
+    private static final int NEGATE_PRECEDENCE = 3;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final byte[] code;
+    private final double[] constants;
+    private final int stackDepth;
+
+    private Expression(final byte[] code, final double[] constants, final int stackDepth) {
+        this.code = code;
+        this.constants = constants;
+        this.stackDepth = stackDepth;
+    }
+
+    /**
+     * Compiles an expression with the shunting-yard algorithm, so nesting the parentheses doesn't take call stack.
+     *
+     * @param input Input.
+     * @param start Index of the expression in the input.
+     * @return The compiled expression; {@literal null} if the expression isn't valid.
+     */
+    static Expression compile(final CharSequence input, final int start) {
+        final Compiler compiler = new Compiler();
+        final int end = input.length();
+        boolean expectOperand = true;
+        int i = start;
+        while (i < end) {
+            final char c = input.charAt(i);
+            if (c == ' ') {
+                i++;
+            } else if (expectOperand) {
+                if (c == '(') {
+                    compiler.pushOperator(OPEN_PARENTHESIS);
+                    i++;
+                } else if (c == '-') {
+                    compiler.pushOperator(NEGATE);
+                    i++;
+                } else if (c == '+') {
+                    i++;
+                } else {
+                    final int numberEnd = scanNumber(input, i, end);
+                    if (numberEnd == i || !compiler.emitNumber(input, i, numberEnd)) {
+                        return null;
+                    }
+                    expectOperand = false;
+                    i = numberEnd;
+                }
+            } else if (c == ')') {
+                if (!compiler.closeParenthesis()) {
+                    return null;
+                }
+                i++;
+            } else {
+                final ArithmeticOperator operator = ArithmeticOperator.findBySymbol(c);
+                if (operator == null) {
+                    return null;
+                }
+                compiler.pushBinaryOperator(operator);
+                expectOperand = true;
+                i++;
+            }
+        }
+
+        return expectOperand ? null : compiler.finish();
+    }
+
+    /**
+     * Gets the depth of the stack the evaluation needs.
+     *
+     * @return Stack depth.
+     */
+    int getStackDepth() {
+        return stackDepth;
+    }
+
+    /**
+     * Evaluates the expression.
+     *
+     * @param stack Stack of at least {@link #getStackDepth()} doubles, overwritten.
+     * @return The value.
+     */
+    double evaluate(final double[] stack) {
+        int top = -1;
+        int constant = 0;
+        for (byte instruction : code) {
+            if (instruction == PUSH) {
+                stack[++top] = constants[constant++];
+            } else if (instruction == NEGATE) {
+                stack[top] = -stack[top];
+            } else {
+                final double secondOperand = stack[top--];
+                stack[top] = OPERATORS[instruction].apply(stack[top], secondOperand);
+            }
+        }
+        return stack[0];
+    }
+
+    /**
+     * Scans {@code digits[.digits][(e|E)[+-]digits]}, loosely: {@link Float#parseFloat(String)} validates it.
+     *
+     * @return The end of the number; {@code start} if there's no number.
+     */
+    private static int scanNumber(final CharSequence input, final int start, final int end) {
+        int i = start;
+        while (i < end && (Character.isDigit(input.charAt(i)) || input.charAt(i) == '.')) {
+            i++;
+        }
+        if (i > start && i < end && (input.charAt(i) == 'e' || input.charAt(i) == 'E')) {
+            i++;
+            if (i < end && (input.charAt(i) == '-' || input.charAt(i) == '+')) {
+                i++;
+            }
+            while (i < end && Character.isDigit(input.charAt(i))) {
+                i++;
+            }
+        }
+        return i;
+    }
+
+    private static int precedence(final byte operator) {
+        if (operator == NEGATE) {
+            return NEGATE_PRECEDENCE;
+        }
+        return operator == ArithmeticOperator.MULTIPLICATION.ordinal()
+                || operator == ArithmeticOperator.DIVISION.ordinal() ? 2 : 1;
+    }
+
+    /**
+     * State of a compilation: the program emitted so far and the pending operators.
+     */
+    private static final class Compiler {
+
+        private byte[] code = new byte[INITIAL_CAPACITY];
+        private int codeLength;
+        private double[] constants = new double[INITIAL_CAPACITY];
+        private int constantsLength;
+        private byte[] operators = new byte[INITIAL_CAPACITY];
+        private int operatorsLength;
+        private int depth;
+        private int maxDepth;
+
+        private boolean emitNumber(final CharSequence input, final int start, final int end) {
+            final float number;
+            try {
+                number = Float.parseFloat(input.subSequence(start, end).toString());
+            } catch (NumberFormatException e) {
+                return false;
+            }
+
+            if (constantsLength == constants.length) {
+                constants = Arrays.copyOf(constants, constantsLength * 2);
+            }
+            constants[constantsLength++] = number;
+            emit(PUSH);
+            maxDepth = Math.max(maxDepth, ++depth);
+            return true;
+        }
+
+        private void pushOperator(final byte operator) {
+            if (operatorsLength == operators.length) {
+                operators = Arrays.copyOf(operators, operatorsLength * 2);
+            }
+            operators[operatorsLength++] = operator;
+        }
+
+        private void pushBinaryOperator(final ArithmeticOperator operator) {
+            final byte instruction = (byte) operator.ordinal();
+            while (operatorsLength > 0 && operators[operatorsLength - 1] != OPEN_PARENTHESIS
+                    && precedence(operators[operatorsLength - 1]) >= precedence(instruction)) {
+                emitOperator(operators[--operatorsLength]);
+            }
+            pushOperator(instruction);
+        }
+
+        private boolean closeParenthesis() {
+            while (operatorsLength > 0 && operators[operatorsLength - 1] != OPEN_PARENTHESIS) {
+                emitOperator(operators[--operatorsLength]);
+            }
+            if (operatorsLength == 0) {
+                return false;
+            }
+            operatorsLength--;
+            return true;
+        }
+
+        private Expression finish() {
+            while (operatorsLength > 0) {
+                final byte operator = operators[--operatorsLength];
+                if (operator == OPEN_PARENTHESIS) {
+                    return null;
+                }
+                emitOperator(operator);
+            }
+            return new Expression(Arrays.copyOf(code, codeLength), Arrays.copyOf(constants, constantsLength),
+                    maxDepth);
+        }
+
+        private void emitOperator(final byte operator) {
+            emit(operator);
+            if (operator != NEGATE) {
+                depth--;
+            }
+        }
+
+        private void emit(final byte instruction) {
+            if (codeLength == code.length) {
+                code = Arrays.copyOf(code, codeLength * 2);
+            }
+            code[codeLength++] = instruction;
+        }
+    }
+}
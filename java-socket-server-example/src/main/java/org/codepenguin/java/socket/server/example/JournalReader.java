@@ -0,0 +1,160 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Reader of the records of an operation journal, segment after segment in the order they were written. It can read
+ * the journal of a running server: it stops at the last record written when the segment is mapped.
+ * <p>
+ * A truncated or corrupt record, left by a crash before the segment was forced, ends its segment: the reader logs it,
+ * counts it and goes on with the next segment.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class JournalReader {
+
+    private static final Logger LOGGER = Logger.getLogger(JournalReader.class.getName());
+
+    private static final String SEGMENT_PREFIX = "operations-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String SEGMENT_INDEX_FORMAT = "%010d";
+
+    private final List<Path> segments;
+    private final CRC32C checksum = new CRC32C();
+    private int nextSegment;
+    private ByteBuffer segment;
+    private long corruptSegments;
+
+    /**
+     * Constructor.
+     *
+     * @param directory Directory of the segments.
+     * @throws IOException If the directory can't be listed.
+     */
+    JournalReader(Path directory) throws IOException {
+        segments = listSegments(directory);
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return The record; {@literal null} after the last one.
+     * @throws IOException If a segment can't be read.
+     */
+    JournalRecord next() throws IOException {
+        while (true) {
+            if (segment != null) {
+                try {
+                    final JournalRecord record = JournalRecord.read(segment, checksum);
+                    if (record != null) {
+                        return record;
+                    }
+                } catch (IllegalArgumentException e) {
+                    LOGGER.log(Level.WARNING, segments.get(nextSegment - 1).toString(), e);
+                    corruptSegments++;
+                }
+            }
+
+            if (nextSegment == segments.size()) {
+                segment = null;
+                return null;
+            }
+            segment = map(segments.get(nextSegment++));
+        }
+    }
+
+    /**
+     * Gets the number of segments that ended with a truncated or corrupt record.
+     *
+     * @return Corrupt segments.
+     */
+    long getCorruptSegments() {
+        return corruptSegments;
+    }
+
+    /**
+     * Lists the segments of a journal.
+     *
+     * @param directory Directory of the segments.
+     * @return The segments, in the order they were written.
+     * @throws IOException If the directory can't be listed.
+     */
+    static List<Path> listSegments(final Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(JournalReader::isSegment).sorted().collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Gets the path of a segment.
+     *
+     * @param directory Directory of the segments.
+     * @param index     Index of the segment, from {@literal 1}.
+     * @return The path.
+     */
+    static Path segmentPath(final Path directory, final long index) {
+        return directory.resolve(SEGMENT_PREFIX + String.format(SEGMENT_INDEX_FORMAT, index) + SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Gets the index of a segment.
+     *
+     * @param segment Path of the segment.
+     * @return The index.
+     */
+    static long segmentIndex(final Path segment) {
+        final String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static boolean isSegment(final Path path) {
+        final String name = path.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX) && Files.isRegularFile(path)
+                && name.length() == SEGMENT_PREFIX.length() + String.format(SEGMENT_INDEX_FORMAT, 0).length()
+                + SEGMENT_SUFFIX.length();
+    }
+
+    private static ByteBuffer map(final Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import lombok.Value;
+import org.codepenguin.java.socket.server.example.BinaryOperationProtocol.ResponseErrorType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.zip.CRC32C;
+
+/**
+ * Record of the operation journal, see {@link OperationJournal}.
+ * <p>
+ * A record is written in big-endian order as its length, the CRC32C of the bytes after the checksum, the record type,
+ * the code (the ordinal of the operator, or of the error type of an error record), the time in milliseconds since the
+ * epoch, the session id, the two operands and the result as doubles and a text in UTF-8: the expression of an
+ * expression record, or the exact operation of a text operation computed exactly, as its response's message. The
+ * segments are zero filled, so a length of {@literal 0} marks the end of the records.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+@Value
+class JournalRecord {
+
+    /**
+     * Length in bytes of a record without text.
+     */
+    static final int HEADER_LENGTH = 2 * Integer.BYTES + 2 * Byte.BYTES + 2 * Long.BYTES + 3 * Double.BYTES;
+
+    private static final int CHECKED_OFFSET = 2 * Integer.BYTES;
+    private static final char OPERATION_SEPARATOR = ' ';
+    private static final char RESULT_SEPARATOR = '\t';
+    private static final String BATCH_COMMAND = "BATCH ";
+    private static final String EXPRESSION_COMMAND = "EVAL ";
+
+    /**
+     * Type of record.
+     */
+    RecordType type;
+
+    /**
+     * Operator; {@literal null} for the expressions and the errors.
+     */
+    ArithmeticOperator operator;
+
+    /**
+     * Error type; {@literal null} if the request was processed.
+     */
+    ResponseErrorType errorType;
+
+    /**
+     * Time of the request in milliseconds since the epoch.
+     */
+    long timestamp;
+
+    /**
+     * Id of the session, see {@link BinaryOperationProtocol#getSessionId()}.
+     */
+    long sessionId;
+
+    /**
+     * First operand; {@link Double#NaN} for the expressions and the errors.
+     */
+    double firstOperand;
+
+    /**
+     * Second operand; {@link Double#NaN} for the expressions and the errors.
+     */
+    double secondOperand;
+
+    /**
+     * Result; {@link Double#NaN} for the errors.
+     */
+    double result;
+
+    /**
+     * Expression; {@literal null} for the other types.
+     */
+    String expression;
+
+    /**
+     * Operation computed exactly and its result, separated by a tab as in the OK response's message; {@literal null}
+     * if it was computed in double or for the other types.
+     */
+    String exactOperation;
+
+    /**
+     * Writes a record.
+     *
+     * @param target     Buffer with at least {@link #HEADER_LENGTH} plus the text's length bytes remaining.
+     * @param checksum   Checksum to reuse, reset by this method.
+     * @param type       Type of record.
+     * @param code       Ordinal of the operator or the error type.
+     * @param timestamp  Time in milliseconds since the epoch.
+     * @param sessionId  Id of the session.
+     * @param first      First operand.
+     * @param second     Second operand.
+     * @param result     Result.
+     * @param text       Expression or exact operation in UTF-8, {@literal null} if the record has no text.
+     */
+    static void write(final ByteBuffer target, final CRC32C checksum, final RecordType type, final int code,
+                      final long timestamp, final long sessionId, final double first, final double second,
+                      final double result, final byte[] text) {
+        final int start = target.position();
+        final int length = HEADER_LENGTH + (text == null ? 0 : text.length);
+        target.putInt(length).putInt(0).put((byte) type.ordinal()).put((byte) code).putLong(timestamp)
+                .putLong(sessionId).putDouble(first).putDouble(second).putDouble(result);
+        if (text != null) {
+            target.put(text);
+        }
+
+        checksum.reset();
+        checksum.update(target.duplicate().position(start + CHECKED_OFFSET).limit(start + length));
+        target.putInt(start + Integer.BYTES, (int) checksum.getValue());
+    }
+
+    /**
+     * Reads the record at the position of a buffer, advancing the position past it.
+     *
+     * @param source   The buffer.
+     * @param checksum Checksum to reuse, reset by this method.
+     * @return The record; {@literal null} at the end of the records, with the position unchanged.
+     * @throws IllegalArgumentException If the record is truncated or corrupt.
+     */
+    static JournalRecord read(final ByteBuffer source, final CRC32C checksum) {
+        final int start = source.position();
+        if (source.remaining() < Integer.BYTES || source.getInt(start) == 0) {
+            return null;
+        }
+
+        final int length = source.getInt(start);
+        if (length < HEADER_LENGTH || length > source.remaining()) {
+            throw new IllegalArgumentException(MessageFormat.format("Invalid journal record length at {0}: {1}",
+                    start, length));
+        }
+
+        checksum.reset();
+        checksum.update(source.duplicate().position(start + CHECKED_OFFSET).limit(start + length));
+        final RecordType[] types = RecordType.values();
+        final int typeOrdinal = source.get(start + CHECKED_OFFSET);
+        if (source.getInt(start + Integer.BYTES) != (int) checksum.getValue() || typeOrdinal < 0
+                || typeOrdinal >= types.length) {
+            throw new IllegalArgumentException(MessageFormat.format("Corrupt journal record at {0}", start));
+        }
+
+        final RecordType type = types[typeOrdinal];
+        source.position(start + CHECKED_OFFSET + Byte.BYTES);
+        final int code = source.get();
+        final long timestamp = source.getLong();
+        final long sessionId = source.getLong();
+        final double first = source.getDouble();
+        final double second = source.getDouble();
+        final double result = source.getDouble();
+        String text = null;
+        if (type == RecordType.EXPRESSION || type == RecordType.OPERATION && length > HEADER_LENGTH) {
+            final byte[] bytes = new byte[length - HEADER_LENGTH];
+            source.get(bytes);
+            text = new String(bytes, StandardCharsets.UTF_8);
+        }
+        source.position(start + length);
+
+        final ArithmeticOperator operator = type.hasOperator() ? ArithmeticOperator.values()[code] : null;
+        final ResponseErrorType errorType = type == RecordType.ERROR ? ResponseErrorType.values()[code] : null;
+        return type == RecordType.EXPRESSION
+                ? new JournalRecord(type, operator, errorType, timestamp, sessionId, first, second, result, text, null)
+                : new JournalRecord(type, operator, errorType, timestamp, sessionId, first, second, result, null,
+                text);
+    }
+
+    /**
+     * Gets the text request that reproduces the record, with the exact operands of an exact operation or, otherwise,
+     * formatting the operands as the responses do.
+     *
+     * @return The request; {@literal null} for the binary frames and the errors.
+     */
+    String toRequest() {
+        if (exactOperation != null) {
+            return exactOperation.substring(0, exactOperation.lastIndexOf(RESULT_SEPARATOR));
+        }
+
+        final StringBuilder builder = new StringBuilder();
+        switch (type) {
+            case BATCH:
+                builder.append(BATCH_COMMAND).append(operator.getSymbol()).append(OPERATION_SEPARATOR);
+                DoubleFormatter.appendTo(builder, firstOperand).append(OPERATION_SEPARATOR);
+                return DoubleFormatter.appendTo(builder, secondOperand).toString();
+            case OPERATION:
+                DoubleFormatter.appendTo(builder, firstOperand).append(OPERATION_SEPARATOR)
+                        .append(operator.getSymbol()).append(OPERATION_SEPARATOR);
+                return DoubleFormatter.appendTo(builder, secondOperand).toString();
+            case EXPRESSION:
+                return EXPRESSION_COMMAND + expression;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Type of journal record, the kind of request that produced it.
+     *
+     * @author Jorge Alfonso Garcia Espinosa
+     * @version 1.0-SNAPSHOT
+     * @since 1.8
+     */
+    enum RecordType {
+
+        /**
+         * Text operation.
+         */
+        OPERATION("operation"),
+        /**
+         * Operation of a batch, one record per operation.
+         */
+        BATCH("batch"),
+        /**
+         * Binary frame.
+         */
+        BINARY("binary"),
+        /**
+         * Expression.
+         */
+        EXPRESSION("expression"),
+        /**
+         * Request answered with an error.
+         */
+        ERROR("error");
+
+        private final String typeName;
+
+        RecordType(String typeName) {
+            this.typeName = typeName;
+        }
+
+        /**
+         * Gets the type name used in the command line.
+         *
+         * @return Type name.
+         */
+        String getTypeName() {
+            return typeName;
+        }
+
+        /**
+         * Indicates if the records of this type have an operator.
+         *
+         * @return {@literal true} for the operations; otherwise, {@literal false}.
+         */
+        boolean hasOperator() {
+            return this == OPERATION || this == BATCH || this == BINARY;
+        }
+
+        /**
+         * Returns the record type of the specified name. The name must match exactly a name used to declare an enum
+         * constant in this type.
+         *
+         * @param typeName The type name.
+         * @return The record type with the specified name.
+         * @throws IllegalArgumentException If the name isn't used by any record type.
+         */
+        static RecordType valueOfTypeName(String typeName) {
+            for (RecordType type : values()) {
+                if (type.getTypeName().equals(typeName)) {
+                    return type;
+                }
+            }
+
+            throw new IllegalArgumentException(MessageFormat.format("No type name in {0}: {1}",
+                    RecordType.class.getCanonicalName(), typeName));
+        }
+    }
+}
@@ -0,0 +1,340 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import lombok.Value;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.codepenguin.java.socket.server.example.BinaryOperationProtocol.Response;
+import org.codepenguin.java.socket.server.example.BinaryOperationProtocol.ResponseType;
+import org.codepenguin.java.socket.server.example.JournalRecord.RecordType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.MessageFormat;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Offline tool of the operation journal. It scans the records of a journal, filtered by type, operator, session and
+ * time, logs them and, optionally, re-executes them through {@link BinaryOperationProtocol} to verify their results.
+ * <p>
+ * The text operations, the operations of the batches and the expressions are sent again as text requests, with the
+ * operands formatted as the responses do, and the binary frames as binary frames. The text operations the server
+ * computed exactly are sent with their exact operands and verified against their exact response, so a wrong digit
+ * beyond the precision of a double is a mismatch too. The errors aren't verified, their records have no input. The
+ * server's exact decimal mode must be given again to verify the decimal operations it computed exactly.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+public final class JournalTool {
+
+    private static final Logger LOGGER = Logger.getLogger(JournalTool.class.getName());
+
+    private static final String JOURNAL_OPTION = "j";
+    private static final String JOURNAL_LONG_OPTION = "journal";
+    private static final String JOURNAL_DESCRIPTION = "Directory of the journal";
+    private static final String TYPE_OPTION = "t";
+    private static final String TYPE_LONG_OPTION = "type";
+    private static final String TYPE_DESCRIPTION = "Only the records of a type: operation, batch, binary, expression "
+            + "or error";
+    private static final String OPERATOR_OPTION = "o";
+    private static final String OPERATOR_LONG_OPTION = "operator";
+    private static final String OPERATOR_DESCRIPTION = "Only the operations with an operator symbol";
+    private static final String SESSION_OPTION = "s";
+    private static final String SESSION_LONG_OPTION = "session";
+    private static final String SESSION_DESCRIPTION = "Only the records of a session id";
+    private static final String FROM_OPTION = "f";
+    private static final String FROM_LONG_OPTION = "from";
+    private static final String FROM_DESCRIPTION = "Only the records at or after an ISO-8601 instant";
+    private static final String UNTIL_OPTION = "u";
+    private static final String UNTIL_LONG_OPTION = "until";
+    private static final String UNTIL_DESCRIPTION = "Only the records before an ISO-8601 instant";
+    private static final String LIST_OPTION = "l";
+    private static final String LIST_LONG_OPTION = "list";
+    private static final String LIST_DESCRIPTION = "Logs every record scanned";
+    private static final String VERIFY_OPTION = "v";
+    private static final String VERIFY_LONG_OPTION = "verify";
+    private static final String VERIFY_DESCRIPTION = "Re-executes the records and logs the mismatched results";
+    private static final String EXACT_DECIMALS_OPTION = "k";
+    private static final String EXACT_DECIMALS_LONG_OPTION = "exact-decimals";
+    private static final String EXACT_DECIMALS_DESCRIPTION = "Verifies with the exact decimal mode of the server";
+    private static final String PROTOCOL_SEPARATOR = "\t";
+    private static final char OPERATION_SEPARATOR = ' ';
+    private static final int EXIT_STATUS = 1;
+
+    private final Path directory;
+    private final Predicate<JournalRecord> filter;
+    private final boolean list;
+    private final boolean verify;
+    private final BinaryOperationProtocol protocol = new BinaryOperationProtocol();
+    private final ByteBuffer binaryRequest = ByteBuffer.allocate(BinaryOperationProtocol.BINARY_REQUEST_LENGTH);
+    private final ByteBuffer binaryResponse = ByteBuffer.allocate(BinaryOperationProtocol.BINARY_RESPONSE_LENGTH);
+
+    /**
+     * Constructor.
+     *
+     * @param directory Directory of the journal.
+     * @param filter    Filter of the records.
+     * @param list      {@literal true} to log every record scanned.
+     * @param verify    {@literal true} to re-execute the records.
+     */
+    JournalTool(final Path directory, final Predicate<JournalRecord> filter, final boolean list,
+                final boolean verify) {
+        this.directory = directory;
+        this.filter = filter;
+        this.list = list;
+        this.verify = verify;
+    }
+
+    /**
+     * Main method. Scans a journal, exiting with an error status if a result doesn't match.
+     *
+     * @param args The arguments: journal [type] [operator] [session] [from] [until] [list] [verify] [exact-decimals]
+     */
+    public static void main(String[] args) {
+        final CommandLine commandLine;
+        final Predicate<JournalRecord> filter;
+        try {
+            commandLine = new DefaultParser().parse(buildOptions(), args);
+            filter = buildFilter(commandLine);
+        } catch (ParseException | IllegalArgumentException | DateTimeParseException e) {
+            LOGGER.log(Level.SEVERE, e.getMessage(), e);
+            close();
+            return;
+        }
+
+        BinaryOperationProtocol.configureExactDecimals(commandLine.hasOption(EXACT_DECIMALS_OPTION));
+        final String journal = commandLine.getOptionValue(JOURNAL_OPTION);
+        final Report report;
+        try {
+            report = new JournalTool(Paths.get(journal), filter, commandLine.hasOption(LIST_OPTION),
+                    commandLine.hasOption(VERIFY_OPTION)).run();
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, journal, e);
+            close();
+            return;
+        }
+
+        LOGGER.log(Level.INFO, "SCAN_JOURNAL\t{0}\t{1}\t{2}\t{3}\t{4}", new Object[]{
+                String.valueOf(report.getScanned()), String.valueOf(report.getMatched()),
+                String.valueOf(report.getVerified()), String.valueOf(report.getMismatched()),
+                String.valueOf(report.getCorruptSegments())});
+        if (report.getMismatched() > 0) {
+            close();
+        }
+    }
+
+    /**
+     * Scans the journal.
+     *
+     * @return The report.
+     * @throws IOException If a segment can't be read.
+     */
+    Report run() throws IOException {
+        final JournalReader reader = new JournalReader(directory);
+        long scanned = 0;
+        long matched = 0;
+        long verified = 0;
+        long mismatched = 0;
+        JournalRecord record;
+        while ((record = reader.next()) != null) {
+            scanned++;
+            if (!filter.test(record)) {
+                continue;
+            }
+
+            matched++;
+            if (list) {
+                LOGGER.log(Level.INFO, "RECORD\t{0}\t{1}\t{2}\t{3}\t{4}", new Object[]{
+                        Instant.ofEpochMilli(record.getTimestamp()), String.valueOf(record.getSessionId()),
+                        record.getType().getTypeName(), describe(record), describeResult(record)});
+            }
+
+            if (verify && record.getType() != RecordType.ERROR) {
+                verified++;
+                final String actual;
+                final boolean matches;
+                if (record.getExactOperation() == null) {
+                    final double result = execute(record);
+                    actual = String.valueOf(result);
+                    matches = result == record.getResult() || Double.isNaN(result) && Double.isNaN(record.getResult());
+                } else {
+                    final String message = executeExact(record);
+                    actual = resultOf(message);
+                    matches = record.getExactOperation().equals(message);
+                }
+                if (!matches) {
+                    mismatched++;
+                    LOGGER.log(Level.WARNING, "MISMATCH\t{0}\t{1}\t{2}\t{3}\t{4}", new Object[]{
+                            Instant.ofEpochMilli(record.getTimestamp()), String.valueOf(record.getSessionId()),
+                            describe(record), describeResult(record), actual});
+                }
+            }
+        }
+        return new Report(scanned, matched, verified, mismatched, reader.getCorruptSegments());
+    }
+
+    /**
+     * Re-executes a record.
+     *
+     * @return The result; {@link Double#NaN} if the request fails.
+     */
+    private double execute(final JournalRecord record) {
+        if (record.getType() == RecordType.BINARY) {
+            binaryRequest.clear();
+            binaryRequest.put((byte) record.getOperator().getSymbol()).putDouble(record.getFirstOperand())
+                    .putDouble(record.getSecondOperand()).flip();
+            binaryResponse.clear();
+            protocol.processBinary(binaryRequest, binaryResponse);
+            return binaryResponse.get(0) == BinaryOperationProtocol.BINARY_STATUS_OK
+                    ? binaryResponse.getDouble(2 * Byte.BYTES) : Double.NaN;
+        }
+
+        final Response response = protocol.process(record.toRequest());
+        if (response.getType() != ResponseType.OK) {
+            return Double.NaN;
+        }
+        return Double.parseDouble(resultOf(response.getOkMessage()));
+    }
+
+    /**
+     * Re-executes an exact operation.
+     *
+     * @return The message of the response, the exact operation and its result if the request succeeds.
+     */
+    private String executeExact(final JournalRecord record) {
+        final Response response = protocol.process(record.toRequest());
+        return response.getType() == ResponseType.OK ? response.getOkMessage() : response.toString();
+    }
+
+    private static String describe(final JournalRecord record) {
+        switch (record.getType()) {
+            case ERROR:
+                return record.getErrorType().name();
+            case BINARY:
+                return String.valueOf(record.getFirstOperand()) + OPERATION_SEPARATOR
+                        + record.getOperator().getSymbol() + OPERATION_SEPARATOR + record.getSecondOperand();
+            default:
+                return record.toRequest();
+        }
+    }
+
+    private static String describeResult(final JournalRecord record) {
+        return record.getExactOperation() == null ? String.valueOf(record.getResult())
+                : resultOf(record.getExactOperation());
+    }
+
+    private static String resultOf(final String message) {
+        return message.substring(message.lastIndexOf(PROTOCOL_SEPARATOR) + 1);
+    }
+
+    private static Predicate<JournalRecord> buildFilter(final CommandLine commandLine) {
+        Predicate<JournalRecord> filter = record -> true;
+        if (commandLine.hasOption(TYPE_OPTION)) {
+            final RecordType type = RecordType.valueOfTypeName(commandLine.getOptionValue(TYPE_OPTION));
+            filter = filter.and(record -> record.getType() == type);
+        }
+        if (commandLine.hasOption(OPERATOR_OPTION)) {
+            final String symbol = commandLine.getOptionValue(OPERATOR_OPTION);
+            if (symbol.length() != 1) {
+                throw new IllegalArgumentException(MessageFormat.format("Invalid operator: {0}", symbol));
+            }
+            final ArithmeticOperator operator = ArithmeticOperator.valueOfSymbol(symbol.charAt(0));
+            filter = filter.and(record -> record.getOperator() == operator);
+        }
+        if (commandLine.hasOption(SESSION_OPTION)) {
+            final long sessionId = Long.parseLong(commandLine.getOptionValue(SESSION_OPTION));
+            filter = filter.and(record -> record.getSessionId() == sessionId);
+        }
+        if (commandLine.hasOption(FROM_OPTION)) {
+            final long from = Instant.parse(commandLine.getOptionValue(FROM_OPTION)).toEpochMilli();
+            filter = filter.and(record -> record.getTimestamp() >= from);
+        }
+        if (commandLine.hasOption(UNTIL_OPTION)) {
+            final long until = Instant.parse(commandLine.getOptionValue(UNTIL_OPTION)).toEpochMilli();
+            filter = filter.and(record -> record.getTimestamp() < until);
+        }
+        return filter;
+    }
+
+    private static Options buildOptions() {
+        return new Options().addRequiredOption(JOURNAL_OPTION, JOURNAL_LONG_OPTION, true, JOURNAL_DESCRIPTION)
+                .addOption(TYPE_OPTION, TYPE_LONG_OPTION, true, TYPE_DESCRIPTION)
+                .addOption(OPERATOR_OPTION, OPERATOR_LONG_OPTION, true, OPERATOR_DESCRIPTION)
+                .addOption(SESSION_OPTION, SESSION_LONG_OPTION, true, SESSION_DESCRIPTION)
+                .addOption(FROM_OPTION, FROM_LONG_OPTION, true, FROM_DESCRIPTION)
+                .addOption(UNTIL_OPTION, UNTIL_LONG_OPTION, true, UNTIL_DESCRIPTION)
+                .addOption(LIST_OPTION, LIST_LONG_OPTION, false, LIST_DESCRIPTION)
+                .addOption(VERIFY_OPTION, VERIFY_LONG_OPTION, false, VERIFY_DESCRIPTION)
+                .addOption(EXACT_DECIMALS_OPTION, EXACT_DECIMALS_LONG_OPTION, false, EXACT_DECIMALS_DESCRIPTION);
+    }
+
+    private static void close() {
+        System.exit(EXIT_STATUS);
+    }
+
+    /**
+     * Result of a scan.
+     */
+    @Value
+    static class Report {
+
+        /**
+         * Records read.
+         */
+        long scanned;
+
+        /**
+         * Records that passed the filter.
+         */
+        long matched;
+
+        /**
+         * Records re-executed.
+         */
+        long verified;
+
+        /**
+         * Records whose result didn't match.
+         */
+        long mismatched;
+
+        /**
+         * Segments that ended with a truncated or corrupt record.
+         */
+        long corruptSegments;
+    }
+}
@@ -0,0 +1,341 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import org.codepenguin.java.socket.server.example.JournalRecord.RecordType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.MessageFormat;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32C;
+
+/**
+ * Writer of the operation journal. The sessions publish the records into a {@link RingBuffer} and never wait: if the
+ * buffer is full the record is dropped and counted. A single daemon thread drains the buffer in batches into
+ * memory-mapped segments of a fixed size and forces them to the storage device as the {@link JournalSyncPolicy} says.
+ * <p>
+ * A record never spans two segments. The writer starts a new segment after the last one in the directory, so it never
+ * writes over the records of a previous run.
+ * <p>
+ * If a segment can't be opened, written or forced, the failure is logged and the journal is marked as failed, see
+ * {@link #isFailed()}: the writer keeps draining the buffer, dropping and counting the records, so it never stops
+ * silently with the sessions still publishing.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class JournalWriter implements Closeable {
+
+    /**
+     * Minimum milliseconds between two forces of the {@link JournalSyncPolicy#PERIODIC} policy.
+     */
+    static final long PERIODIC_SYNC_MILLIS = 1000;
+
+    /**
+     * Minimum size in bytes of a segment.
+     */
+    static final long MIN_SEGMENT_SIZE = 4096;
+
+    private static final Logger LOGGER = Logger.getLogger(JournalWriter.class.getName());
+
+    private static final String THREAD_NAME = "journal-writer";
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Path directory;
+    private final long segmentSize;
+    private final JournalSyncPolicy policy;
+    private final RingBuffer<Slot> buffer;
+    private final Consumer<Slot> writer = this::write;
+    private final LongAdder droppedRecords = new LongAdder();
+    private final AtomicLong writtenRecords = new AtomicLong();
+    private final CRC32C checksum = new CRC32C();
+    private final Thread thread;
+
+    private volatile boolean running = true;
+    private long segmentIndex;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private boolean unsynced;
+    private long lastSyncMillis;
+    private volatile boolean failed;
+
+    /**
+     * Constructor. Opens a new segment and starts the writer thread.
+     *
+     * @param directory   Directory of the segments, created if it doesn't exist.
+     * @param segmentSize Size in bytes of every segment.
+     * @param policy      Policy to force the writes.
+     * @param capacity    Minimum number of records the buffer holds, rounded up as {@link RingBuffer} does.
+     * @throws IllegalArgumentException If the segment size or the capacity are out of range.
+     * @throws IOException              If the first segment can't be created.
+     */
+    JournalWriter(Path directory, long segmentSize, JournalSyncPolicy policy, int capacity) throws IOException {
+        if (segmentSize < MIN_SEGMENT_SIZE || segmentSize > Integer.MAX_VALUE || capacity < 1) {
+            throw new IllegalArgumentException(MessageFormat.format("Journal segment size must be between {0} and "
+                    + "{1} and capacity must be positive", MIN_SEGMENT_SIZE, Integer.MAX_VALUE));
+        }
+
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.policy = policy;
+
+        buffer = new RingBuffer<>(capacity, Slot::new);
+
+        Files.createDirectories(directory);
+        final List<Path> segments = JournalReader.listSegments(directory);
+        segmentIndex = segments.isEmpty() ? 0 : JournalReader.segmentIndex(segments.get(segments.size() - 1));
+        openSegment();
+        lastSyncMillis = System.currentTimeMillis();
+
+        thread = new Thread(this::run, THREAD_NAME);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Publishes a record without waiting. If the buffer is full the record is dropped and counted.
+     *
+     * @param type       Type of record.
+     * @param code       Ordinal of the operator or the error type.
+     * @param sessionId  Id of the session.
+     * @param first      First operand.
+     * @param second     Second operand.
+     * @param result     Result.
+     * @param text       Text with the expression or the exact operation, copied into the buffer; {@literal null} if
+     *                   the record has no text.
+     * @param textStart  Index of the expression or the exact operation in the text.
+     */
+    void publish(final RecordType type, final int code, final long sessionId, final double first,
+                 final double second, final double result, final CharSequence text, final int textStart) {
+        final long position = running ? buffer.claim() : RingBuffer.FULL;
+        if (position == RingBuffer.FULL) {
+            droppedRecords.increment();
+            return;
+        }
+
+        buffer.get(position).set(type, code, System.currentTimeMillis(), sessionId, first, second, result, text,
+                textStart);
+        buffer.publish(position);
+    }
+
+    /**
+     * Gets the number of records dropped because the buffer was full or the journal couldn't be written.
+     *
+     * @return Dropped records.
+     */
+    long getDroppedRecords() {
+        return droppedRecords.sum();
+    }
+
+    /**
+     * Gets the number of records written to the segments.
+     *
+     * @return Written records.
+     */
+    long getWrittenRecords() {
+        return writtenRecords.get();
+    }
+
+    /**
+     * Indicates if the journal failed, so the records published since are dropped.
+     *
+     * @return {@literal true} if a segment couldn't be opened, written or forced; otherwise, {@literal false}.
+     */
+    boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * Stops the writer after it writes the published records and, unless the policy is
+     * {@link JournalSyncPolicy#NONE}, forces them.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            boolean stopped = false;
+            while (!stopped) {
+                try {
+                    stopped = writeBatch();
+                } catch (RuntimeException e) {
+                    fail(e);
+                }
+            }
+        } finally {
+            closeSegment();
+        }
+    }
+
+    /**
+     * Writes the published records and forces them as the policy says, or parks if there are none.
+     *
+     * @return {@literal true} if the writer is stopped and every record was written.
+     */
+    private boolean writeBatch() {
+        final boolean stopping = !running;
+        final int drained = buffer.drain(writer);
+        if (drained > 0) {
+            unsynced = true;
+            if (policy == JournalSyncPolicy.BATCH) {
+                sync();
+            }
+        } else if (stopping) {
+            if (policy != JournalSyncPolicy.NONE) {
+                sync();
+            }
+            return true;
+        } else {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+
+        if (policy == JournalSyncPolicy.PERIODIC
+                && System.currentTimeMillis() - lastSyncMillis >= PERIODIC_SYNC_MILLIS) {
+            sync();
+        }
+        return false;
+    }
+
+    private void write(final Slot slot) {
+        final byte[] text = slot.hasText ? slot.text.toString().getBytes(StandardCharsets.UTF_8) : null;
+        final int length = JournalRecord.HEADER_LENGTH + (text == null ? 0 : text.length);
+        if (!failed && segment.remaining() < length && length <= segmentSize) {
+            try {
+                if (policy != JournalSyncPolicy.NONE) {
+                    sync();
+                }
+                closeSegment();
+                openSegment();
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+
+        if (failed || segment.remaining() < length) {
+            droppedRecords.increment();
+            return;
+        }
+
+        JournalRecord.write(segment, checksum, slot.type, slot.code, slot.millis, slot.sessionId, slot.first,
+                slot.second, slot.result, text);
+        writtenRecords.incrementAndGet();
+    }
+
+    /**
+     * Logs a failure of the segments and marks the journal as failed, so the next records are dropped.
+     */
+    private void fail(final Exception e) {
+        LOGGER.log(Level.SEVERE, MessageFormat.format("Journal stopped at segment {0}", segmentIndex), e);
+        failed = true;
+    }
+
+    private void openSegment() throws IOException {
+        segmentIndex++;
+        channel = FileChannel.open(JournalReader.segmentPath(directory, segmentIndex), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    }
+
+    private void sync() {
+        if (unsynced && !failed) {
+            segment.force();
+            unsynced = false;
+        }
+        lastSyncMillis = System.currentTimeMillis();
+    }
+
+    private void closeSegment() {
+        if (channel == null) {
+            return;
+        }
+
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, MessageFormat.format("Journal segment {0}", segmentIndex), e);
+        }
+        channel = null;
+    }
+
+    /**
+     * Preallocated slot of the ring buffer. Its text is copied into a builder reused by every record of the slot.
+     */
+    private static final class Slot {
+
+        private RecordType type;
+        private int code;
+        private long millis;
+        private long sessionId;
+        private double first;
+        private double second;
+        private double result;
+        private boolean hasText;
+        private StringBuilder text;
+
+        private void set(final RecordType type, final int code, final long millis, final long sessionId,
+                         final double first, final double second, final double result, final CharSequence text,
+                         final int textStart) {
+            this.type = type;
+            this.code = code;
+            this.millis = millis;
+            this.sessionId = sessionId;
+            this.first = first;
+            this.second = second;
+            this.result = result;
+            hasText = text != null;
+            if (hasText) {
+                if (this.text == null) {
+                    this.text = new StringBuilder(text.length() - textStart);
+                }
+                this.text.setLength(0);
+                this.text.append(text, textStart, text.length());
+            }
+        }
+    }
+}
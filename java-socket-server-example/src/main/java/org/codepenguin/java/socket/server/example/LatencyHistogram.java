@@ -0,0 +1,115 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of latencies with exponential buckets: the bucket {@code i} counts the latencies up to {@code 2^i}
+ * microseconds, from 1 microsecond to about 1 second, and the last one the longer latencies. Every bucket is a
+ * {@link LongAdder}, so concurrent recorders update striped cells instead of contending on a single value, whether
+ * they run on platform or virtual threads.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class LatencyHistogram {
+
+    /**
+     * Number of bounded buckets.
+     */
+    static final int BUCKETS = 21;
+
+    private static final long NANOS_PER_MICRO = TimeUnit.MICROSECONDS.toNanos(1);
+
+    private final LongAdder[] counts = new LongAdder[BUCKETS + 1];
+    private final LongAdder sumNanos = new LongAdder();
+
+    /**
+     * Constructor.
+     */
+    LatencyHistogram() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos Latency in nanoseconds.
+     */
+    void record(final long nanos) {
+        counts[bucketOf(nanos)].increment();
+        sumNanos.add(nanos);
+    }
+
+    /**
+     * Gets the upper bound of a bucket.
+     *
+     * @param bucket Bucket, from {@literal 0} to {@link #BUCKETS} - 1.
+     * @return Upper bound in seconds.
+     */
+    static double upperBoundSeconds(final int bucket) {
+        return (double) (NANOS_PER_MICRO << bucket) / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    /**
+     * Gets the count of a bucket.
+     *
+     * @param bucket Bucket, from {@literal 0} to {@link #BUCKETS}, the last one for the latencies over all the bounds.
+     * @return Count of the bucket, not cumulative.
+     */
+    long getCount(final int bucket) {
+        return counts[bucket].sum();
+    }
+
+    /**
+     * Gets the sum of the recorded latencies.
+     *
+     * @return Sum in nanoseconds.
+     */
+    long getSumNanos() {
+        return sumNanos.sum();
+    }
+
+    /**
+     * Gets the bucket of a latency.
+     *
+     * @param nanos Latency in nanoseconds.
+     * @return The bucket, {@link #BUCKETS} if it's over all the bounds.
+     */
+    static int bucketOf(final long nanos) {
+        if (nanos <= NANOS_PER_MICRO) {
+            return 0;
+        }
+
+        final long micros = (nanos + NANOS_PER_MICRO - 1) / NANOS_PER_MICRO;
+        return Math.min(Long.SIZE - Long.numberOfLeadingZeros(micros - 1), BUCKETS);
+    }
+}
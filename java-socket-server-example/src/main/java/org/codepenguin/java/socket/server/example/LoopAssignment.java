@@ -0,0 +1,81 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import java.text.MessageFormat;
+
+/**
+ * Policy to assign the accepted connections to the event loops of the {@link NioSocketServer}.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+enum LoopAssignment {
+
+    /**
+     * Assigns every connection to the next event loop.
+     */
+    ROUND_ROBIN("round-robin"),
+    /**
+     * Assigns every connection to the event loop serving the fewest connections.
+     */
+    LEAST_CONNECTIONS("least-connections");
+
+    private final String assignmentName;
+
+    LoopAssignment(String assignmentName) {
+        this.assignmentName = assignmentName;
+    }
+
+    /**
+     * Gets the assignment name used in the command line.
+     *
+     * @return Assignment name.
+     */
+    String getAssignmentName() {
+        return assignmentName;
+    }
+
+    /**
+     * Returns the loop assignment of the specified name. The name must match exactly a name used to declare an enum
+     * constant in this type.
+     *
+     * @param assignmentName The assignment name.
+     * @return The loop assignment with the specified name.
+     * @throws IllegalArgumentException If the name isn't used by any supported assignment.
+     */
+    static LoopAssignment valueOfAssignmentName(String assignmentName) {
+        for (LoopAssignment assignment : values()) {
+            if (assignment.getAssignmentName().equals(assignmentName)) {
+                return assignment;
+            }
+        }
+
+        throw new IllegalArgumentException(MessageFormat.format("No assignment name in {0}: {1}",
+                LoopAssignment.class.getCanonicalName(), assignmentName));
+    }
+}
@@ -30,8 +30,16 @@ import org.apache.commons.cli.DefaultParser;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 
+import java.io.Console;
 import java.io.IOException;
 import java.net.ServerSocket;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -52,6 +60,122 @@ public final class Main {
     private static final String PORT_OPTION = "p";
     private static final String PORT_LONG_OPTION = "port";
     private static final String SERVER_PORT_DESCRIPTION = "Server port";
+    private static final String ENGINE_OPTION = "e";
+    private static final String ENGINE_LONG_OPTION = "engine";
+    private static final String ENGINE_DESCRIPTION = "Server engine: thread (default) or nio";
+    private static final String MAX_SESSIONS_OPTION = "m";
+    private static final String MAX_SESSIONS_LONG_OPTION = "max-sessions";
+    private static final String MAX_SESSIONS_DESCRIPTION = "Maximum concurrent sessions of the thread engine, "
+            + "0 (default) for no limit";
+    private static final String PENDING_SESSIONS_OPTION = "q";
+    private static final String PENDING_SESSIONS_LONG_OPTION = "pending-sessions";
+    private static final String PENDING_SESSIONS_DESCRIPTION = "Maximum sessions waiting for a worker when "
+            + "max-sessions is reached (default 0)";
+    private static final String REJECTION_POLICY_OPTION = "r";
+    private static final String REJECTION_POLICY_LONG_OPTION = "rejection-policy";
+    private static final String REJECTION_POLICY_DESCRIPTION = "Policy for the sessions over the limits: "
+            + "reject (default) or backlog";
+    private static final String THREADS_OPTION = "t";
+    private static final String THREADS_LONG_OPTION = "threads";
+    private static final String THREADS_DESCRIPTION = "Threads of the thread engine's sessions: platform (default) "
+            + "or virtual";
+    private static final String LOG_BUFFER_OPTION = "b";
+    private static final String LOG_BUFFER_LONG_OPTION = "log-buffer";
+    private static final String LOG_BUFFER_DESCRIPTION = "Session events buffered for the asynchronous log writer, "
+            + "0 (default) to log in the sessions' threads";
+    private static final String LOG_FULL_POLICY_OPTION = "f";
+    private static final String LOG_FULL_POLICY_LONG_OPTION = "log-full-policy";
+    private static final String LOG_FULL_POLICY_DESCRIPTION = "Policy when the log buffer is full: block (default) "
+            + "or drop";
+    private static final String LOG_SAMPLE_OPTION = "s";
+    private static final String LOG_SAMPLE_LONG_OPTION = "log-sample";
+    private static final String LOG_SAMPLE_DESCRIPTION = "Logs the INPUT and OUTPUT events of one of every N requests "
+            + "(default 1)";
+    private static final String ADMIN_PORT_OPTION = "a";
+    private static final String ADMIN_PORT_LONG_OPTION = "admin-port";
+    private static final String ADMIN_PORT_DESCRIPTION = "Loopback port of the admin server exposing the metrics in "
+            + "/metrics, none by default";
+    private static final String CACHE_SIZE_OPTION = "c";
+    private static final String CACHE_SIZE_LONG_OPTION = "cache-size";
+    private static final String CACHE_SIZE_DESCRIPTION = "Responses cached by input line, 0 (default) to disable the "
+            + "cache";
+    private static final String EVENT_LOOPS_OPTION = "n";
+    private static final String EVENT_LOOPS_LONG_OPTION = "event-loops";
+    private static final String EVENT_LOOPS_DESCRIPTION = "Event loops of the nio engine, the available processors "
+            + "by default";
+    private static final String LOOP_ASSIGNMENT_OPTION = "g";
+    private static final String LOOP_ASSIGNMENT_LONG_OPTION = "loop-assignment";
+    private static final String LOOP_ASSIGNMENT_DESCRIPTION = "Assignment of the clients to the event loops: "
+            + "least-connections (default) or round-robin";
+    private static final String REUSE_PORT_OPTION = "u";
+    private static final String REUSE_PORT_LONG_OPTION = "reuse-port";
+    private static final String REUSE_PORT_DESCRIPTION = "Binds an acceptor per event loop with SO_REUSEPORT, if "
+            + "supported";
+    private static final String IDLE_TIMEOUT_OPTION = "i";
+    private static final String IDLE_TIMEOUT_LONG_OPTION = "idle-timeout";
+    private static final String IDLE_TIMEOUT_DESCRIPTION = "Milliseconds a session may wait for a request, 0 (default) "
+            + "for no limit";
+    private static final String WRITE_TIMEOUT_OPTION = "w";
+    private static final String WRITE_TIMEOUT_LONG_OPTION = "write-timeout";
+    private static final String WRITE_TIMEOUT_DESCRIPTION = "Milliseconds a response may wait for the client to read "
+            + "it, 0 (default) for no limit";
+    private static final String MAX_DURATION_OPTION = "d";
+    private static final String MAX_DURATION_LONG_OPTION = "max-duration";
+    private static final String MAX_DURATION_DESCRIPTION = "Maximum milliseconds of a session, 0 (default) for no "
+            + "limit";
+    private static final String DEFAULT_TIMEOUT = "0";
+    private static final String EXPRESSION_CACHE_SIZE_OPTION = "x";
+    private static final String EXPRESSION_CACHE_SIZE_LONG_OPTION = "expression-cache-size";
+    private static final String EXPRESSION_CACHE_SIZE_DESCRIPTION = "Compiled expressions cached by input line, "
+            + BinaryOperationProtocol.DEFAULT_EXPRESSION_CACHE_CAPACITY + " by default, 0 to disable the cache";
+    private static final String EXACT_DECIMALS_OPTION = "k";
+    private static final String EXACT_DECIMALS_LONG_OPTION = "exact-decimals";
+    private static final String EXACT_DECIMALS_DESCRIPTION = "Computes the operations of plain decimals exactly "
+            + "instead of in double";
+    private static final String JOURNAL_OPTION = "j";
+    private static final String JOURNAL_LONG_OPTION = "journal";
+    private static final String JOURNAL_DESCRIPTION = "Directory of the operation journal, none by default";
+    private static final String JOURNAL_SYNC_OPTION = "y";
+    private static final String JOURNAL_SYNC_LONG_OPTION = "journal-sync";
+    private static final String JOURNAL_SYNC_DESCRIPTION = "Policy to force the journal to the disk: none, batch or "
+            + "periodic (default)";
+    private static final String JOURNAL_SEGMENT_SIZE_OPTION = "z";
+    private static final String JOURNAL_SEGMENT_SIZE_LONG_OPTION = "journal-segment-size";
+    private static final String JOURNAL_SEGMENT_SIZE_DESCRIPTION = "Bytes of every journal segment, "
+            + OperationJournal.DEFAULT_SEGMENT_SIZE + " by default";
+    private static final String CAPTURE_OPTION = "o";
+    private static final String CAPTURE_LONG_OPTION = "capture";
+    private static final String CAPTURE_DESCRIPTION = "File to capture the sessions' traffic for the client's replayer, "
+            + "none by default";
+    private static final String GLOBAL_RATE_LIMIT_LONG_OPTION = "global-rate-limit";
+    private static final String GLOBAL_RATE_LIMIT_DESCRIPTION = "Requests per second of all the sessions together, "
+            + "<rate>[:<burst>], none by default";
+    private static final String ADDRESS_RATE_LIMIT_LONG_OPTION = "address-rate-limit";
+    private static final String ADDRESS_RATE_LIMIT_DESCRIPTION = "Requests per second of the sessions of every client "
+            + "address, <rate>[:<burst>], none by default";
+    private static final String SESSION_RATE_LIMIT_LONG_OPTION = "session-rate-limit";
+    private static final String SESSION_RATE_LIMIT_DESCRIPTION = "Requests per second of every session, "
+            + "<rate>[:<burst>], none by default";
+    private static final String RATE_LIMIT_POLICY_LONG_OPTION = "rate-limit-policy";
+    private static final String RATE_LIMIT_POLICY_DESCRIPTION = "Policy of the requests over a rate limit: reject "
+            + "(default) or delay";
+    private static final String TLS_KEY_STORE_LONG_OPTION = "tls-key-store";
+    private static final String TLS_KEY_STORE_DESCRIPTION = "Key store with the server's key and certificate to serve the "
+            + "sessions over TLS, plain sessions by default";
+    private static final String TLS_PASSWORD_FILE_LONG_OPTION = "tls-password-file";
+    private static final String TLS_PASSWORD_FILE_DESCRIPTION = "File with the password of the TLS key store and its "
+            + "key on its first line; asked on the console by default, if there's one, or empty";
+    private static final String TLS_PASSWORD_PROMPT = "TLS key store password: ";
+    private static final String TLS_SESSION_CACHE_SIZE_LONG_OPTION = "tls-session-cache-size";
+    private static final String TLS_SESSION_CACHE_SIZE_DESCRIPTION = "Maximum TLS sessions cached for the clients to "
+            + "resume them, " + ServerTls.DEFAULT_SESSION_CACHE_SIZE + " by default, 0 for no limit";
+    private static final String TLS_SESSION_TIMEOUT_LONG_OPTION = "tls-session-timeout";
+    private static final String TLS_SESSION_TIMEOUT_DESCRIPTION = "Seconds a TLS session can be resumed, "
+            + ServerTls.DEFAULT_SESSION_TIMEOUT + " by default, 0 for no limit";
+    private static final String DEFAULT_CACHE_SIZE = "0";
+    private static final String DEFAULT_PENDING_SESSIONS = "0";
+    private static final String DEFAULT_LOG_BUFFER = "0";
+    private static final String DEFAULT_LOG_SAMPLE = "1";
     private static final int EXIT_STATUS = 1;
 
     private Main() {
@@ -60,7 +184,12 @@ public final class Main {
     /**
      * Main method. Starts the socket's server in the specified port.
      *
-     * @param args The arguments: [port]
+     * @param args The arguments: [port] [engine] [max-sessions] [pending-sessions] [rejection-policy] [threads]
+     *             [log-buffer] [log-full-policy] [log-sample] [admin-port] [cache-size] [event-loops] [loop-assignment]
+     *             [reuse-port] [idle-timeout] [write-timeout] [max-duration] [expression-cache-size]
+     *             [exact-decimals] [journal] [journal-sync] [journal-segment-size] [capture]
+     *             [global-rate-limit] [address-rate-limit] [session-rate-limit] [rate-limit-policy]
+     *             [tls-key-store] [tls-password-file] [tls-session-cache-size] [tls-session-timeout]
      */
     public static void main(String[] args) {
         final CommandLine commandLine;
@@ -83,21 +212,314 @@ public final class Main {
             return;
         }
 
-        try (ServerSocket server = new ServerSocket(port)) {
-            LOGGER.log(Level.INFO, "START_SERVER\t{0}", port);
-            while (KEEP_GOING.get()) {
-                new SocketServerThread(server.accept()).start();
+        final String engineValue = commandLine.getOptionValue(ENGINE_OPTION, ServerEngine.THREAD.getEngineName());
+        final ServerEngine engine;
+        try {
+            engine = ServerEngine.valueOfEngineName(engineValue);
+        } catch (IllegalArgumentException e) {
+            LOGGER.log(Level.SEVERE, engineValue, e);
+            close();
+            return;
+        }
+
+        try {
+            SessionLogger.configure(
+                    Integer.parseInt(commandLine.getOptionValue(LOG_BUFFER_OPTION, DEFAULT_LOG_BUFFER)),
+                    LogFullPolicy.valueOfPolicyName(commandLine.getOptionValue(LOG_FULL_POLICY_OPTION,
+                            LogFullPolicy.BLOCK.getPolicyName())),
+                    Integer.parseInt(commandLine.getOptionValue(LOG_SAMPLE_OPTION, DEFAULT_LOG_SAMPLE)));
+        } catch (IllegalArgumentException e) {
+            LOGGER.log(Level.SEVERE, e.getMessage(), e);
+            close();
+            return;
+        }
+
+        try {
+            BinaryOperationProtocol.configureCache(Integer.parseInt(commandLine.getOptionValue(CACHE_SIZE_OPTION,
+                    DEFAULT_CACHE_SIZE)));
+            BinaryOperationProtocol.configureExactDecimals(commandLine.hasOption(EXACT_DECIMALS_OPTION));
+            BinaryOperationProtocol.configureExpressionCache(Integer.parseInt(commandLine.getOptionValue(
+                    EXPRESSION_CACHE_SIZE_OPTION,
+                    String.valueOf(BinaryOperationProtocol.DEFAULT_EXPRESSION_CACHE_CAPACITY))));
+        } catch (IllegalArgumentException e) {
+            LOGGER.log(Level.SEVERE, e.getMessage(), e);
+            close();
+            return;
+        }
+
+        try {
+            SessionTimeouts.configure(
+                    Long.parseLong(commandLine.getOptionValue(IDLE_TIMEOUT_OPTION, DEFAULT_TIMEOUT)),
+                    Long.parseLong(commandLine.getOptionValue(WRITE_TIMEOUT_OPTION, DEFAULT_TIMEOUT)),
+                    Long.parseLong(commandLine.getOptionValue(MAX_DURATION_OPTION, DEFAULT_TIMEOUT)));
+        } catch (IllegalArgumentException e) {
+            LOGGER.log(Level.SEVERE, e.getMessage(), e);
+            close();
+            return;
+        }
+
+        final String journalValue = commandLine.getOptionValue(JOURNAL_OPTION);
+        if (journalValue != null) {
+            try {
+                OperationJournal.configure(Paths.get(journalValue),
+                        Long.parseLong(commandLine.getOptionValue(JOURNAL_SEGMENT_SIZE_OPTION,
+                                String.valueOf(OperationJournal.DEFAULT_SEGMENT_SIZE))),
+                        JournalSyncPolicy.valueOfPolicyName(commandLine.getOptionValue(JOURNAL_SYNC_OPTION,
+                                JournalSyncPolicy.PERIODIC.getPolicyName())));
+            } catch (IllegalArgumentException | IOException e) {
+                LOGGER.log(Level.SEVERE, e.getMessage(), e);
+                close();
+                return;
+            }
+        }
+
+        final String captureValue = commandLine.getOptionValue(CAPTURE_OPTION);
+        if (captureValue != null) {
+            try {
+                TrafficCapture.configure(Paths.get(captureValue));
+            } catch (IllegalArgumentException | IOException e) {
+                LOGGER.log(Level.SEVERE, e.getMessage(), e);
+                close();
+                return;
+            }
+        }
+
+        final String tlsKeyStoreValue = commandLine.getOptionValue(TLS_KEY_STORE_LONG_OPTION);
+        if (tlsKeyStoreValue != null) {
+            char[] password = null;
+            try {
+                password = readTlsPassword(commandLine.getOptionValue(TLS_PASSWORD_FILE_LONG_OPTION));
+                ServerTls.configure(Paths.get(tlsKeyStoreValue), password,
+                        Integer.parseInt(commandLine.getOptionValue(TLS_SESSION_CACHE_SIZE_LONG_OPTION,
+                                String.valueOf(ServerTls.DEFAULT_SESSION_CACHE_SIZE))),
+                        Integer.parseInt(commandLine.getOptionValue(TLS_SESSION_TIMEOUT_LONG_OPTION,
+                                String.valueOf(ServerTls.DEFAULT_SESSION_TIMEOUT))));
+            } catch (IllegalArgumentException | IOException | GeneralSecurityException e) {
+                LOGGER.log(Level.SEVERE, e.getMessage(), e);
+                close();
+                return;
+            } finally {
+                if (password != null) {
+                    Arrays.fill(password, '\0');
+                }
+            }
+        }
+
+        try {
+            RateLimiter.configure(
+                    RateLimitPolicy.valueOfPolicyName(commandLine.getOptionValue(RATE_LIMIT_POLICY_LONG_OPTION,
+                            RateLimitPolicy.REJECT.getPolicyName())),
+                    parseLimit(commandLine.getOptionValue(GLOBAL_RATE_LIMIT_LONG_OPTION)),
+                    parseLimit(commandLine.getOptionValue(ADDRESS_RATE_LIMIT_LONG_OPTION)),
+                    parseLimit(commandLine.getOptionValue(SESSION_RATE_LIMIT_LONG_OPTION)));
+        } catch (IllegalArgumentException e) {
+            LOGGER.log(Level.SEVERE, e.getMessage(), e);
+            close();
+            return;
+        }
+
+        final int eventLoops;
+        final LoopAssignment loopAssignment;
+        try {
+            eventLoops = Integer.parseInt(commandLine.getOptionValue(EVENT_LOOPS_OPTION,
+                    String.valueOf(Runtime.getRuntime().availableProcessors())));
+            if (eventLoops < 1) {
+                throw new IllegalArgumentException("Event loops must be positive");
+            }
+            loopAssignment = LoopAssignment.valueOfAssignmentName(commandLine.getOptionValue(LOOP_ASSIGNMENT_OPTION,
+                    LoopAssignment.LEAST_CONNECTIONS.getAssignmentName()));
+        } catch (IllegalArgumentException e) {
+            LOGGER.log(Level.SEVERE, e.getMessage(), e);
+            close();
+            return;
+        }
+
+        final SessionRunner runner;
+        try {
+            runner = new SessionRunner(
+                    Integer.parseInt(commandLine.getOptionValue(MAX_SESSIONS_OPTION,
+                            String.valueOf(SessionRunner.UNBOUNDED))),
+                    Integer.parseInt(commandLine.getOptionValue(PENDING_SESSIONS_OPTION, DEFAULT_PENDING_SESSIONS)),
+                    RejectionPolicy.valueOfPolicyName(commandLine.getOptionValue(REJECTION_POLICY_OPTION,
+                            RejectionPolicy.REJECT.getPolicyName())),
+                    SessionThreads.valueOfThreadsName(commandLine.getOptionValue(THREADS_OPTION,
+                            SessionThreads.PLATFORM.getThreadsName())));
+        } catch (IllegalArgumentException e) {
+            LOGGER.log(Level.SEVERE, e.getMessage(), e);
+            close();
+            return;
+        }
+
+        final MetricsExporter exporter;
+        try {
+            exporter = startExporter(commandLine.getOptionValue(ADMIN_PORT_OPTION), runner);
+        } catch (IllegalArgumentException | IOException e) {
+            LOGGER.log(Level.SEVERE, e.getMessage(), e);
+            runner.close();
+            close();
+            return;
+        }
+
+        try {
+            LOGGER.log(Level.INFO, "START_SERVER\t{0}\t{1}", new Object[]{port, engine.getEngineName()});
+            if (engine == ServerEngine.NIO) {
+                runNio(port, eventLoops, loopAssignment, commandLine.hasOption(REUSE_PORT_OPTION));
+            } else {
+                runThread(port, runner);
             }
         } catch (IOException e) {
             LOGGER.log(Level.SEVERE, portValue, e);
             close();
+        } catch (InterruptedException e) {
+            LOGGER.log(Level.SEVERE, portValue, e);
+            Thread.currentThread().interrupt();
         } finally {
-            LOGGER.log(Level.INFO, "STOP_SERVER\t{0}", port);
+            if (exporter != null) {
+                exporter.close();
+            }
+            runner.close();
+            SessionTimeouts.close();
+            OperationJournal.close();
+            TrafficCapture.close();
+            final long droppedEvents = SessionLogger.getDroppedEvents();
+            SessionLogger.close();
+            LOGGER.log(Level.INFO, "STOP_SERVER\t{0}\t{1}\t{2}\t{3}", new Object[]{port, runner.getQueuedSessions(),
+                    runner.getRejectedSessions(), droppedEvents});
+        }
+    }
+
+    private static RateLimiter.Limit parseLimit(final String value) {
+        return value == null ? null : RateLimiter.Limit.valueOfLimit(value);
+    }
+
+    /**
+     * Reads the TLS password from the first line of a file or, without a file, from the console, so it never shows in
+     * the command line of the process. The caller clears it once used; the copies read here are cleared.
+     */
+    private static char[] readTlsPassword(final String passwordFile) throws IOException {
+        if (passwordFile == null) {
+            final Console console = System.console();
+            final char[] password = console == null ? null : console.readPassword(TLS_PASSWORD_PROMPT);
+            return password == null ? new char[0] : password;
+        }
+
+        final byte[] bytes = Files.readAllBytes(Paths.get(passwordFile));
+        final CharBuffer chars = StandardCharsets.UTF_8.decode(ByteBuffer.wrap(bytes));
+        Arrays.fill(bytes, (byte) 0);
+        int length = 0;
+        while (length < chars.limit() && chars.get(length) != '\n' && chars.get(length) != '\r') {
+            length++;
+        }
+
+        final char[] password = new char[length];
+        chars.get(password);
+        Arrays.fill(chars.array(), '\0');
+        return password;
+    }
+
+    private static MetricsExporter startExporter(final String adminPortValue, final SessionRunner runner)
+            throws IOException {
+        if (adminPortValue == null) {
+            return null;
+        }
+
+        ServerMetrics.registerGauge("sessions_queued", "Sessions queued by the thread engine.",
+                runner::getQueuedSessions);
+        ServerMetrics.registerGauge("log_dropped_events", "Session events dropped by the asynchronous log writer.",
+                SessionLogger::getDroppedEvents);
+        final ResponseCache cache = BinaryOperationProtocol.getCache();
+        if (cache != null) {
+            ServerMetrics.registerCounter("cache_hits_total", "Responses found in the cache.", cache::getHits);
+            ServerMetrics.registerCounter("cache_misses_total", "Responses not found in the cache.", cache::getMisses);
+            ServerMetrics.registerCounter("cache_evictions_total", "Responses evicted from the cache.",
+                    cache::getEvictions);
+            ServerMetrics.registerGauge("cache_size", "Responses in the cache.", cache::size);
+        }
+        final ClockCache<Expression> expressionCache = BinaryOperationProtocol.getExpressionCache();
+        if (expressionCache != null) {
+            ServerMetrics.registerCounter("expression_cache_hits_total", "Compiled expressions found in the cache.",
+                    expressionCache::getHits);
+            ServerMetrics.registerCounter("expression_cache_misses_total",
+                    "Compiled expressions not found in the cache.", expressionCache::getMisses);
+            ServerMetrics.registerCounter("expression_cache_evictions_total",
+                    "Compiled expressions evicted from the cache.", expressionCache::getEvictions);
+            ServerMetrics.registerGauge("expression_cache_size", "Compiled expressions in the cache.",
+                    expressionCache::size);
+        }
+        if (OperationJournal.isEnabled()) {
+            ServerMetrics.registerCounter("journal_records_total", "Records written to the operation journal.",
+                    OperationJournal::getWrittenRecords);
+            ServerMetrics.registerCounter("journal_dropped_records_total",
+                    "Records dropped by the operation journal.", OperationJournal::getDroppedRecords);
+            ServerMetrics.registerGauge("journal_failed", "1 if the operation journal failed and drops the records.",
+                    () -> OperationJournal.isFailed() ? 1 : 0);
+        }
+        if (TrafficCapture.isEnabled()) {
+            ServerMetrics.registerCounter("capture_events_total", "Events written to the traffic capture.",
+                    TrafficCapture::getWrittenEvents);
+            ServerMetrics.registerCounter("capture_dropped_events_total", "Events dropped by the traffic capture.",
+                    TrafficCapture::getDroppedEvents);
+        }
+        ServerMetrics.registerCounter("rate_limited_requests_total", "Requests rejected over a rate limit.",
+                RateLimiter::getLimitedRequests);
+        ServerMetrics.registerCounter("rate_delayed_requests_total", "Requests delayed by the rate limits.",
+                RateLimiter::getDelayedRequests);
+        final MetricsExporter exporter = new MetricsExporter(Integer.parseInt(adminPortValue));
+        LOGGER.log(Level.INFO, "START_ADMIN\t{0}", exporter.getLocalPort());
+        return exporter;
+    }
+
+    private static void runThread(final int port, final SessionRunner runner) throws IOException,
+            InterruptedException {
+        try (ServerSocket server = new ServerSocket(port)) {
+            while (KEEP_GOING.get()) {
+                runner.submit(server.accept());
+            }
+        }
+    }
+
+    private static void runNio(final int port, final int eventLoops, final LoopAssignment loopAssignment,
+                               final boolean reusePort) throws IOException {
+        try (NioSocketServer server = new NioSocketServer(port, eventLoops, loopAssignment, reusePort)) {
+            server.run();
         }
     }
 
     private static Options buildOptions() {
-        return new Options().addRequiredOption(PORT_OPTION, PORT_LONG_OPTION, true, SERVER_PORT_DESCRIPTION);
+        return new Options().addRequiredOption(PORT_OPTION, PORT_LONG_OPTION, true, SERVER_PORT_DESCRIPTION)
+                .addOption(ENGINE_OPTION, ENGINE_LONG_OPTION, true, ENGINE_DESCRIPTION)
+                .addOption(MAX_SESSIONS_OPTION, MAX_SESSIONS_LONG_OPTION, true, MAX_SESSIONS_DESCRIPTION)
+                .addOption(PENDING_SESSIONS_OPTION, PENDING_SESSIONS_LONG_OPTION, true, PENDING_SESSIONS_DESCRIPTION)
+                .addOption(REJECTION_POLICY_OPTION, REJECTION_POLICY_LONG_OPTION, true,
+                        REJECTION_POLICY_DESCRIPTION)
+                .addOption(THREADS_OPTION, THREADS_LONG_OPTION, true, THREADS_DESCRIPTION)
+                .addOption(LOG_BUFFER_OPTION, LOG_BUFFER_LONG_OPTION, true, LOG_BUFFER_DESCRIPTION)
+                .addOption(LOG_FULL_POLICY_OPTION, LOG_FULL_POLICY_LONG_OPTION, true, LOG_FULL_POLICY_DESCRIPTION)
+                .addOption(LOG_SAMPLE_OPTION, LOG_SAMPLE_LONG_OPTION, true, LOG_SAMPLE_DESCRIPTION)
+                .addOption(ADMIN_PORT_OPTION, ADMIN_PORT_LONG_OPTION, true, ADMIN_PORT_DESCRIPTION)
+                .addOption(CACHE_SIZE_OPTION, CACHE_SIZE_LONG_OPTION, true, CACHE_SIZE_DESCRIPTION)
+                .addOption(EVENT_LOOPS_OPTION, EVENT_LOOPS_LONG_OPTION, true, EVENT_LOOPS_DESCRIPTION)
+                .addOption(LOOP_ASSIGNMENT_OPTION, LOOP_ASSIGNMENT_LONG_OPTION, true, LOOP_ASSIGNMENT_DESCRIPTION)
+                .addOption(REUSE_PORT_OPTION, REUSE_PORT_LONG_OPTION, false, REUSE_PORT_DESCRIPTION)
+                .addOption(IDLE_TIMEOUT_OPTION, IDLE_TIMEOUT_LONG_OPTION, true, IDLE_TIMEOUT_DESCRIPTION)
+                .addOption(WRITE_TIMEOUT_OPTION, WRITE_TIMEOUT_LONG_OPTION, true, WRITE_TIMEOUT_DESCRIPTION)
+                .addOption(MAX_DURATION_OPTION, MAX_DURATION_LONG_OPTION, true, MAX_DURATION_DESCRIPTION)
+                .addOption(EXPRESSION_CACHE_SIZE_OPTION, EXPRESSION_CACHE_SIZE_LONG_OPTION, true,
+                        EXPRESSION_CACHE_SIZE_DESCRIPTION)
+                .addOption(EXACT_DECIMALS_OPTION, EXACT_DECIMALS_LONG_OPTION, false, EXACT_DECIMALS_DESCRIPTION)
+                .addOption(JOURNAL_OPTION, JOURNAL_LONG_OPTION, true, JOURNAL_DESCRIPTION)
+                .addOption(JOURNAL_SYNC_OPTION, JOURNAL_SYNC_LONG_OPTION, true, JOURNAL_SYNC_DESCRIPTION)
+                .addOption(JOURNAL_SEGMENT_SIZE_OPTION, JOURNAL_SEGMENT_SIZE_LONG_OPTION, true,
+                        JOURNAL_SEGMENT_SIZE_DESCRIPTION)
+                .addOption(CAPTURE_OPTION, CAPTURE_LONG_OPTION, true, CAPTURE_DESCRIPTION)
+                .addOption(null, GLOBAL_RATE_LIMIT_LONG_OPTION, true, GLOBAL_RATE_LIMIT_DESCRIPTION)
+                .addOption(null, ADDRESS_RATE_LIMIT_LONG_OPTION, true, ADDRESS_RATE_LIMIT_DESCRIPTION)
+                .addOption(null, SESSION_RATE_LIMIT_LONG_OPTION, true, SESSION_RATE_LIMIT_DESCRIPTION)
+                .addOption(null, RATE_LIMIT_POLICY_LONG_OPTION, true, RATE_LIMIT_POLICY_DESCRIPTION)
+                .addOption(null, TLS_KEY_STORE_LONG_OPTION, true, TLS_KEY_STORE_DESCRIPTION)
+                .addOption(null, TLS_PASSWORD_FILE_LONG_OPTION, true, TLS_PASSWORD_FILE_DESCRIPTION)
+                .addOption(null, TLS_SESSION_CACHE_SIZE_LONG_OPTION, true, TLS_SESSION_CACHE_SIZE_DESCRIPTION)
+                .addOption(null, TLS_SESSION_TIMEOUT_LONG_OPTION, true, TLS_SESSION_TIMEOUT_DESCRIPTION);
     }
 
     private static void close() {
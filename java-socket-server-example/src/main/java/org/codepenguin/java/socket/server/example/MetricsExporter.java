@@ -0,0 +1,103 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Admin HTTP server that exposes the {@link ServerMetrics} in the Prometheus text format. It's bound to the loopback
+ * address only.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class MetricsExporter implements Closeable {
+
+    private static final String METRICS_PATH = "/metrics";
+    private static final String CONTENT_TYPE = "Content-Type";
+    private static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final String GET = "GET";
+    private static final int OK = 200;
+    private static final int METHOD_NOT_ALLOWED = 405;
+    private static final int NO_BODY = -1;
+
+    private final HttpServer server;
+
+    /**
+     * Constructor. Starts the admin server.
+     *
+     * @param port Admin port, {@literal 0} for an ephemeral port.
+     * @throws IOException If an I/O error occurs.
+     */
+    MetricsExporter(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext(METRICS_PATH, MetricsExporter::handle);
+        server.start();
+    }
+
+    /**
+     * Gets the port the admin server is bound to.
+     *
+     * @return The local port.
+     */
+    int getLocalPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops the admin server.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private static void handle(final HttpExchange exchange) throws IOException {
+        try (HttpExchange closed = exchange) {
+            if (!GET.equals(closed.getRequestMethod())) {
+                closed.sendResponseHeaders(METHOD_NOT_ALLOWED, NO_BODY);
+                return;
+            }
+
+            final byte[] body = ServerMetrics.appendPrometheus(new StringBuilder()).toString()
+                    .getBytes(StandardCharsets.UTF_8);
+            closed.getResponseHeaders().set(CONTENT_TYPE, PROMETHEUS_CONTENT_TYPE);
+            closed.sendResponseHeaders(OK, body.length);
+            try (OutputStream out = closed.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
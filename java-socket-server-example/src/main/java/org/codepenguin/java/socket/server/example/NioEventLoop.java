@@ -0,0 +1,332 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Event loop of the {@link NioSocketServer}: a thread with its own {@link Selector} that serves its sessions from the
+ * first byte to the last. The only hand-off from other threads is the registration of the connections accepted by
+ * another loop. The sessions can also delay work to a later iteration of the loop, see
+ * {@link #schedule(Runnable, long)}.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class NioEventLoop implements Closeable {
+
+    private static final Logger LOGGER = Logger.getLogger(NioEventLoop.class.getName());
+
+    private final AtomicBoolean running = new AtomicBoolean(true);
+    private final AtomicInteger connections = new AtomicInteger();
+    private final Queue<SocketChannel> registrations = new ConcurrentLinkedQueue<>();
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    // Delayed tasks by deadline, touched only by the loop's thread.
+    private final PriorityQueue<DelayedTask> delayedTasks = new PriorityQueue<>();
+    private final Selector selector;
+
+    private volatile Thread thread;
+
+    /**
+     * Constructor. Opens the selector.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    NioEventLoop() throws IOException {
+        selector = Selector.open();
+    }
+
+    /**
+     * Accepts the connections of a server channel in this loop, which closes the channel when it's released. Must be
+     * called before {@link #run()}.
+     *
+     * @param serverChannel The server channel, bound.
+     * @param assigner      Receives the accepted connections, to {@link #register(SocketChannel)} them in a loop.
+     * @throws IOException If an I/O error occurs.
+     */
+    void listen(final ServerSocketChannel serverChannel, final Consumer<SocketChannel> assigner) throws IOException {
+        try {
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT, assigner);
+        } catch (IOException e) {
+            serverChannel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Registers a connection to be served by this loop. It's opened right away if called by the loop's thread;
+     * otherwise, the loop is woken up to open it.
+     *
+     * @param channel The connection.
+     */
+    void register(final SocketChannel channel) {
+        connections.incrementAndGet();
+        if (Thread.currentThread() == thread) {
+            open(channel);
+        } else {
+            registrations.add(channel);
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * Runs a task in the loop's thread, for the events of other threads that touch the sessions.
+     *
+     * @param task The task.
+     */
+    void execute(final Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    /**
+     * Runs a task in the loop's thread after a delay. Must be called by the loop's thread.
+     *
+     * @param task       The task.
+     * @param delayNanos Nanoseconds to wait.
+     */
+    void schedule(final Runnable task, final long delayNanos) {
+        delayedTasks.add(new DelayedTask(System.nanoTime() + delayNanos, task));
+    }
+
+    /**
+     * Records a session of this loop closed.
+     */
+    void sessionClosed() {
+        connections.decrementAndGet();
+    }
+
+    /**
+     * Gets the number of connections of this loop, including those waiting to be opened.
+     *
+     * @return Connections.
+     */
+    int getConnections() {
+        return connections.get();
+    }
+
+    /**
+     * Runs the loop until it's closed. The sessions, the server channels and the selector are released when this
+     * method returns.
+     *
+     * @throws IOException If an I/O error occurs in a server channel or the selector.
+     */
+    void run() throws IOException {
+        thread = Thread.currentThread();
+        try {
+            while (running.get()) {
+                select();
+                openRegistrations();
+                runTasks();
+                runDelayedTasks();
+
+                final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    final SelectionKey key = keys.next();
+                    keys.remove();
+
+                    if (!key.isValid()) {
+                        continue;
+                    }
+
+                    if (key.isAcceptable()) {
+                        accept(key);
+                    } else {
+                        handle(key);
+                    }
+                }
+            }
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Stops the loop.
+     */
+    @Override
+    public void close() {
+        if (running.getAndSet(false)) {
+            selector.wakeup();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void accept(final SelectionKey key) throws IOException {
+        final SocketChannel channel = ((ServerSocketChannel) key.channel()).accept();
+        if (channel != null) {
+            ((Consumer<SocketChannel>) key.attachment()).accept(channel);
+        }
+    }
+
+    private void openRegistrations() {
+        SocketChannel channel;
+        while ((channel = registrations.poll()) != null) {
+            open(channel);
+        }
+    }
+
+    /**
+     * Waits for the selected keys, the tasks or the next delayed task, whatever comes first.
+     */
+    private void select() throws IOException {
+        final DelayedTask next = delayedTasks.peek();
+        if (next == null) {
+            selector.select();
+            return;
+        }
+
+        final long waitNanos = next.deadline - System.nanoTime();
+        if (waitNanos <= 0) {
+            selector.selectNow();
+        } else {
+            selector.select(Math.max(TimeUnit.NANOSECONDS.toMillis(waitNanos), 1));
+        }
+    }
+
+    private void runDelayedTasks() {
+        final long now = System.nanoTime();
+        DelayedTask task;
+        while ((task = delayedTasks.peek()) != null && task.deadline - now <= 0) {
+            delayedTasks.poll().task.run();
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private void open(final SocketChannel channel) {
+        final NioSession session;
+        try {
+            channel.configureBlocking(false);
+            session = new NioSession(channel.register(selector, SelectionKey.OP_READ), this);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, channel.toString(), e);
+            connections.decrementAndGet();
+            closeQuietly(channel);
+            return;
+        }
+
+        try {
+            session.open();
+        } catch (IOException e) {
+            session.fail(e);
+        }
+    }
+
+    private static void handle(final SelectionKey key) {
+        final NioSession session = (NioSession) key.attachment();
+        try {
+            if (key.isReadable()) {
+                session.read();
+            } else if (key.isWritable()) {
+                session.write();
+            }
+        } catch (IOException e) {
+            session.fail(e);
+        }
+    }
+
+    /**
+     * Closes the sessions, the server channels and the selector. {@link #run()} calls it when it returns; it must be
+     * called directly only if the loop never runs.
+     *
+     * @throws IOException If an I/O error occurs closing a server channel or the selector.
+     */
+    void release() throws IOException {
+        IOException error = null;
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof NioSession) {
+                ((NioSession) key.attachment()).close();
+            } else {
+                try {
+                    key.channel().close();
+                } catch (IOException e) {
+                    error = e;
+                }
+            }
+        }
+
+        SocketChannel channel;
+        while ((channel = registrations.poll()) != null) {
+            connections.decrementAndGet();
+            closeQuietly(channel);
+        }
+
+        selector.close();
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private static void closeQuietly(final SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, channel.toString(), e);
+        }
+    }
+
+    /**
+     * Task run by the loop at a deadline.
+     */
+    private static final class DelayedTask implements Comparable<DelayedTask> {
+
+        private final long deadline;
+        private final Runnable task;
+
+        private DelayedTask(final long deadline, final Runnable task) {
+            this.deadline = deadline;
+            this.task = task;
+        }
+
+        @Override
+        public int compareTo(final DelayedTask other) {
+            return Long.signum(deadline - other.deadline);
+        }
+    }
+}
@@ -0,0 +1,377 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import javax.net.ssl.SSLEngine;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Non-blocking client session served by {@link NioSocketServer}. It produces the same bytes as
+ * {@link SocketServerThread}: lines are split as {@link java.io.BufferedReader#readLine()} does and responses are
+ * encoded as {@link java.io.PrintWriter#println(Object)} does. After the binary command the remaining bytes are read
+ * as binary frames. With TLS enabled the bytes go through a {@link TlsTransport} instead of straight through the
+ * channel.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class NioSession {
+
+    private static final String NAME_SEPARATOR = ":";
+    private static final int BUFFER_CAPACITY = 8192;
+    private static final int LINE_CAPACITY = 128;
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+
+    private final SelectionKey key;
+    private final NioEventLoop loop;
+    private final SocketChannel channel;
+    private final String name;
+    private final Charset charset = Charset.defaultCharset();
+    private final BinaryOperationProtocol protocol = new BinaryOperationProtocol();
+    private final TlsTransport tls;
+    private final ByteBuffer readBuffer;
+
+    private ByteBuffer writeBuffer = ByteBuffer.allocate(BUFFER_CAPACITY);
+    private byte[] line = new byte[LINE_CAPACITY];
+    private int lineLength;
+    private boolean skipLf;
+    private boolean binary;
+    private boolean writePending;
+    private boolean closing;
+    private boolean closed;
+    private SessionTimeouts timeouts;
+    private RateLimiter limiter;
+
+    // Request delayed by the rate limits: the session stops reading until it's processed. A delayed text request is
+    // kept here, a delayed binary frame stays in the read buffer; its token is already taken.
+    private boolean paused;
+    private boolean admitted;
+    private String delayedInput;
+
+    /**
+     * Constructor. Attaches the session to its selection key.
+     *
+     * @param key  Selection key of the client's channel.
+     * @param loop Event loop serving the session.
+     */
+    NioSession(SelectionKey key, NioEventLoop loop) {
+        this.key = key;
+        this.loop = loop;
+        this.channel = (SocketChannel) key.channel();
+        this.name = NioSession.class.getName() + NAME_SEPARATOR + channel.socket().toString();
+        final SSLEngine engine = ServerTls.createEngine();
+        this.tls = engine == null ? null : new TlsTransport(channel, engine);
+        // With TLS there's always room for a whole record besides the bytes left unprocessed
+        this.readBuffer = ByteBuffer.allocate(tls == null ? BUFFER_CAPACITY
+                : BUFFER_CAPACITY + tls.getApplicationBufferSize());
+        key.attach(this);
+    }
+
+    /**
+     * Gets the name.
+     *
+     * @return The name.
+     */
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Starts the session sending the welcome message, after the TLS handshake if enabled.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    void open() throws IOException {
+        timeouts = SessionTimeouts.open(name, () -> loop.execute(this::close));
+        limiter = RateLimiter.open(channel.socket().getInetAddress());
+        ServerMetrics.sessionStarted();
+        SessionLogger.start(name);
+        TrafficCapture.start(name);
+        if (tls != null) {
+            tls.beginHandshake();
+        }
+        writeBuffer = protocol.encodeWelcomeMessage(writeBuffer);
+        write();
+    }
+
+    /**
+     * Reads the available bytes, processes every complete line and writes the responses.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    void read() throws IOException {
+        int read;
+        do {
+            read = tls == null ? channel.read(readBuffer) : tls.read(readBuffer);
+            if (read > 0) {
+                ServerMetrics.bytesReceived(read);
+                timeouts.read();
+            }
+            if (read < 0) {
+                if (lineLength > 0) {
+                    handle(takeLine());
+                }
+                closing = true;
+            } else {
+                readBuffer.flip();
+                process();
+                readBuffer.compact();
+            }
+            // The TLS records that didn't fit in the read buffer are out of the channel already: no event will come
+        } while (read > 0 && !closing && !paused && tls != null && tls.hasBufferedInput());
+
+        write();
+    }
+
+    /**
+     * Writes the pending responses. While some bytes are pending the session stops reading, so a slow reader can't
+     * make the server buffer its responses without limit.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    void write() throws IOException {
+        writeBuffer.flip();
+        final int written = tls == null ? channel.write(writeBuffer) : tls.write(writeBuffer);
+        ServerMetrics.bytesSent(written);
+        writeBuffer.compact();
+
+        if (isWritePending()) {
+            if (written > 0 || !writePending) {
+                timeouts.writeStarted();
+            }
+            writePending = true;
+            key.interestOps(SelectionKey.OP_WRITE);
+            return;
+        }
+
+        if (writePending) {
+            writePending = false;
+            timeouts.writeCompleted();
+        }
+        if (closing && !paused) {
+            closeTls();
+            close();
+        } else {
+            key.interestOps(paused ? 0 : SelectionKey.OP_READ);
+        }
+    }
+
+    /**
+     * Closes the session after an error.
+     *
+     * @param e The error.
+     */
+    void fail(IOException e) {
+        SessionLogger.error(name, e);
+        close();
+    }
+
+    /**
+     * Closes the session. Closing a closed session has no effect.
+     */
+    void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        if (timeouts != null) {
+            timeouts.cancel();
+        }
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            SessionLogger.error(name, e);
+        } finally {
+            SessionLogger.end(name);
+            TrafficCapture.end(name);
+            ServerMetrics.sessionEnded();
+            loop.sessionClosed();
+        }
+    }
+
+    /**
+     * Processes the complete lines or binary frames of the read buffer, in read mode, until it's consumed or a request
+     * is delayed.
+     */
+    private void process() {
+        while (!closing && !binary && !paused && readBuffer.hasRemaining()) {
+            final byte b = readBuffer.get();
+            if (skipLf && b == LF) {
+                skipLf = false;
+                continue;
+            }
+
+            skipLf = b == CR;
+            if (b == CR || b == LF) {
+                handle(takeLine());
+            } else {
+                append(b);
+            }
+        }
+
+        while (binary && !paused && readBuffer.remaining() >= BinaryOperationProtocol.BINARY_REQUEST_LENGTH) {
+            final long delay = acquire();
+            if (delay > 0) {
+                pause(delay);
+                return;
+            }
+
+            writeBuffer = BinaryOperationProtocol.ensureRemaining(writeBuffer,
+                    BinaryOperationProtocol.BINARY_RESPONSE_LENGTH);
+            if (delay < 0) {
+                protocol.rejectRateLimitedBinary(readBuffer, writeBuffer);
+            } else {
+                protocol.processBinary(readBuffer, writeBuffer);
+            }
+        }
+    }
+
+    private void handle(final String input) {
+        SessionLogger.input(name, input);
+        TrafficCapture.input(name, input);
+        if (input.equals(protocol.getExitCommand())) {
+            closing = true;
+            return;
+        }
+
+        if (input.equals(protocol.getBinaryCommand())) {
+            SessionLogger.output(name, input, protocol.getBinaryAcknowledgement());
+            TrafficCapture.output(name, protocol.getBinaryAcknowledgement());
+            writeBuffer = protocol.getBinaryAcknowledgement().encodeTo(writeBuffer);
+            binary = true;
+            return;
+        }
+
+        final long delay = acquire();
+        if (delay > 0) {
+            delayedInput = input;
+            pause(delay);
+            return;
+        }
+        respond(input, delay < 0);
+    }
+
+    private void respond(final String input, final boolean limited) {
+        final BinaryOperationProtocol.Response response = limited ? protocol.rejectRateLimited(input)
+                : protocol.process(input);
+        if (response != null) {
+            SessionLogger.output(name, input, response);
+            TrafficCapture.output(name, response);
+            writeBuffer = response.encodeTo(writeBuffer);
+        }
+    }
+
+    private long acquire() {
+        if (admitted) {
+            admitted = false;
+            return 0;
+        }
+        return limiter.acquire();
+    }
+
+    private void pause(final long delayNanos) {
+        paused = true;
+        loop.schedule(this::resume, delayNanos);
+    }
+
+    /**
+     * Processes the delayed request with the token already taken, then the rest of the read buffer, and reads again
+     * unless another request is delayed.
+     */
+    private void resume() {
+        if (closed) {
+            return;
+        }
+
+        paused = false;
+        admitted = true;
+        if (delayedInput != null) {
+            final String input = delayedInput;
+            delayedInput = null;
+            admitted = false;
+            respond(input, false);
+        }
+        readBuffer.flip();
+        process();
+        readBuffer.compact();
+        try {
+            if (!paused && tls != null && tls.hasBufferedInput()) {
+                read();
+            } else {
+                write();
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Indicates if some bytes wait for the channel to be writable. The plain bytes written during the TLS handshake
+     * wait for the handshake instead, which needs the client's records.
+     */
+    private boolean isWritePending() {
+        if (tls == null) {
+            return writeBuffer.position() > 0;
+        }
+        return tls.hasPendingOutput() || writeBuffer.position() > 0 && !tls.isHandshaking();
+    }
+
+    /**
+     * Sends the TLS close notification before closing the session normally. It's a courtesy to the client: if the
+     * channel doesn't take it right away or fails, the session is closed anyway.
+     */
+    private void closeTls() {
+        if (tls != null) {
+            try {
+                tls.closeOutbound();
+            } catch (IOException e) {
+                // The client is gone already
+            }
+        }
+    }
+
+    private String takeLine() {
+        final String input = new String(line, 0, lineLength, charset);
+        lineLength = 0;
+        return input;
+    }
+
+    private void append(final byte b) {
+        if (lineLength == line.length) {
+            line = Arrays.copyOf(line, line.length * 2);
+        }
+        line[lineLength++] = b;
+    }
+}
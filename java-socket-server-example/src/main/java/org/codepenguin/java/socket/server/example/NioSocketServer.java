@@ -0,0 +1,213 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Non-blocking socket's server. Every event loop is a thread with its own selector that serves its sessions end to
+ * end, so the loops share nothing on the request path.
+ * <p>
+ * The first loop accepts the clients and assigns them to the loops as the {@link LoopAssignment} says. If the port is
+ * reused and the platform supports {@link StandardSocketOptions#SO_REUSEPORT}, every loop binds its own server channel
+ * to the port and serves the clients it accepts; the kernel spreads the connections among them.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class NioSocketServer implements Closeable {
+
+    private static final Logger LOGGER = Logger.getLogger(NioSocketServer.class.getName());
+    private static final String THREAD_NAME_PREFIX = "nio-loop-";
+
+    private final NioEventLoop[] loops;
+    private final LoopAssignment assignment;
+    private final AtomicInteger next = new AtomicInteger();
+    private final int localPort;
+
+    /**
+     * Constructor. Binds the server to the specified port with a single event loop.
+     *
+     * @param port Server port, {@literal 0} for an ephemeral port.
+     * @throws IOException If an I/O error occurs.
+     */
+    NioSocketServer(int port) throws IOException {
+        this(port, 1, LoopAssignment.ROUND_ROBIN, false);
+    }
+
+    /**
+     * Constructor. Binds the server to the specified port.
+     *
+     * @param port       Server port, {@literal 0} for an ephemeral port.
+     * @param eventLoops Number of event loops.
+     * @param assignment Assignment of the accepted clients to the event loops.
+     * @param reusePort  {@literal true} to bind a server channel per event loop if the platform supports it.
+     * @throws IOException If an I/O error occurs.
+     */
+    NioSocketServer(int port, int eventLoops, LoopAssignment assignment, boolean reusePort) throws IOException {
+        if (eventLoops < 1) {
+            throw new IllegalArgumentException("Event loops must be positive");
+        }
+
+        this.assignment = assignment;
+        loops = new NioEventLoop[eventLoops];
+        try {
+            for (int i = 0; i < eventLoops; i++) {
+                loops[i] = new NioEventLoop();
+            }
+
+            final ServerSocketChannel serverChannel = ServerSocketChannel.open();
+            final boolean bindPerLoop = reusePort && eventLoops > 1
+                    && serverChannel.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT);
+            localPort = bind(serverChannel, port, bindPerLoop).socket().getLocalPort();
+            if (bindPerLoop) {
+                loops[0].listen(serverChannel, loops[0]::register);
+                for (int i = 1; i < eventLoops; i++) {
+                    final NioEventLoop loop = loops[i];
+                    loop.listen(bind(ServerSocketChannel.open(), localPort, true), loop::register);
+                }
+            } else {
+                loops[0].listen(serverChannel, this::assign);
+            }
+        } catch (IOException | RuntimeException e) {
+            for (NioEventLoop loop : loops) {
+                if (loop != null) {
+                    loop.release();
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the port the server is bound to.
+     *
+     * @return The local port.
+     */
+    int getLocalPort() {
+        return localPort;
+    }
+
+    /**
+     * Gets the number of connections an event loop serves.
+     *
+     * @param loop Index of the event loop.
+     * @return Connections.
+     */
+    int getConnections(final int loop) {
+        return loops[loop].getConnections();
+    }
+
+    /**
+     * Runs the event loops until the server is closed: the first one in the calling thread and the others in their
+     * own threads. The sessions, the server channels and the selectors are released when this method returns.
+     *
+     * @throws IOException If an I/O error occurs in a server channel or a selector.
+     */
+    void run() throws IOException {
+        final List<Thread> threads = new ArrayList<>(loops.length - 1);
+        for (int i = 1; i < loops.length; i++) {
+            final NioEventLoop loop = loops[i];
+            final Thread thread = new Thread(() -> runLoop(loop), THREAD_NAME_PREFIX + i);
+            threads.add(thread);
+            thread.start();
+        }
+
+        try {
+            loops[0].run();
+        } finally {
+            close();
+            for (Thread thread : threads) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops the event loops.
+     */
+    @Override
+    public void close() {
+        for (NioEventLoop loop : loops) {
+            if (loop != null) {
+                loop.close();
+            }
+        }
+    }
+
+    private void runLoop(final NioEventLoop loop) {
+        try {
+            loop.run();
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, e.getMessage(), e);
+            close();
+        }
+    }
+
+    private void assign(final SocketChannel channel) {
+        final NioEventLoop loop;
+        if (assignment == LoopAssignment.LEAST_CONNECTIONS) {
+            NioEventLoop least = loops[0];
+            for (int i = 1; i < loops.length; i++) {
+                if (loops[i].getConnections() < least.getConnections()) {
+                    least = loops[i];
+                }
+            }
+            loop = least;
+        } else {
+            loop = loops[Math.floorMod(next.getAndIncrement(), loops.length)];
+        }
+        loop.register(channel);
+    }
+
+    private static ServerSocketChannel bind(final ServerSocketChannel serverChannel, final int port,
+                                            final boolean reusePort) throws IOException {
+        try {
+            if (reusePort) {
+                serverChannel.setOption(StandardSocketOptions.SO_REUSEPORT, true);
+            }
+            return serverChannel.bind(new InetSocketAddress(port));
+        } catch (IOException e) {
+            serverChannel.close();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import org.codepenguin.java.socket.server.example.BinaryOperationProtocol.ResponseErrorType;
+import org.codepenguin.java.socket.server.example.JournalRecord.RecordType;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Append-only journal of the processed requests, shared by all the protocol instances. Every operation, every
+ * operation of a batch, every expression and every error is appended as a {@link JournalRecord} by a
+ * {@link JournalWriter}, so the sessions never wait on the files. It's disabled until
+ * {@link #configure(Path, long, JournalSyncPolicy)} is called.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class OperationJournal {
+
+    /**
+     * Default size in bytes of a segment.
+     */
+    static final long DEFAULT_SEGMENT_SIZE = 64L * 1024 * 1024;
+
+    private static final int CAPACITY = 65536;
+
+    private static volatile JournalWriter writer;
+
+    private OperationJournal() {
+    }
+
+    /**
+     * Configures the journal. Closes the previous writer, if any.
+     *
+     * @param directory   Directory of the segments.
+     * @param segmentSize Size in bytes of every segment.
+     * @param policy      Policy to force the writes.
+     * @throws IllegalArgumentException If the segment size is out of range.
+     * @throws IOException              If the first segment can't be created.
+     */
+    static synchronized void configure(final Path directory, final long segmentSize, final JournalSyncPolicy policy)
+            throws IOException {
+        close();
+        writer = new JournalWriter(directory, segmentSize, policy, CAPACITY);
+    }
+
+    /**
+     * Writes the pending records and disables the journal.
+     */
+    static synchronized void close() {
+        final JournalWriter current = writer;
+        writer = null;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    /**
+     * Indicates if the journal is enabled.
+     *
+     * @return {@literal true} if it's enabled; otherwise, {@literal false}.
+     */
+    static boolean isEnabled() {
+        return writer != null;
+    }
+
+    /**
+     * Gets the number of records written to the segments.
+     *
+     * @return Written records.
+     */
+    static long getWrittenRecords() {
+        final JournalWriter current = writer;
+        return current == null ? 0 : current.getWrittenRecords();
+    }
+
+    /**
+     * Gets the number of records dropped because the buffer was full or the journal couldn't be written.
+     *
+     * @return Dropped records.
+     */
+    static long getDroppedRecords() {
+        final JournalWriter current = writer;
+        return current == null ? 0 : current.getDroppedRecords();
+    }
+
+    /**
+     * Indicates if the journal failed, so it drops the records, see {@link JournalWriter#isFailed()}.
+     *
+     * @return {@literal true} if it's enabled and failed; otherwise, {@literal false}.
+     */
+    static boolean isFailed() {
+        final JournalWriter current = writer;
+        return current != null && current.isFailed();
+    }
+
+    /**
+     * Appends an operation.
+     *
+     * @param type          Type of record: {@link RecordType#OPERATION}, {@link RecordType#BATCH} or
+     *                      {@link RecordType#BINARY}.
+     * @param sessionId     Id of the session.
+     * @param operator      Operator.
+     * @param firstOperand  First operand.
+     * @param secondOperand Second operand.
+     * @param result        Result.
+     */
+    static void operation(final RecordType type, final long sessionId, final ArithmeticOperator operator,
+                          final double firstOperand, final double secondOperand, final double result) {
+        operation(type, sessionId, operator, firstOperand, secondOperand, result, null);
+    }
+
+    /**
+     * Appends an operation with, if it was computed exactly, its exact form to verify it.
+     *
+     * @param type           Type of record: {@link RecordType#OPERATION}, {@link RecordType#BATCH} or
+     *                       {@link RecordType#BINARY}.
+     * @param sessionId      Id of the session.
+     * @param operator       Operator.
+     * @param firstOperand   First operand.
+     * @param secondOperand  Second operand.
+     * @param result         Result.
+     * @param exactOperation Exact operation and result as the OK response's message, copied before this method
+     *                       returns; {@literal null} if it was computed in double.
+     */
+    static void operation(final RecordType type, final long sessionId, final ArithmeticOperator operator,
+                          final double firstOperand, final double secondOperand, final double result,
+                          final CharSequence exactOperation) {
+        final JournalWriter current = writer;
+        if (current != null) {
+            current.publish(type, operator.ordinal(), sessionId, firstOperand, secondOperand, result,
+                    exactOperation, 0);
+        }
+    }
+
+    /**
+     * Appends an expression.
+     *
+     * @param sessionId Id of the session.
+     * @param input     Input with the expression.
+     * @param start     Index of the expression in the input.
+     * @param result    Value of the expression.
+     */
+    static void expression(final long sessionId, final String input, final int start, final double result) {
+        final JournalWriter current = writer;
+        if (current != null) {
+            current.publish(RecordType.EXPRESSION, 0, sessionId, Double.NaN, Double.NaN, result, input, start);
+        }
+    }
+
+    /**
+     * Appends a request answered with an error.
+     *
+     * @param sessionId Id of the session.
+     * @param errorType Type of error.
+     */
+    static void error(final long sessionId, final ResponseErrorType errorType) {
+        final JournalWriter current = writer;
+        if (current != null) {
+            current.publish(RecordType.ERROR, errorType.ordinal(), sessionId, Double.NaN, Double.NaN, Double.NaN,
+                    null, 0);
+        }
+    }
+}
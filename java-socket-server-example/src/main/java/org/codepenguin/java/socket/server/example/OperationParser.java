@@ -0,0 +1,520 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import org.codepenguin.java.socket.server.example.BinaryOperationProtocol.ResponseErrorType;
+
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.codepenguin.java.socket.server.example.BinaryOperationProtocol.ResponseErrorType.*;
+
+/**
+ * Parser of the text operations ({@code <first operand> <operator> <second operand>}). It scans the input character by
+ * character and keeps the parsed operation in its fields, so a valid input is parsed without allocating. It's reusable
+ * but not thread-safe.
+ * <p>
+ * The input is split as {@code input.split(" ")} does and the operands are parsed as {@link Float#parseFloat(String)}
+ * does. Plain decimal operands whose digits fit exactly in a float are parsed directly; anything else (exponents,
+ * hexadecimal, {@literal NaN}, surrounding whitespace...) falls back to {@link Float#parseFloat(String)}.
+ * <p>
+ * The plain decimal operands whose digits fit in a long are also kept exactly, as a mantissa and a scale, for the
+ * exact arithmetic; see {@link #isExact()}.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class OperationParser {
+
+    /**
+     * Maximum number of first or second operands of a batch, so a batch's records fit in the operation journal's
+     * buffer.
+     */
+    static final int MAX_BATCH_LENGTH = 1 << 16;
+
+    /**
+     * Maximum length of the operands arrays kept for the next batches; the arrays of a longer batch are released.
+     */
+    static final int RETAINED_BATCH_CAPACITY = 1 << 10;
+
+    private static final Logger LOGGER = Logger.getLogger(OperationParser.class.getName());
+
+    private static final char SEPARATOR = ' ';
+    private static final char LIST_SEPARATOR = ',';
+    private static final int INITIAL_BATCH_CAPACITY = 16;
+    private static final int BATCH_IS_NOT_A_NUMBER = -1;
+    private static final int BATCH_IS_TOO_LONG = -2;
+    private static final int MAX_EXACT_MANTISSA = 1 << 24;
+    private static final float[] POWERS_OF_TEN = {1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f};
+    private static final long MAX_EXACT_DOUBLE_MANTISSA = 1L << 53;
+    private static final double[] DOUBLE_POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private ResponseErrorType errorType;
+    private float firstOperand;
+    private ArithmeticOperator operator;
+    private float secondOperand;
+    private boolean exact;
+    private long firstMantissa;
+    private int firstScale;
+    private long secondMantissa;
+    private int secondScale;
+
+    // Operands of the last valid batch, reused by the next batches.
+    private double[] firstOperands = new double[INITIAL_BATCH_CAPACITY];
+    private int firstLength;
+    private double[] secondOperands = new double[INITIAL_BATCH_CAPACITY];
+    private int secondLength;
+
+    // Result of the last parseOperand call, valid when it returns true. The mantissa and the scale are valid if
+    // operandExact is true.
+    private float operand;
+    private boolean operandExact;
+    private long operandMantissa;
+    private int operandScale;
+
+    // Result of the last valid parseValue call.
+    private double value;
+
+    /**
+     * Parses an input.
+     *
+     * @param input Input.
+     * @return {@literal true} if the input is a valid operation; otherwise, {@literal false} and
+     * {@link #getErrorType()} tells why.
+     */
+    boolean parse(final CharSequence input) {
+        errorType = null;
+        operator = null;
+
+        if (input == null) {
+            return fail(INPUT_IS_NULL);
+        }
+
+        if (isBlank(input)) {
+            return fail(INPUT_IS_BLANK);
+        }
+
+        // split drops the trailing empty strings, that is, the trailing separators.
+        int end = input.length();
+        while (input.charAt(end - 1) == SEPARATOR) {
+            end--;
+        }
+
+        final int firstSeparator = indexOf(input, SEPARATOR, 0, end);
+        final int secondSeparator = firstSeparator < 0 ? -1 : indexOf(input, SEPARATOR, firstSeparator + 1, end);
+        if (secondSeparator < 0 || indexOf(input, SEPARATOR, secondSeparator + 1, end) >= 0) {
+            return fail(INPUT_MUST_HAVE_THREE_PARTS_ONLY);
+        }
+
+        if (!parseOperand(input, 0, firstSeparator)) {
+            return fail(INPUT_FIRST_OPERAND_IS_NOT_A_NUMBER);
+        }
+        firstOperand = operand;
+        exact = operandExact;
+        firstMantissa = operandMantissa;
+        firstScale = operandScale;
+
+        if (secondSeparator - firstSeparator != 2) {
+            return fail(INPUT_OPERATOR_IS_NOT_VALID);
+        }
+
+        final char symbol = input.charAt(firstSeparator + 1);
+        operator = ArithmeticOperator.findBySymbol(symbol);
+        if (operator == null) {
+            LOGGER.log(Level.WARNING, "No symbol: {0}", symbol);
+            return fail(INPUT_OPERATOR_IS_NOT_VALID);
+        }
+
+        if (!parseOperand(input, secondSeparator + 1, end)) {
+            operator = null;
+            return fail(INPUT_SECOND_OPERAND_IS_NOT_A_NUMBER);
+        }
+        secondOperand = operand;
+        exact &= operandExact;
+        secondMantissa = operandMantissa;
+        secondScale = operandScale;
+
+        return true;
+    }
+
+    /**
+     * Parses a batch ({@code <operator> <first operands> <second operands>}), the operands separated by commas. There
+     * must be as many second operands as first ones or a single one, the scalar second operand of every operation, and
+     * at most {@value #MAX_BATCH_LENGTH}.
+     *
+     * @param input Input.
+     * @param start Index of the operator in the input.
+     * @return {@literal true} if the input is a valid batch; otherwise, {@literal false} and {@link #getErrorType()}
+     * tells why.
+     */
+    boolean parseBatch(final CharSequence input, final int start) {
+        errorType = null;
+        operator = null;
+
+        int end = input.length();
+        while (end > start && input.charAt(end - 1) == SEPARATOR) {
+            end--;
+        }
+
+        final int firstSeparator = indexOf(input, SEPARATOR, start, end);
+        final int secondSeparator = firstSeparator < 0 ? -1 : indexOf(input, SEPARATOR, firstSeparator + 1, end);
+        if (secondSeparator < 0 || indexOf(input, SEPARATOR, secondSeparator + 1, end) >= 0) {
+            return fail(INPUT_MUST_HAVE_THREE_PARTS_ONLY);
+        }
+
+        final ArithmeticOperator symbolOperator = firstSeparator - start == 1
+                ? ArithmeticOperator.findBySymbol(input.charAt(start)) : null;
+        if (symbolOperator == null) {
+            return fail(INPUT_OPERATOR_IS_NOT_VALID);
+        }
+
+        firstLength = parseOperands(input, firstSeparator + 1, secondSeparator, true);
+        if (firstLength < 0) {
+            return fail(firstLength == BATCH_IS_TOO_LONG ? INPUT_BATCH_IS_TOO_LONG
+                    : INPUT_FIRST_OPERAND_IS_NOT_A_NUMBER);
+        }
+
+        secondLength = parseOperands(input, secondSeparator + 1, end, false);
+        if (secondLength < 0) {
+            return fail(secondLength == BATCH_IS_TOO_LONG ? INPUT_BATCH_IS_TOO_LONG
+                    : INPUT_SECOND_OPERAND_IS_NOT_A_NUMBER);
+        }
+
+        if (secondLength != firstLength && secondLength != 1) {
+            return fail(INPUT_OPERANDS_LENGTHS_DO_NOT_MATCH);
+        }
+
+        operator = symbolOperator;
+        return true;
+    }
+
+    /**
+     * Parses a single value in double precision, as {@link Double#parseDouble(String)} does, unlike the operands. Plain
+     * decimals whose digits fit exactly in a double are parsed directly; anything else falls back to
+     * {@link Double#parseDouble(String)}.
+     *
+     * @param input Input.
+     * @param start Index of the value in the input.
+     * @param end   Index after the value in the input.
+     * @return {@literal true} if the value is a number, see {@link #getValue()}; otherwise, {@literal false}.
+     */
+    boolean parseValue(final CharSequence input, final int start, final int end) {
+        if (parseDecimal(input, start, end)) {
+            if (operandMantissa >= -MAX_EXACT_DOUBLE_MANTISSA && operandMantissa <= MAX_EXACT_DOUBLE_MANTISSA
+                    && operandScale < DOUBLE_POWERS_OF_TEN.length) {
+                final long magnitude = Math.abs(operandMantissa);
+                // The digits and the power of ten are exact as double, so a single division rounds as parseDouble.
+                final double parsed = operandScale == 0 ? magnitude : magnitude / DOUBLE_POWERS_OF_TEN[operandScale];
+                value = input.charAt(start) == '-' ? -parsed : parsed;
+                return true;
+            }
+        }
+
+        // parseDouble trims the whitespace, that isn't part of a value here
+        if (start == end || input.charAt(start) <= ' ' || input.charAt(end - 1) <= ' ') {
+            return false;
+        }
+
+        try {
+            value = Double.parseDouble(input.subSequence(start, end).toString());
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Gets the value of the last valid {@link #parseValue(CharSequence, int, int)} call.
+     *
+     * @return The value.
+     */
+    double getValue() {
+        return value;
+    }
+
+    /**
+     * Gets the error type of the last invalid input.
+     *
+     * @return The error type if the last input was invalid; otherwise, {@literal null}.
+     */
+    ResponseErrorType getErrorType() {
+        return errorType;
+    }
+
+    /**
+     * Gets the first operand of the last valid input.
+     *
+     * @return First operand.
+     */
+    float getFirstOperand() {
+        return firstOperand;
+    }
+
+    /**
+     * Gets the operator of the last valid input.
+     *
+     * @return The operator if the last input was valid; otherwise, {@literal null}.
+     */
+    ArithmeticOperator getOperator() {
+        return operator;
+    }
+
+    /**
+     * Gets the second operand of the last valid input.
+     *
+     * @return Second operand.
+     */
+    float getSecondOperand() {
+        return secondOperand;
+    }
+
+    /**
+     * Indicates if both operands of the last valid input are plain decimals kept exactly. The value of an operand is
+     * its mantissa divided by ten to the power of its scale; an integer has scale {@literal 0}.
+     *
+     * @return {@literal true} if the mantissas and the scales are valid; otherwise, {@literal false}.
+     */
+    boolean isExact() {
+        return exact;
+    }
+
+    /**
+     * Gets the mantissa of the first operand of the last valid input, if it's exact.
+     *
+     * @return First operand's mantissa.
+     */
+    long getFirstMantissa() {
+        return firstMantissa;
+    }
+
+    /**
+     * Gets the scale of the first operand of the last valid input, if it's exact.
+     *
+     * @return First operand's scale, the number of fraction digits.
+     */
+    int getFirstScale() {
+        return firstScale;
+    }
+
+    /**
+     * Gets the mantissa of the second operand of the last valid input, if it's exact.
+     *
+     * @return Second operand's mantissa.
+     */
+    long getSecondMantissa() {
+        return secondMantissa;
+    }
+
+    /**
+     * Gets the scale of the second operand of the last valid input, if it's exact.
+     *
+     * @return Second operand's scale, the number of fraction digits.
+     */
+    int getSecondScale() {
+        return secondScale;
+    }
+
+    /**
+     * Gets the first operands of the last valid batch. The array is reused by the next batches.
+     *
+     * @return First operands, the first {@link #getFirstLength()} elements.
+     */
+    double[] getFirstOperands() {
+        return firstOperands;
+    }
+
+    /**
+     * Gets the number of first operands of the last valid batch.
+     *
+     * @return Number of first operands.
+     */
+    int getFirstLength() {
+        return firstLength;
+    }
+
+    /**
+     * Gets the second operands of the last valid batch. The array is reused by the next batches.
+     *
+     * @return Second operands, the first {@link #getSecondLength()} elements.
+     */
+    double[] getSecondOperands() {
+        return secondOperands;
+    }
+
+    /**
+     * Gets the number of second operands of the last valid batch.
+     *
+     * @return Number of second operands, the number of first operands or {@literal 1}.
+     */
+    int getSecondLength() {
+        return secondLength;
+    }
+
+    /**
+     * Releases the operands arrays if a batch grew them over {@link #RETAINED_BATCH_CAPACITY}, so a long batch doesn't
+     * keep them for the rest of the session.
+     */
+    void trimBatchOperands() {
+        if (firstOperands.length > RETAINED_BATCH_CAPACITY) {
+            firstOperands = new double[INITIAL_BATCH_CAPACITY];
+        }
+        if (secondOperands.length > RETAINED_BATCH_CAPACITY) {
+            secondOperands = new double[INITIAL_BATCH_CAPACITY];
+        }
+    }
+
+    private boolean fail(final ResponseErrorType type) {
+        errorType = type;
+        return false;
+    }
+
+    private static int indexOf(final CharSequence input, final char c, final int start, final int end) {
+        for (int i = start; i < end; i++) {
+            if (input.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parses a list of operands into the first or the second operands, growing the array if needed.
+     *
+     * @return The number of operands; {@link #BATCH_IS_NOT_A_NUMBER} if any of them isn't a number, or
+     * {@link #BATCH_IS_TOO_LONG} if there are more than {@link #MAX_BATCH_LENGTH}.
+     */
+    private int parseOperands(final CharSequence input, final int start, final int end, final boolean first) {
+        double[] operands = first ? firstOperands : secondOperands;
+        int length = 0;
+        for (int elementStart = start; elementStart <= end; length++) {
+            int elementEnd = indexOf(input, LIST_SEPARATOR, elementStart, end);
+            if (elementEnd < 0) {
+                elementEnd = end;
+            }
+            if (length == MAX_BATCH_LENGTH) {
+                return BATCH_IS_TOO_LONG;
+            }
+            if (!parseOperand(input, elementStart, elementEnd)) {
+                return BATCH_IS_NOT_A_NUMBER;
+            }
+
+            if (length == operands.length) {
+                operands = Arrays.copyOf(operands, length * 2);
+                if (first) {
+                    firstOperands = operands;
+                } else {
+                    secondOperands = operands;
+                }
+            }
+            operands[length] = operand;
+            elementStart = elementEnd + 1;
+        }
+        return length;
+    }
+
+    private boolean parseOperand(final CharSequence input, final int start, final int end) {
+        operandExact = parseDecimal(input, start, end);
+        if (!operandExact) {
+            return parseFloat(input, start, end);
+        }
+
+        if (operandMantissa >= -MAX_EXACT_MANTISSA && operandMantissa <= MAX_EXACT_MANTISSA
+                && operandScale < POWERS_OF_TEN.length) {
+            final long magnitude = Math.abs(operandMantissa);
+            // The digits are exact as float, so a single float division rounds as Float.parseFloat does.
+            final float value = operandScale == 0 ? (float) magnitude : (float) magnitude / POWERS_OF_TEN[operandScale];
+            operand = input.charAt(start) == '-' ? -value : value;
+            return true;
+        }
+
+        if (operandScale == 0) {
+            // A long to float conversion rounds to nearest, as Float.parseFloat does.
+            operand = operandMantissa == 0 && input.charAt(start) == '-' ? -0f : (float) operandMantissa;
+            return true;
+        }
+        return parseFloat(input, start, end);
+    }
+
+    /**
+     * Parses {@code [+-]digits[.digits]} whose digits fit in a long, from {@link Long#MIN_VALUE} to
+     * {@link Long#MAX_VALUE}, into the operand's mantissa and scale. The digits are accumulated negatively, as
+     * {@link Long#parseLong(String)} does, so the most negative long is parsed too.
+     */
+    private boolean parseDecimal(final CharSequence input, final int start, final int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (input.charAt(i) == '-' || input.charAt(i) == '+')) {
+            negative = input.charAt(i) == '-';
+            i++;
+        }
+
+        final long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        final long multiplyLimit = limit / 10;
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (; i < end; i++) {
+            final char c = input.charAt(i);
+            if (c >= '0' && c <= '9') {
+                final int digit = c - '0';
+                if (mantissa < multiplyLimit || mantissa * 10 < limit + digit) {
+                    return false;
+                }
+                mantissa = mantissa * 10 - digit;
+                digits++;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else {
+                return false;
+            }
+        }
+
+        if (digits == 0) {
+            return false;
+        }
+
+        operandMantissa = negative ? mantissa : -mantissa;
+        operandScale = Math.max(fractionDigits, 0);
+        return true;
+    }
+
+    private boolean parseFloat(final CharSequence input, final int start, final int end) {
+        try {
+            operand = Float.parseFloat(input.subSequence(start, end).toString());
+            return true;
+        } catch (NumberFormatException e) {
+            LOGGER.warning(e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,280 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import lombok.Value;
+
+import java.net.InetAddress;
+import java.text.MessageFormat;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rate limits of the requests, shared by all the server engines. A request takes a token from up to three
+ * {@link TokenBucket}s: the global one, shared by all the sessions, the one of the client's address, shared by its
+ * sessions, and the session's own. There's no background thread: the buckets refill lazily and the buckets of the
+ * addresses are discarded, once full, when new addresses are added.
+ * <p>
+ * The limits apply to the sessions opened after {@link #configure(RateLimitPolicy, Limit, Limit, Limit)} is called.
+ * Every session gets its limiter from {@link #open(InetAddress)} and calls {@link #acquire()} before every request.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class RateLimiter {
+
+    /**
+     * Maximum time a request waits with the {@link RateLimitPolicy#DELAY} policy.
+     */
+    static final long MAX_DELAY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final int MIN_SWEEP_SIZE = 1024;
+    private static final RateLimiter DISABLED = new RateLimiter(null, null, null, null, 0);
+    private static final LongAdder LIMITED_REQUESTS = new LongAdder();
+    private static final LongAdder DELAYED_REQUESTS = new LongAdder();
+
+    private static volatile Limits limits;
+
+    private final Limits configured;
+    private final TokenBucket globalBucket;
+    private final InetAddress address;
+    private final TokenBucket sessionBucket;
+    private final long maxDelay;
+
+    private RateLimiter(final Limits configured, final TokenBucket globalBucket, final InetAddress address,
+                        final TokenBucket sessionBucket, final long maxDelay) {
+        this.configured = configured;
+        this.globalBucket = globalBucket;
+        this.address = address;
+        this.sessionBucket = sessionBucket;
+        this.maxDelay = maxDelay;
+    }
+
+    /**
+     * Configures the limits of the sessions opened from now on.
+     *
+     * @param policy  Policy of the requests over a limit.
+     * @param global  Limit of all the sessions together, {@literal null} for none.
+     * @param address Limit of the sessions of every client address, {@literal null} for none.
+     * @param session Limit of every session, {@literal null} for none.
+     */
+    static synchronized void configure(final RateLimitPolicy policy, final Limit global, final Limit address,
+                                       final Limit session) {
+        limits = global == null && address == null && session == null ? null
+                : new Limits(policy, global == null ? null : global.newBucket(), address, session);
+    }
+
+    /**
+     * Gets the limiter of a new session.
+     *
+     * @param address Address of the client; {@literal null} if unknown, the address limit doesn't apply then.
+     * @return The limiter.
+     */
+    static RateLimiter open(final InetAddress address) {
+        final Limits current = limits;
+        if (current == null) {
+            return DISABLED;
+        }
+
+        return new RateLimiter(current, current.globalBucket, current.addressLimit == null ? null : address,
+                current.sessionLimit == null ? null : current.sessionLimit.newBucket(),
+                current.policy == RateLimitPolicy.DELAY ? MAX_DELAY_NANOS : 0);
+    }
+
+    /**
+     * Gets the number of requests rejected because they were over a limit.
+     *
+     * @return Limited requests.
+     */
+    static long getLimitedRequests() {
+        return LIMITED_REQUESTS.sum();
+    }
+
+    /**
+     * Gets the number of requests delayed to keep them under the limits.
+     *
+     * @return Delayed requests.
+     */
+    static long getDelayedRequests() {
+        return DELAYED_REQUESTS.sum();
+    }
+
+    /**
+     * Takes a token from every bucket of the session for a request.
+     *
+     * @return Nanoseconds the request must wait, {@literal 0} to process it now; {@literal -1} if it must be rejected.
+     */
+    long acquire() {
+        if (configured == null) {
+            return 0;
+        }
+
+        final long now = System.nanoTime();
+        final long globalDelay = acquire(globalBucket, now, 0);
+        if (globalDelay < 0) {
+            return reject();
+        }
+        final TokenBucket addressBucket = address == null ? null : configured.addressBucket(address, now);
+        final long addressDelay = acquire(addressBucket, now, globalDelay);
+        if (addressDelay < 0) {
+            release(globalBucket);
+            return reject();
+        }
+        final long sessionDelay = acquire(sessionBucket, now, Math.max(globalDelay, addressDelay));
+        if (sessionDelay < 0) {
+            release(globalBucket);
+            release(addressBucket);
+            return reject();
+        }
+
+        final long delay = Math.max(Math.max(globalDelay, addressDelay), sessionDelay);
+        if (delay > 0) {
+            DELAYED_REQUESTS.increment();
+        }
+        return delay;
+    }
+
+    /**
+     * Takes a token from a bucket, if any, within the maximum delay.
+     */
+    private long acquire(final TokenBucket bucket, final long now, final long previousDelay) {
+        if (bucket == null) {
+            return previousDelay;
+        }
+
+        final long delay = bucket.acquire(now, maxDelay);
+        return delay < 0 ? delay : Math.max(delay, previousDelay);
+    }
+
+    private static void release(final TokenBucket bucket) {
+        if (bucket != null) {
+            bucket.release();
+        }
+    }
+
+    private static long reject() {
+        LIMITED_REQUESTS.increment();
+        return -1;
+    }
+
+    /**
+     * Rate limit: tokens per second and tokens of the burst.
+     */
+    @Value
+    static class Limit {
+
+        private static final String SEPARATOR = ":";
+
+        /**
+         * Requests per second.
+         */
+        double rate;
+
+        /**
+         * Requests admitted at once after an idle time.
+         */
+        int burst;
+
+        /**
+         * Returns the limit of a command line value, {@code <rate>[:<burst>]}. The burst is a second of the rate by
+         * default.
+         *
+         * @param value The value.
+         * @return The limit.
+         * @throws IllegalArgumentException If the value isn't valid.
+         */
+        static Limit valueOfLimit(final String value) {
+            final String[] parts = value.split(SEPARATOR, -1);
+            if (parts.length > 2) {
+                throw new IllegalArgumentException(MessageFormat.format("Invalid rate limit: {0}", value));
+            }
+
+            final double rate = Double.parseDouble(parts[0]);
+            final int burst = parts.length == 1 ? (int) Math.min(Math.ceil(rate), Integer.MAX_VALUE)
+                    : Integer.parseInt(parts[1]);
+            final Limit limit = new Limit(rate, burst);
+            limit.newBucket();
+            return limit;
+        }
+
+        /**
+         * Creates a full bucket of this limit.
+         *
+         * @return The bucket.
+         * @throws IllegalArgumentException If the rate or the burst aren't valid.
+         */
+        TokenBucket newBucket() {
+            return new TokenBucket(rate, burst);
+        }
+    }
+
+    /**
+     * Configured limits and the buckets shared by the sessions.
+     */
+    private static final class Limits {
+
+        private final RateLimitPolicy policy;
+        private final TokenBucket globalBucket;
+        private final Limit addressLimit;
+        private final Limit sessionLimit;
+        private final ConcurrentMap<InetAddress, TokenBucket> addressBuckets = new ConcurrentHashMap<>();
+
+        private volatile int sweepSize = MIN_SWEEP_SIZE;
+
+        private Limits(final RateLimitPolicy policy, final TokenBucket globalBucket, final Limit addressLimit,
+                       final Limit sessionLimit) {
+            this.policy = policy;
+            this.globalBucket = globalBucket;
+            this.addressLimit = addressLimit;
+            this.sessionLimit = sessionLimit;
+        }
+
+        /**
+         * Gets the bucket of an address, adding it if needed. When the buckets double the size after the last sweep,
+         * the full ones are discarded, so the map only keeps the recently active addresses.
+         */
+        private TokenBucket addressBucket(final InetAddress address, final long now) {
+            final TokenBucket bucket = addressBuckets.get(address);
+            if (bucket != null) {
+                return bucket;
+            }
+
+            final TokenBucket added = addressBuckets.computeIfAbsent(address, key -> addressLimit.newBucket());
+            if (addressBuckets.size() >= sweepSize) {
+                synchronized (this) {
+                    if (addressBuckets.size() >= sweepSize) {
+                        addressBuckets.values().removeIf(candidate -> candidate != added && candidate.isFull(now));
+                        sweepSize = Math.max(MIN_SWEEP_SIZE, 2 * addressBuckets.size());
+                    }
+                }
+            }
+            return added;
+        }
+    }
+}
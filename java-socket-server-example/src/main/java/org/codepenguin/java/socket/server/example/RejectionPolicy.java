@@ -0,0 +1,83 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import java.text.MessageFormat;
+
+/**
+ * Policy applied to the accepted connections when the server is already serving and queueing as many sessions as it
+ * admits.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+enum RejectionPolicy {
+
+    /**
+     * Answers the client with {@link BinaryOperationProtocol.ResponseErrorType#SERVER_BUSY} and closes the
+     * connection.
+     */
+    REJECT("reject"),
+    /**
+     * Stops accepting until a session ends, so the new connections wait in the server socket's backlog.
+     */
+    BACKLOG("backlog");
+
+    private final String policyName;
+
+    RejectionPolicy(String policyName) {
+        this.policyName = policyName;
+    }
+
+    /**
+     * Gets the policy name used in the command line.
+     *
+     * @return Policy name.
+     */
+    String getPolicyName() {
+        return policyName;
+    }
+
+    /**
+     * Returns the rejection policy of the specified name. The name must match exactly a name used to declare an enum
+     * constant in this type.
+     *
+     * @param policyName The policy name.
+     * @return The rejection policy with the specified name.
+     * @throws IllegalArgumentException If the name isn't used by any supported policy.
+     */
+    static RejectionPolicy valueOfPolicyName(String policyName) {
+        for (RejectionPolicy policy : values()) {
+            if (policy.getPolicyName().equals(policyName)) {
+                return policy;
+            }
+        }
+
+        throw new IllegalArgumentException(MessageFormat.format("No policy name in {0}: {1}",
+                RejectionPolicy.class.getCanonicalName(), policyName));
+    }
+}
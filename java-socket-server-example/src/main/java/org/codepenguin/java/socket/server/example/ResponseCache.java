@@ -0,0 +1,154 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import org.codepenguin.java.socket.server.example.BinaryOperationProtocol.Response;
+
+/**
+ * Bounded cache of the responses by input line, shared by all the sessions.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class ResponseCache extends ClockCache<ResponseCache.Entry> {
+
+    /**
+     * Constructor.
+     *
+     * @param capacity Maximum number of entries.
+     * @throws IllegalArgumentException If the capacity isn't positive.
+     */
+    ResponseCache(final int capacity) {
+        super(capacity);
+    }
+
+    /**
+     * Caches the response of an input, evicting an entry if the cache is full. Has no effect if the input is cached.
+     *
+     * @param input    The input.
+     * @param response The response.
+     * @param operator The operator of the input; {@literal null} if the response is an error.
+     */
+    void put(final String input, final Response response, final ArithmeticOperator operator) {
+        put(input, response, operator, Double.NaN, Double.NaN, Double.NaN, false);
+    }
+
+    /**
+     * Caches the response of an input with its operands and result, evicting an entry if the cache is full. Has no
+     * effect if the input is cached.
+     *
+     * @param input         The input.
+     * @param response      The response.
+     * @param operator      The operator of the input; {@literal null} if the response is an error.
+     * @param firstOperand  First operand the result was computed with.
+     * @param secondOperand Second operand the result was computed with.
+     * @param result        The result.
+     * @param exact         {@literal true} if the result was computed exactly, so the response's message is the exact
+     *                      operation.
+     */
+    void put(final String input, final Response response, final ArithmeticOperator operator,
+             final double firstOperand, final double secondOperand, final double result, final boolean exact) {
+        put(input, new Entry(response, operator, firstOperand, secondOperand, result, exact));
+    }
+
+    /**
+     * Cached response.
+     */
+    static final class Entry {
+
+        private final Response response;
+        private final ArithmeticOperator operator;
+        private final double firstOperand;
+        private final double secondOperand;
+        private final double result;
+        private final boolean exact;
+
+        private Entry(final Response response, final ArithmeticOperator operator, final double firstOperand,
+                      final double secondOperand, final double result, final boolean exact) {
+            this.response = response;
+            this.operator = operator;
+            this.firstOperand = firstOperand;
+            this.secondOperand = secondOperand;
+            this.result = result;
+            this.exact = exact;
+        }
+
+        /**
+         * Gets the response.
+         *
+         * @return The response.
+         */
+        Response getResponse() {
+            return response;
+        }
+
+        /**
+         * Gets the operator of the input.
+         *
+         * @return The operator; {@literal null} if the response is an error.
+         */
+        ArithmeticOperator getOperator() {
+            return operator;
+        }
+
+        /**
+         * Gets the first operand the result was computed with.
+         *
+         * @return The first operand; {@link Double#NaN} if the response is an error.
+         */
+        double getFirstOperand() {
+            return firstOperand;
+        }
+
+        /**
+         * Gets the second operand the result was computed with.
+         *
+         * @return The second operand; {@link Double#NaN} if the response is an error.
+         */
+        double getSecondOperand() {
+            return secondOperand;
+        }
+
+        /**
+         * Gets the result.
+         *
+         * @return The result; {@link Double#NaN} if the response is an error.
+         */
+        double getResult() {
+            return result;
+        }
+
+        /**
+         * Indicates if the result was computed exactly.
+         *
+         * @return {@literal true} if the response's message is the exact operation; otherwise, {@literal false}.
+         */
+        boolean isExact() {
+            return exact;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Bounded ring buffer of preallocated slots with many producers and a single consumer. A producer claims a slot with a
+ * CAS, fills it and publishes it, so producing takes no lock and allocates nothing; the consumer drains the published
+ * slots in order and frees them for the next lap.
+ * <p>
+ * Every slot has a sequence: a producer may fill it when the sequence equals its claimed position and publishes it
+ * setting position + 1; the consumer reads it at that value and frees it setting position + capacity.
+ *
+ * @param <S> Type of the slots.
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class RingBuffer<S> {
+
+    /**
+     * Position returned by {@link #claim()} when the buffer is full.
+     */
+    static final long FULL = -1;
+
+    private final S[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+
+    // Only read and written by the consumer.
+    private long head;
+
+    /**
+     * Constructor.
+     *
+     * @param capacity Minimum number of slots, rounded up to a power of two, at least two: with a single slot its
+     *                 published sequence would read as free for the next lap.
+     * @param factory  Factory of the slots.
+     * @throws IllegalArgumentException If the capacity isn't positive.
+     */
+    @SuppressWarnings("unchecked")
+    RingBuffer(final int capacity, final Supplier<S> factory) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be positive");
+        }
+
+        final int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        slots = (S[]) new Object[size];
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            slots[i] = factory.get();
+            sequences.set(i, i);
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * Gets the number of slots.
+     *
+     * @return Capacity, a power of two.
+     */
+    int getCapacity() {
+        return slots.length;
+    }
+
+    /**
+     * Claims the next slot without waiting. The producer must fill it, see {@link #get(long)}, and then publish it.
+     *
+     * @return Position of the claimed slot; {@link #FULL} if every slot is waiting to be drained.
+     */
+    long claim() {
+        long position = tail.get();
+        while (true) {
+            final long difference = sequences.getAcquire((int) position & mask) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    return position;
+                }
+            } else if (difference < 0) {
+                return FULL;
+            }
+            position = tail.get();
+        }
+    }
+
+    /**
+     * Gets the slot of a position claimed by the caller.
+     *
+     * @param position Claimed position.
+     * @return The slot.
+     */
+    S get(final long position) {
+        return slots[(int) position & mask];
+    }
+
+    /**
+     * Publishes a claimed slot to the consumer.
+     *
+     * @param position Claimed position.
+     */
+    void publish(final long position) {
+        sequences.setRelease((int) position & mask, position + 1);
+    }
+
+    /**
+     * Passes the published slots, in order, to the consumer and frees them. Only a single thread may drain.
+     *
+     * @param consumer Consumer of the slots; a slot is freed once it returns, or passed again by the next drain if it
+     *                 throws.
+     * @return The number of slots drained.
+     */
+    int drain(final Consumer<S> consumer) {
+        int drained = 0;
+        while (true) {
+            final int index = (int) head & mask;
+            if (sequences.getAcquire(index) != head + 1) {
+                return drained;
+            }
+
+            consumer.accept(slots[index]);
+            sequences.setRelease(index, head + slots.length);
+            head++;
+            drained++;
+        }
+    }
+}
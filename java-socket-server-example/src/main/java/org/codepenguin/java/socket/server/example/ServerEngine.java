@@ -0,0 +1,82 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import java.text.MessageFormat;
+
+/**
+ * Server engine used to serve the client sessions.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+enum ServerEngine {
+
+    /**
+     * Blocking engine, one {@link SocketServerThread} per client session.
+     */
+    THREAD("thread"),
+    /**
+     * Non-blocking engine, every client session is served by the {@link java.nio.channels.Selector} of one of the
+     * event loops.
+     */
+    NIO("nio");
+
+    private final String engineName;
+
+    ServerEngine(String engineName) {
+        this.engineName = engineName;
+    }
+
+    /**
+     * Gets the engine name used in the command line.
+     *
+     * @return Engine name.
+     */
+    String getEngineName() {
+        return engineName;
+    }
+
+    /**
+     * Returns the server engine of the specified name. The name must match exactly a name used to declare an enum
+     * constant in this type.
+     *
+     * @param engineName The engine name.
+     * @return The server engine with the specified name.
+     * @throws IllegalArgumentException If the name isn't used by any supported engine.
+     */
+    static ServerEngine valueOfEngineName(String engineName) {
+        for (ServerEngine engine : values()) {
+            if (engine.getEngineName().equals(engineName)) {
+                return engine;
+            }
+        }
+
+        throw new IllegalArgumentException(MessageFormat.format("No engine name in {0}: {1}",
+                ServerEngine.class.getCanonicalName(), engineName));
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import org.codepenguin.java.socket.server.example.BinaryOperationProtocol.ResponseErrorType;
+import org.codepenguin.java.socket.server.example.SessionTimeouts.TimeoutType;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Metrics of the server, shared by all the engines. The hot path only adds to {@link LongAdder}s, so the sessions
+ * never contend on a single counter. The metrics are written in the Prometheus text format.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class ServerMetrics {
+
+    private static final String PREFIX = "binary_operation_";
+    private static final String COUNTER = "counter";
+    private static final String GAUGE = "gauge";
+    private static final String HISTOGRAM = "histogram";
+    private static final String LINE_SEPARATOR = "\n";
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private static final LongAdder ACTIVE_SESSIONS = new LongAdder();
+    private static final LongAdder TOTAL_SESSIONS = new LongAdder();
+    private static final LongAdder RECEIVED_BYTES = new LongAdder();
+    private static final LongAdder SENT_BYTES = new LongAdder();
+    private static final LongAdder[] REQUESTS = adders(ArithmeticOperator.values().length);
+    private static final LongAdder[] ERRORS = adders(ResponseErrorType.values().length);
+    private static final LongAdder EXPRESSIONS = new LongAdder();
+    private static final LongAdder[] TIMEOUTS = adders(TimeoutType.values().length);
+    private static final LatencyHistogram LATENCY = new LatencyHistogram();
+    private static final List<Gauge> GAUGES = new CopyOnWriteArrayList<>();
+
+    private ServerMetrics() {
+    }
+
+    /**
+     * Records the start of a client session.
+     */
+    static void sessionStarted() {
+        ACTIVE_SESSIONS.increment();
+        TOTAL_SESSIONS.increment();
+    }
+
+    /**
+     * Records the end of a client session.
+     */
+    static void sessionEnded() {
+        ACTIVE_SESSIONS.decrement();
+    }
+
+    /**
+     * Records bytes received from the clients.
+     *
+     * @param bytes Number of bytes.
+     */
+    static void bytesReceived(final long bytes) {
+        RECEIVED_BYTES.add(bytes);
+    }
+
+    /**
+     * Records bytes sent to the clients.
+     *
+     * @param bytes Number of bytes.
+     */
+    static void bytesSent(final long bytes) {
+        SENT_BYTES.add(bytes);
+    }
+
+    /**
+     * Records a processed operation.
+     *
+     * @param operator Operator of the operation.
+     * @param nanos    Processing time in nanoseconds.
+     */
+    static void operationProcessed(final ArithmeticOperator operator, final long nanos) {
+        REQUESTS[operator.ordinal()].increment();
+        LATENCY.record(nanos);
+    }
+
+    /**
+     * Records an evaluated expression.
+     *
+     * @param nanos Processing time in nanoseconds.
+     */
+    static void expressionProcessed(final long nanos) {
+        EXPRESSIONS.increment();
+        LATENCY.record(nanos);
+    }
+
+    /**
+     * Records a request answered with an error.
+     *
+     * @param errorType Type of error.
+     * @param nanos     Processing time in nanoseconds.
+     */
+    static void errorProcessed(final ResponseErrorType errorType, final long nanos) {
+        ERRORS[errorType.ordinal()].increment();
+        LATENCY.record(nanos);
+    }
+
+    /**
+     * Records a session rejected with {@link ResponseErrorType#SERVER_BUSY}.
+     */
+    static void sessionRejected() {
+        ERRORS[ResponseErrorType.SERVER_BUSY.ordinal()].increment();
+    }
+
+    /**
+     * Records a session closed by a timeout.
+     *
+     * @param type Type of timeout.
+     */
+    static void sessionTimedOut(final TimeoutType type) {
+        TIMEOUTS[type.ordinal()].increment();
+    }
+
+    /**
+     * Registers a gauge read when the metrics are written, for the values other components already keep.
+     *
+     * @param name  Name without the common prefix.
+     * @param help  Description.
+     * @param value Supplier of the value.
+     */
+    static void registerGauge(final String name, final String help, final LongSupplier value) {
+        GAUGES.add(new Gauge(name, GAUGE, help, value));
+    }
+
+    /**
+     * Registers a counter read when the metrics are written, for the counts other components already keep.
+     *
+     * @param name  Name without the common prefix, ending with {@code _total}.
+     * @param help  Description.
+     * @param value Supplier of the value.
+     */
+    static void registerCounter(final String name, final String help, final LongSupplier value) {
+        GAUGES.add(new Gauge(name, COUNTER, help, value));
+    }
+
+    /**
+     * Unregisters the gauges and counters of a name.
+     *
+     * @param name Name without the common prefix.
+     */
+    static void unregister(final String name) {
+        GAUGES.removeIf(gauge -> gauge.name.equals(name));
+    }
+
+    /**
+     * Writes the metrics in the Prometheus text format.
+     *
+     * @param builder Builder to append to.
+     * @return The builder.
+     */
+    static StringBuilder appendPrometheus(final StringBuilder builder) {
+        appendHeader(builder, "sessions_active", GAUGE, "Client sessions being served.");
+        appendSample(builder, "sessions_active", null, null, ACTIVE_SESSIONS.sum());
+        appendHeader(builder, "sessions_total", COUNTER, "Client sessions started.");
+        appendSample(builder, "sessions_total", null, null, TOTAL_SESSIONS.sum());
+        appendHeader(builder, "received_bytes_total", COUNTER, "Bytes received from the clients.");
+        appendSample(builder, "received_bytes_total", null, null, RECEIVED_BYTES.sum());
+        appendHeader(builder, "sent_bytes_total", COUNTER, "Bytes sent to the clients.");
+        appendSample(builder, "sent_bytes_total", null, null, SENT_BYTES.sum());
+
+        appendHeader(builder, "operations_total", COUNTER, "Operations processed by operator.");
+        for (ArithmeticOperator operator : ArithmeticOperator.values()) {
+            appendSample(builder, "operations_total", "operator", operator.name(),
+                    REQUESTS[operator.ordinal()].sum());
+        }
+
+        appendHeader(builder, "expressions_total", COUNTER, "Expressions evaluated.");
+        appendSample(builder, "expressions_total", null, null, EXPRESSIONS.sum());
+
+        appendHeader(builder, "errors_total", COUNTER, "Error responses by type.");
+        for (ResponseErrorType errorType : ResponseErrorType.values()) {
+            appendSample(builder, "errors_total", "type", errorType.name(), ERRORS[errorType.ordinal()].sum());
+        }
+
+        appendHeader(builder, "sessions_timed_out_total", COUNTER, "Sessions closed by a timeout by type.");
+        for (TimeoutType type : TimeoutType.values()) {
+            appendSample(builder, "sessions_timed_out_total", "type", type.name(), TIMEOUTS[type.ordinal()].sum());
+        }
+
+        for (Gauge gauge : GAUGES) {
+            appendHeader(builder, gauge.name, gauge.type, gauge.help);
+            appendSample(builder, gauge.name, null, null, gauge.value.getAsLong());
+        }
+
+        appendHeader(builder, "request_duration_seconds", HISTOGRAM, "Request processing time.");
+        long cumulative = 0;
+        for (int bucket = 0; bucket < LatencyHistogram.BUCKETS; bucket++) {
+            cumulative += LATENCY.getCount(bucket);
+            appendSample(builder, "request_duration_seconds_bucket", "le",
+                    String.valueOf(LatencyHistogram.upperBoundSeconds(bucket)), cumulative);
+        }
+        cumulative += LATENCY.getCount(LatencyHistogram.BUCKETS);
+        appendSample(builder, "request_duration_seconds_bucket", "le", "+Inf", cumulative);
+        builder.append(PREFIX).append("request_duration_seconds_sum ")
+                .append(LATENCY.getSumNanos() / NANOS_PER_SECOND).append(LINE_SEPARATOR);
+        appendSample(builder, "request_duration_seconds_count", null, null, cumulative);
+        return builder;
+    }
+
+    private static void appendHeader(final StringBuilder builder, final String name, final String type,
+                                     final String help) {
+        builder.append("# HELP ").append(PREFIX).append(name).append(' ').append(help).append(LINE_SEPARATOR)
+                .append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append(LINE_SEPARATOR);
+    }
+
+    private static void appendSample(final StringBuilder builder, final String name, final String label,
+                                     final String labelValue, final long value) {
+        builder.append(PREFIX).append(name);
+        if (label != null) {
+            builder.append('{').append(label).append("=\"").append(labelValue).append("\"}");
+        }
+        builder.append(' ').append(value).append(LINE_SEPARATOR);
+    }
+
+    private static LongAdder[] adders(final int length) {
+        final LongAdder[] adders = new LongAdder[length];
+        for (int i = 0; i < length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    /**
+     * Gauge or counter registered by another component.
+     */
+    private static final class Gauge {
+
+        private final String name;
+        private final String type;
+        private final String help;
+        private final LongSupplier value;
+
+        private Gauge(final String name, final String type, final String help, final LongSupplier value) {
+            this.name = name;
+            this.type = type;
+            this.help = help;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocket;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TLS of the client sessions, shared by all the server engines. It's disabled until
+ * {@link #configure(Path, char[], int, int)} is called.
+ * <p>
+ * All the sessions use the same {@link SSLContext}, so its server session cache is shared too: a client reconnecting
+ * within the session timeout resumes its TLS session with an abbreviated handshake instead of a full one. The
+ * {@link NioSocketServer} drives an {@link SSLEngine} of the context over its non-blocking channels through
+ * {@link TlsTransport}; the {@link SocketServerThread} wraps its socket in an {@link SSLSocket} of the same context.
+ * Either way the welcome message is sent once the handshake is completed.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class ServerTls {
+
+    /**
+     * Default maximum TLS sessions cached.
+     */
+    static final int DEFAULT_SESSION_CACHE_SIZE = 20480;
+
+    /**
+     * Default seconds a cached TLS session can be resumed.
+     */
+    static final int DEFAULT_SESSION_TIMEOUT = (int) TimeUnit.DAYS.toSeconds(1);
+
+    private static final String PROTOCOL = "TLS";
+
+    private static volatile SSLContext context;
+
+    private ServerTls() {
+    }
+
+    /**
+     * Configures the TLS of the sessions opened from now on.
+     *
+     * @param keyStore         Key store with the server's private key and certificate chain, {@literal null} to
+     *                         disable the TLS.
+     * @param password         Password of the key store and of its key.
+     * @param sessionCacheSize Maximum TLS sessions cached, {@literal 0} for no limit.
+     * @param sessionTimeout   Seconds a cached TLS session can be resumed, {@literal 0} for no limit.
+     * @throws IOException              If the key store can't be read.
+     * @throws GeneralSecurityException If the key store or its key aren't valid.
+     * @throws IllegalArgumentException If the cache size or the timeout are negative.
+     */
+    static synchronized void configure(final Path keyStore, final char[] password, final int sessionCacheSize,
+                                       final int sessionTimeout) throws IOException, GeneralSecurityException {
+        if (keyStore == null) {
+            context = null;
+            return;
+        }
+
+        final KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagers.init(KeyStore.getInstance(keyStore.toFile(), password), password);
+        final SSLContext configured = SSLContext.getInstance(PROTOCOL);
+        configured.init(keyManagers.getKeyManagers(), null, null);
+        final SSLSessionContext sessions = configured.getServerSessionContext();
+        sessions.setSessionCacheSize(sessionCacheSize);
+        sessions.setSessionTimeout(sessionTimeout);
+        context = configured;
+    }
+
+    /**
+     * Indicates if the TLS is enabled.
+     *
+     * @return {@literal true} if it's enabled; otherwise, {@literal false}.
+     */
+    static boolean isEnabled() {
+        return context != null;
+    }
+
+    /**
+     * Creates the engine of a new non-blocking session.
+     *
+     * @return The engine in server mode; {@literal null} if the TLS is disabled.
+     */
+    static SSLEngine createEngine() {
+        final SSLContext current = context;
+        if (current == null) {
+            return null;
+        }
+
+        final SSLEngine engine = current.createSSLEngine();
+        engine.setUseClientMode(false);
+        return engine;
+    }
+
+    /**
+     * Wraps the socket of a new blocking session and completes the handshake.
+     *
+     * @param socket The accepted socket. Closing it closes the wrapping socket too.
+     * @return The socket to serve the session; the same socket if the TLS is disabled.
+     * @throws IOException If the handshake fails.
+     */
+    static Socket handshake(final Socket socket) throws IOException {
+        final SSLContext current = context;
+        if (current == null) {
+            return socket;
+        }
+
+        // The handshake's last records and the welcome message are separate writes: without this the message would
+        // wait for the client's delayed acknowledgement
+        socket.setTcpNoDelay(true);
+        final SSLSocket secured = (SSLSocket) current.getSocketFactory().createSocket(socket, null, true);
+        secured.setUseClientMode(false);
+        secured.startHandshake();
+        return secured;
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import java.time.Instant;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Logger for the client sessions' events, shared by all the server engines so they log the same lines.
+ * <p>
+ * By default the events are logged in the caller's thread. Once {@link #configure(int, LogFullPolicy, int)} is called
+ * with a buffer, they are handed to an {@link AsyncLogWriter} instead, so the sessions never wait on the log handlers'
+ * locks. The INPUT and OUTPUT events can be sampled: the decision is taken from the identity of the input line, so
+ * both lines of a request are kept or skipped together.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class SessionLogger {
+
+    private static final Logger LOGGER = Logger.getLogger(SessionLogger.class.getName());
+
+    private static final String LOG_DELIMITER = "\t";
+    private static final int GOLDEN_GAMMA = 0x9E3779B9;
+
+    private static volatile AsyncLogWriter writer;
+    private static volatile int sampleRate = 1;
+
+    private SessionLogger() {
+    }
+
+    /**
+     * Configures the logging of the session events. Closes the previous asynchronous writer, if any.
+     *
+     * @param bufferSize Events buffered for the asynchronous writer, {@literal 0} to log in the caller's thread.
+     * @param policy     Policy when the buffer is full.
+     * @param sampleRate Logs one of every {@code sampleRate} requests' INPUT and OUTPUT events, {@literal 1} for all.
+     */
+    static synchronized void configure(final int bufferSize, final LogFullPolicy policy, final int sampleRate) {
+        if (bufferSize < 0 || sampleRate < 1) {
+            throw new IllegalArgumentException("Log buffer size must not be negative and sample rate must be positive");
+        }
+
+        close();
+        SessionLogger.sampleRate = sampleRate;
+        if (bufferSize > 0) {
+            writer = new AsyncLogWriter(LOGGER, bufferSize, policy);
+        }
+    }
+
+    /**
+     * Writes the pending events and goes back to logging in the caller's thread.
+     */
+    static synchronized void close() {
+        final AsyncLogWriter current = writer;
+        writer = null;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    /**
+     * Gets the number of events dropped because the asynchronous writer's buffer was full.
+     *
+     * @return Dropped events.
+     */
+    static long getDroppedEvents() {
+        final AsyncLogWriter current = writer;
+        return current == null ? 0 : current.getDroppedEvents();
+    }
+
+    /**
+     * Logs the start of a client session.
+     *
+     * @param name Name of the session.
+     */
+    static void start(final String name) {
+        log(EventType.START, name, null, null, null);
+    }
+
+    /**
+     * Logs a client session rejected because the server is busy.
+     *
+     * @param name Name of the session.
+     */
+    static void reject(final String name) {
+        log(EventType.REJECT, name, null, null, null);
+    }
+
+    /**
+     * Logs an input line received from the client.
+     *
+     * @param name  Name of the session.
+     * @param input Input line.
+     */
+    static void input(final String name, final String input) {
+        if (isSampled(input)) {
+            log(EventType.INPUT, name, input, null, null);
+        }
+    }
+
+    /**
+     * Logs the response sent to the client for an input line. The response is logged as its text, since the protocol
+     * reuses its OK responses.
+     *
+     * @param name     Name of the session.
+     * @param input    Input line.
+     * @param response Response.
+     */
+    static void output(final String name, final String input, final Object response) {
+        if (isSampled(input) && LOGGER.isLoggable(EventType.OUTPUT.level)) {
+            log(EventType.OUTPUT, name, input, response.toString(), null);
+        }
+    }
+
+    /**
+     * Logs an error of a client session.
+     *
+     * @param name      Name of the session.
+     * @param throwable Error.
+     */
+    static void error(final String name, final Throwable throwable) {
+        log(EventType.ERROR, name, null, null, throwable);
+    }
+
+    /**
+     * Logs a client session closed by a timeout.
+     *
+     * @param name Name of the session.
+     * @param type Type of timeout.
+     */
+    static void timeout(final String name, final SessionTimeouts.TimeoutType type) {
+        log(EventType.TIMEOUT, name, type.name(), null, null);
+    }
+
+    /**
+     * Logs the end of a client session.
+     *
+     * @param name Name of the session.
+     */
+    static void end(final String name) {
+        log(EventType.END, name, null, null, null);
+    }
+
+    private static boolean isSampled(final String input) {
+        final int rate = sampleRate;
+        return rate == 1 || Integer.remainderUnsigned(System.identityHashCode(input) * GOLDEN_GAMMA, rate) == 0;
+    }
+
+    private static void log(final EventType type, final String name, final String input, final Object response,
+                            final Throwable thrown) {
+        if (!LOGGER.isLoggable(type.level)) {
+            return;
+        }
+
+        final AsyncLogWriter current = writer;
+        if (current != null) {
+            current.publish(type, name, input, response, thrown);
+        } else {
+            LOGGER.log(type.toRecord(name, input, response, thrown, System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Type of session event.
+     *
+     * @author Jorge Alfonso Garcia Espinosa
+     * @version 1.0-SNAPSHOT
+     * @since 1.8
+     */
+    enum EventType {
+        /**
+         * Start of a session.
+         */
+        START(Level.INFO, "START_CLIENT_SESSION", "{1}{0}{2}"),
+        /**
+         * Session rejected.
+         */
+        REJECT(Level.WARNING, "REJECT_CLIENT_SESSION", "{1}{0}{2}"),
+        /**
+         * Input line.
+         */
+        INPUT(Level.INFO, "INPUT", "{1}{0}{2}{0}{3}"),
+        /**
+         * Response of an input line.
+         */
+        OUTPUT(Level.INFO, "OUTPUT", "{1}{0}{2}{0}{3}{0}{4}"),
+        /**
+         * Error of a session.
+         */
+        ERROR(Level.SEVERE, "ERROR", null),
+        /**
+         * Session closed by a timeout.
+         */
+        TIMEOUT(Level.WARNING, "TIMEOUT_CLIENT_SESSION", "{1}{0}{2}{0}{3}"),
+        /**
+         * End of a session.
+         */
+        END(Level.INFO, "END_CLIENT_SESSION", "{1}{0}{2}");
+
+        private final Level level;
+        private final String tag;
+        private final String pattern;
+
+        EventType(Level level, String tag, String pattern) {
+            this.level = level;
+            this.tag = tag;
+            this.pattern = pattern;
+        }
+
+        /**
+         * Creates the log record of an event.
+         *
+         * @param name     Name of the session.
+         * @param input    Input line, if any.
+         * @param response Response, if any.
+         * @param thrown   Error, if any.
+         * @param millis   Time of the event.
+         * @return The log record.
+         */
+        LogRecord toRecord(final String name, final String input, final Object response, final Throwable thrown,
+                           final long millis) {
+            final LogRecord record = new LogRecord(level, pattern == null ? name : pattern);
+            if (pattern != null) {
+                record.setParameters(new Object[]{LOG_DELIMITER, tag, name, input, response});
+            }
+            record.setThrown(thrown);
+            record.setInstant(Instant.ofEpochMilli(millis));
+            record.setLoggerName(LOGGER.getName());
+            record.setSourceClassName(SessionLogger.class.getName());
+            record.setSourceMethodName(name());
+            return record;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.codepenguin.java.socket.server.example.BinaryOperationProtocol.ResponseErrorType.SERVER_BUSY;
+
+/**
+ * Executor-backed runner of the blocking client sessions. When it's bounded, at most {@code maxSessions} sessions
+ * run at the same time, at most {@code pendingSessions} more wait for a free worker and the rest are handled by the
+ * {@link RejectionPolicy}.
+ * <p>
+ * With {@link SessionThreads#PLATFORM} the workers are a pool of platform threads. With
+ * {@link SessionThreads#VIRTUAL} every session gets its own virtual thread, the queued ones park until a session ends
+ * instead of holding a pooled worker. A {@link SocketServerThread} session only blocks in the JDK's socket streams,
+ * readers and writers, which park virtual threads without pinning their carrier.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class SessionRunner implements Closeable {
+
+    /**
+     * Value of {@code maxSessions} for a runner without limit, one worker per session.
+     */
+    static final int UNBOUNDED = 0;
+
+    private static final long KEEP_ALIVE_SECONDS = 60L;
+    private static final String VIRTUAL_THREAD_PREFIX = "session-";
+
+    private final int maxSessions;
+    private final RejectionPolicy rejectionPolicy;
+    private final Semaphore admissions;
+    private final Semaphore workers;
+    private final ExecutorService executor;
+    private final AtomicInteger admittedSessions = new AtomicInteger();
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final AtomicLong queuedSessions = new AtomicLong();
+    private final AtomicLong rejectedSessions = new AtomicLong();
+
+    /**
+     * Constructor.
+     *
+     * @param maxSessions     Maximum number of concurrent sessions, {@link #UNBOUNDED} for no limit.
+     * @param pendingSessions Maximum number of sessions waiting for a worker. Ignored if unbounded.
+     * @param rejectionPolicy Policy for the sessions over the limits. Ignored if unbounded.
+     * @param threads         Kind of threads that run the sessions.
+     */
+    SessionRunner(int maxSessions, int pendingSessions, RejectionPolicy rejectionPolicy, SessionThreads threads) {
+        if (maxSessions < UNBOUNDED || pendingSessions < 0) {
+            throw new IllegalArgumentException("Sessions limits must not be negative");
+        }
+
+        this.maxSessions = maxSessions;
+        this.rejectionPolicy = rejectionPolicy;
+
+        admissions = maxSessions == UNBOUNDED ? null : new Semaphore(maxSessions + pendingSessions);
+
+        if (threads == SessionThreads.VIRTUAL) {
+            workers = maxSessions == UNBOUNDED ? null : new Semaphore(maxSessions);
+            executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(VIRTUAL_THREAD_PREFIX, 0)
+                    .factory());
+        } else if (maxSessions == UNBOUNDED) {
+            workers = null;
+            executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                    new SynchronousQueue<>());
+        } else {
+            workers = null;
+            final ThreadPoolExecutor pool = new ThreadPoolExecutor(maxSessions, maxSessions, KEEP_ALIVE_SECONDS,
+                    TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+            pool.allowCoreThreadTimeOut(true);
+            executor = pool;
+        }
+    }
+
+    /**
+     * Runs the session of an accepted client, queueing or rejecting it if the runner is full.
+     *
+     * @param socket Socket of the client's session.
+     * @throws InterruptedException If interrupted while waiting for a free place with {@link RejectionPolicy#BACKLOG}.
+     */
+    void submit(Socket socket) throws InterruptedException {
+        if (admissions != null) {
+            if (rejectionPolicy == RejectionPolicy.BACKLOG) {
+                admissions.acquire();
+            } else if (!admissions.tryAcquire()) {
+                reject(socket);
+                return;
+            }
+
+            if (admittedSessions.incrementAndGet() > maxSessions) {
+                queuedSessions.incrementAndGet();
+            }
+        }
+
+        final SocketServerThread session = new SocketServerThread(socket);
+        try {
+            executor.execute(() -> {
+                if (workers != null) {
+                    workers.acquireUninterruptibly();
+                }
+                activeSessions.incrementAndGet();
+                try {
+                    session.run();
+                } finally {
+                    activeSessions.decrementAndGet();
+                    if (workers != null) {
+                        workers.release();
+                    }
+                    release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // The runner was closed after the session was accepted.
+            release();
+            closeSocket(socket);
+        }
+    }
+
+    /**
+     * Gets the number of sessions running now.
+     *
+     * @return Active sessions.
+     */
+    int getActiveSessions() {
+        return activeSessions.get();
+    }
+
+    /**
+     * Gets the number of sessions that have waited for a free worker since the runner was created.
+     *
+     * @return Queued sessions.
+     */
+    long getQueuedSessions() {
+        return queuedSessions.get();
+    }
+
+    /**
+     * Gets the number of sessions rejected since the runner was created.
+     *
+     * @return Rejected sessions.
+     */
+    long getRejectedSessions() {
+        return rejectedSessions.get();
+    }
+
+    /**
+     * Stops accepting sessions. The running and queued sessions are completed.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * Releases the admission of a session, if the runner is bounded.
+     */
+    private void release() {
+        if (admissions != null) {
+            admittedSessions.decrementAndGet();
+            admissions.release();
+        }
+    }
+
+    private static void closeSocket(final Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            SessionLogger.error(socket.toString(), e);
+        }
+    }
+
+    /**
+     * Rejects a session with an error response. With TLS enabled it's just closed instead: the response would be sent
+     * before the handshake, and the acceptor thread never waits for one.
+     */
+    private void reject(final Socket socket) {
+        final String name = socket.toString();
+        rejectedSessions.incrementAndGet();
+        ServerMetrics.sessionRejected();
+        SessionLogger.reject(name);
+        try (Socket rejected = socket; OutputStream out = rejected.getOutputStream()) {
+            if (ServerTls.isEnabled()) {
+                return;
+            }
+
+            final String response = BinaryOperationProtocol.errorResponse(SERVER_BUSY) + System.lineSeparator();
+            out.write(response.getBytes(Charset.defaultCharset()));
+        } catch (IOException e) {
+            SessionLogger.error(name, e);
+        }
+    }
+}
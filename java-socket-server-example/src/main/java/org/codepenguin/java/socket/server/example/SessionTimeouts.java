@@ -0,0 +1,253 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timeouts of a client session: idle read, write stall and maximum duration, tracked by a shared
+ * {@link TimingWheel}. A session arms a single timeout at a time, the earliest of its deadlines, and only stamps the
+ * time of its reads and writes on the request path; when the timeout expires it checks the stamps and either closes
+ * the session or arms the next deadline. A write stall is detected at most twice the write timeout after it starts.
+ * <p>
+ * The timeouts are configured for all the sessions, like the session events' logging.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class SessionTimeouts {
+
+    private static final long MIN_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long MAX_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final int TICKS_PER_TIMEOUT = 10;
+    private static final int WHEEL_SIZE = 512;
+    private static final SessionTimeouts DISABLED = new SessionTimeouts(null, null, null, 0, 0, 0);
+
+    private static volatile TimingWheel wheel;
+    private static volatile long idleNanos;
+    private static volatile long writeNanos;
+    private static volatile long durationNanos;
+
+    private final TimingWheel sessionWheel;
+    private final String name;
+    private final Runnable closer;
+    private final long sessionIdleNanos;
+    private final long sessionWriteNanos;
+    private final long sessionDurationNanos;
+    private final long openedNanos = System.nanoTime();
+
+    private volatile long lastReadNanos = openedNanos;
+    private volatile long writeStartNanos;
+    private volatile boolean writing;
+    private volatile boolean closed;
+    private volatile boolean expired;
+    private volatile TimingWheel.Timeout timeout;
+
+    private SessionTimeouts(final TimingWheel sessionWheel, final String name, final Runnable closer,
+                            final long sessionIdleNanos, final long sessionWriteNanos,
+                            final long sessionDurationNanos) {
+        this.sessionWheel = sessionWheel;
+        this.name = name;
+        this.closer = closer;
+        this.sessionIdleNanos = sessionIdleNanos;
+        this.sessionWriteNanos = sessionWriteNanos;
+        this.sessionDurationNanos = sessionDurationNanos;
+    }
+
+    /**
+     * Configures the timeouts of the sessions opened from now on. Closes the previous wheel, if any: the timeouts of
+     * the sessions already open never expire.
+     *
+     * @param idleMillis     Maximum time waiting for a request, {@literal 0} for no limit.
+     * @param writeMillis    Maximum time writing a response, {@literal 0} for no limit.
+     * @param durationMillis Maximum time of a session, {@literal 0} for no limit.
+     */
+    static synchronized void configure(final long idleMillis, final long writeMillis, final long durationMillis) {
+        if (idleMillis < 0 || writeMillis < 0 || durationMillis < 0) {
+            throw new IllegalArgumentException("Session timeouts must not be negative");
+        }
+
+        close();
+        idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+        writeNanos = TimeUnit.MILLISECONDS.toNanos(writeMillis);
+        durationNanos = TimeUnit.MILLISECONDS.toNanos(durationMillis);
+
+        long shortest = Long.MAX_VALUE;
+        for (long nanos : new long[]{idleNanos, writeNanos, durationNanos}) {
+            if (nanos > 0) {
+                shortest = Math.min(shortest, nanos);
+            }
+        }
+        if (shortest < Long.MAX_VALUE) {
+            final long tickNanos = Math.max(MIN_TICK_NANOS, Math.min(MAX_TICK_NANOS, shortest / TICKS_PER_TIMEOUT));
+            wheel = new TimingWheel(tickNanos, WHEEL_SIZE);
+        }
+    }
+
+    /**
+     * Stops tracking the timeouts.
+     */
+    static synchronized void close() {
+        final TimingWheel current = wheel;
+        wheel = null;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    /**
+     * Starts tracking the timeouts of a session.
+     *
+     * @param name   Name of the session.
+     * @param closer Closes the session when a timeout expires. It runs in the wheel's thread, so it must be short.
+     * @return The timeouts of the session; they do nothing if no timeout is configured.
+     */
+    static SessionTimeouts open(final String name, final Runnable closer) {
+        final TimingWheel current = wheel;
+        if (current == null) {
+            return DISABLED;
+        }
+
+        final SessionTimeouts timeouts = new SessionTimeouts(current, name, closer, idleNanos, writeNanos,
+                durationNanos);
+        timeouts.timeout = current.schedule(timeouts::check, timeouts.nextDelay(timeouts.openedNanos));
+        return timeouts;
+    }
+
+    /**
+     * Records a request read.
+     */
+    void read() {
+        if (sessionIdleNanos > 0) {
+            lastReadNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Records the start of a write, or its progress.
+     */
+    void writeStarted() {
+        if (sessionWheel != null) {
+            writeStartNanos = System.nanoTime();
+            writing = true;
+        }
+    }
+
+    /**
+     * Records the end of a write. The session is idle from now on.
+     */
+    void writeCompleted() {
+        if (sessionWheel != null) {
+            writing = false;
+            lastReadNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Indicates if a timeout closed the session.
+     *
+     * @return {@literal true} if the session timed out; otherwise, {@literal false}.
+     */
+    boolean isExpired() {
+        return expired;
+    }
+
+    /**
+     * Stops tracking the timeouts of the session, when it ends.
+     */
+    void cancel() {
+        if (sessionWheel != null && !closed) {
+            closed = true;
+            timeout.cancel();
+        }
+    }
+
+    private void check() {
+        if (closed) {
+            return;
+        }
+
+        final long now = System.nanoTime();
+        final TimeoutType type;
+        if (sessionDurationNanos > 0 && now - openedNanos >= sessionDurationNanos) {
+            type = TimeoutType.MAX_DURATION;
+        } else if (writing) {
+            type = sessionWriteNanos > 0 && now - writeStartNanos >= sessionWriteNanos
+                    ? TimeoutType.WRITE_STALL : null;
+        } else {
+            type = sessionIdleNanos > 0 && now - lastReadNanos >= sessionIdleNanos ? TimeoutType.IDLE : null;
+        }
+
+        if (type == null) {
+            timeout = sessionWheel.schedule(this::check, nextDelay(now));
+            return;
+        }
+
+        expired = true;
+        closed = true;
+        SessionLogger.timeout(name, type);
+        ServerMetrics.sessionTimedOut(type);
+        closer.run();
+    }
+
+    /**
+     * Gets the delay to the earliest deadline. The deadline of the write or idle timeout not running is a whole
+     * timeout away, because it may start at any time.
+     */
+    private long nextDelay(final long now) {
+        final boolean writingNow = writing;
+        long delay = Long.MAX_VALUE;
+        if (sessionDurationNanos > 0) {
+            delay = Math.min(delay, openedNanos + sessionDurationNanos - now);
+        }
+        if (sessionWriteNanos > 0) {
+            delay = Math.min(delay, writingNow ? writeStartNanos + sessionWriteNanos - now : sessionWriteNanos);
+        }
+        if (sessionIdleNanos > 0) {
+            delay = Math.min(delay, writingNow ? sessionIdleNanos : lastReadNanos + sessionIdleNanos - now);
+        }
+        return delay;
+    }
+
+    /**
+     * Type of session timeout.
+     */
+    enum TimeoutType {
+        /**
+         * No request received in time.
+         */
+        IDLE,
+        /**
+         * A response not written in time, the client isn't reading.
+         */
+        WRITE_STALL,
+        /**
+         * Session longer than the maximum duration.
+         */
+        MAX_DURATION
+    }
+}
@@ -25,69 +25,257 @@
 
 package org.codepenguin.java.socket.server.example;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.PrintWriter;
+import java.io.OutputStream;
 import java.net.Socket;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.LockSupport;
 
 /**
- * Thread for the socket's server client session.
+ * Socket's server client session, run by a worker of the {@link SessionRunner}. Requests can be pipelined: every line
+ * already received is processed before the responses are flushed, so a batch of requests is answered with a single
+ * write. The responses are encoded into a reusable buffer of the session, as
+ * {@link java.io.PrintWriter#println(Object)} would encode them. After the binary command the session continues with
+ * binary frames read straight from the socket. With TLS enabled the session is served through the
+ * {@link javax.net.ssl.SSLSocket} of {@link ServerTls#handshake(Socket)}.
  *
  * @author Jorge Alfonso Garcia Espinosa
  * @version 1.0-SNAPSHOT
  * @since 1.8
  */
-class SocketServerThread extends Thread {
-
-    private static final Logger LOGGER = Logger.getLogger(SocketServerThread.class.getName());
+class SocketServerThread implements Runnable {
 
     private static final String NAME_SEPARATOR = ":";
-    private static final String LOG_DELIMITER = "\t";
-    private static final String INPUT = "INPUT";
-    private static final String START_CLIENT_SESSION = "START_CLIENT_SESSION";
-    private static final String OUTPUT = "OUTPUT";
-    private static final String END_CLIENT_SESSION = "END_CLIENT_SESSION";
+    private static final int BUFFER_CAPACITY = 8192;
 
+    private final String name;
     private final Socket socket;
 
+    // Encoded responses not written yet. It grows for the large responses.
+    private ByteBuffer output = ByteBuffer.allocate(BUFFER_CAPACITY);
+    private SessionTimeouts timeouts;
+    private RateLimiter limiter;
+
     /**
      * Constructor.
      *
      * @param socket Socket of the client's session.
      */
     SocketServerThread(Socket socket) {
-        super(SocketServerThread.class.getName() + NAME_SEPARATOR + socket.toString());
+        name = SocketServerThread.class.getName() + NAME_SEPARATOR + socket.toString();
         this.socket = socket;
     }
 
+    /**
+     * Gets the name of the session in the logs and the traffic capture.
+     *
+     * @return The name.
+     */
+    String getName() {
+        return name;
+    }
+
     @Override
     public void run() {
-        try (PrintWriter writer = new PrintWriter(socket.getOutputStream(), true);
-             BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream()))) {
-            LOGGER.log(Level.INFO, "{1}{0}{2}", new Object[]{LOG_DELIMITER, START_CLIENT_SESSION, getName()});
+        ServerMetrics.sessionStarted();
+        timeouts = SessionTimeouts.open(name, this::closeSocket);
+        limiter = RateLimiter.open(socket.getInetAddress());
+        try (Socket session = ServerTls.handshake(socket);
+             InputStream in = new MeteredInputStream(session.getInputStream());
+             OutputStream out = new MeteredOutputStream(session.getOutputStream());
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in))) {
+            SessionLogger.start(name);
+            TrafficCapture.start(name);
 
             final BinaryOperationProtocol protocol = new BinaryOperationProtocol();
-            writer.println(protocol.getWelcomeMessage());
+            output = protocol.encodeWelcomeMessage(output);
+            flush(out);
 
             String input;
             while ((input = reader.readLine()) != null) {
-                LOGGER.log(Level.INFO, "{1}{0}{2}{0}{3}", new Object[]{LOG_DELIMITER, INPUT, getName(), input});
+                timeouts.read();
+                SessionLogger.input(name, input);
+                TrafficCapture.input(name, input);
                 if (input.equals(protocol.getExitCommand())) {
                     break;
                 }
 
-                BinaryOperationProtocol.Response response = protocol.process(input);
-                LOGGER.log(Level.INFO, "{1}{0}{2}{0}{3}{0}{4}", new Object[]{LOG_DELIMITER, OUTPUT, getName(),
-                        input, response});
-                writer.println(response);
+                if (input.equals(protocol.getBinaryCommand())) {
+                    SessionLogger.output(name, input, protocol.getBinaryAcknowledgement());
+                    TrafficCapture.output(name, protocol.getBinaryAcknowledgement());
+                    output = protocol.getBinaryAcknowledgement().encodeTo(output);
+                    flush(out);
+                    serveBinary(protocol, in, out, timeouts, limiter);
+                    break;
+                }
+
+                final long delay = limiter.acquire();
+                if (delay > 0) {
+                    flush(out);
+                    waitFor(delay);
+                }
+                BinaryOperationProtocol.Response response = delay < 0 ? protocol.rejectRateLimited(input)
+                        : protocol.process(input);
+                if (response != null) {
+                    SessionLogger.output(name, input, response);
+                    TrafficCapture.output(name, response);
+                    output = response.encodeTo(output);
+                }
+                if (!reader.ready() || output.position() >= BUFFER_CAPACITY) {
+                    flush(out);
+                }
             }
+            flush(out);
         } catch (IOException e) {
-            LOGGER.log(Level.SEVERE, getName(), e);
+            if (!timeouts.isExpired()) {
+                SessionLogger.error(name, e);
+            }
         } finally {
-            LOGGER.log(Level.INFO, "{1}{0}{2}", new Object[]{LOG_DELIMITER, END_CLIENT_SESSION, getName()});
+            timeouts.cancel();
+            SessionLogger.end(name);
+            TrafficCapture.end(name);
+            ServerMetrics.sessionEnded();
+        }
+    }
+
+    /**
+     * Writes the buffered responses with a single write.
+     */
+    private void flush(final OutputStream out) throws IOException {
+        if (output.position() > 0) {
+            timeouts.writeStarted();
+            out.write(output.array(), 0, output.position());
+            timeouts.writeCompleted();
+            output.clear();
+        }
+    }
+
+    /**
+     * Closes the socket from the timeouts' thread, so the blocked handshake, read or write fails.
+     */
+    private void closeSocket() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            SessionLogger.error(name, e);
+        }
+    }
+
+    private static void serveBinary(final BinaryOperationProtocol protocol, final InputStream socketIn,
+                                    final OutputStream socketOut, final SessionTimeouts timeouts,
+                                    final RateLimiter limiter) throws IOException {
+        final InputStream in = new BufferedInputStream(socketIn);
+        final OutputStream out = new BufferedOutputStream(socketOut);
+        final byte[] request = new byte[BinaryOperationProtocol.BINARY_REQUEST_LENGTH];
+        final ByteBuffer requestBuffer = ByteBuffer.wrap(request);
+        final ByteBuffer responseBuffer = ByteBuffer.allocate(BinaryOperationProtocol.BINARY_RESPONSE_LENGTH);
+
+        while (readFully(in, request)) {
+            timeouts.read();
+            requestBuffer.clear();
+            responseBuffer.clear();
+            final long delay = limiter.acquire();
+            if (delay > 0) {
+                flush(out, timeouts);
+                waitFor(delay);
+            }
+            if (delay < 0) {
+                protocol.rejectRateLimitedBinary(requestBuffer, responseBuffer);
+            } else {
+                protocol.processBinary(requestBuffer, responseBuffer);
+            }
+            out.write(responseBuffer.array());
+            if (in.available() == 0) {
+                flush(out, timeouts);
+            }
+        }
+        flush(out, timeouts);
+    }
+
+    private static void flush(final OutputStream out, final SessionTimeouts timeouts) throws IOException {
+        timeouts.writeStarted();
+        out.flush();
+        timeouts.writeCompleted();
+    }
+
+    /**
+     * Waits for a request delayed by the rate limits. The session doesn't read meanwhile, so the client's next requests
+     * wait in the socket's buffers.
+     */
+    private static void waitFor(final long delayNanos) {
+        final long deadline = System.nanoTime() + delayNanos;
+        long wait;
+        while ((wait = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+
+    private static boolean readFully(final InputStream in, final byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            final int read = in.read(bytes, offset, bytes.length - offset);
+            if (read < 0) {
+                return false;
+            }
+            offset += read;
+        }
+        return true;
+    }
+
+    /**
+     * Input stream that records the received bytes.
+     */
+    private static final class MeteredInputStream extends FilterInputStream {
+
+        private MeteredInputStream(final InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b >= 0) {
+                ServerMetrics.bytesReceived(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int read = super.read(b, off, len);
+            if (read > 0) {
+                ServerMetrics.bytesReceived(read);
+            }
+            return read;
+        }
+    }
+
+    /**
+     * Output stream that records the sent bytes.
+     */
+    private static final class MeteredOutputStream extends FilterOutputStream {
+
+        private MeteredOutputStream(final OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            out.write(b);
+            ServerMetrics.bytesSent(1);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            out.write(b, off, len);
+            ServerMetrics.bytesSent(len);
         }
     }
 }
@@ -0,0 +1,266 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import java.io.Closeable;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Hashed timing wheel. The timeouts are hashed by their deadline's tick into a circular array of buckets, and a single
+ * daemon thread advances a tick at a time expiring the bucket under the hand, so arming and cancelling a timeout are
+ * {@literal O(1)} no matter how many are armed. A timeout further than a lap waits its remaining rounds in the bucket.
+ * <p>
+ * The callers never touch the buckets: the armed and cancelled timeouts go through lock-free queues that the thread
+ * drains every tick. The tasks run in the wheel's thread, so they must be short. A timeout never expires before its
+ * delay, but it may expire up to a tick later.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class TimingWheel implements Closeable {
+
+    private static final Logger LOGGER = Logger.getLogger(TimingWheel.class.getName());
+
+    private static final String THREAD_NAME = "session-timer";
+
+    private final long tickNanos;
+    private final Bucket[] buckets;
+    private final int mask;
+    private final Queue<Timeout> armed = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final long startNanos = System.nanoTime();
+    private final Thread thread;
+
+    private volatile boolean running = true;
+    private long tick;
+
+    /**
+     * Constructor. Starts the wheel's thread.
+     *
+     * @param tickNanos Duration of a tick in nanoseconds.
+     * @param size      Minimum number of buckets, rounded up to a power of two.
+     */
+    TimingWheel(long tickNanos, int size) {
+        if (tickNanos < 1 || size < 1) {
+            throw new IllegalArgumentException("Tick duration and wheel size must be positive");
+        }
+
+        this.tickNanos = tickNanos;
+        final int length = size == 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+        buckets = new Bucket[length];
+        for (int i = 0; i < length; i++) {
+            buckets[i] = new Bucket();
+        }
+        mask = length - 1;
+
+        thread = new Thread(this::run, THREAD_NAME);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Arms a timeout.
+     *
+     * @param task       Task to run in the wheel's thread when the timeout expires.
+     * @param delayNanos Delay in nanoseconds.
+     * @return The timeout, to cancel it.
+     */
+    Timeout schedule(final Runnable task, final long delayNanos) {
+        final Timeout timeout = new Timeout(this, task, System.nanoTime() - startNanos + Math.max(delayNanos, 0));
+        armed.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Stops the wheel's thread. The timeouts not expired yet never expire.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            final long deadline = startNanos + (tick + 1) * tickNanos;
+            long sleepNanos;
+            while (running && (sleepNanos = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, sleepNanos);
+            }
+
+            if (running) {
+                removeCancelled();
+                transferArmed();
+                buckets[(int) tick & mask].expire();
+                tick++;
+            }
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void transferArmed() {
+        Timeout timeout;
+        while ((timeout = armed.poll()) != null) {
+            if (timeout.state.get() == Timeout.ARMED) {
+                final long ticks = timeout.deadlineNanos / tickNanos;
+                timeout.remainingRounds = (ticks - tick) / buckets.length;
+                buckets[(int) Math.max(ticks, tick) & mask].add(timeout);
+            }
+        }
+    }
+
+    /**
+     * Armed timeout.
+     */
+    static final class Timeout {
+
+        private static final int ARMED = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final TimingWheel wheel;
+        private final Runnable task;
+        private final long deadlineNanos;
+        private final AtomicInteger state = new AtomicInteger(ARMED);
+
+        // Owned by the wheel's thread.
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout previous;
+        private Timeout next;
+
+        private Timeout(final TimingWheel wheel, final Runnable task, final long deadlineNanos) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * Cancels the timeout.
+         *
+         * @return {@literal true} if the timeout was cancelled; {@literal false} if it had expired or been cancelled.
+         */
+        boolean cancel() {
+            if (!state.compareAndSet(ARMED, CANCELLED)) {
+                return false;
+            }
+            wheel.cancelled.add(this);
+            return true;
+        }
+
+        /**
+         * Indicates if the timeout has expired.
+         *
+         * @return {@literal true} if the task has run or is running; otherwise, {@literal false}.
+         */
+        boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(ARMED, EXPIRED)) {
+                return;
+            }
+
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Doubly linked list of the timeouts hashed to a slot of the wheel.
+     */
+    private static final class Bucket {
+
+        private Timeout head;
+        private Timeout tail;
+
+        private void add(final Timeout timeout) {
+            timeout.bucket = this;
+            timeout.previous = tail;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+
+        private void remove(final Timeout timeout) {
+            if (timeout.previous == null) {
+                head = timeout.next;
+            } else {
+                timeout.previous.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.previous;
+            } else {
+                timeout.next.previous = timeout.previous;
+            }
+            timeout.bucket = null;
+            timeout.previous = null;
+            timeout.next = null;
+        }
+
+        private void expire() {
+            Timeout timeout = head;
+            while (timeout != null) {
+                final Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    timeout.expire();
+                } else if (timeout.state.get() == Timeout.CANCELLED) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+    }
+}
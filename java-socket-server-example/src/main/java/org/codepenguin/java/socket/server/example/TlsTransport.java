@@ -0,0 +1,260 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * TLS over a non-blocking channel, driving an {@link SSLEngine}: the session reads and writes plain bytes through it
+ * as it would through the channel, and the records are unwrapped and wrapped in between. The handshake advances as a
+ * side effect of the reads and writes, so it never blocks the event loop; only the engine's delegated tasks, the
+ * crypto of the handshake, run inline.
+ * <p>
+ * The session's bytes aren't wrapped until the handshake is completed, so the welcome message written when the session
+ * opens is sent right after it. Meanwhile they aren't pending for the channel: see {@link #isHandshaking()}.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class TlsTransport {
+
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    private final SocketChannel channel;
+    private final SSLEngine engine;
+
+    // Both in write mode: records received and not unwrapped yet, records wrapped and not written yet.
+    private ByteBuffer netIn;
+    private ByteBuffer netOut;
+
+    /**
+     * Constructor.
+     *
+     * @param channel The client's channel, non-blocking.
+     * @param engine  Engine of the session, in server mode.
+     */
+    TlsTransport(final SocketChannel channel, final SSLEngine engine) {
+        this.channel = channel;
+        this.engine = engine;
+        this.netIn = ByteBuffer.allocate(engine.getSession().getPacketBufferSize());
+        this.netOut = ByteBuffer.allocate(engine.getSession().getPacketBufferSize());
+    }
+
+    /**
+     * Gets the bytes a buffer needs to hold the plain bytes of any record.
+     *
+     * @return Minimum capacity of the buffers passed to {@link #read(ByteBuffer)}.
+     */
+    int getApplicationBufferSize() {
+        return engine.getSession().getApplicationBufferSize();
+    }
+
+    /**
+     * Starts the handshake. The server waits for the client's first message. The channel's small segments aren't
+     * delayed from now on: a flight of the handshake can take several writes, as the output buffer holds a single
+     * record, and the last ones would wait for the client's delayed acknowledgement.
+     *
+     * @throws IOException If the channel or the engine fail.
+     */
+    void beginHandshake() throws IOException {
+        channel.socket().setTcpNoDelay(true);
+        engine.beginHandshake();
+    }
+
+    /**
+     * Indicates if the handshake is in progress, initial or not.
+     *
+     * @return {@literal true} if it's in progress; otherwise, {@literal false}.
+     */
+    boolean isHandshaking() {
+        return engine.getHandshakeStatus() != SSLEngineResult.HandshakeStatus.NOT_HANDSHAKING;
+    }
+
+    /**
+     * Indicates if some records are waiting for the channel to be writable.
+     *
+     * @return {@literal true} if they're waiting; otherwise, {@literal false}.
+     */
+    boolean hasPendingOutput() {
+        return netOut.position() > 0;
+    }
+
+    /**
+     * Indicates if some received bytes aren't unwrapped yet, either a partial record or a record that didn't fit in the
+     * last buffer read.
+     *
+     * @return {@literal true} if there're some; otherwise, {@literal false}.
+     */
+    boolean hasBufferedInput() {
+        return netIn.position() > 0;
+    }
+
+    /**
+     * Reads the available records, advancing the handshake, and unwraps them. The records of the handshake are left
+     * for the next {@link #write(ByteBuffer)}, so they're sent along with the responses instead of in a segment of
+     * their own.
+     *
+     * @param plain Buffer, in write mode, that receives the plain bytes.
+     * @return Plain bytes read, possibly {@literal 0}; {@literal -1} if the channel or the TLS session reached the end
+     * of the stream.
+     * @throws IOException If an I/O error occurs or the records aren't valid.
+     */
+    int read(final ByteBuffer plain) throws IOException {
+        final int read = channel.read(netIn);
+        int produced = 0;
+        netIn.flip();
+        try {
+            while (netIn.hasRemaining()) {
+                final SSLEngineResult result = engine.unwrap(netIn, plain);
+                produced += result.bytesProduced();
+                if (result.getStatus() == SSLEngineResult.Status.BUFFER_UNDERFLOW
+                        && netIn.limit() == netIn.capacity()) {
+                    netIn = ByteBuffer.allocate(recordCapacity(netIn)).put(netIn).flip();
+                    break;
+                }
+                if (result.getStatus() != SSLEngineResult.Status.OK) {
+                    break;
+                }
+                handshake();
+                if (result.bytesConsumed() == 0 && result.bytesProduced() == 0) {
+                    break;
+                }
+            }
+        } finally {
+            netIn.compact();
+        }
+        handshake();
+
+        if (produced > 0) {
+            return produced;
+        }
+        return read < 0 || engine.isInboundDone() ? -1 : 0;
+    }
+
+    /**
+     * Wraps and writes the plain bytes, as many as the channel takes. Nothing is wrapped until the handshake is
+     * completed.
+     *
+     * @param plain Buffer, in read mode, with the plain bytes.
+     * @return Plain bytes written.
+     * @throws IOException If an I/O error occurs or the TLS session is closed.
+     */
+    int write(final ByteBuffer plain) throws IOException {
+        handshake();
+        int consumed = 0;
+        while (plain.hasRemaining() && !isHandshaking()) {
+            if (engine.isOutboundDone()) {
+                throw new SSLException("TLS session closed");
+            }
+
+            final int position = plain.position();
+            if (!wrap(plain) || plain.position() == position) {
+                break;
+            }
+            consumed += plain.position() - position;
+        }
+        flush();
+        return consumed;
+    }
+
+    /**
+     * Sends the close notification, as far as the channel takes it without waiting.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    void closeOutbound() throws IOException {
+        engine.closeOutbound();
+        handshake();
+        flush();
+    }
+
+    /**
+     * Advances the handshake as far as it goes without the client's records.
+     */
+    private void handshake() throws IOException {
+        while (true) {
+            switch (engine.getHandshakeStatus()) {
+                case NEED_TASK:
+                    Runnable task;
+                    while ((task = engine.getDelegatedTask()) != null) {
+                        task.run();
+                    }
+                    break;
+                case NEED_WRAP:
+                    if (!wrap(EMPTY)) {
+                        return;
+                    }
+                    break;
+                default:
+                    return;
+            }
+        }
+    }
+
+    /**
+     * Wraps a record into the output, writing the pending records to make room if needed.
+     *
+     * @return {@literal false} if there's no room until the channel is writable again; otherwise, {@literal true}.
+     */
+    private boolean wrap(final ByteBuffer plain) throws IOException {
+        while (true) {
+            final SSLEngineResult result = engine.wrap(plain, netOut);
+            if (result.getStatus() != SSLEngineResult.Status.BUFFER_OVERFLOW) {
+                return true;
+            }
+
+            if (netOut.position() > 0) {
+                flush();
+                if (netOut.position() > 0) {
+                    return false;
+                }
+            } else {
+                netOut = ByteBuffer.allocate(recordCapacity(netOut));
+            }
+        }
+    }
+
+    private void flush() throws IOException {
+        if (netOut.position() > 0) {
+            netOut.flip();
+            channel.write(netOut);
+            netOut.compact();
+        }
+    }
+
+    /**
+     * Gets the capacity of a buffer replacing one too small for a record of the session.
+     */
+    private int recordCapacity(final ByteBuffer buffer) {
+        return Math.max(engine.getSession().getPacketBufferSize(), buffer.capacity() * 2);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket. Instead of a token count refilled by a timer, it keeps a single time: the time the bucket
+ * will be full again if no more tokens are taken. Taking a token moves it one interval ({@literal 1 / rate}) forward,
+ * from now if the bucket is already full, and a token is available while it's less than the burst's intervals ahead of
+ * now. So the refill is computed lazily by whoever takes a token, and taking one is a single CAS.
+ * <p>
+ * A token can also be reserved ahead of time: the caller gets how long it must wait before using it.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class TokenBucket {
+
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong fullTime;
+
+    /**
+     * Constructor. The bucket starts full.
+     *
+     * @param rate  Tokens per second.
+     * @param burst Tokens the bucket holds.
+     * @throws IllegalArgumentException If the rate or the burst aren't positive, the rate is over a token per
+     *                                  nanosecond or the burst's refill time overflows.
+     */
+    TokenBucket(final double rate, final int burst) {
+        if (!(rate > 0) || rate > NANOS_PER_SECOND || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be positive and rate at most a token per ns");
+        }
+
+        intervalNanos = Math.round(NANOS_PER_SECOND / rate);
+        try {
+            burstNanos = Math.multiplyExact(intervalNanos, burst);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Refill time of the burst overflows", e);
+        }
+        fullTime = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Takes a token, now or reserving one for later.
+     *
+     * @param now      Current {@link System#nanoTime()}.
+     * @param maxDelay Maximum nanoseconds the caller accepts to wait for the token, {@literal 0} to take it only if
+     *                 it's available now.
+     * @return Nanoseconds to wait before using the token, {@literal 0} if it's available now; {@literal -1} if no
+     * token is available within the maximum delay, nothing is taken then.
+     */
+    long acquire(final long now, final long maxDelay) {
+        while (true) {
+            final long current = fullTime.get();
+            final long next = Math.max(current - now, 0) + now + intervalNanos;
+            final long delay = next - now - burstNanos;
+            if (delay > maxDelay) {
+                return -1;
+            }
+            if (fullTime.compareAndSet(current, next)) {
+                return Math.max(delay, 0);
+            }
+        }
+    }
+
+    /**
+     * Gives back a token taken by {@link #acquire(long, long)} and not used.
+     */
+    void release() {
+        fullTime.addAndGet(-intervalNanos);
+    }
+
+    /**
+     * Indicates if the bucket is full, so discarding it and creating a new one changes nothing.
+     *
+     * @param now Current {@link System#nanoTime()}.
+     * @return {@literal true} if it's full; otherwise, {@literal false}.
+     */
+    boolean isFull(final long now) {
+        return fullTime.get() - now <= 0;
+    }
+}
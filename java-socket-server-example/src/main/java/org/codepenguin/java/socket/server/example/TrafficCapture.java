@@ -0,0 +1,273 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Capture of the client sessions' traffic, shared by all the server engines, to replay it later with the client's
+ * replayer. It's disabled until {@link #configure(Path)} is called.
+ * <p>
+ * Every event is a line of tab-separated fields: the event type, the name of the session and the microseconds since the
+ * capture started, followed by the input line for the INPUT events and by the response for the OUTPUT events. The
+ * input is escaped, a backslash followed by {@code \}, {@code t}, {@code r} or {@code n}; the response, the last field,
+ * is written as sent. The binary frames aren't captured, only the command that starts them.
+ * <p>
+ * The sessions format the events and hand them to a writer thread through a bounded queue; when the queue is full the
+ * event is dropped and counted, the sessions never wait on the file.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+final class TrafficCapture {
+
+    private static final Logger LOGGER = Logger.getLogger(TrafficCapture.class.getName());
+
+    private static final int CAPACITY = 65536;
+
+    private static volatile Writer writer;
+
+    private TrafficCapture() {
+    }
+
+    /**
+     * Configures the capture. Closes the previous capture, if any.
+     *
+     * @param file File of the capture, replaced if it exists.
+     * @throws IOException If the file can't be created.
+     */
+    static synchronized void configure(final Path file) throws IOException {
+        close();
+        writer = new Writer(file, CAPACITY);
+    }
+
+    /**
+     * Writes the pending events and disables the capture.
+     */
+    static synchronized void close() {
+        final Writer current = writer;
+        writer = null;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    /**
+     * Indicates if the capture is enabled.
+     *
+     * @return {@literal true} if it's enabled; otherwise, {@literal false}.
+     */
+    static boolean isEnabled() {
+        return writer != null;
+    }
+
+    /**
+     * Gets the number of events written to the file.
+     *
+     * @return Written events.
+     */
+    static long getWrittenEvents() {
+        final Writer current = writer;
+        return current == null ? 0 : current.writtenEvents.sum();
+    }
+
+    /**
+     * Gets the number of events dropped because the queue was full or the file couldn't be written.
+     *
+     * @return Dropped events.
+     */
+    static long getDroppedEvents() {
+        final Writer current = writer;
+        return current == null ? 0 : current.droppedEvents.sum();
+    }
+
+    /**
+     * Captures the start of a client session.
+     *
+     * @param name Name of the session.
+     */
+    static void start(final String name) {
+        final Writer current = writer;
+        if (current != null) {
+            current.publish(EventType.START, name, null);
+        }
+    }
+
+    /**
+     * Captures an input line received from the client.
+     *
+     * @param name  Name of the session.
+     * @param input Input line.
+     */
+    static void input(final String name, final String input) {
+        final Writer current = writer;
+        if (current != null) {
+            current.publish(EventType.INPUT, name, escape(input));
+        }
+    }
+
+    /**
+     * Captures the response sent to the client for the last input line.
+     *
+     * @param name     Name of the session.
+     * @param response Response.
+     */
+    static void output(final String name, final Object response) {
+        final Writer current = writer;
+        if (current != null) {
+            current.publish(EventType.OUTPUT, name, response.toString());
+        }
+    }
+
+    /**
+     * Captures the end of a client session.
+     *
+     * @param name Name of the session.
+     */
+    static void end(final String name) {
+        final Writer current = writer;
+        if (current != null) {
+            current.publish(EventType.END, name, null);
+        }
+    }
+
+    /**
+     * Escapes the backslashes and the tab and line separators of an input line.
+     *
+     * @param input Input line.
+     * @return The escaped line.
+     */
+    static String escape(final String input) {
+        StringBuilder builder = null;
+        for (int i = 0; i < input.length(); i++) {
+            final char c = input.charAt(i);
+            final char escaped = c == '\\' ? '\\' : c == '\t' ? 't' : c == '\r' ? 'r' : c == '\n' ? 'n' : 0;
+            if (escaped != 0 && builder == null) {
+                builder = new StringBuilder(input.length() + 8).append(input, 0, i);
+            }
+            if (escaped != 0) {
+                builder.append('\\').append(escaped);
+            } else if (builder != null) {
+                builder.append(c);
+            }
+        }
+        return builder == null ? input : builder.toString();
+    }
+
+    /**
+     * Type of captured event.
+     */
+    enum EventType {
+        START, INPUT, OUTPUT, END
+    }
+
+    /**
+     * Writer thread of a capture file.
+     */
+    private static final class Writer {
+
+        private static final String THREAD_NAME = "traffic-capture-writer";
+        private static final long IDLE_POLL_MILLIS = 100;
+        private static final char FIELD_SEPARATOR = '\t';
+        private static final char LINE_SEPARATOR = '\n';
+
+        private final Path file;
+        private final BufferedWriter out;
+        private final BlockingQueue<String> queue;
+        private final long startNanos = System.nanoTime();
+        private final LongAdder writtenEvents = new LongAdder();
+        private final LongAdder droppedEvents = new LongAdder();
+        private final Thread thread;
+
+        private volatile boolean running = true;
+
+        private Writer(final Path file, final int capacity) throws IOException {
+            this.file = file;
+            out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+            queue = new ArrayBlockingQueue<>(capacity);
+            thread = new Thread(this::run, THREAD_NAME);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private void publish(final EventType type, final String name, final String field) {
+            final long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+            final StringBuilder builder = new StringBuilder(type.name()).append(FIELD_SEPARATOR).append(name)
+                    .append(FIELD_SEPARATOR).append(micros);
+            if (field != null) {
+                builder.append(FIELD_SEPARATOR).append(field);
+            }
+            if (!running || !queue.offer(builder.append(LINE_SEPARATOR).toString())) {
+                droppedEvents.increment();
+            }
+        }
+
+        private void close() {
+            running = false;
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Writes the queued events, flushing whenever the queue is empty, until the capture is closed and drained.
+         */
+        private void run() {
+            try (BufferedWriter writer = out) {
+                while (running || !queue.isEmpty()) {
+                    final String event = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (event != null) {
+                        writer.write(event);
+                        writtenEvents.increment();
+                    }
+                    if (queue.isEmpty()) {
+                        writer.flush();
+                    }
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.SEVERE, file.toString(), e);
+                running = false;
+                droppedEvents.add(queue.size());
+                queue.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for {@link Accumulator}.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+class AccumulatorTest {
+
+    private static final int VALUES = 1_000_000;
+
+    private final Accumulator accumulator = new Accumulator("a");
+
+    @Test
+    void addComputesTheStatistics() {
+        for (double value : new double[]{2, 4, 4, 4, 5, 5, 7, 9}) {
+            assertTrue(accumulator.add(value));
+        }
+
+        assertEquals(8, accumulator.getCount());
+        assertEquals(40D, accumulator.getSum());
+        assertEquals(5D, accumulator.getMean());
+        assertEquals(2D, accumulator.getMin());
+        assertEquals(9D, accumulator.getMax());
+        assertEquals(4D, accumulator.getVariance());
+        assertEquals(0, accumulator.getRejected());
+    }
+
+    @Test
+    void addKeepsTheVarianceOfLargeValues() {
+        // The naive sum of squares cancels catastrophically here: the squares are about 1e18 and the variance 1.25
+        for (int i = 0; i < VALUES; i++) {
+            accumulator.add(1e9 + i % 4);
+        }
+
+        assertEquals(1e9 + 1.5, accumulator.getMean(), 1e-6);
+        assertEquals(1.25, accumulator.getVariance(), 1e-6);
+    }
+
+    @Test
+    void addCompensatesTheSum() {
+        double naive = 0;
+        for (int i = 0; i < VALUES; i++) {
+            accumulator.add(0.1);
+            naive += 0.1;
+        }
+
+        final double exact = new BigDecimal(0.1).multiply(BigDecimal.valueOf(VALUES)).doubleValue();
+        assertEquals(exact, accumulator.getSum());
+        assertNotEquals(exact, naive);
+    }
+
+    @Test
+    void addKeepsTheSmallValuesOfALargeSum() {
+        accumulator.add(1e16);
+        for (int i = 0; i < 10; i++) {
+            accumulator.add(1);
+        }
+        accumulator.add(-1e16);
+
+        assertEquals(10D, accumulator.getSum());
+    }
+
+    @Test
+    void addRejectsTheValuesNotFinite() {
+        assertFalse(accumulator.add(Double.NaN));
+        assertFalse(accumulator.add(Double.POSITIVE_INFINITY));
+        assertTrue(accumulator.add(1));
+        accumulator.reject();
+
+        assertEquals(1, accumulator.getCount());
+        assertEquals(3, accumulator.getRejected());
+        assertEquals(1D, accumulator.getSum());
+    }
+
+    @Test
+    void getStatisticsWhenEmpty() {
+        assertEquals(0, accumulator.getCount());
+        assertEquals(0D, accumulator.getSum());
+        assertTrue(Double.isNaN(accumulator.getMean()));
+        assertTrue(Double.isNaN(accumulator.getMin()));
+        assertTrue(Double.isNaN(accumulator.getMax()));
+        assertTrue(Double.isNaN(accumulator.getVariance()));
+    }
+
+    @Test
+    void openClearsTheStatistics() {
+        accumulator.add(1);
+        accumulator.reject();
+        accumulator.open("b");
+
+        assertEquals("b", accumulator.getName());
+        assertTrue(accumulator.isNamed("STATS b", 6, 7));
+        assertFalse(accumulator.isNamed("STATS a", 6, 7));
+        assertEquals(0, accumulator.getCount());
+        assertEquals(0, accumulator.getRejected());
+        assertTrue(Double.isNaN(accumulator.getMin()));
+    }
+}
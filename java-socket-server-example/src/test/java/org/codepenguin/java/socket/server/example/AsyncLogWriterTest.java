@@ -0,0 +1,200 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for {@link AsyncLogWriter}.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+class AsyncLogWriterTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int EVENTS_PER_PRODUCER = 10_000;
+    private static final int CAPACITY = 64;
+    private static final String FAILED_INPUT = "failed";
+    private static final String FATAL_INPUT = "fatal";
+
+    private final Logger logger = Logger.getLogger(AsyncLogWriterTest.class.getName());
+    private final List<LogRecord> records = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch released = new CountDownLatch(1);
+    private final List<Integer> errors = Collections.synchronizedList(new ArrayList<>());
+
+    private volatile boolean blocking;
+    private volatile boolean failingFlush;
+
+    @BeforeEach
+    void setUp() {
+        logger.setUseParentHandlers(false);
+        final Handler handler = new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                if (FAILED_INPUT.equals(record.getParameters()[3])) {
+                    throw new IllegalStateException(FAILED_INPUT);
+                }
+                if (FATAL_INPUT.equals(record.getParameters()[3])) {
+                    throw new AssertionError(FATAL_INPUT);
+                }
+                if (blocking) {
+                    try {
+                        released.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                records.add(record);
+            }
+
+            @Override
+            public void flush() {
+                if (failingFlush) {
+                    throw new IllegalStateException("flush");
+                }
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        handler.setErrorManager(new ErrorManager() {
+            @Override
+            public void error(String message, Exception exception, int code) {
+                errors.add(code);
+            }
+        });
+        logger.addHandler(handler);
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (Handler handler : logger.getHandlers()) {
+            logger.removeHandler(handler);
+        }
+        logger.setUseParentHandlers(true);
+    }
+
+    @Test
+    void publishWhenBlockPolicyWritesEveryEventInOrder() throws InterruptedException {
+        final AsyncLogWriter writer = new AsyncLogWriter(logger, CAPACITY, LogFullPolicy.BLOCK);
+        final List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            final String name = "session-" + p;
+            final Thread producer = new Thread(() -> {
+                for (int i = 0; i < EVENTS_PER_PRODUCER; i++) {
+                    writer.publish(SessionLogger.EventType.INPUT, name, String.valueOf(i), null, null);
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        writer.close();
+
+        assertEquals(PRODUCERS * EVENTS_PER_PRODUCER, records.size());
+        assertEquals(0, writer.getDroppedEvents());
+
+        final int[] next = new int[PRODUCERS];
+        for (LogRecord record : records) {
+            final Object[] parameters = record.getParameters();
+            final int producer = Integer.parseInt(((String) parameters[2]).substring("session-".length()));
+            assertEquals(String.valueOf(next[producer]++), parameters[3]);
+        }
+    }
+
+    @Test
+    void publishWhenDropPolicyAndFullCountsDroppedEvents() throws InterruptedException {
+        blocking = true;
+        final AsyncLogWriter writer = new AsyncLogWriter(logger, CAPACITY, LogFullPolicy.DROP);
+        final int published = CAPACITY * 4;
+        for (int i = 0; i < published; i++) {
+            writer.publish(SessionLogger.EventType.START, "session", null, null, null);
+        }
+
+        assertTrue(writer.getDroppedEvents() > 0);
+        released.countDown();
+        writer.close();
+
+        assertEquals(published, records.size() + writer.getDroppedEvents());
+    }
+
+    @Test
+    void publishWhenHandlerFailsReportsAndGoesOn() {
+        failingFlush = true;
+        final AsyncLogWriter writer = new AsyncLogWriter(logger, CAPACITY, LogFullPolicy.BLOCK);
+        writer.publish(SessionLogger.EventType.INPUT, "session", "1", null, null);
+        writer.publish(SessionLogger.EventType.INPUT, "session", FAILED_INPUT, null, null);
+        writer.publish(SessionLogger.EventType.INPUT, "session", "2", null, null);
+        writer.close();
+
+        assertEquals(2, records.size());
+        assertEquals(1, writer.getDroppedEvents());
+        assertTrue(errors.contains(ErrorManager.WRITE_FAILURE));
+        assertTrue(errors.contains(ErrorManager.FLUSH_FAILURE));
+    }
+
+    @Test
+    void publishWhenWriterDiedDropsTheEvents() throws InterruptedException {
+        final AsyncLogWriter writer = new AsyncLogWriter(logger, 1, LogFullPolicy.BLOCK);
+        writer.publish(SessionLogger.EventType.INPUT, "session", FATAL_INPUT, null, null);
+        final Thread producer = new Thread(() -> {
+            for (int i = 0; i < CAPACITY; i++) {
+                writer.publish(SessionLogger.EventType.INPUT, "session", String.valueOf(i), null, null);
+            }
+        });
+        producer.start();
+        producer.join();
+
+        assertTrue(writer.getDroppedEvents() > 0);
+        writer.close();
+    }
+
+    @Test
+    void toRecordFormatsAsSessionLine() {
+        final LogRecord record = SessionLogger.EventType.OUTPUT.toRecord("session", "1 + 2", "OK", null, 0);
+        assertEquals("OUTPUT\tsession\t1 + 2\tOK",
+                MessageFormat.format(record.getMessage(), record.getParameters()));
+    }
+}
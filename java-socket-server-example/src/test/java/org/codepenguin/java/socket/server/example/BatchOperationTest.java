@@ -0,0 +1,68 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit test for {@link BatchOperation}.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+class BatchOperationTest {
+
+    private static final int LENGTH = BatchOperation.SEQUENTIAL_THRESHOLD * 5 + 3;
+
+    @Test
+    void applySameAsApplyPerPair() {
+        final Random random = new Random(0);
+        final double[] first = new double[LENGTH + 1];
+        final double[] second = new double[LENGTH + 1];
+        for (int i = 0; i < LENGTH; i++) {
+            first[i] = random.nextInt(100) - 50;
+            second[i] = random.nextInt(10) - 5;
+        }
+
+        for (ArithmeticOperator operator : ArithmeticOperator.values()) {
+            final double[] results = new double[LENGTH];
+            BatchOperation.apply(operator, first, LENGTH, second, LENGTH, results);
+            for (int i = 0; i < LENGTH; i++) {
+                assertEquals(operator.apply(first[i], second[i]), results[i]);
+            }
+
+            BatchOperation.apply(operator, first, LENGTH, second, 1, results);
+            for (int i = 0; i < LENGTH; i++) {
+                assertEquals(operator.apply(first[i], second[0]), results[i]);
+            }
+        }
+    }
+}
@@ -28,8 +28,16 @@ package org.codepenguin.java.socket.server.example;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Random;
 import java.util.stream.Stream;
 
 import static org.codepenguin.java.socket.server.example.BinaryOperationProtocol.ResponseErrorType.*;
@@ -48,12 +56,19 @@ class BinaryOperationProtocolTest {
 
     private static final String EXPECTED_RESPONSE_FORMAT = "OK\t%s\t%s";
 
+    private static final int BATCH_LENGTH = 1000;
+    private static final int WARM_UP_ITERATIONS = 200_000;
+    private static final int MEASURED_ITERATIONS = 100_000;
+    // The mixed requests take longer to be compiled without allocation.
+    private static final int MIXED_WARM_UP_ITERATIONS = 1_000_000;
+
     private final BinaryOperationProtocol protocol = new BinaryOperationProtocol();
 
     @SuppressWarnings("PMD.UnusedPrivateMethod")
     private static Stream<Arguments> provideProcessSuccess() {
         return Stream.of(Arguments.of("1 + 2", "3"), Arguments.of("1 - 2", "-1"), Arguments.of("1 * 2", "2"),
-                Arguments.of("1 / 2", "0.5"));
+                Arguments.of("1 / 2", "0.5"), Arguments.of("1 / 0", "Infinity"), Arguments.of("0 / 0", "NaN"),
+                Arguments.of("4000000000 * 4", "16000000000"), Arguments.of("-2.5 + 0.25", "-2.25"));
     }
 
     @Test
@@ -138,6 +153,308 @@ class BinaryOperationProtocolTest {
         assertEquals(String.format(EXPECTED_RESPONSE_FORMAT, input, result), response.toString());
     }
 
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {"16777217 + 1|16777217 + 1\t16777218",
+            "9007199254740993 - 1|9007199254740993 - 1\t9007199254740992",
+            "123456789012 * 1000|123456789012 * 1000\t123456789012000", "-9 / 3|-9 / 3\t-3", "7 / 2|7 / 2\t3.5",
+            "-999999999999999999 / -3|-999999999999999999 / -3\t333333333333333333",
+            "999999999999999999 * 100|999999999999999999 * 100\t1.0E20",
+            "1234567891234567891 + 0|1234567891234567891 + 0\t1234567891234567891",
+            "-9223372036854775808 + 9223372036854775807|-9223372036854775808 + 9223372036854775807\t-1",
+            "1234567891234567891 / 2|1234567891234567891 / 2\t6.17283945617284E17",
+            "-9223372036854775807 - 2|-9223372036854775807 - 2\t-9.223372036854776E18",
+            "-4611686018427387905 * 2|-4611686018427387905 * 2\t-9.223372036854776E18",
+            "9223372036854775807 + 1|9223372036854775807 + 1\t9.223372036854776E18",
+            "1234567891234567891 / 0|1234567891234567891 / 0\tInfinity",
+            "0.1 + 0.2|0.10000000149011612 + 0.20000000298023224\t0.30000000447034836"})
+    void processIntegersExactly(String input, String okMessage) {
+        assertEquals(okMessage, protocol.process(input).getOkMessage());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {"0.1 + 0.2|0.1 + 0.2\t0.3", "1.10 * 3|1.1 * 3\t3.3",
+            "1 / 3|1 / 3\t0.3333333333333333333333333333333333", "7 / 2|7 / 2\t3.5",
+            "999999999999999999 * 100|999999999999999999 * 100\t99999999999999999900",
+            "99999999.99 - 0.01|99999999.99 - 0.01\t99999999.98", "1.5 / 0|1.5 / 0\tInfinity",
+            "1e1 + 0.1|10 + 0.10000000149011612\t10.100000001490116"})
+    void processExactDecimals(String input, String okMessage) {
+        try {
+            BinaryOperationProtocol.configureExactDecimals(true);
+            assertEquals(okMessage, protocol.process(input).getOkMessage());
+        } finally {
+            BinaryOperationProtocol.configureExactDecimals(false);
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {"BATCH + 1,2,3 4,5,6|5,7,9", "BATCH / 1,0,-1,0 0|Infinity,NaN,-Infinity,NaN",
+            "BATCH * 0.5 4|2", "BATCH - 1.5,2 1,0.5  |0.5,1.5"})
+    void processBatchSuccess(String input, String results) {
+        BinaryOperationProtocol.Response response = protocol.process(input);
+        assertEquals(OK, response.getType());
+        assertEquals(results, response.getOkMessage());
+        assertEquals("OK\t" + results, response.toString());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {"BATCH + 1,2|INPUT_MUST_HAVE_THREE_PARTS_ONLY",
+            "BATCH + 1  2|INPUT_MUST_HAVE_THREE_PARTS_ONLY", "BATCH ? 1 2|INPUT_OPERATOR_IS_NOT_VALID",
+            "BATCH 1 + 2|INPUT_OPERATOR_IS_NOT_VALID", "BATCH + 1,,2 3|INPUT_FIRST_OPERAND_IS_NOT_A_NUMBER",
+            "BATCH + 1,2 3;4|INPUT_SECOND_OPERAND_IS_NOT_A_NUMBER", "BATCH + 1,2 3,|INPUT_SECOND_OPERAND_IS_NOT_A_NUMBER",
+            "BATCH + 1,2,3 4,5|INPUT_OPERANDS_LENGTHS_DO_NOT_MATCH"})
+    void processBatchWhenNotValidReturnsError(String input, BinaryOperationProtocol.ResponseErrorType errorType) {
+        assertSame(BinaryOperationProtocol.errorResponse(errorType), protocol.process(input));
+    }
+
+    @Test
+    void processBatchSameAsProcess() {
+        final Random random = new Random(0);
+        for (ArithmeticOperator operator : ArithmeticOperator.values()) {
+            final StringBuilder first = new StringBuilder();
+            final StringBuilder second = new StringBuilder();
+            final StringBuilder expected = new StringBuilder();
+            for (int i = 0; i < BATCH_LENGTH; i++) {
+                final String firstOperand = String.valueOf(random.nextInt(2001) - 1000);
+                final String secondOperand = String.valueOf((random.nextInt(2001) - 1000) / 8f);
+                final String result = protocol.process(firstOperand + " " + operator.getSymbol() + " "
+                        + secondOperand).getOkMessage();
+                first.append(i > 0 ? "," : "").append(firstOperand);
+                second.append(i > 0 ? "," : "").append(secondOperand);
+                expected.append(i > 0 ? "," : "").append(result.substring(result.indexOf('\t') + 1));
+            }
+
+            final BinaryOperationProtocol.Response response = protocol.process(protocol.getBatchCommand() + " "
+                    + operator.getSymbol() + " " + first + " " + second);
+            assertEquals(expected.toString(), response.getOkMessage());
+        }
+    }
+
+    @Test
+    void processBatchWhenTooLongReturnsErrorAndGoesOn() {
+        final StringBuilder operands = new StringBuilder("1");
+        for (int i = 1; i < OperationParser.MAX_BATCH_LENGTH; i++) {
+            operands.append(",1");
+        }
+        final BinaryOperationProtocol.Response longest = protocol.process("BATCH * " + operands + " 2");
+        assertEquals(OK, longest.getType());
+        assertEquals(OperationParser.MAX_BATCH_LENGTH * 2 - 1, longest.getOkMessage().length());
+
+        assertSame(BinaryOperationProtocol.errorResponse(INPUT_BATCH_IS_TOO_LONG),
+                protocol.process("BATCH * " + operands + ",1 2"));
+        assertEquals("4,6", protocol.process("BATCH + 1,2 3,4").getOkMessage());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {"EVAL 1 + 2 * 3|7", "EVAL (1 + 2) * 3|9", "EVAL 1 - 2 - 3|-4",
+            "EVAL 8 / 4 / 2|1", "EVAL -(2 + 3) * -2|10", "EVAL 1/0|Infinity", "EVAL  ( 0.5 )|0.5"})
+    void processExpressionSuccess(String input, String result) {
+        BinaryOperationProtocol.Response response = protocol.process(input);
+        assertEquals(OK, response.getType());
+        assertEquals(result, response.getOkMessage());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {"EVAL 1 +", "EVAL (1 + 2", "EVAL 1 + 2)", "EVAL 1 2", "EVAL a + 1",
+            "EVAL ()", "EVAL 1 ? 2", "'EVAL  '"})
+    void processExpressionWhenNotValidReturnsError(String input) {
+        assertSame(BinaryOperationProtocol.errorResponse(INPUT_EXPRESSION_IS_NOT_VALID), protocol.process(input));
+    }
+
+    @Test
+    void processExpressionUsesCache() {
+        try {
+            BinaryOperationProtocol.configureExpressionCache(4);
+            final ClockCache<Expression> cache = BinaryOperationProtocol.getExpressionCache();
+            final String input = protocol.getExpressionCommand() + " (1 + 2) * 4";
+
+            assertEquals("12", protocol.process(input).getOkMessage());
+            assertEquals("12", protocol.process(input).getOkMessage());
+
+            assertEquals(1, cache.getMisses());
+            assertEquals(1, cache.getHits());
+            assertEquals(1, cache.size());
+        } finally {
+            BinaryOperationProtocol.configureExpressionCache(BinaryOperationProtocol.DEFAULT_EXPRESSION_CACHE_CAPACITY);
+        }
+    }
+
+    @Test
+    void processExpressionWhenCacheDisabledCompiles() {
+        try {
+            BinaryOperationProtocol.configureExpressionCache(0);
+            assertNull(BinaryOperationProtocol.getExpressionCache());
+            assertEquals("3", protocol.process(protocol.getExpressionCommand() + " 1 + 2").getOkMessage());
+        } finally {
+            BinaryOperationProtocol.configureExpressionCache(BinaryOperationProtocol.DEFAULT_EXPRESSION_CACHE_CAPACITY);
+        }
+    }
+
+    @Test
+    void processBinarySuccess() {
+        final ByteBuffer response = processBinary('+', 9007199254740993D, 0.1);
+        assertEquals(BinaryOperationProtocol.BINARY_STATUS_OK, response.get());
+        assertEquals(0, response.get());
+        assertEquals(9007199254740993D + 0.1, response.getDouble());
+        assertFalse(response.hasRemaining());
+    }
+
+    @Test
+    void processBinaryWhenOperatorNotValidReturnsError() {
+        final ByteBuffer response = processBinary('?', 1, 2);
+        assertEquals(BinaryOperationProtocol.BINARY_STATUS_ERR, response.get());
+        assertEquals(INPUT_OPERATOR_IS_NOT_VALID.ordinal(), response.get());
+        assertTrue(Double.isNaN(response.getDouble()));
+    }
+
+    @Test
+    void processAccumulatorSuccess() {
+        assertEquals("a", protocol.process("OPEN a").getOkMessage());
+        assertNull(protocol.process("PUT a 1,2"));
+        assertNull(protocol.process("PUT a 3,x,"));
+        assertEquals("3,6,2,1,3,0.6666666666666666,2", protocol.process("STATS a").getOkMessage());
+        assertEquals("3,6,2,1,3,0.6666666666666666,2", protocol.process("CLOSE a").getOkMessage());
+        assertSame(BinaryOperationProtocol.errorResponse(INPUT_ACCUMULATOR_IS_NOT_OPEN), protocol.process("STATS a"));
+    }
+
+    @Test
+    void processAccumulatorKeepsTheDoublePrecision() {
+        protocol.process(protocol.getOpenCommand() + " a");
+        protocol.process(protocol.getPutCommand() + " a 16777217,0.1");
+        assertEquals("2,1.67772171E7,8388608.55,0.1,16777217,7.03687517274114E13,0",
+                protocol.process(protocol.getStatsCommand() + " a").getOkMessage());
+    }
+
+    @Test
+    void processOpenWhenAlreadyOpenClears() {
+        protocol.process("OPEN a");
+        protocol.process("PUT a 1,2");
+        assertEquals("a", protocol.process("OPEN a").getOkMessage());
+        assertEquals("0,0,NaN,NaN,NaN,NaN,0", protocol.process("STATS a").getOkMessage());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {"OPEN a b", "OPEN a,b", "'OPEN '", "OPEN a\tb",
+            "OPEN 12345678901234567890123456789012345678901234567890123456789012345"})
+    void processOpenWhenNameNotValidReturnsError(String input) {
+        assertSame(BinaryOperationProtocol.errorResponse(INPUT_ACCUMULATOR_NAME_IS_NOT_VALID), protocol.process(input));
+    }
+
+    @Test
+    void processOpenWhenLimitReachedReturnsError() {
+        for (int i = 0; i < BinaryOperationProtocol.MAX_ACCUMULATORS; i++) {
+            assertEquals(String.valueOf(i), protocol.process("OPEN " + i).getOkMessage());
+        }
+        assertSame(BinaryOperationProtocol.errorResponse(ACCUMULATOR_LIMIT_REACHED), protocol.process("OPEN a"));
+
+        protocol.process("CLOSE 3");
+        assertEquals("a", protocol.process("OPEN a").getOkMessage());
+        assertEquals("0,0,NaN,NaN,NaN,NaN,0", protocol.process("STATS a").getOkMessage());
+        assertEquals(OK, protocol.process("STATS 15").getType());
+        assertSame(BinaryOperationProtocol.errorResponse(INPUT_ACCUMULATOR_IS_NOT_OPEN), protocol.process("STATS 3"));
+    }
+
+    @Test
+    void processPutWhenNotOpenDropsTheValues() {
+        assertNull(protocol.process("PUT a 1,2"));
+        assertNull(protocol.process("PUT a"));
+        protocol.process("OPEN a");
+        assertEquals("0,0,NaN,NaN,NaN,NaN,0", protocol.process("STATS a").getOkMessage());
+    }
+
+    @Test
+    void processPutDoesNotAllocate() {
+        final com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final String input = protocol.getPutCommand() + " a 1,-2.5,0.125,1024";
+        protocol.process("OPEN a");
+
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            protocol.process(input);
+        }
+
+        final long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            protocol.process(input);
+        }
+        final long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertEquals(0, allocated);
+        assertTrue(protocol.process("STATS a").getOkMessage()
+                .startsWith(4L * (WARM_UP_ITERATIONS + MEASURED_ITERATIONS) + ","));
+    }
+
+    @Test
+    void rejectRateLimitedCountsThePutValuesAsRejected() {
+        protocol.process("OPEN a");
+        assertNull(protocol.rejectRateLimited("PUT a 1,2"));
+        assertSame(BinaryOperationProtocol.errorResponse(RATE_LIMITED), protocol.rejectRateLimited("STATS a"));
+        assertEquals("0,0,NaN,NaN,NaN,NaN,2", protocol.process("STATS a").getOkMessage());
+    }
+
+    @Test
+    void encodeToSameAsPrintWriter() {
+        final ByteBuffer buffer = ByteBuffer.allocate(4);
+        final StringWriter expected = new StringWriter();
+        try (PrintWriter writer = new PrintWriter(expected)) {
+            writer.println(protocol.getWelcomeMessage());
+            for (String input : new String[]{"1 + 2", "a + 2", "-2.5 / 0.1", "BATCH * 1,2,3 0.5", "QUIT"}) {
+                writer.println(protocol.process(input));
+            }
+            writer.println(protocol.getBinaryAcknowledgement());
+            writer.println(new BinaryOperationProtocol.Response("\u00e9"));
+        }
+
+        ByteBuffer actual = protocol.encodeWelcomeMessage(buffer);
+        for (String input : new String[]{"1 + 2", "a + 2", "-2.5 / 0.1", "BATCH * 1,2,3 0.5", "QUIT"}) {
+            actual = protocol.process(input).encodeTo(actual);
+        }
+        actual = protocol.getBinaryAcknowledgement().encodeTo(actual);
+        actual = new BinaryOperationProtocol.Response("\u00e9").encodeTo(actual);
+
+        assertArrayEquals(expected.toString().getBytes(Charset.defaultCharset()),
+                Arrays.copyOf(actual.array(), actual.position()));
+    }
+
+    @Test
+    void processAndEncodeToDoNotAllocate() {
+        final com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final String[] inputs = {"1 + 2", "-12.75 * 3.5", "1024 / 0.125", "BATCH * 1,2,3 0.5", "EVAL (1 + 2) * 4"};
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+
+        for (int i = 0; i < MIXED_WARM_UP_ITERATIONS; i++) {
+            buffer.clear();
+            buffer = protocol.process(inputs[i % inputs.length]).encodeTo(buffer);
+        }
+
+        final long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            buffer.clear();
+            buffer = protocol.process(inputs[i % inputs.length]).encodeTo(buffer);
+        }
+        final long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertEquals(0, allocated);
+    }
+
+    @Test
+    void processReusesTheOkResponse() {
+        final BinaryOperationProtocol.Response first = protocol.process("1 + 2");
+        final BinaryOperationProtocol.Response shared = first.share();
+        assertSame(first, protocol.process("3 + 4"));
+
+        assertEquals("OK\t3 + 4\t7", first.toString());
+        assertEquals("OK\t1 + 2\t3", shared.toString());
+        assertSame(shared, shared.share());
+        assertThrows(IllegalStateException.class, first::preEncode);
+    }
+
+    @Test
+    void getBinaryAcknowledgementSuccess() {
+        assertEquals("BINARY", protocol.getBinaryCommand());
+        assertEquals("OK\tBINARY", protocol.getBinaryAcknowledgement().toString());
+    }
+
     @Test
     void getExitCommandSuccess() {
         assertEquals("QUIT", protocol.getExitCommand());
@@ -147,4 +464,16 @@ class BinaryOperationProtocolTest {
     void getWelcomeMessageSuccess() {
         assertTrue(protocol.getWelcomeMessage().startsWith("Binary Operation Server\tv."));
     }
+
+    private ByteBuffer processBinary(char symbol, double firstOperand, double secondOperand) {
+        final ByteBuffer request = ByteBuffer.allocate(BinaryOperationProtocol.BINARY_REQUEST_LENGTH);
+        request.put((byte) symbol).putDouble(firstOperand).putDouble(secondOperand).flip();
+        final ByteBuffer response = ByteBuffer.allocate(BinaryOperationProtocol.BINARY_RESPONSE_LENGTH);
+
+        protocol.processBinary(request, response);
+
+        assertFalse(request.hasRemaining());
+        response.flip();
+        return response;
+    }
 }
\ No newline at end of file
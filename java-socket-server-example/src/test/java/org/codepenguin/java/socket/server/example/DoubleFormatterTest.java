@@ -0,0 +1,129 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for {@link DoubleFormatter}.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+class DoubleFormatterTest {
+
+    private static final int RANDOM_VALUES = 200_000;
+    private static final int WARM_UP_ITERATIONS = 200_000;
+    private static final int MEASURED_ITERATIONS = 100_000;
+
+    private final StringBuilder builder = new StringBuilder();
+
+    @ParameterizedTest
+    @CsvSource({"0, 0", "-0.0, 0", "3, 3", "-17, -17", "0.5, 0.5", "-0.05, -0.05", "0.1, 0.1",
+            "1.0000000149011612, 1", "1234567.5, 1234567.5", "1e15, 1000000000000000",
+            "-9.223372036854775807e18, -9.223372036854776E18", "9.223372036854775e18, 9223372036854774784", "1e19, 1.0E19", "1.0E-4, 1.0E-4",
+            "0.30000000447034836, 0.30000000447034836", "NaN, NaN",
+            "Infinity, Infinity", "-Infinity, -Infinity"})
+    void appendTo(double value, String expected) {
+        assertEquals(expected, format(value));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"0, 0", "-17, -17", "1.0000000149011612, 1.0000000149011612", "1677721.75, 1677721.75",
+            "16777217.5, 1.67772175E7",
+            "9007199254740991, 9007199254740991", "9007199254740992, 9.007199254740992E15", "0.1, 0.1",
+            "1.0E-4, 1.0E-4", "NaN, NaN", "-Infinity, -Infinity"})
+    void appendDoubleTo(double value, String expected) {
+        builder.setLength(0);
+        assertEquals(expected, DoubleFormatter.appendDoubleTo(builder, value).toString());
+    }
+
+    @Test
+    void appendToWhenIntegerInIntRangeSameAsIntValue() {
+        final Random random = new Random(0);
+        for (int i = 0; i < RANDOM_VALUES; i++) {
+            final int value = random.nextInt();
+            if (NumberUtils.isInteger(value)) {
+                assertEquals(String.valueOf(value), format(value));
+            }
+        }
+    }
+
+    @Test
+    void appendToWhenNotIntegerSameAsDoubleToString() {
+        final Random random = new Random(0);
+        for (int i = 0; i < RANDOM_VALUES; i++) {
+            final float first = (float) (random.nextGaussian() * Math.pow(10, random.nextInt(8)));
+            final float second = (random.nextInt(2000) - 1000) / 8f;
+            for (ArithmeticOperator operator : ArithmeticOperator.values()) {
+                assertSameAsDoubleToString(operator.apply(first, second));
+            }
+            assertSameAsDoubleToString(first);
+            assertSameAsDoubleToString(random.nextInt(100_000) / 1000.0);
+            assertSameAsDoubleToString(Double.longBitsToDouble(random.nextLong()));
+        }
+    }
+
+    @Test
+    void appendToWhenFastPathDoesNotAllocate() {
+        final com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final double[] values = {3, -1_000_000_000_000D, 0.5, 1.0 / 3, -12.625};
+
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            builder.setLength(0);
+            DoubleFormatter.appendTo(builder, values[i % values.length]);
+        }
+
+        final long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            builder.setLength(0);
+            DoubleFormatter.appendTo(builder, values[i % values.length]);
+        }
+        final long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertEquals(0, allocated);
+    }
+
+    private void assertSameAsDoubleToString(final double value) {
+        if (!DoubleFormatter.isInteger(value)) {
+            assertEquals(Double.toString(value), format(value));
+        }
+    }
+
+    private String format(final double value) {
+        builder.setLength(0);
+        return DoubleFormatter.appendTo(builder, value).toString();
+    }
+}
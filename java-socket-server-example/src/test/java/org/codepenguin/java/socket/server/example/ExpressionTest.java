@@ -0,0 +1,78 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for {@link Expression}.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+class ExpressionTest {
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {"42|42|1", "1 + 2|3|2", "1 + 2 * 3|7|3", "1 * 2 + 3|5|2",
+            "(1 + 2) * 3|9|2", "10 - 4 - 3|3|2", "64 / 4 / 2|8|2", "2 * (3 + 4) * 5|70|3", "-3 * 2|-6|2",
+            "2 * -3|-6|2", "--3|3|1", "+3 - -3|6|2", "-(1 + 2)|-3|2", "1.5e1 / 0.5|30|2", "1 - (2 - (3 - (4 - 5)))|3|5",
+            "0.1 + 0.2|0.30000000447034836|2"})
+    void evaluate(String expression, double expected, int stackDepth) {
+        final Expression compiled = Expression.compile(expression, 0);
+        assertNotNull(compiled);
+        assertEquals(stackDepth, compiled.getStackDepth());
+        assertEquals(expected, compiled.evaluate(new double[compiled.getStackDepth()]));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", " ", "1 +", "* 2", "(1", "1)", "()", "1 2", "(1) (2)", "1 + a", "1 ^ 2", "1e",
+            "1..2", "- ", "NaN"})
+    void compileWhenNotValidReturnsNull(String expression) {
+        assertNull(Expression.compile(expression, 0));
+    }
+
+    @Test
+    void compileFromStart() {
+        final Expression compiled = Expression.compile("EVAL 6 / 3", 5);
+        assertNotNull(compiled);
+        assertEquals(2, compiled.evaluate(new double[compiled.getStackDepth()]));
+    }
+
+    @Test
+    void compileDeepNestingWithoutRecursion() {
+        final int depth = 100_000;
+        final String expression = "(".repeat(depth) + "1" + ")".repeat(depth) + " + 1";
+        final Expression compiled = Expression.compile(expression, 0);
+        assertNotNull(compiled);
+        assertEquals(2, compiled.evaluate(new double[compiled.getStackDepth()]));
+    }
+}
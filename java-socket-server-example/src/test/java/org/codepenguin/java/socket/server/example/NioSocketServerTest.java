@@ -0,0 +1,248 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit test for {@link NioSocketServer}.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+class NioSocketServerTest {
+
+    private static final String LOCALHOST = "localhost";
+    private static final String SESSION_INPUT = "1 + 2\na + 2\r\n3 * 4\r\r\n1 ? 2\n\nOPEN a\nPUT a 1,2\r\n"
+            + "PUT a 3\nSTATS a\n7 / 2";
+
+    private NioSocketServer server;
+    private Thread serverThread;
+
+    @BeforeEach
+    void setUp() {
+        serverThread = start(server = newServer(1, LoopAssignment.ROUND_ROBIN, false));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        server.close();
+        serverThread.join();
+    }
+
+    @Test
+    void sessionOutputIsSameAsSocketServerThread() throws IOException, InterruptedException {
+        final byte[] expected;
+        try (ServerSocket threadServer = new ServerSocket(0)) {
+            final Thread acceptor = new Thread(() -> {
+                try {
+                    new Thread(new SocketServerThread(threadServer.accept())).start();
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            acceptor.start();
+            expected = runSession(threadServer.getLocalPort(), SESSION_INPUT);
+            acceptor.join();
+        }
+
+        assertArrayEquals(expected, runSession(server.getLocalPort(), SESSION_INPUT));
+    }
+
+    @Test
+    void sessionEndsWithExitCommand() throws IOException {
+        final BinaryOperationProtocol protocol = new BinaryOperationProtocol();
+        final String separator = System.lineSeparator();
+        final String expected = protocol.getWelcomeMessage() + separator + protocol.process("1 + 2") + separator;
+
+        final byte[] output = runSession(server.getLocalPort(), "1 + 2\nQUIT\n5 - 1\n");
+
+        assertEquals(expected, new String(output, Charset.defaultCharset()));
+    }
+
+    @Test
+    void sessionSwitchesToBinaryFrames() throws IOException {
+        try (Socket socket = new Socket(LOCALHOST, server.getLocalPort())) {
+            final DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            final DataInputStream in = new DataInputStream(socket.getInputStream());
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(in));
+            final BinaryOperationProtocol protocol = new BinaryOperationProtocol();
+            assertEquals(protocol.getWelcomeMessage(), reader.readLine());
+
+            out.write((protocol.getBinaryCommand() + "\n").getBytes(Charset.defaultCharset()));
+            out.flush();
+            assertEquals(protocol.getBinaryAcknowledgement().toString(), reader.readLine());
+
+            out.writeByte('/');
+            out.writeDouble(1);
+            out.writeDouble(3);
+            out.writeByte('*');
+            out.writeDouble(2);
+            out.writeDouble(4);
+            out.flush();
+            socket.shutdownOutput();
+
+            assertEquals(BinaryOperationProtocol.BINARY_STATUS_OK, in.readByte());
+            assertEquals(0, in.readByte());
+            assertEquals(1D / 3, in.readDouble());
+            assertEquals(BinaryOperationProtocol.BINARY_STATUS_OK, in.readByte());
+            assertEquals(0, in.readByte());
+            assertEquals(8D, in.readDouble());
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    void eventLoopsServeConcurrentSessions() throws Exception {
+        final byte[] expected = runSession(server.getLocalPort(), SESSION_INPUT);
+        final NioSocketServer loopsServer = newServer(4, LoopAssignment.LEAST_CONNECTIONS, false);
+        final Thread loopsThread = start(loopsServer);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<byte[]>> outputs = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                outputs.add(executor.submit(() -> runSession(loopsServer.getLocalPort(), SESSION_INPUT)));
+            }
+            for (Future<byte[]> output : outputs) {
+                assertArrayEquals(expected, output.get());
+            }
+        } finally {
+            executor.shutdown();
+            loopsServer.close();
+            loopsThread.join();
+        }
+    }
+
+    @Test
+    void roundRobinSpreadsConnections() throws IOException, InterruptedException {
+        final NioSocketServer loopsServer = newServer(3, LoopAssignment.ROUND_ROBIN, false);
+        final Thread loopsThread = start(loopsServer);
+        final List<Socket> sockets = new ArrayList<>();
+        try {
+            final String welcomeMessage = new BinaryOperationProtocol().getWelcomeMessage();
+            for (int i = 0; i < 6; i++) {
+                final Socket socket = new Socket(LOCALHOST, loopsServer.getLocalPort());
+                sockets.add(socket);
+                assertEquals(welcomeMessage,
+                        new BufferedReader(new InputStreamReader(socket.getInputStream())).readLine());
+            }
+
+            for (int loop = 0; loop < 3; loop++) {
+                assertEquals(2, loopsServer.getConnections(loop));
+            }
+        } finally {
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+            loopsServer.close();
+            loopsThread.join();
+        }
+    }
+
+    @Test
+    void reusedPortServesSessions() throws IOException, InterruptedException {
+        final byte[] expected = runSession(server.getLocalPort(), SESSION_INPUT);
+        final NioSocketServer loopsServer = newServer(2, LoopAssignment.LEAST_CONNECTIONS, true);
+        final Thread loopsThread = start(loopsServer);
+        try {
+            for (int i = 0; i < 4; i++) {
+                assertArrayEquals(expected, runSession(loopsServer.getLocalPort(), SESSION_INPUT));
+            }
+        } finally {
+            loopsServer.close();
+            loopsThread.join();
+        }
+    }
+
+    @Test
+    void eventLoopsMustBePositive() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new NioSocketServer(0, 0, LoopAssignment.ROUND_ROBIN, false));
+    }
+
+    private static NioSocketServer newServer(final int eventLoops, final LoopAssignment assignment,
+                                             final boolean reusePort) {
+        try {
+            return new NioSocketServer(0, eventLoops, assignment, reusePort);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Thread start(final NioSocketServer server) {
+        final Thread thread = new Thread(() -> {
+            try {
+                server.run();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private static byte[] runSession(final int port, final String input) throws IOException {
+        try (Socket socket = new Socket(LOCALHOST, port)) {
+            final OutputStream out = socket.getOutputStream();
+            out.write(input.getBytes(Charset.defaultCharset()));
+            out.flush();
+            socket.shutdownOutput();
+
+            final InputStream in = socket.getInputStream();
+            final ByteArrayOutputStream received = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                received.write(buffer, 0, read);
+            }
+            return received.toByteArray();
+        }
+    }
+}
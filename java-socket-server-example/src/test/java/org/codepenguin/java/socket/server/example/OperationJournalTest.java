@@ -0,0 +1,256 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import org.codepenguin.java.socket.server.example.BinaryOperationProtocol.ResponseErrorType;
+import org.codepenguin.java.socket.server.example.JournalRecord.RecordType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for {@link OperationJournal}, {@link JournalWriter}, {@link JournalReader} and {@link JournalTool}.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+class OperationJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void tearDown() {
+        OperationJournal.close();
+    }
+
+    @Test
+    void protocolAppendsEveryProcessedRequest() throws IOException {
+        OperationJournal.configure(directory, OperationJournal.DEFAULT_SEGMENT_SIZE, JournalSyncPolicy.BATCH);
+        final BinaryOperationProtocol protocol = new BinaryOperationProtocol();
+        protocol.process("1 + 2");
+        protocol.process("1.5 * 4");
+        protocol.process("1 ? 2");
+        protocol.process("BATCH - 5,7 1");
+        protocol.process("EVAL (1 + 2) * 3");
+        final ByteBuffer request = ByteBuffer.allocate(BinaryOperationProtocol.BINARY_REQUEST_LENGTH);
+        request.put((byte) '/').putDouble(1).putDouble(3).flip();
+        protocol.processBinary(request, ByteBuffer.allocate(BinaryOperationProtocol.BINARY_RESPONSE_LENGTH));
+        OperationJournal.close();
+
+        final List<JournalRecord> records = readAll();
+        assertEquals(7, records.size());
+        for (JournalRecord record : records) {
+            assertEquals(protocol.getSessionId(), record.getSessionId());
+            assertTrue(record.getTimestamp() > 0);
+        }
+        assertRecord(records.get(0), RecordType.OPERATION, ArithmeticOperator.ADDITION, 1, 2, 3);
+        assertRecord(records.get(1), RecordType.OPERATION, ArithmeticOperator.MULTIPLICATION, 1.5, 4, 6);
+        assertEquals(RecordType.ERROR, records.get(2).getType());
+        assertEquals(ResponseErrorType.INPUT_OPERATOR_IS_NOT_VALID, records.get(2).getErrorType());
+        assertRecord(records.get(3), RecordType.BATCH, ArithmeticOperator.SUBTRACTION, 5, 1, 4);
+        assertRecord(records.get(4), RecordType.BATCH, ArithmeticOperator.SUBTRACTION, 7, 1, 6);
+        assertEquals(RecordType.EXPRESSION, records.get(5).getType());
+        assertEquals("(1 + 2) * 3", records.get(5).getExpression());
+        assertEquals(9D, records.get(5).getResult());
+        assertRecord(records.get(6), RecordType.BINARY, ArithmeticOperator.DIVISION, 1, 3, 1D / 3);
+    }
+
+    @Test
+    void writerRollsSegmentsAndNeverOverwritesThem() throws IOException {
+        final int records = 500;
+        for (int run = 1; run <= 2; run++) {
+            try (JournalWriter writer = new JournalWriter(directory, JournalWriter.MIN_SEGMENT_SIZE,
+                    JournalSyncPolicy.NONE, 1024)) {
+                for (int i = 0; i < records; i++) {
+                    writer.publish(RecordType.OPERATION, ArithmeticOperator.ADDITION.ordinal(), run, i, 1, i + 1,
+                            null, 0);
+                }
+                while (writer.getWrittenRecords() + writer.getDroppedRecords() < records) {
+                    Thread.yield();
+                }
+                assertEquals(0, writer.getDroppedRecords());
+            }
+        }
+
+        final List<JournalRecord> read = readAll();
+        assertEquals(2 * records, read.size());
+        for (int i = 0; i < read.size(); i++) {
+            assertEquals(i / records + 1, read.get(i).getSessionId());
+            assertEquals(i % records, read.get(i).getFirstOperand());
+        }
+        assertTrue(JournalReader.listSegments(directory).size() > 2);
+    }
+
+    @Test
+    void readerSkipsTheRestOfACorruptSegment() throws IOException {
+        try (JournalWriter writer = new JournalWriter(directory, JournalWriter.MIN_SEGMENT_SIZE,
+                JournalSyncPolicy.BATCH, 16)) {
+            for (int i = 0; i < 3; i++) {
+                writer.publish(RecordType.OPERATION, ArithmeticOperator.ADDITION.ordinal(), 1, i, 1, i + 1, null, 0);
+            }
+        }
+
+        final Path segment = JournalReader.listSegments(directory).get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1}), JournalRecord.HEADER_LENGTH + 20);
+        }
+
+        final JournalReader reader = new JournalReader(directory);
+        assertEquals(0D, reader.next().getFirstOperand());
+        assertNull(reader.next());
+        assertEquals(1, reader.getCorruptSegments());
+    }
+
+    @Test
+    void writerWhenAWriteFailsDropsTheRecordsAndGoesOn() throws IOException {
+        try (JournalWriter writer = new JournalWriter(directory, JournalWriter.MIN_SEGMENT_SIZE,
+                JournalSyncPolicy.BATCH, 1)) {
+            writer.publish(null, 0, 1, 1, 1, 2, null, 0);
+            for (int i = 0; i < 4; i++) {
+                writer.publish(RecordType.OPERATION, ArithmeticOperator.ADDITION.ordinal(), 1, i, 1, i + 1, null, 0);
+                while (writer.getWrittenRecords() + writer.getDroppedRecords() < i + 2) {
+                    Thread.yield();
+                }
+            }
+            assertTrue(writer.isFailed());
+            assertEquals(0, writer.getWrittenRecords());
+            assertEquals(5, writer.getDroppedRecords());
+        }
+
+        final JournalReader reader = new JournalReader(directory);
+        assertNull(reader.next());
+        assertEquals(1, reader.getCorruptSegments());
+    }
+
+    @Test
+    void toolVerifiesAndFiltersTheRecords() throws IOException {
+        OperationJournal.configure(directory, OperationJournal.DEFAULT_SEGMENT_SIZE, JournalSyncPolicy.PERIODIC);
+        final BinaryOperationProtocol protocol = new BinaryOperationProtocol();
+        for (String input : new String[]{"1 + 2", "0.1 + 0.2", "123456789012 * 1000", "7 / 0", "2 / 3",
+                "BATCH * 0.5,3 4", "EVAL 2 * (3 - -1)", "1 ? 2"}) {
+            protocol.process(input);
+        }
+        OperationJournal.close();
+
+        final JournalTool.Report report = new JournalTool(directory, record -> true, true, true).run();
+        assertEquals(9, report.getScanned());
+        assertEquals(9, report.getMatched());
+        assertEquals(8, report.getVerified());
+        assertEquals(0, report.getMismatched());
+        assertEquals(0, report.getCorruptSegments());
+
+        final JournalTool.Report divisions = new JournalTool(directory,
+                record -> record.getOperator() == ArithmeticOperator.DIVISION, false, true).run();
+        assertEquals(2, divisions.getMatched());
+
+        try (JournalWriter writer = new JournalWriter(directory, JournalWriter.MIN_SEGMENT_SIZE,
+                JournalSyncPolicy.BATCH, 16)) {
+            writer.publish(RecordType.OPERATION, ArithmeticOperator.ADDITION.ordinal(), 1, 2, 2, 5, null, 0);
+        }
+        assertEquals(1, new JournalTool(directory, record -> true, false, true).run().getMismatched());
+    }
+
+    @Test
+    void toolVerifiesTheExactOperations() throws IOException {
+        OperationJournal.configure(directory, OperationJournal.DEFAULT_SEGMENT_SIZE, JournalSyncPolicy.BATCH);
+        BinaryOperationProtocol.configureCache(16);
+        BinaryOperationProtocol.configureExactDecimals(true);
+        try {
+            final BinaryOperationProtocol protocol = new BinaryOperationProtocol();
+            for (String input : new String[]{"9007199254740993 + 0", "9007199254740993 + 0", "0.1 + 0.2", "7 / 0",
+                    "1.10 * 3"}) {
+                protocol.process(input);
+            }
+            OperationJournal.close();
+
+            final List<JournalRecord> records = readAll();
+            assertEquals(5, records.size());
+            assertEquals("9007199254740993 + 0\t9007199254740993", records.get(0).getExactOperation());
+            assertEquals("9007199254740993 + 0", records.get(0).toRequest());
+            assertEquals("9007199254740993 + 0\t9007199254740993", records.get(1).getExactOperation());
+            assertEquals("0.1 + 0.2\t0.3", records.get(2).getExactOperation());
+            assertRecord(records.get(2), RecordType.OPERATION, ArithmeticOperator.ADDITION, 0.1, 0.2, 0.3);
+            assertNull(records.get(3).getExactOperation());
+            assertEquals("1.1 * 3\t3.3", records.get(4).getExactOperation());
+
+            final JournalTool.Report report = new JournalTool(directory, record -> true, false, true).run();
+            assertEquals(5, report.getVerified());
+            assertEquals(0, report.getMismatched());
+
+            try (JournalWriter writer = new JournalWriter(directory, JournalWriter.MIN_SEGMENT_SIZE,
+                    JournalSyncPolicy.BATCH, 16)) {
+                writer.publish(RecordType.OPERATION, ArithmeticOperator.ADDITION.ordinal(), 1, 9007199254740993D, 0,
+                        9007199254740994D, "9007199254740993 + 0\t9007199254740994", 0);
+            }
+            assertEquals(1, new JournalTool(directory, record -> true, false, true).run().getMismatched());
+        } finally {
+            BinaryOperationProtocol.configureExactDecimals(false);
+            BinaryOperationProtocol.configureCache(0);
+        }
+    }
+
+    @Test
+    void writerRejectsInvalidSegmentSize() {
+        assertThrows(IllegalArgumentException.class, () -> new JournalWriter(directory,
+                JournalWriter.MIN_SEGMENT_SIZE - 1, JournalSyncPolicy.NONE, 16));
+        assertThrows(IllegalArgumentException.class, () -> JournalSyncPolicy.valueOfPolicyName("always"));
+        assertThrows(IllegalArgumentException.class, () -> RecordType.valueOfTypeName("other"));
+    }
+
+    private List<JournalRecord> readAll() throws IOException {
+        final JournalReader reader = new JournalReader(directory);
+        final List<JournalRecord> records = new ArrayList<>();
+        JournalRecord record;
+        while ((record = reader.next()) != null) {
+            records.add(record);
+        }
+        assertEquals(0, reader.getCorruptSegments());
+        return records;
+    }
+
+    private static void assertRecord(final JournalRecord record, final RecordType type,
+                                     final ArithmeticOperator operator, final double firstOperand,
+                                     final double secondOperand, final double result) {
+        assertEquals(type, record.getType());
+        assertEquals(operator, record.getOperator());
+        assertNull(record.getErrorType());
+        assertEquals(firstOperand, record.getFirstOperand());
+        assertEquals(secondOperand, record.getSecondOperand());
+        assertEquals(result, record.getResult());
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import org.codepenguin.java.socket.server.example.BinaryOperationProtocol.ResponseErrorType;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.codepenguin.java.socket.server.example.BinaryOperationProtocol.ResponseErrorType.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for {@link OperationParser}.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+class OperationParserTest {
+
+    private static final Logger PARSER_LOGGER = Logger.getLogger(OperationParser.class.getName());
+    private static final int RANDOM_INPUTS = 20_000;
+    private static final int WARM_UP_ITERATIONS = 200_000;
+    private static final int MEASURED_ITERATIONS = 100_000;
+    private static final String CHARACTERS = "0123456789 .+-*/?eEfdxNaIiny\t";
+
+    private final OperationParser parser = new OperationParser();
+
+    @BeforeAll
+    static void setUpAll() {
+        PARSER_LOGGER.setLevel(Level.OFF);
+    }
+
+    @AfterAll
+    static void tearDownAll() {
+        PARSER_LOGGER.setLevel(null);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"1 + 2", "1 + 2  ", "-1.5 * +.25", "0.1 / 3.", "16777216 - 16777217", "1e3 + 1",
+            "NaN * Infinity", "0x1p3 - 1f", " 1 + 2", "1  + 2", "1 + ", "1 +- 2", "1\t+ 2", "1 + 2\t",
+            "1.2.3 + 4", ". + 1", "- + 1", "1 + +", "123456789012345678901 / 7", "0.00000000001 + 0",
+            "1234567891234567891 + -9223372036854775808", "9223372036854775807.5 - 0.1234567891234567891"})
+    void parseSameAsSplitAndParseFloat(String input) {
+        assertSameAsReference(input);
+    }
+
+    @Test
+    void parseRandomInputsSameAsSplitAndParseFloat() {
+        final Random random = new Random(0);
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < RANDOM_INPUTS; i++) {
+            builder.setLength(0);
+            final int length = 1 + random.nextInt(12);
+            for (int j = 0; j < length; j++) {
+                builder.append(CHARACTERS.charAt(random.nextInt(CHARACTERS.length())));
+            }
+            assertSameAsReference(builder.toString());
+            assertSameAsReference(random.nextInt(1 << 25) / Math.pow(10, random.nextInt(12)) + " - "
+                    + random.nextFloat());
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {"1 + 2|1|0|2|0", "-12.75 * +3.5|-1275|2|35|1",
+            "123456789012345678 / 0.001|123456789012345678|0|1|3", "-0 - 5.|0|0|5|0",
+            "1234567891234567891 * -9223372036854775808|1234567891234567891|0|-9223372036854775808|0",
+            "9223372036854775807 + -922337203685477580.8|9223372036854775807|0|-9223372036854775808|1"})
+    void parseKeepsExactOperands(String input, long firstMantissa, int firstScale, long secondMantissa,
+                                 int secondScale) {
+        assertTrue(parser.parse(input));
+        assertTrue(parser.isExact());
+        assertEquals(firstMantissa, parser.getFirstMantissa());
+        assertEquals(firstScale, parser.getFirstScale());
+        assertEquals(secondMantissa, parser.getSecondMantissa());
+        assertEquals(secondScale, parser.getSecondScale());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"1e3 + 1", "1 + 0x1p4", "9223372036854775808 * 2",
+            "1 - -9223372036854775809", "12345678901234567890 + 1", "NaN - 1"})
+    void parseWhenOperandNotPlainIsNotExact(String input) {
+        assertTrue(parser.parse(input));
+        assertFalse(parser.isExact());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"1", "-2.5", "+.25", "3.", "0.1", "9007199254740993", "123456789.123456789",
+            "0.00000000000000000000001", "1e3", "-1E-5", "NaN", "-Infinity", "0x1p3", "1f", "12345678901234567890"})
+    void parseValueSameAsParseDouble(String input) {
+        final String padded = "PUT a " + input + ",";
+        assertTrue(parser.parseValue(padded, 6, padded.length() - 1));
+        assertEquals(Double.parseDouble(input), parser.getValue(), input);
+    }
+
+    @Test
+    void parseValueRandomDecimalsSameAsParseDouble() {
+        final Random random = new Random(0);
+        for (int i = 0; i < RANDOM_INPUTS; i++) {
+            final String input = (random.nextLong() >> random.nextInt(64)) / Math.pow(10, random.nextInt(20)) + "";
+            final String plain = new java.math.BigDecimal(input).toPlainString();
+            assertTrue(parser.parseValue(plain, 0, plain.length()), plain);
+            assertEquals(Double.parseDouble(plain), parser.getValue(), plain);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "a", "1,2", "1 ", "--1", "1.2.3", "."})
+    void parseValueWhenNotANumberReturnsFalse(String input) {
+        assertFalse(parser.parseValue(input, 0, input.length()));
+    }
+
+    @Test
+    void parseWhenInputNullReturnsError() {
+        assertFalse(parser.parse(null));
+        assertEquals(INPUT_IS_NULL, parser.getErrorType());
+    }
+
+    @Test
+    void parseBatchWhenLongerThanMaxReturnsError() {
+        assertTrue(parser.parseBatch("BATCH + " + batchOperands(OperationParser.MAX_BATCH_LENGTH) + " 1", 6));
+        assertEquals(OperationParser.MAX_BATCH_LENGTH, parser.getFirstLength());
+
+        assertFalse(parser.parseBatch("BATCH + " + batchOperands(OperationParser.MAX_BATCH_LENGTH + 1) + " 1", 6));
+        assertEquals(INPUT_BATCH_IS_TOO_LONG, parser.getErrorType());
+        assertFalse(parser.parseBatch("BATCH + 1 " + batchOperands(OperationParser.MAX_BATCH_LENGTH + 1), 6));
+        assertEquals(INPUT_BATCH_IS_TOO_LONG, parser.getErrorType());
+    }
+
+    @Test
+    void trimBatchOperandsReleasesOnlyGrownArrays() {
+        assertTrue(parser.parseBatch("BATCH + 1,2 3", 6));
+        final double[] retained = parser.getFirstOperands();
+        parser.trimBatchOperands();
+        assertSame(retained, parser.getFirstOperands());
+
+        assertTrue(parser.parseBatch("BATCH * " + batchOperands(OperationParser.RETAINED_BATCH_CAPACITY + 1) + " "
+                + batchOperands(OperationParser.RETAINED_BATCH_CAPACITY + 1), 6));
+        parser.trimBatchOperands();
+        assertTrue(parser.getFirstOperands().length <= OperationParser.RETAINED_BATCH_CAPACITY);
+        assertTrue(parser.getSecondOperands().length <= OperationParser.RETAINED_BATCH_CAPACITY);
+    }
+
+    @Test
+    void parseValidInputDoesNotAllocate() {
+        final com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final String[] inputs = {"1 + 2", "-12.75 * 3.5", "1024 / 0.125", "7 - 9"};
+
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            assertTrue(parser.parse(inputs[i % inputs.length]));
+        }
+
+        final long before = threads.getCurrentThreadAllocatedBytes();
+        boolean valid = true;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            valid &= parser.parse(inputs[i % inputs.length]);
+        }
+        final long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertTrue(valid);
+        assertEquals(0, allocated);
+    }
+
+    private void assertSameAsReference(final String input) {
+        final ResponseErrorType expected = referenceParse(input);
+        assertEquals(expected == null, parser.parse(input), input);
+        assertEquals(expected, parser.getErrorType(), input);
+
+        if (expected == null) {
+            final String[] split = input.split(" ");
+            assertEquals(Float.parseFloat(split[0]), parser.getFirstOperand(), input);
+            assertEquals(ArithmeticOperator.valueOfSymbol(split[1].charAt(0)), parser.getOperator(), input);
+            assertEquals(Float.parseFloat(split[2]), parser.getSecondOperand(), input);
+        }
+    }
+
+    /**
+     * The parsing of {@link BinaryOperationProtocol#process(String)} before {@link OperationParser}.
+     */
+    private static ResponseErrorType referenceParse(final String input) {
+        if (isBlank(input)) {
+            return INPUT_IS_BLANK;
+        }
+
+        final String[] split = input.split(" ");
+        if (split.length != 3) {
+            return INPUT_MUST_HAVE_THREE_PARTS_ONLY;
+        }
+
+        try {
+            Float.parseFloat(split[0]);
+        } catch (NumberFormatException e) {
+            return INPUT_FIRST_OPERAND_IS_NOT_A_NUMBER;
+        }
+
+        if (split[1].length() != 1) {
+            return INPUT_OPERATOR_IS_NOT_VALID;
+        }
+
+        try {
+            ArithmeticOperator.valueOfSymbol(split[1].charAt(0));
+        } catch (IllegalArgumentException e) {
+            return INPUT_OPERATOR_IS_NOT_VALID;
+        }
+
+        try {
+            Float.parseFloat(split[2]);
+        } catch (NumberFormatException e) {
+            return INPUT_SECOND_OPERAND_IS_NOT_A_NUMBER;
+        }
+
+        return null;
+    }
+
+    private static String batchOperands(final int length) {
+        final StringBuilder builder = new StringBuilder("1");
+        for (int i = 1; i < length; i++) {
+            builder.append(",1");
+        }
+        return builder.toString();
+    }
+}
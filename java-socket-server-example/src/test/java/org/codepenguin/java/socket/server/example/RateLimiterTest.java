@@ -0,0 +1,228 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for {@link RateLimiter} and {@link TokenBucket}.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+class RateLimiterTest {
+
+    private static final String LOCALHOST = "localhost";
+    private static final long INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @AfterEach
+    void tearDown() {
+        RateLimiter.configure(RateLimitPolicy.REJECT, null, null, null);
+    }
+
+    @Test
+    void bucketAdmitsTheBurstThenTheRate() {
+        final TokenBucket bucket = new TokenBucket(1000, 3);
+        final long now = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.acquire(now, 0));
+        }
+        assertEquals(-1, bucket.acquire(now, 0));
+        assertEquals(-1, bucket.acquire(now, INTERVAL_NANOS - 1));
+        assertEquals(INTERVAL_NANOS, bucket.acquire(now, INTERVAL_NANOS));
+        assertEquals(2 * INTERVAL_NANOS, bucket.acquire(now, RateLimiter.MAX_DELAY_NANOS));
+        assertFalse(bucket.isFull(now));
+
+        bucket.release();
+        assertEquals(2 * INTERVAL_NANOS, bucket.acquire(now, RateLimiter.MAX_DELAY_NANOS));
+        assertEquals(0, bucket.acquire(now + 3 * INTERVAL_NANOS, 0));
+        assertEquals(-1, bucket.acquire(now + 3 * INTERVAL_NANOS, 0));
+        assertTrue(bucket.isFull(now + 7 * INTERVAL_NANOS));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.acquire(now + 7 * INTERVAL_NANOS, 0));
+        }
+        assertEquals(-1, bucket.acquire(now + 7 * INTERVAL_NANOS, 0));
+    }
+
+    @Test
+    void bucketNeverAdmitsMoreThanTheBurstConcurrently() throws InterruptedException {
+        final int burst = 100;
+        final TokenBucket bucket = new TokenBucket(0.001, burst);
+        final long now = System.nanoTime();
+        final AtomicInteger admitted = new AtomicInteger();
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            final Thread thread = new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    if (bucket.acquire(now, 0) == 0) {
+                        admitted.incrementAndGet();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(burst, admitted.get());
+    }
+
+    @Test
+    void bucketRejectsInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(Double.NaN, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(2e9, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1e-9, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void limitValueOfLimit() {
+        assertEquals(new RateLimiter.Limit(100, 100), RateLimiter.Limit.valueOfLimit("100"));
+        assertEquals(new RateLimiter.Limit(0.5, 1), RateLimiter.Limit.valueOfLimit("0.5"));
+        assertEquals(new RateLimiter.Limit(100, 5), RateLimiter.Limit.valueOfLimit("100:5"));
+        for (String value : new String[]{"", "a", "0", "-1", "100:", "100:0", "100:5:1", ":5"}) {
+            assertThrows(IllegalArgumentException.class, () -> RateLimiter.Limit.valueOfLimit(value), value);
+        }
+        assertThrows(IllegalArgumentException.class, () -> RateLimitPolicy.valueOfPolicyName("drop"));
+    }
+
+    @Test
+    void limiterAppliesEveryLevel() throws IOException {
+        final InetAddress first = InetAddress.getByName("192.0.2.1");
+        final InetAddress second = InetAddress.getByName("192.0.2.2");
+        assertEquals(0, RateLimiter.open(first).acquire());
+
+        RateLimiter.configure(RateLimitPolicy.REJECT, null, null, new RateLimiter.Limit(0.001, 2));
+        final RateLimiter session = RateLimiter.open(first);
+        assertEquals(0, session.acquire());
+        assertEquals(0, session.acquire());
+        final long limited = RateLimiter.getLimitedRequests();
+        assertEquals(-1, session.acquire());
+        assertEquals(limited + 1, RateLimiter.getLimitedRequests());
+        assertEquals(0, RateLimiter.open(first).acquire());
+
+        RateLimiter.configure(RateLimitPolicy.REJECT, null, new RateLimiter.Limit(0.001, 3),
+                new RateLimiter.Limit(0.001, 2));
+        final RateLimiter firstSession = RateLimiter.open(first);
+        final RateLimiter secondSession = RateLimiter.open(first);
+        assertEquals(0, firstSession.acquire());
+        assertEquals(0, firstSession.acquire());
+        assertEquals(0, secondSession.acquire());
+        assertEquals(-1, secondSession.acquire());
+        assertEquals(0, RateLimiter.open(second).acquire());
+
+        RateLimiter.configure(RateLimitPolicy.REJECT, new RateLimiter.Limit(0.001, 2), null,
+                new RateLimiter.Limit(0.001, 1));
+        final RateLimiter limitedSession = RateLimiter.open(first);
+        assertEquals(0, limitedSession.acquire());
+        assertEquals(-1, limitedSession.acquire());
+        assertEquals(0, RateLimiter.open(second).acquire());
+        assertEquals(-1, RateLimiter.open(first).acquire());
+    }
+
+    @Test
+    void limiterDelaysUpToTheMaximumDelay() throws IOException {
+        RateLimiter.configure(RateLimitPolicy.DELAY, null, null, new RateLimiter.Limit(2, 1));
+        final RateLimiter session = RateLimiter.open(InetAddress.getByName("192.0.2.1"));
+        final long delayed = RateLimiter.getDelayedRequests();
+        assertEquals(0, session.acquire());
+        final long delay = session.acquire();
+        assertTrue(delay > 0 && delay <= TimeUnit.MILLISECONDS.toNanos(500), String.valueOf(delay));
+        assertEquals(delayed + 1, RateLimiter.getDelayedRequests());
+        assertTrue(session.acquire() > delay);
+        assertEquals(-1, session.acquire());
+    }
+
+    @Test
+    void threadEngineRejectsTheRequestsOverTheLimit() throws IOException, InterruptedException {
+        RateLimiter.configure(RateLimitPolicy.REJECT, null, null, new RateLimiter.Limit(0.001, 2));
+        try (ServerSocket server = new ServerSocket(0);
+             Socket client = new Socket(LOCALHOST, server.getLocalPort())) {
+            final Thread session = new Thread(new SocketServerThread(server.accept()));
+            session.start();
+
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(client.getInputStream()));
+            reader.readLine();
+            client.getOutputStream().write("1 + 2\n2 + 3\n3 + 4\nQUIT\n".getBytes(StandardCharsets.UTF_8));
+            assertEquals("OK\t1 + 2\t3", reader.readLine());
+            assertEquals("OK\t2 + 3\t5", reader.readLine());
+            assertEquals("ERR\tRATE_LIMITED", reader.readLine());
+            assertNull(reader.readLine());
+            session.join();
+        }
+    }
+
+    @Test
+    void nioEngineDelaysTheRequestsOverTheLimit() throws IOException, InterruptedException {
+        RateLimiter.configure(RateLimitPolicy.DELAY, null, null, new RateLimiter.Limit(20, 1));
+        final NioSocketServer server = new NioSocketServer(0);
+        final Thread serverThread = new Thread(() -> {
+            try {
+                server.run();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        serverThread.start();
+        try (Socket client = new Socket(LOCALHOST, server.getLocalPort())) {
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(client.getInputStream()));
+            reader.readLine();
+            final OutputStream out = client.getOutputStream();
+            final long start = System.nanoTime();
+            out.write("1 + 2\n2 + 3\n3 + 4\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            assertEquals("OK\t1 + 2\t3", reader.readLine());
+            assertEquals("OK\t2 + 3\t5", reader.readLine());
+            assertEquals("OK\t3 + 4\t7", reader.readLine());
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(90));
+
+            client.shutdownOutput();
+            assertNull(reader.readLine());
+        } finally {
+            server.close();
+            serverThread.join();
+        }
+    }
+}
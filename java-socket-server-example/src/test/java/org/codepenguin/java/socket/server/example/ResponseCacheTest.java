@@ -0,0 +1,159 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import org.codepenguin.java.socket.server.example.BinaryOperationProtocol.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.codepenguin.java.socket.server.example.BinaryOperationProtocol.ResponseErrorType.INPUT_OPERATOR_IS_NOT_VALID;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for {@link ResponseCache}.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+class ResponseCacheTest {
+
+    private static final int CAPACITY = 3;
+    private static final int THREADS = 4;
+    private static final int LOOKUPS = 20_000;
+
+    @AfterEach
+    void tearDown() {
+        BinaryOperationProtocol.configureCache(0);
+    }
+
+    @Test
+    void getAndPutCountHitsAndMisses() {
+        final ResponseCache cache = new ResponseCache(CAPACITY);
+        final Response response = new Response("1 + 2\t3");
+
+        assertNull(cache.get("1 + 2"));
+        cache.put("1 + 2", response, ArithmeticOperator.ADDITION);
+        final ResponseCache.Entry entry = cache.get("1 + 2");
+
+        assertSame(response, entry.getResponse());
+        assertEquals(ArithmeticOperator.ADDITION, entry.getOperator());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0, cache.getEvictions());
+    }
+
+    @Test
+    void putWhenFullEvictsNotReferencedEntry() {
+        final ResponseCache cache = new ResponseCache(CAPACITY);
+        for (String input : new String[]{"a", "b", "c"}) {
+            cache.put(input, new Response(input), null);
+        }
+        cache.get("a");
+        cache.get("c");
+
+        cache.put("d", new Response("d"), null);
+
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("a"));
+        assertNotNull(cache.get("c"));
+        assertNotNull(cache.get("d"));
+        assertEquals(CAPACITY, cache.size());
+        assertEquals(1, cache.getEvictions());
+
+        // Every entry was referenced, the sweep clears them all and evicts where it started.
+        cache.put("e", new Response("e"), null);
+        assertEquals(CAPACITY, cache.size());
+        assertEquals(2, cache.getEvictions());
+        assertNotNull(cache.get("e"));
+    }
+
+    @Test
+    void concurrentLookupsAndInsertionsKeepBound() throws InterruptedException, ExecutionException {
+        final ResponseCache cache = new ResponseCache(CAPACITY * 10);
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                final int seed = thread;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < LOOKUPS; i++) {
+                        final String input = String.valueOf((i * 31 + seed) % 100);
+                        final ResponseCache.Entry entry = cache.get(input);
+                        if (entry == null) {
+                            cache.put(input, new Response(input), null);
+                        } else {
+                            assertEquals(input, entry.getResponse().getOkMessage());
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(CAPACITY * 10, cache.size());
+        assertEquals((long) THREADS * LOOKUPS, cache.getHits() + cache.getMisses());
+    }
+
+    @Test
+    void processUsesCacheForOperationsAndErrors() {
+        BinaryOperationProtocol.configureCache(CAPACITY);
+        final ResponseCache cache = BinaryOperationProtocol.getCache();
+        final BinaryOperationProtocol protocol = new BinaryOperationProtocol();
+
+        final Response first = protocol.process("1 + 2");
+        final Response error = protocol.process("1 ? 2");
+
+        assertSame(first, new BinaryOperationProtocol().process("1 + 2"));
+        assertSame(error, protocol.process("1 ? 2"));
+        assertEquals(INPUT_OPERATOR_IS_NOT_VALID, error.getErrorType());
+        assertEquals("OK\t1 + 2\t3", first.toString());
+        assertEquals(2, cache.getHits());
+        assertEquals(2, cache.getMisses());
+
+        protocol.process(protocol.getBatchCommand() + " + 1,2 3");
+        protocol.process(null);
+        assertEquals(2, cache.getMisses());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void configureCacheWhenNegativeThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> BinaryOperationProtocol.configureCache(-1));
+        assertThrows(IllegalArgumentException.class, () -> new ResponseCache(0));
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for {@link RingBuffer}.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+class RingBufferTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int VALUES_PER_PRODUCER = 100_000;
+
+    @ParameterizedTest
+    @CsvSource({"1, 2", "2, 2", "3, 4", "1000, 1024", "1024, 1024"})
+    void constructorRoundsCapacityUpToAPowerOfTwo(int capacity, int expected) {
+        assertEquals(expected, new RingBuffer<>(capacity, AtomicLong::new).getCapacity());
+    }
+
+    @Test
+    void constructorWhenCapacityNotPositiveThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<>(0, AtomicLong::new));
+    }
+
+    @Test
+    void claimWhenFullReturnsFullUntilDrained() {
+        final RingBuffer<AtomicLong> buffer = new RingBuffer<>(2, AtomicLong::new);
+        for (long value = 1; value <= 2; value++) {
+            final long position = buffer.claim();
+            buffer.get(position).set(value);
+            buffer.publish(position);
+        }
+        assertEquals(RingBuffer.FULL, buffer.claim());
+
+        final List<Long> drained = new ArrayList<>();
+        assertEquals(2, buffer.drain(slot -> drained.add(slot.get())));
+        assertEquals(List.of(1L, 2L), drained);
+        assertNotEquals(RingBuffer.FULL, buffer.claim());
+    }
+
+    @Test
+    void drainStopsAtTheFirstUnpublishedSlot() {
+        final RingBuffer<AtomicLong> buffer = new RingBuffer<>(4, AtomicLong::new);
+        final long first = buffer.claim();
+        final long second = buffer.claim();
+        buffer.publish(second);
+        assertEquals(0, buffer.drain(slot -> fail("Drained before publishing the first slot")));
+
+        buffer.publish(first);
+        assertEquals(2, buffer.drain(slot -> { }));
+    }
+
+    @Test
+    void concurrentProducersLoseNothing() throws InterruptedException {
+        final RingBuffer<AtomicLong> buffer = new RingBuffer<>(64, AtomicLong::new);
+        final Thread[] producers = new Thread[PRODUCERS];
+        for (int i = 0; i < PRODUCERS; i++) {
+            producers[i] = new Thread(() -> {
+                for (long value = 1; value <= VALUES_PER_PRODUCER; value++) {
+                    long position;
+                    while ((position = buffer.claim()) == RingBuffer.FULL) {
+                        Thread.onSpinWait();
+                    }
+                    buffer.get(position).set(value);
+                    buffer.publish(position);
+                }
+            });
+            producers[i].start();
+        }
+
+        final long[] sum = new long[1];
+        long drained = 0;
+        while (drained < (long) PRODUCERS * VALUES_PER_PRODUCER) {
+            drained += buffer.drain(slot -> sum[0] += slot.get());
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        assertEquals((long) PRODUCERS * VALUES_PER_PRODUCER * (VALUES_PER_PRODUCER + 1) / 2, sum[0]);
+    }
+}
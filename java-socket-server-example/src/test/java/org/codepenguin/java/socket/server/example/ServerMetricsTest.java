@@ -0,0 +1,137 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for {@link ServerMetrics}, {@link LatencyHistogram} and {@link MetricsExporter}.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+class ServerMetricsTest {
+
+    private static final String PREFIX = "binary_operation_";
+
+    @ParameterizedTest
+    @CsvSource({"0, 0", "1000, 0", "1001, 1", "2000, 1", "2001, 2", "4000, 2", "1000000, 10",
+            "1048576000, 20", "1048576001, 21", "9223372036854775807, 21"})
+    void bucketOf(long nanos, int expected) {
+        assertEquals(expected, LatencyHistogram.bucketOf(nanos));
+    }
+
+    @Test
+    void upperBoundSeconds() {
+        assertEquals(1e-6, LatencyHistogram.upperBoundSeconds(0));
+        assertEquals(1.048576, LatencyHistogram.upperBoundSeconds(LatencyHistogram.BUCKETS - 1));
+    }
+
+    @Test
+    void processRecordsOperationsAndErrors() {
+        final long additions = sample("operations_total{operator=\"ADDITION\"}");
+        final long blankErrors = sample("errors_total{type=\"INPUT_IS_BLANK\"}");
+        final long requests = sample("request_duration_seconds_count");
+        final long infBucket = sample("request_duration_seconds_bucket{le=\"+Inf\"}");
+
+        final BinaryOperationProtocol protocol = new BinaryOperationProtocol();
+        protocol.process("1 + 2");
+        protocol.process("3 + 4");
+        protocol.process(" ");
+
+        assertEquals(additions + 2, sample("operations_total{operator=\"ADDITION\"}"));
+        assertEquals(blankErrors + 1, sample("errors_total{type=\"INPUT_IS_BLANK\"}"));
+        assertEquals(requests + 3, sample("request_duration_seconds_count"));
+        assertEquals(infBucket + 3, sample("request_duration_seconds_bucket{le=\"+Inf\"}"));
+    }
+
+    @Test
+    void appendPrometheusIncludesRegisteredGauges() {
+        ServerMetrics.registerGauge("test_gauge", "Gauge of the test.", () -> 42);
+        try {
+            final String metrics = ServerMetrics.appendPrometheus(new StringBuilder()).toString();
+
+            assertTrue(metrics.contains("# HELP " + PREFIX + "test_gauge Gauge of the test.\n"));
+            assertTrue(metrics.contains("# TYPE " + PREFIX + "test_gauge gauge\n"));
+            assertEquals(42, sample("test_gauge"));
+        } finally {
+            ServerMetrics.unregister("test_gauge");
+        }
+        assertFalse(ServerMetrics.appendPrometheus(new StringBuilder()).toString().contains(PREFIX + "test_gauge"));
+    }
+
+    @Test
+    void exporterServesMetrics() throws IOException {
+        try (MetricsExporter exporter = new MetricsExporter(0)) {
+            final URL url = URI.create("http://localhost:" + exporter.getLocalPort() + "/metrics").toURL();
+            final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            try {
+                assertEquals(HttpURLConnection.HTTP_OK, connection.getResponseCode());
+                assertTrue(connection.getContentType().startsWith("text/plain; version=0.0.4"));
+                final String body = read(connection.getInputStream());
+                assertTrue(body.contains("# TYPE " + PREFIX + "request_duration_seconds histogram\n"));
+                assertTrue(body.contains(PREFIX + "sessions_total "));
+            } finally {
+                connection.disconnect();
+            }
+        }
+    }
+
+    private static long sample(final String name) {
+        final String metrics = ServerMetrics.appendPrometheus(new StringBuilder()).toString();
+        final Matcher matcher = Pattern.compile("^" + Pattern.quote(PREFIX + name) + " (\\d+)$", Pattern.MULTILINE)
+                .matcher(metrics);
+        assertTrue(matcher.find(), name);
+        return Long.parseLong(matcher.group(1));
+    }
+
+    private static String read(final InputStream in) throws IOException {
+        try (InputStream closed = in) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[1024];
+            int read;
+            while ((read = closed.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for {@link ServerTls} and {@link TlsTransport}.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+class ServerTlsTest {
+
+    private static final String LOCALHOST = "localhost";
+    private static final char[] PASSWORD = "changeit".toCharArray();
+    private static final int REQUESTS = 3000;
+
+    private final BinaryOperationProtocol protocol = new BinaryOperationProtocol();
+    private SSLContext clientContext;
+
+    @BeforeEach
+    void setUp() throws IOException, GeneralSecurityException, URISyntaxException {
+        ServerTls.configure(resource("/tls/server.p12"), PASSWORD, ServerTls.DEFAULT_SESSION_CACHE_SIZE,
+                ServerTls.DEFAULT_SESSION_TIMEOUT);
+        final TrustManagerFactory trustManagers = TrustManagerFactory.getInstance(
+                TrustManagerFactory.getDefaultAlgorithm());
+        trustManagers.init(KeyStore.getInstance(resource("/tls/truststore.p12").toFile(), PASSWORD));
+        clientContext = SSLContext.getInstance("TLS");
+        clientContext.init(null, trustManagers.getTrustManagers(), null);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException, GeneralSecurityException {
+        ServerTls.configure(null, null, 0, 0);
+    }
+
+    @Test
+    void nioEngineServesTheSessionsOverTls() throws IOException, InterruptedException {
+        final NioSocketServer server = new NioSocketServer(0);
+        final Thread serverThread = new Thread(() -> {
+            try {
+                server.run();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        serverThread.start();
+        try {
+            final SSLSession first;
+            try (SSLSocket socket = connect(server.getLocalPort())) {
+                first = socket.getSession();
+                assertPipelinedRequests(socket);
+            }
+
+            try (SSLSocket socket = connect(server.getLocalPort())) {
+                assertEquals(first.getCreationTime(), socket.getSession().getCreationTime());
+                assertBinaryFrames(socket);
+            }
+        } finally {
+            server.close();
+            serverThread.join();
+        }
+    }
+
+    @Test
+    void threadEngineServesTheSessionsOverTls() throws IOException, InterruptedException {
+        try (ServerSocket server = new ServerSocket(0)) {
+            final SSLSession first;
+            try (SSLSocket socket = connect(server.getLocalPort())) {
+                final Thread session = new Thread(new SocketServerThread(server.accept()));
+                session.start();
+                first = socket.getSession();
+                assertPipelinedRequests(socket);
+                session.join();
+            }
+
+            try (SSLSocket socket = connect(server.getLocalPort())) {
+                final Thread session = new Thread(new SocketServerThread(server.accept()));
+                session.start();
+                assertBinaryFrames(socket);
+                assertEquals(first.getCreationTime(), socket.getSession().getCreationTime());
+                session.join();
+            }
+        }
+    }
+
+    @Test
+    void configureWhenNotValid() throws IOException, GeneralSecurityException, URISyntaxException {
+        final Path keyStore = resource("/tls/server.p12");
+        assertThrows(IOException.class, () -> ServerTls.configure(keyStore, "wrong".toCharArray(), 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> ServerTls.configure(keyStore, PASSWORD, -1, 1));
+        assertTrue(ServerTls.isEnabled());
+
+        ServerTls.configure(null, null, 0, 0);
+        assertFalse(ServerTls.isEnabled());
+        assertNull(ServerTls.createEngine());
+        try (Socket socket = new Socket()) {
+            assertSame(socket, ServerTls.handshake(socket));
+        }
+    }
+
+    /**
+     * Connects without starting the handshake, so the thread engine's session can be accepted meanwhile.
+     */
+    private SSLSocket connect(final int port) throws IOException {
+        return (SSLSocket) clientContext.getSocketFactory().createSocket(LOCALHOST, port);
+    }
+
+    /**
+     * Sends more requests than fit in a TLS record in a single write and checks every response.
+     */
+    private void assertPipelinedRequests(final SSLSocket socket) throws IOException {
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+        assertEquals(protocol.getWelcomeMessage(), reader.readLine());
+
+        final StringBuilder requests = new StringBuilder();
+        for (int i = 0; i < REQUESTS; i++) {
+            requests.append(i).append(" + 1\n");
+        }
+        requests.append(protocol.getExitCommand()).append('\n');
+        socket.getOutputStream().write(requests.toString().getBytes(Charset.defaultCharset()));
+        socket.getOutputStream().flush();
+
+        for (int i = 0; i < REQUESTS; i++) {
+            assertEquals("OK\t" + i + " + 1\t" + (i + 1), reader.readLine());
+        }
+        assertNull(reader.readLine());
+    }
+
+    private void assertBinaryFrames(final SSLSocket socket) throws IOException {
+        final DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+        final DataInputStream in = new DataInputStream(socket.getInputStream());
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(in));
+        assertEquals(protocol.getWelcomeMessage(), reader.readLine());
+
+        out.write((protocol.getBinaryCommand() + "\n").getBytes(Charset.defaultCharset()));
+        out.flush();
+        assertEquals(protocol.getBinaryAcknowledgement().toString(), reader.readLine());
+
+        out.writeByte('*');
+        out.writeDouble(2);
+        out.writeDouble(4);
+        out.flush();
+        assertEquals(BinaryOperationProtocol.BINARY_STATUS_OK, in.readByte());
+        assertEquals(0, in.readByte());
+        assertEquals(8D, in.readDouble());
+
+        socket.shutdownOutput();
+        assertEquals(-1, in.read());
+    }
+
+    private static Path resource(final String name) throws URISyntaxException {
+        return Paths.get(ServerTlsTest.class.getResource(name).toURI());
+    }
+}
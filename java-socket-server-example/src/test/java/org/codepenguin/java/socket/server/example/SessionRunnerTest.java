@@ -0,0 +1,134 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for {@link SessionRunner}.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+class SessionRunnerTest {
+
+    private static final String LOCALHOST = "localhost";
+
+    private final BinaryOperationProtocol protocol = new BinaryOperationProtocol();
+
+    private ServerSocket server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new ServerSocket(0);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.close();
+    }
+
+    @ParameterizedTest
+    @EnumSource(SessionThreads.class)
+    void submitWhenFullRejectsWithServerBusy(SessionThreads threads) throws IOException, InterruptedException {
+        try (SessionRunner runner = new SessionRunner(1, 0, RejectionPolicy.REJECT, threads);
+             Socket first = new Socket(LOCALHOST, server.getLocalPort());
+             Socket second = new Socket(LOCALHOST, server.getLocalPort())) {
+            runner.submit(server.accept());
+            assertEquals(protocol.getWelcomeMessage(), reader(first).readLine());
+
+            runner.submit(server.accept());
+            final BufferedReader secondReader = reader(second);
+            assertEquals("ERR\tSERVER_BUSY", secondReader.readLine());
+            assertNull(secondReader.readLine());
+
+            assertEquals(1, runner.getRejectedSessions());
+            assertEquals(0, runner.getQueuedSessions());
+            assertEquals(1, runner.getActiveSessions());
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(SessionThreads.class)
+    void submitWhenWorkersBusyQueuesSession(SessionThreads threads) throws IOException, InterruptedException {
+        try (SessionRunner runner = new SessionRunner(1, 1, RejectionPolicy.REJECT, threads);
+             Socket first = new Socket(LOCALHOST, server.getLocalPort());
+             Socket second = new Socket(LOCALHOST, server.getLocalPort())) {
+            runner.submit(server.accept());
+            final BufferedReader firstReader = reader(first);
+            assertEquals(protocol.getWelcomeMessage(), firstReader.readLine());
+
+            runner.submit(server.accept());
+            assertEquals(1, runner.getQueuedSessions());
+
+            first.shutdownOutput();
+            assertNull(firstReader.readLine());
+            assertEquals(protocol.getWelcomeMessage(), reader(second).readLine());
+            assertEquals(0, runner.getRejectedSessions());
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(SessionThreads.class)
+    void submitWhenClosedClosesTheSocketAndReleasesItsPlace(SessionThreads threads) throws IOException,
+            InterruptedException {
+        try (SessionRunner runner = new SessionRunner(1, 0, RejectionPolicy.REJECT, threads);
+             Socket first = new Socket(LOCALHOST, server.getLocalPort());
+             Socket second = new Socket(LOCALHOST, server.getLocalPort())) {
+            runner.close();
+            runner.submit(server.accept());
+            runner.submit(server.accept());
+
+            assertEquals(-1, first.getInputStream().read());
+            assertEquals(-1, second.getInputStream().read());
+            assertEquals(0, runner.getRejectedSessions());
+            assertEquals(0, runner.getActiveSessions());
+        }
+    }
+
+    @Test
+    void constructorWhenNegativeLimitThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new SessionRunner(-1, 0, RejectionPolicy.REJECT,
+                SessionThreads.PLATFORM));
+    }
+
+    private static BufferedReader reader(final Socket socket) throws IOException {
+        return new BufferedReader(new InputStreamReader(socket.getInputStream()));
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import org.codepenguin.java.socket.server.example.SessionTimeouts.TimeoutType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for {@link SessionTimeouts} and {@link TimingWheel}.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+class SessionTimeoutsTest {
+
+    private static final String LOCALHOST = "localhost";
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long AWAIT_SECONDS = 10;
+
+    @AfterEach
+    void tearDown() {
+        SessionTimeouts.configure(0, 0, 0);
+    }
+
+    @Test
+    void wheelExpiresAfterDelay() throws InterruptedException {
+        try (TimingWheel wheel = new TimingWheel(TICK_NANOS, 8)) {
+            final CountDownLatch expired = new CountDownLatch(1);
+            final long start = System.nanoTime();
+            final long delayNanos = TimeUnit.MILLISECONDS.toNanos(30);
+            final TimingWheel.Timeout timeout = wheel.schedule(expired::countDown, delayNanos);
+
+            assertTrue(expired.await(AWAIT_SECONDS, TimeUnit.SECONDS));
+            assertTrue(System.nanoTime() - start >= delayNanos);
+            assertTrue(timeout.isExpired());
+            assertFalse(timeout.cancel());
+        }
+    }
+
+    @Test
+    void wheelExpiresTimeoutsLaterThanALap() throws InterruptedException {
+        try (TimingWheel wheel = new TimingWheel(TICK_NANOS, 4)) {
+            final int timeouts = 1000;
+            final CountDownLatch expired = new CountDownLatch(timeouts);
+            final long start = System.nanoTime();
+            for (int i = 0; i < timeouts; i++) {
+                wheel.schedule(expired::countDown, TimeUnit.MILLISECONDS.toNanos(i % 50));
+            }
+
+            assertTrue(expired.await(AWAIT_SECONDS, TimeUnit.SECONDS));
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(49));
+        }
+    }
+
+    @Test
+    void wheelSkipsCancelledTimeouts() throws InterruptedException {
+        try (TimingWheel wheel = new TimingWheel(TICK_NANOS, 8)) {
+            final AtomicInteger cancelledRuns = new AtomicInteger();
+            final List<TimingWheel.Timeout> cancelled = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                cancelled.add(wheel.schedule(cancelledRuns::incrementAndGet, TimeUnit.MILLISECONDS.toNanos(20)));
+            }
+            final CountDownLatch expired = new CountDownLatch(1);
+            wheel.schedule(expired::countDown, TimeUnit.MILLISECONDS.toNanos(40));
+
+            for (TimingWheel.Timeout timeout : cancelled) {
+                assertTrue(timeout.cancel());
+            }
+
+            assertTrue(expired.await(AWAIT_SECONDS, TimeUnit.SECONDS));
+            assertEquals(0, cancelledRuns.get());
+        }
+    }
+
+    @Test
+    void configureRejectsNegativeTimeouts() {
+        assertThrows(IllegalArgumentException.class, () -> SessionTimeouts.configure(-1, 0, 0));
+    }
+
+    @Test
+    void threadEngineClosesIdleSession() throws IOException {
+        SessionTimeouts.configure(100, 0, 0);
+        final long idle = sample(TimeoutType.IDLE);
+        try (ServerSocket server = new ServerSocket(0);
+             Socket client = new Socket(LOCALHOST, server.getLocalPort())) {
+            new Thread(new SocketServerThread(server.accept())).start();
+
+            assertSessionClosedAfterWelcome(client);
+            assertEquals(idle + 1, sample(TimeoutType.IDLE));
+        }
+    }
+
+    @Test
+    void threadEngineClosesSessionAtMaxDuration() throws IOException {
+        SessionTimeouts.configure(0, 0, 100);
+        final long maxDuration = sample(TimeoutType.MAX_DURATION);
+        try (ServerSocket server = new ServerSocket(0);
+             Socket client = new Socket(LOCALHOST, server.getLocalPort())) {
+            new Thread(new SocketServerThread(server.accept())).start();
+
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(client.getInputStream()));
+            reader.readLine();
+            final OutputStream out = client.getOutputStream();
+            try {
+                for (int i = 0; i < 100; i++) {
+                    out.write("1 + 2\n".getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                    reader.readLine();
+                    Thread.sleep(5);
+                }
+            } catch (IOException | InterruptedException e) {
+                // The server closed the session.
+            }
+
+            assertSessionClosed(reader);
+            assertEquals(maxDuration + 1, sample(TimeoutType.MAX_DURATION));
+        }
+    }
+
+    @Test
+    void threadEngineClosesSessionWhenClientStopsReading() throws IOException, InterruptedException {
+        SessionTimeouts.configure(0, 200, 0);
+        final long writeStalls = sample(TimeoutType.WRITE_STALL);
+        try (ServerSocket server = new ServerSocket(0);
+             Socket client = new Socket()) {
+            client.setReceiveBufferSize(1024);
+            client.connect(new InetSocketAddress(LOCALHOST, server.getLocalPort()));
+            new Thread(new SocketServerThread(server.accept())).start();
+
+            final Thread sender = new Thread(() -> {
+                final byte[] requests = "1 / 3\n".repeat(1000).getBytes(StandardCharsets.UTF_8);
+                try {
+                    final OutputStream out = client.getOutputStream();
+                    for (int i = 0; i < 100_000; i++) {
+                        out.write(requests);
+                    }
+                } catch (IOException e) {
+                    // The server closed the session.
+                }
+            });
+            sender.start();
+
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(AWAIT_SECONDS);
+            while (sample(TimeoutType.WRITE_STALL) == writeStalls && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(writeStalls + 1, sample(TimeoutType.WRITE_STALL));
+
+            client.close();
+            sender.join();
+        }
+    }
+
+    @Test
+    void nioEngineClosesIdleSession() throws IOException, InterruptedException {
+        SessionTimeouts.configure(100, 0, 0);
+        final long idle = sample(TimeoutType.IDLE);
+        final NioSocketServer server = new NioSocketServer(0);
+        final Thread serverThread = new Thread(() -> {
+            try {
+                server.run();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        serverThread.start();
+        try (Socket client = new Socket(LOCALHOST, server.getLocalPort())) {
+            assertSessionClosedAfterWelcome(client);
+            assertEquals(idle + 1, sample(TimeoutType.IDLE));
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (server.getConnections(0) > 0 && System.nanoTime() - deadline < 0) {
+                Thread.yield();
+            }
+            assertEquals(0, server.getConnections(0));
+        } finally {
+            server.close();
+            serverThread.join();
+        }
+    }
+
+    private static void assertSessionClosedAfterWelcome(final Socket client) throws IOException {
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(client.getInputStream()));
+        assertEquals(new BinaryOperationProtocol().getWelcomeMessage(), reader.readLine());
+        assertSessionClosed(reader);
+    }
+
+    private static void assertSessionClosed(final BufferedReader reader) throws IOException {
+        try {
+            while (reader.readLine() != null) {
+                // Responses sent before the timeout.
+            }
+        } catch (IOException e) {
+            // Reset by the server.
+        }
+    }
+
+    private static long sample(final TimeoutType type) {
+        final String name = "binary_operation_sessions_timed_out_total{type=\"" + type.name() + "\"}";
+        final String metrics = ServerMetrics.appendPrometheus(new StringBuilder()).toString();
+        final Matcher matcher = Pattern.compile("^" + Pattern.quote(name) + " (\\d+)$", Pattern.MULTILINE)
+                .matcher(metrics);
+        assertTrue(matcher.find(), name);
+        return Long.parseLong(matcher.group(1));
+    }
+}
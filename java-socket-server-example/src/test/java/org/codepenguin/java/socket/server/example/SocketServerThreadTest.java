@@ -0,0 +1,141 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for {@link SocketServerThread}.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+class SocketServerThreadTest {
+
+    private static final String LOCALHOST = "localhost";
+    private static final int PIPELINED_REQUESTS = 1000;
+
+    private final BinaryOperationProtocol protocol = new BinaryOperationProtocol();
+
+    private ServerSocket server;
+    private Socket client;
+    private PrintWriter writer;
+    private BufferedReader reader;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new ServerSocket(0);
+        client = new Socket(LOCALHOST, server.getLocalPort());
+        new Thread(new SocketServerThread(server.accept())).start();
+
+        writer = new PrintWriter(client.getOutputStream());
+        reader = new BufferedReader(new InputStreamReader(client.getInputStream()));
+        assertEquals(protocol.getWelcomeMessage(), reader.readLine());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    void runWhenLockStepFlushesEveryResponse() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            writer.println(i + " + 1");
+            writer.flush();
+            assertEquals(protocol.process(i + " + 1").toString(), reader.readLine());
+        }
+    }
+
+    @Test
+    void runWhenPipelinedKeepsResponsesOrder() throws IOException {
+        for (int i = 0; i < PIPELINED_REQUESTS; i++) {
+            writer.println(i + " * 2");
+        }
+        writer.flush();
+        client.shutdownOutput();
+
+        for (int i = 0; i < PIPELINED_REQUESTS; i++) {
+            assertEquals(protocol.process(i + " * 2").toString(), reader.readLine());
+        }
+        assertNull(reader.readLine());
+    }
+
+    @Test
+    void runWhenPutDoesNotAnswer() throws IOException {
+        writer.println("OPEN a");
+        writer.println("PUT a 1,2");
+        writer.println("PUT a 3");
+        writer.println("STATS a");
+        writer.flush();
+        client.shutdownOutput();
+
+        assertEquals("OK\ta", reader.readLine());
+        assertEquals("OK\t3,6,2,1,3,0.6666666666666666,0", reader.readLine());
+        assertNull(reader.readLine());
+    }
+
+    @Test
+    void runWhenBinaryCommandServesFrames() throws IOException {
+        writer.println(protocol.getBinaryCommand());
+        writer.flush();
+        assertEquals(protocol.getBinaryAcknowledgement().toString(), reader.readLine());
+
+        final DataOutputStream out = new DataOutputStream(client.getOutputStream());
+        out.writeByte('-');
+        out.writeDouble(0.3);
+        out.writeDouble(0.1);
+        out.writeByte('%');
+        out.writeDouble(1);
+        out.writeDouble(1);
+        out.flush();
+
+        final DataInputStream in = new DataInputStream(client.getInputStream());
+        assertEquals(BinaryOperationProtocol.BINARY_STATUS_OK, in.readByte());
+        assertEquals(0, in.readByte());
+        assertEquals(0.3 - 0.1, in.readDouble());
+        assertEquals(BinaryOperationProtocol.BINARY_STATUS_ERR, in.readByte());
+        assertEquals(BinaryOperationProtocol.ResponseErrorType.INPUT_OPERATOR_IS_NOT_VALID.ordinal(), in.readByte());
+        assertTrue(Double.isNaN(in.readDouble()));
+    }
+}
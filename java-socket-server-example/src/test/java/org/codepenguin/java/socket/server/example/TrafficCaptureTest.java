@@ -0,0 +1,130 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 Codepenguin.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+
+package org.codepenguin.java.socket.server.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for {@link TrafficCapture}.
+ *
+ * @author Jorge Alfonso Garcia Espinosa
+ * @version 1.0-SNAPSHOT
+ * @since 1.8
+ */
+class TrafficCaptureTest {
+
+    private static final String LOCALHOST = "localhost";
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void tearDown() {
+        TrafficCapture.close();
+    }
+
+    @Test
+    void captureRecordsEverySessionEvent() throws IOException, InterruptedException {
+        final Path file = directory.resolve("traffic.capture");
+        TrafficCapture.configure(file);
+        final SocketServerThread session;
+        final Thread thread;
+        try (ServerSocket server = new ServerSocket(0);
+             Socket client = new Socket(LOCALHOST, server.getLocalPort())) {
+            session = new SocketServerThread(server.accept());
+            thread = new Thread(session);
+            thread.start();
+
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(client.getInputStream()));
+            reader.readLine();
+            final OutputStream out = client.getOutputStream();
+            out.write("1 + 2\n1\t?\\2\nQUIT\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            assertEquals("OK\t1 + 2\t3", reader.readLine());
+            assertEquals("ERR\tINPUT_MUST_HAVE_THREE_PARTS_ONLY", reader.readLine());
+            assertNull(reader.readLine());
+        }
+        thread.join();
+        TrafficCapture.close();
+
+        final List<String> events = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(7, events.size());
+        final String name = session.getName();
+        assertEvent(events.get(0), "START\t" + name + "\t");
+        assertEvent(events.get(1), "INPUT\t" + name + "\t", "\t1 + 2");
+        assertEvent(events.get(2), "OUTPUT\t" + name + "\t", "\tOK\t1 + 2\t3");
+        assertEvent(events.get(3), "INPUT\t" + name + "\t", "\t1\\t?\\\\2");
+        assertEvent(events.get(4), "OUTPUT\t" + name + "\t", "\tERR\tINPUT_MUST_HAVE_THREE_PARTS_ONLY");
+        assertEvent(events.get(5), "INPUT\t" + name + "\t", "\tQUIT");
+        assertEvent(events.get(6), "END\t" + name + "\t");
+
+        long previous = 0;
+        for (String event : events) {
+            final long micros = Long.parseLong(event.split("\t")[2]);
+            assertTrue(micros >= previous, event);
+            previous = micros;
+        }
+    }
+
+    @Test
+    void captureIsDisabledByDefault() {
+        assertFalse(TrafficCapture.isEnabled());
+        TrafficCapture.input("session", "1 + 2");
+        assertEquals(0, TrafficCapture.getWrittenEvents());
+    }
+
+    @Test
+    void escapeOnlyCopiesWhenNeeded() {
+        final String plain = "1 + 2";
+        assertSame(plain, TrafficCapture.escape(plain));
+        assertEquals("a\\tb\\\\c\\rd\\n", TrafficCapture.escape("a\tb\\c\rd\n"));
+    }
+
+    private static void assertEvent(final String event, final String prefix) {
+        assertTrue(event.startsWith(prefix), event);
+        Long.parseLong(event.substring(prefix.length()));
+    }
+
+    private static void assertEvent(final String event, final String prefix, final String suffix) {
+        assertTrue(event.startsWith(prefix) && event.endsWith(suffix), event);
+        Long.parseLong(event.substring(prefix.length(), event.length() - suffix.length()));
+    }
+}